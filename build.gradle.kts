@@ -4,6 +4,7 @@ plugins {
     alias(libs.plugins.paper.userdev) apply false
     alias(libs.plugins.shadow) apply false
     alias(libs.plugins.runpaper) apply false
+    alias(libs.plugins.jmh) apply false
 }
 
 project.extensions.configure<GradleEnterpriseExtension> {
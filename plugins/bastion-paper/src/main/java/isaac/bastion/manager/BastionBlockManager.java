@@ -7,6 +7,7 @@ import isaac.bastion.Permissions;
 import isaac.bastion.event.BastionDamageEvent;
 import isaac.bastion.event.BastionDamageEvent.Cause;
 import isaac.bastion.storage.BastionBlockStorage;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -21,7 +22,6 @@ import java.util.stream.Collectors;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.chat.hover.content.Text;
-import org.apache.commons.collections4.CollectionUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -39,6 +39,8 @@ public class BastionBlockManager {
 
     private HashMap<UUID, HashMap<String, Long>> cooldowns = new HashMap<>();
     private BastionBlockStorage storage;
+    // reused for every field lookup, all of them happen on the main thread
+    private final List<BastionBlock> fieldBuffer = new ArrayList<>();
 
     public BastionBlockManager() {
         storage = Bastion.getBastionStorage();
@@ -202,21 +204,27 @@ public class BastionBlockManager {
     }
 
     public Set<BastionBlock> getBlockingBastions(Location loc, Predicate<BastionBlock> filter) {
-        Set<BastionBlock> boxes = storage.forLocation(loc);
-        if (CollectionUtils.isEmpty(boxes)) {
+        List<BastionBlock> boxes = fieldBuffer;
+        boxes.clear();
+        storage.forLocation(loc, boxes);
+        if (boxes.isEmpty()) {
             return Collections.emptySet();
         }
-        Set<BastionBlock> result = new HashSet<>();
+        Set<BastionBlock> result = null;
         for (BastionBlock bastion : boxes) {
             if (filter != null && !filter.test(bastion)) {
                 continue;
             }
             if (bastion.inField(loc)) {
+                if (result == null) {
+                    result = new HashSet<>();
+                }
                 result.add(bastion);
             }
 
         }
-        return result;
+        boxes.clear();
+        return result == null ? Collections.emptySet() : result;
     }
 
     public boolean canListBastionsForGroup(Player player, Integer groupId) {
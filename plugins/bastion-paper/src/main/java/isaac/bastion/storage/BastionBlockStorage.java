@@ -11,6 +11,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -23,19 +24,23 @@ import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import vg.civcraft.mc.citadel.model.Reinforcement;
 import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
-import vg.civcraft.mc.civmodcore.world.locations.QTBox;
+import vg.civcraft.mc.civmodcore.world.locations.GridSpatialIndex;
 import vg.civcraft.mc.civmodcore.world.locations.SparseQuadTree;
+import vg.civcraft.mc.civmodcore.world.locations.SpatialIndex;
 
 public class BastionBlockStorage {
 
     private ManagedDatasource db;
     private Logger log;
 
-    private Map<World, SparseQuadTree<BastionBlock>> blocks;
+    private Map<World, SpatialIndex<BastionBlock>> blocks;
+    // reused for every field lookup, all of them happen on the main thread
+    private final List<BastionBlock> searchBuffer;
     private Set<BastionBlock> changed;
     private Set<BastionBlock> bastions;
     private Map<Integer, List<BastionBlock>> groups;
@@ -58,6 +63,7 @@ public class BastionBlockStorage {
         groups = new HashMap<>();
         dead = new HashMap<>();
         pendingBastions = new HashMap<>();
+        searchBuffer = new ArrayList<>();
         this.db = db;
         this.log = log;
         long saveDelay = 86400000 / Bastion.getPlugin().getConfig().getLong("mysql.savesPerDay", 64);
@@ -218,11 +224,11 @@ public class BastionBlockStorage {
     /**
      * Find bastions that intersect a location
      *
-     * @param loc The location to check
-     * @return A set of QTBoxes (bastions) that overlap with the location
+     * @param loc    The location to check
+     * @param result Collection to add the bastions that overlap with the location to, not cleared beforehand
      */
-    public Set<BastionBlock> forLocation(Location loc) {
-        return blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockZ());
+    public void forLocation(Location loc, Collection<? super BastionBlock> result) {
+        blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockZ(), false, result);
     }
 
     /**
@@ -233,27 +239,27 @@ public class BastionBlockStorage {
      * @return A set of bastions a pearl could collide with
      */
     public Set<BastionBlock> getPossibleTeleportBlocking(Location loc, double maxDistance) {
-        Set<BastionBlock> boxes = blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockY(), true);
+        List<BastionBlock> boxes = searchBuffer;
+        boxes.clear();
+        blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockZ(), true, boxes);
 
         double maxDistanceSquared = maxDistance * maxDistance;
         double maxBoxDistanceSquared = maxDistanceSquared * 2.0;
 
         Set<BastionBlock> result = new TreeSet<>();
 
-        for (QTBox box : boxes) {
-            if (box instanceof BastionBlock) {
-                BastionBlock bastion = (BastionBlock) box;
-                BastionType type = bastion.getType();
-                // Skip bastions who don't do midair blocking.
-                if (!type.isBlockPearls() || !type.isBlockMidair()) continue;
-                // Check on other conditions.
-                if (((type.isSquare() && bastion.getLocation().distanceSquared(loc) <= maxBoxDistanceSquared) ||
-                    (!type.isSquare() && bastion.getLocation().distanceSquared(loc) <= maxDistanceSquared)) &&
-                    (!type.isRequireMaturity() || bastion.isMature())) {
-                    result.add(bastion);
-                }
+        for (BastionBlock bastion : boxes) {
+            BastionType type = bastion.getType();
+            // Skip bastions who don't do midair blocking.
+            if (!type.isBlockPearls() || !type.isBlockMidair()) continue;
+            // Check on other conditions.
+            if (((type.isSquare() && bastion.getLocation().distanceSquared(loc) <= maxBoxDistanceSquared) ||
+                (!type.isSquare() && bastion.getLocation().distanceSquared(loc) <= maxDistanceSquared)) &&
+                (!type.isRequireMaturity() || bastion.isMature())) {
+                result.add(bastion);
             }
         }
+        boxes.clear();
         return result;
     }
 
@@ -265,31 +271,30 @@ public class BastionBlockStorage {
      * @return A set of bastions a flying player could collide with
      */
     public Set<BastionBlock> getPossibleFlightBlocking(double maxDistance, Location... locs) {
-        Set<BastionBlock> boxes = null;
+        List<BastionBlock> boxes = searchBuffer;
         Set<BastionBlock> result = new TreeSet<>();
         double maxDistanceSquared = maxDistance * maxDistance;
         double maxBoxDistanceSquared = maxDistanceSquared * 2.0;
 
         for (Location loc : locs) {
-            boxes = blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockZ(), true);
+            boxes.clear();
+            blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockZ(), true, boxes);
             Location yLoc = loc.clone();
 
-            for (QTBox box : boxes) {
-                if (box instanceof BastionBlock) {
-                    BastionBlock bastion = (BastionBlock) box;
-                    BastionType type = bastion.getType();
-                    // Don't add bastions that don't block flight
-                    if (!type.isBlockElytra()) continue;
-                    yLoc.setY(bastion.getLocation().getY());
-                    // Fixed for square field nearness, using diagonal distance as max -- (radius * sqrt(2)) ^ 2
-                    if (((type.isSquare() && bastion.getLocation().distanceSquared(yLoc) <= maxBoxDistanceSquared) ||
-                        (!type.isSquare() && bastion.getLocation().distanceSquared(yLoc) <= maxDistanceSquared)) &&
-                        (!type.isElytraRequireMature() || bastion.isMature())) {
-                        result.add(bastion);
-                    }
+            for (BastionBlock bastion : boxes) {
+                BastionType type = bastion.getType();
+                // Don't add bastions that don't block flight
+                if (!type.isBlockElytra()) continue;
+                yLoc.setY(bastion.getLocation().getY());
+                // Fixed for square field nearness, using diagonal distance as max -- (radius * sqrt(2)) ^ 2
+                if (((type.isSquare() && bastion.getLocation().distanceSquared(yLoc) <= maxBoxDistanceSquared) ||
+                    (!type.isSquare() && bastion.getLocation().distanceSquared(yLoc) <= maxDistanceSquared)) &&
+                    (!type.isElytraRequireMature() || bastion.isMature())) {
+                    result.add(bastion);
                 }
             }
         }
+        boxes.clear();
         return result;
     }
 
@@ -300,14 +305,18 @@ public class BastionBlockStorage {
      * @return The bastion block, can be null
      */
     public BastionBlock getBastionBlock(Location loc) {
-        Set<? extends QTBox> possible = forLocation(loc);
-        for (QTBox box : possible) {
-            BastionBlock bastion = (BastionBlock) box;
+        List<BastionBlock> possible = searchBuffer;
+        possible.clear();
+        blocks.get(loc.getWorld()).find(loc.getBlockX(), loc.getBlockZ(), false, possible);
+        BastionBlock found = null;
+        for (BastionBlock bastion : possible) {
             if (bastion.getLocation().equals(loc)) {
-                return bastion;
+                found = bastion;
+                break;
             }
         }
-        return null;
+        possible.clear();
+        return found;
     }
 
     /**
@@ -335,7 +344,7 @@ public class BastionBlockStorage {
     public void loadBastions() {
         int enderSearchRadius = EnderPearlManager.MAX_TELEPORT + 100;
         for (World world : Bukkit.getWorlds()) {
-            SparseQuadTree<BastionBlock> bastionsForWorld = new SparseQuadTree<>(enderSearchRadius);
+            SpatialIndex<BastionBlock> bastionsForWorld = createSpatialIndex(enderSearchRadius);
             blocks.put(world, bastionsForWorld);
             try (Connection conn = db.getConnection();
                  PreparedStatement ps = conn.prepareStatement("select * from bastion_blocks where loc_world=?;")) {
@@ -364,6 +373,26 @@ public class BastionBlockStorage {
         }
     }
 
+    /**
+     * Creates the spatial index used to look up bastion fields, either the
+     * default quad tree or a uniform grid, depending on the config
+     *
+     * @param borderSize Distance around each field included in border searches
+     * @return Empty spatial index
+     */
+    private SpatialIndex<BastionBlock> createSpatialIndex(int borderSize) {
+        ConfigurationSection config = Bastion.getPlugin().getConfig().getConfigurationSection("spatialIndex");
+        if (config == null || !"grid".equalsIgnoreCase(config.getString("type"))) {
+            return new SparseQuadTree<>(borderSize);
+        }
+        int cellSize = config.getInt("cellSize", GridSpatialIndex.DEFAULT_CELL_SIZE);
+        if (cellSize <= 0) {
+            log.warning("Invalid spatial index cell size " + cellSize + ", using " + GridSpatialIndex.DEFAULT_CELL_SIZE);
+            cellSize = GridSpatialIndex.DEFAULT_CELL_SIZE;
+        }
+        return new GridSpatialIndex<>(borderSize, cellSize);
+    }
+
     private void update() {
         int count = changed.size();
         for (BastionBlock block : changed) {
@@ -453,7 +482,7 @@ public class BastionBlockStorage {
         addBastion(bastion, blocks.get(bastion.getLocation().getWorld()));
     }
 
-    private void addBastion(BastionBlock bastion, SparseQuadTree<BastionBlock> bastionsForWorld) {
+    private void addBastion(BastionBlock bastion, SpatialIndex<BastionBlock> bastionsForWorld) {
         bastions.add(bastion);
         bastionsForWorld.add(bastion);
 
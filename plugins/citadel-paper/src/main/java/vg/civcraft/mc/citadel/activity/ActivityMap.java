@@ -2,6 +2,7 @@ package vg.civcraft.mc.citadel.activity;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -153,12 +154,8 @@ public class ActivityMap {
 
     private Instant getActivity(RegionCoord regionCoord, int groupId) {
         RegionData regionData = getRegion(regionCoord, true);
-
-        synchronized (regionData) {
-            GroupData groupData = regionData.get(groupId);
-            Instant activity = groupData != null ? groupData.activity : null;
-            return activity;
-        }
+        long activity = regionData.getActivity(groupId);
+        return activity == RegionData.NO_TIMESTAMP ? null : Instant.ofEpochMilli(activity);
     }
 
     private RegionData getRegion(RegionCoord regionCoord, boolean loadIfNotLoaded) {
@@ -177,10 +174,8 @@ public class ActivityMap {
 
             long start = System.nanoTime();
 
-            activityDB.select(regionCoord.worldId(), regionCoord.x(), regionCoord.z(), resolution, activityItem -> {
-                GroupData groupData = new GroupData(activityItem.activity());
-                regionData.put(activityItem.group(), groupData);
-            });
+            activityDB.select(regionCoord.worldId(), regionCoord.x(), regionCoord.z(), resolution, activityItem ->
+                regionData.updateActivity(activityItem.group(), activityItem.activity().toEpochMilli()));
 
             timePoll.pushTimeNano(System.nanoTime() - start);
 
@@ -213,14 +208,12 @@ public class ActivityMap {
                 continue;
             }
 
-            synchronized (regionData) {
-                for (int groupId : groups) {
-                    GroupData groupData = regionData.get(groupId);
-                    groupData.activity = activity;
+            long activityMillis = activity.toEpochMilli();
+            for (int groupId : groups) {
+                regionData.updateActivity(groupId, activityMillis);
 
-                    if (updateEntry) {
-                        groupData.entry = activity;
-                    }
+                if (updateEntry) {
+                    regionData.updateEntry(groupId, activityMillis);
                 }
             }
         }
@@ -229,8 +222,9 @@ public class ActivityMap {
     }
 
     private Map<RegionCoord, Set<Integer>> getUpdatedRegions() {
-        GroupManager groupManager = NameAPI.getGroupManager();
         Map<RegionCoord, Set<Integer>> regions = null;
+        // players usually queue many updates between two saves, their groups only need to be looked up once per save
+        Map<UUID, int[]> groupsByPlayer = new HashMap<>();
 
         PlayerUpdate playerUpdate;
         while ((playerUpdate = playerUpdates.poll()) != null) {
@@ -240,18 +234,33 @@ public class ActivityMap {
 
             Set<Integer> groups = regions.computeIfAbsent(playerUpdate.regionCoord(), a -> new HashSet<>());
 
-            List<String> groupNames = groupManager.getAllGroupNames(playerUpdate.playerId());
-            for (String groupName : groupNames) {
-                Group group = GroupManager.getGroup(groupName);
-                if (groupManager.hasAccess(group, playerUpdate.playerId(), CitadelPermissionHandler.getBypass())) {
-                    groups.add(group.getGroupId());
-                }
+            for (int groupId : groupsByPlayer.computeIfAbsent(playerUpdate.playerId(), this::getBypassGroups)) {
+                groups.add(groupId);
             }
         }
 
         return regions;
     }
 
+    /**
+     * Gets the IDs of all groups the given player has bypass permission for. The
+     * group names of a player are cached by NameLayer, which keeps them up to date
+     * as players join and leave groups
+     */
+    private int[] getBypassGroups(UUID playerId) {
+        GroupManager groupManager = NameAPI.getGroupManager();
+        List<String> groupNames = groupManager.getAllGroupNames(playerId);
+        int[] groupIds = new int[groupNames.size()];
+        int count = 0;
+        for (String groupName : groupNames) {
+            Group group = GroupManager.getGroup(groupName);
+            if (group != null && groupManager.hasAccess(group, playerId, CitadelPermissionHandler.getBypass())) {
+                groupIds[count++] = group.getGroupId();
+            }
+        }
+        return Arrays.copyOf(groupIds, count);
+    }
+
     private Map<RegionCoord, Set<Integer>> getExtendedRegions(Map<RegionCoord, Set<Integer>> regions) {
         Map<RegionCoord, Set<Integer>> extendedRegions = new HashMap<>();
 
@@ -293,14 +302,12 @@ public class ActivityMap {
             return false;
         }
 
-        Instant enteredPoint = Instant.now().minusMillis(entryRefreshAfterMs);
+        long enteredPoint = System.currentTimeMillis() - entryRefreshAfterMs;
 
-        synchronized (regionData) {
-            for (int groupId : groups) {
-                Instant entry = regionData.get(groupId).entry;
-                if (entry == null || entry.compareTo(enteredPoint) < 0) {
-                    return false;
-                }
+        for (int groupId : groups) {
+            long entry = regionData.getEntry(groupId);
+            if (entry == RegionData.NO_TIMESTAMP || entry < enteredPoint) {
+                return false;
             }
         }
 
@@ -313,17 +320,16 @@ public class ActivityMap {
             return false;
         }
 
-        Instant activePoint = Instant.now().minusMillis(radiusRefreshAfterMs);
+        long now = System.currentTimeMillis();
+        long activePoint = now - radiusRefreshAfterMs;
 
-        synchronized (regionData) {
-            for (int groupId : groups) {
-                GroupData groupData = regionData.get(groupId);
-                if (groupData.activity == null || groupData.activity.compareTo(activePoint) < 0) {
-                    return false;
-                }
-                if (updateEntry) {
-                    groupData.entry = Instant.now();
-                }
+        for (int groupId : groups) {
+            long activity = regionData.getActivity(groupId);
+            if (activity == RegionData.NO_TIMESTAMP || activity < activePoint) {
+                return false;
+            }
+            if (updateEntry) {
+                regionData.updateEntry(groupId, now);
             }
         }
 
@@ -356,10 +362,7 @@ public class ActivityMap {
 
                 RegionCoord regionCoord = getRegionCoordByChunk(chunkCoord);
                 RegionData regionData = getRegion(regionCoord, true);
-
-                synchronized (regionData) {
-                    regionData.addChunk(chunkCoord);
-                }
+                regionData.addChunk(chunkCoord);
             } catch (InterruptedException e) {
                 if (!disabled.get()) {
                     e.printStackTrace();
@@ -488,19 +491,17 @@ public class ActivityMap {
 
         for (Map<XZKey, RegionData> world : data.values()) {
             for (RegionData regionData : world.values()) {
-                synchronized (regionData) {
-                    if (regionData.isLoaded()) {
-                        loadedRegions++;
-                    } else {
-                        notLoadedRegions++;
-                    }
+                if (regionData.isLoaded()) {
+                    loadedRegions++;
+                } else {
+                    notLoadedRegions++;
+                }
 
-                    Set<Integer> groups = regionData.getGroups();
+                Set<Integer> groups = regionData.getGroups();
 
-                    uniqueGroups.addAll(regionData.getGroups());
+                uniqueGroups.addAll(groups);
 
-                    loadedActivities += groups.size();
-                }
+                loadedActivities += groups.size();
             }
         }
 
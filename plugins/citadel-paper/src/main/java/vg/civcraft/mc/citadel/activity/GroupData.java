@@ -1,13 +0,0 @@
-package vg.civcraft.mc.citadel.activity;
-
-import java.time.Instant;
-
-class GroupData {
-
-    public Instant activity;
-    public Instant entry;
-
-    public GroupData(Instant activity) {
-        this.activity = activity;
-    }
-}
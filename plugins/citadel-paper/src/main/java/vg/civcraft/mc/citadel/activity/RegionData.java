@@ -1,30 +1,135 @@
 package vg.civcraft.mc.citadel.activity;
 
-import java.util.HashMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Activity of all groups within one region. Timestamps are stored as epoch
+ * millis in arrays of primitives, one slot per group, and are updated with
+ * atomics, so reading and recording activity never locks.
+ * <p>
+ * Slots are stored in fixed size pages. Adding a group publishes a new slot
+ * index, but keeps all existing pages, so updates made through an older index
+ * are never lost. Adding groups and tracking chunks is synchronized on the
+ * instance.
+ */
 class RegionData {
 
-    private final Map<Integer, GroupData> data = new HashMap<>();
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int PAGE_SIZE = 16;
+
+    private static final class Slots {
+
+        private static final Slots EMPTY = new Slots(new Int2IntOpenHashMap(), new AtomicLongArray[0],
+            new AtomicLongArray[0]);
+
+        // never modified once published
+        private final Int2IntOpenHashMap slotByGroup;
+        private final AtomicLongArray[] activityPages;
+        private final AtomicLongArray[] entryPages;
+
+        private Slots(Int2IntOpenHashMap slotByGroup, AtomicLongArray[] activityPages,
+                      AtomicLongArray[] entryPages) {
+            this.slotByGroup = slotByGroup;
+            this.activityPages = activityPages;
+            this.entryPages = entryPages;
+            slotByGroup.defaultReturnValue(-1);
+        }
+    }
+
+    private volatile Slots slots = Slots.EMPTY;
     private final AtomicBoolean isLoaded = new AtomicBoolean();
     private final Set<ChunkCoord> chunks = new HashSet<>();
 
-    public void put(int groupId, GroupData groupData) {
-        data.put(groupId, groupData);
+    /**
+     * @param groupId ID of the group
+     * @return Last activity of the group in this region as epoch millis or
+     * {@link #NO_TIMESTAMP} if none is known
+     */
+    public long getActivity(int groupId) {
+        Slots current = slots;
+        int slot = current.slotByGroup.get(groupId);
+        return slot < 0 ? NO_TIMESTAMP : current.activityPages[slot / PAGE_SIZE].get(slot % PAGE_SIZE);
+    }
+
+    /**
+     * @param groupId ID of the group
+     * @return Last time a member of the group entered this region as epoch millis
+     * or {@link #NO_TIMESTAMP} if none is known
+     */
+    public long getEntry(int groupId) {
+        Slots current = slots;
+        int slot = current.slotByGroup.get(groupId);
+        return slot < 0 ? NO_TIMESTAMP : current.entryPages[slot / PAGE_SIZE].get(slot % PAGE_SIZE);
+    }
+
+    /**
+     * Records activity of the given group, unless a later activity is already known
+     *
+     * @param groupId ID of the group
+     * @param time    Time of the activity as epoch millis
+     */
+    public void updateActivity(int groupId, long time) {
+        int slot = getOrCreateSlot(groupId);
+        slots.activityPages[slot / PAGE_SIZE].accumulateAndGet(slot % PAGE_SIZE, time, Math::max);
+    }
+
+    /**
+     * Records an entry of the given group, unless a later entry is already known
+     *
+     * @param groupId ID of the group
+     * @param time    Time of the entry as epoch millis
+     */
+    public void updateEntry(int groupId, long time) {
+        int slot = getOrCreateSlot(groupId);
+        slots.entryPages[slot / PAGE_SIZE].accumulateAndGet(slot % PAGE_SIZE, time, Math::max);
+    }
+
+    private int getOrCreateSlot(int groupId) {
+        int slot = slots.slotByGroup.get(groupId);
+        if (slot >= 0) {
+            return slot;
+        }
+        synchronized (this) {
+            Slots current = slots;
+            slot = current.slotByGroup.get(groupId);
+            if (slot >= 0) {
+                return slot;
+            }
+            slot = current.slotByGroup.size();
+            Int2IntOpenHashMap slotByGroup = new Int2IntOpenHashMap(current.slotByGroup);
+            slotByGroup.put(groupId, slot);
+            AtomicLongArray[] activityPages = current.activityPages;
+            AtomicLongArray[] entryPages = current.entryPages;
+            if (slot / PAGE_SIZE >= activityPages.length) {
+                activityPages = Arrays.copyOf(activityPages, activityPages.length + 1);
+                entryPages = Arrays.copyOf(entryPages, entryPages.length + 1);
+                activityPages[activityPages.length - 1] = newPage();
+                entryPages[entryPages.length - 1] = newPage();
+            }
+            slots = new Slots(slotByGroup, activityPages, entryPages);
+            return slot;
+        }
     }
 
-    public GroupData get(int groupId) {
-        return data.computeIfAbsent(groupId, a -> new GroupData(null));
+    private static AtomicLongArray newPage() {
+        AtomicLongArray page = new AtomicLongArray(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.set(i, NO_TIMESTAMP);
+        }
+        return page;
     }
 
-    public void addChunk(ChunkCoord chunkCoord) {
+    public synchronized void addChunk(ChunkCoord chunkCoord) {
         chunks.add(chunkCoord);
     }
 
-    public boolean removeChunk(ChunkCoord chunkCoord) {
+    public synchronized boolean removeChunk(ChunkCoord chunkCoord) {
         chunks.remove(chunkCoord);
         return chunks.size() == 0;
     }
@@ -38,6 +143,6 @@ class RegionData {
     }
 
     public Set<Integer> getGroups() {
-        return data.keySet();
+        return slots.slotByGroup.keySet();
     }
 }
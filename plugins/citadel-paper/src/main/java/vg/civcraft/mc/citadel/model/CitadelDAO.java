@@ -7,10 +7,12 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -356,8 +358,6 @@ public class CitadelDAO extends TableStorageEngine<Reinforcement> {
 
     @Override
     public void fill(TableBasedBlockChunkMeta<Reinforcement> chunkData, Consumer<Reinforcement> insertFunction) {
-        int preMultipliedX = chunkData.getChunkCoord().getX() * 16;
-        int preMultipliedZ = chunkData.getChunkCoord().getZ() * 16;
         ReinforcementTypeManager typeMan = Citadel.getInstance().getReinforcementTypeManager();
         World world = chunkData.getChunkCoord().getWorld();
         try (Connection insertConn = db.getConnection();
@@ -369,25 +369,11 @@ public class CitadelDAO extends TableStorageEngine<Reinforcement> {
             selectRein.setShort(3, chunkData.getChunkCoord().getWorldID());
             try (ResultSet rs = selectRein.executeQuery()) {
                 while (rs.next()) {
-                    int xOffset = rs.getByte(1);
-                    int x = xOffset + preMultipliedX;
-                    int y = rs.getShort(2);
-                    int zOffset = rs.getByte(3);
-                    int z = zOffset + preMultipliedZ;
-                    Location location = new Location(world, x, y, z);
-                    short typeID = rs.getShort(4);
-                    ReinforcementType type = typeMan.getById(typeID);
-                    if (type == null) {
-                        logger.log(Level.SEVERE, "Failed to load reinforcement with type id " + typeID);
-                        continue;
+                    Reinforcement rein = readReinforcement(rs, 1, world, chunkData.getChunkCoord().getX(),
+                        chunkData.getChunkCoord().getZ(), typeMan);
+                    if (rein != null) {
+                        insertFunction.accept(rein);
                     }
-                    int groupID = rs.getInt(5);
-                    long creationTime = rs.getTimestamp(6).getTime();
-                    float health = rs.getFloat(7);
-                    boolean insecure = rs.getBoolean(8);
-                    Reinforcement rein = new Reinforcement(location, type, groupID, creationTime, health, insecure,
-                        false);
-                    insertFunction.accept(rein);
                 }
             }
         } catch (SQLException e) {
@@ -395,6 +381,74 @@ public class CitadelDAO extends TableStorageEngine<Reinforcement> {
         }
     }
 
+    @Override
+    public void fillAll(List<TableBasedBlockChunkMeta<Reinforcement>> chunkDatas,
+                        BiConsumer<TableBasedBlockChunkMeta<Reinforcement>, Reinforcement> insertFunction) {
+        if (chunkDatas.isEmpty()) {
+            return;
+        }
+        Map<XZWCoord, TableBasedBlockChunkMeta<Reinforcement>> chunksByCoord = new HashMap<>();
+        for (TableBasedBlockChunkMeta<Reinforcement> chunkData : chunkDatas) {
+            chunksByCoord.put(chunkData.getChunkCoord(), chunkData);
+        }
+        ReinforcementTypeManager typeMan = Citadel.getInstance().getReinforcementTypeManager();
+        World world = chunkDatas.get(0).getChunkCoord().getWorld();
+        short worldID = chunkDatas.get(0).getChunkCoord().getWorldID();
+        try (Connection insertConn = db.getConnection();
+             PreparedStatement selectRein = insertConn.prepareStatement(
+                 "select chunk_x, chunk_z, x_offset, y, z_offset, type_id, group_id, creation_time, health, insecure "
+                     + "from ctdl_reinforcements where world_id = ? and " + chunkListCondition(chunkDatas.size()) + ";");) {
+            selectRein.setShort(1, worldID);
+            int index = 2;
+            for (TableBasedBlockChunkMeta<Reinforcement> chunkData : chunkDatas) {
+                selectRein.setInt(index++, chunkData.getChunkCoord().getX());
+                selectRein.setInt(index++, chunkData.getChunkCoord().getZ());
+            }
+            try (ResultSet rs = selectRein.executeQuery()) {
+                while (rs.next()) {
+                    int chunkX = rs.getInt(1);
+                    int chunkZ = rs.getInt(2);
+                    TableBasedBlockChunkMeta<Reinforcement> chunkData = chunksByCoord.get(new XZWCoord(chunkX, chunkZ, worldID));
+                    if (chunkData == null) {
+                        continue;
+                    }
+                    Reinforcement rein = readReinforcement(rs, 3, world, chunkX, chunkZ, typeMan);
+                    if (rein != null) {
+                        insertFunction.accept(chunkData, rein);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load reinforcements from db: ", e);
+        }
+    }
+
+    /**
+     * Reads a reinforcement from the current row of a result set, whose columns
+     * starting at the given one are x_offset, y, z_offset, type_id, group_id,
+     * creation_time, health and insecure
+     *
+     * @return Reinforcement read or null if its type no longer exists
+     */
+    private Reinforcement readReinforcement(ResultSet rs, int column, World world, int chunkX, int chunkZ,
+                                            ReinforcementTypeManager typeMan) throws SQLException {
+        int x = rs.getByte(column) + chunkX * 16;
+        int y = rs.getShort(column + 1);
+        int z = rs.getByte(column + 2) + chunkZ * 16;
+        Location location = new Location(world, x, y, z);
+        short typeID = rs.getShort(column + 3);
+        ReinforcementType type = typeMan.getById(typeID);
+        if (type == null) {
+            logger.log(Level.SEVERE, "Failed to load reinforcement with type id " + typeID);
+            return null;
+        }
+        int groupID = rs.getInt(column + 4);
+        long creationTime = rs.getTimestamp(column + 5).getTime();
+        float health = rs.getFloat(column + 6);
+        boolean insecure = rs.getBoolean(column + 7);
+        return new Reinforcement(location, type, groupID, creationTime, health, insecure, false);
+    }
+
     @Override
     public Collection<XZWCoord> getAllDataChunks() {
         List<XZWCoord> result = new ArrayList<>();
@@ -1,5 +1,6 @@
 plugins {
     id("io.papermc.paperweight.userdev")
+    id("me.champeau.jmh")
 }
 
 version = "2.2.2"
@@ -11,4 +12,11 @@ dependencies {
 
     compileOnly(project(":plugins:civmodcore-paper"))
     compileOnly(project(":plugins:namelayer-paper"))
+
+    jmhImplementation(libs.paper.api)
+    jmhImplementation(libs.fastutil)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
 }
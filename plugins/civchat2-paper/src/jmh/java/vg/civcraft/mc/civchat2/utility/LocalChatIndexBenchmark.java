@@ -0,0 +1,158 @@
+package vg.civcraft.mc.civchat2.utility;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost per local chat message of finding the players in range, comparing the {@link LocalChatIndex}
+ * against looking at every online player as was done before, and the cost of keeping the index up to date per
+ * player movement.
+ * <p>
+ * Players are stand-ins only answering for their location. Half of them are spread over a 20000 by 20000 block world,
+ * the other half gathered around a few towns, the range is the default local chat range.
+ * <p>
+ * Run with {@code ./gradlew :plugins:civchat2-paper:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalChatIndexBenchmark {
+
+    private static final int WORLD_RADIUS = 10_000;
+    private static final int TOWNS = 20;
+    private static final int TOWN_RADIUS = 300;
+    private static final int RANGE = 1000;
+    private static final int SENDERS = 1024;
+
+    @Param({"200", "1000"})
+    public int online;
+
+    private World world;
+    private Location[] locations;
+    private Player[] players;
+    private List<Player> everyone;
+    private LocalChatIndex index;
+    private Location scratch;
+    private int nextSender;
+    private int nextMover;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        UUID worldId = UUID.randomUUID();
+        world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUID" -> worldId;
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> worldId.hashCode();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        int[][] towns = new int[TOWNS][];
+        for (int i = 0; i < TOWNS; i++) {
+            towns[i] = new int[]{coordinate(random, WORLD_RADIUS), coordinate(random, WORLD_RADIUS)};
+        }
+        locations = new Location[online];
+        players = new Player[online];
+        index = new LocalChatIndex();
+        for (int i = 0; i < online; i++) {
+            if (i % 2 == 0) {
+                locations[i] = new Location(world, coordinate(random, WORLD_RADIUS), 64,
+                    coordinate(random, WORLD_RADIUS));
+            } else {
+                int[] town = towns[random.nextInt(TOWNS)];
+                locations[i] = new Location(world, town[0] + coordinate(random, TOWN_RADIUS), 64,
+                    town[1] + coordinate(random, TOWN_RADIUS));
+            }
+            players[i] = player(locations[i]);
+            index.playerJoined(players[i]);
+        }
+        everyone = List.of(players);
+        scratch = new Location(null, 0, 0, 0);
+    }
+
+    private static int coordinate(Random random, int radius) {
+        return random.nextInt(2 * radius) - radius;
+    }
+
+    private Player player(Location location) {
+        UUID uuid = UUID.randomUUID();
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getUniqueId" -> uuid;
+                case "getWorld" -> world;
+                case "getLocation" -> {
+                    if (args == null) {
+                        yield location.clone();
+                    }
+                    Location target = (Location) args[0];
+                    target.setWorld(world);
+                    target.setX(location.getX());
+                    target.setY(location.getY());
+                    target.setZ(location.getZ());
+                    yield target;
+                }
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> uuid.hashCode();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private Location nextSender() {
+        nextSender = (nextSender + 1) & (SENDERS - 1);
+        return locations[nextSender % online];
+    }
+
+    private int countInRange(Location center, Iterable<Player> candidates) {
+        double rangeSquared = (double) RANGE * RANGE;
+        int inRange = 0;
+        for (Player receiver : candidates) {
+            receiver.getLocation(scratch);
+            if (center.getWorld().equals(scratch.getWorld()) && center.distanceSquared(scratch) <= rangeSquared) {
+                inRange++;
+            }
+        }
+        return inRange;
+    }
+
+    @Benchmark
+    public int scanAll() {
+        return countInRange(nextSender(), everyone);
+    }
+
+    @Benchmark
+    public int indexed() {
+        Location center = nextSender();
+        return countInRange(center, index.getPlayersNear(center, RANGE));
+    }
+
+    /**
+     * One block of movement by one player, which only occasionally crosses into another cell.
+     */
+    @Benchmark
+    public void move() {
+        nextMover = (nextMover + 1) % online;
+        Location location = locations[nextMover];
+        location.setX(location.getX() + 1);
+        index.playerMoved(players[nextMover], location);
+    }
+}
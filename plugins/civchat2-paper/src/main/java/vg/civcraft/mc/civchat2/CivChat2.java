@@ -1,5 +1,6 @@
 package vg.civcraft.mc.civchat2;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -45,7 +46,8 @@ public class CivChat2 extends ACivMod {
         config = new CivChat2Config(getConfig());
         log = new CivChat2Log();
         log.initializeLogger(instance);
-        fileLog = new CivChat2FileLogger();
+        fileLog = new CivChat2FileLogger(new File(getDataFolder(), "chatlogs"), config.isChatLogEnabled(),
+            config.getChatLogQueueSize(), getLogger());
         databaseManager = new CivChatDAO();
         settingsManager = new CivChat2SettingsManager();
 
@@ -66,6 +68,9 @@ public class CivChat2 extends ACivMod {
 
     @Override
     public void onDisable() {
+        if (fileLog != null) {
+            fileLog.shutdown();
+        }
     }
 
     public CivChat2Manager getCivChat2Manager() {
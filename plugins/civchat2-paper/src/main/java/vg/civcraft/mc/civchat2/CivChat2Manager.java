@@ -4,8 +4,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +24,8 @@ import vg.civcraft.mc.civchat2.event.GroupChatEvent;
 import vg.civcraft.mc.civchat2.event.PrivateMessageEvent;
 import vg.civcraft.mc.civchat2.utility.CivChat2Config;
 import vg.civcraft.mc.civchat2.utility.CivChat2FileLogger;
+import vg.civcraft.mc.civchat2.utility.GroupChatIndex;
+import vg.civcraft.mc.civchat2.utility.LocalChatIndex;
 import vg.civcraft.mc.civchat2.utility.ScoreboardHUD;
 import vg.civcraft.mc.civmodcore.chat.ChatUtils;
 import vg.civcraft.mc.civmodcore.utilities.TextUtil;
@@ -63,6 +65,10 @@ public class CivChat2Manager {
 
     private final ServerBroadcaster broadcaster;
 
+    private final LocalChatIndex localChatIndex;
+
+    private final GroupChatIndex groupChatIndex;
+
     public CivChat2Manager(CivChat2 pluginInstance, ServerBroadcaster broadcaster) {
 
         instance = pluginInstance;
@@ -76,6 +82,11 @@ public class CivChat2Manager {
         replyList = new HashMap<>();
         afkPlayers = new HashMap<>();
         scoreboardHUD = new ScoreboardHUD();
+        localChatIndex = new LocalChatIndex();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            localChatIndex.playerJoined(player);
+        }
+        groupChatIndex = new GroupChatIndex();
     }
 
     /**
@@ -163,7 +174,7 @@ public class CivChat2Manager {
             sender.sendMessage(parse(ChatStrings.chatNeedToUnignore, receiverName));
             return;
         }
-        chatLog.logPrivateMessage(sender, chatMessage, receiver.getName());
+        chatLog.logPrivateMessage(sender, chatMessage, receiver);
         replyList.put(receiver.getUniqueId(), sender.getUniqueId());
         replyList.put(sender.getUniqueId(), receiver.getUniqueId());
         sender.sendMessage(senderMessage);
@@ -214,36 +225,66 @@ public class CivChat2Manager {
             range = newRange;
         }
 
-        Set<String> receivers = new HashSet<>();
+        String senderName = customNames.containsKey(sender.getUniqueId())
+            ? customNames.get(sender.getUniqueId())
+            : sender.getDisplayName();
+        TextComponent text = new TextComponent(String.format(messageFormat, senderName + ChatColor.RESET, ""));
+        boolean dynamicColoring = config.useDynamicRangeColoring();
+        // message parts by colour band, every receiver in the same band gets the same one
+        Map<Object, TextComponent> msgParts = new HashMap<>();
+
+        // Without a range everyone gets it, otherwise only look at the players around the sender
+        Collection<Player> candidates = range <= 0 ? recipients : localChatIndex.getPlayersNear(location, range);
+        double rangeSquared = (double) range * range;
+        Location receiverLocation = new Location(null, 0, 0, 0);
+
+        boolean logging = chatLog.isLogging();
+        List<UUID> receivers = new ArrayList<>();
         // Loop through players and send to those that are close enough
-        for (Player receiver : recipients) {
-            if (!DBM.isIgnoringPlayer(receiver.getUniqueId(), sender.getUniqueId())) {
-                if (range <= 0 || receiver.getWorld().equals(sender.getWorld())) {
-                    double receiverDistance = range <= 0 ? 0 : location.distance(receiver.getLocation());
-                    if (receiverDistance <= range) {
-                        net.md_5.bungee.api.ChatColor newColor;
-                        if (config.useDynamicRangeColoring()) {
-                            int comp = (int) (255 - (128.0 * receiverDistance) / range);
-                            newColor = net.md_5.bungee.api.ChatColor.of(new Color(comp, comp, comp));
-                        } else {
-                            newColor = net.md_5.bungee.api.ChatColor.of(config.getColorAtDistance(receiverDistance));
-                        }
-                        newColor = newColor != null ? newColor : net.md_5.bungee.api.ChatColor.of(defaultColor);
-
-                        String senderName = customNames.containsKey(sender.getUniqueId())
-                            ? customNames.get(sender.getUniqueId())
-                            : sender.getDisplayName();
-                        TextComponent text = new TextComponent(String.format(messageFormat, senderName + ChatColor.RESET, ""));
-                        TextComponent msgPart = new TextComponent(chatMessage);
-                        msgPart.setColor(newColor);
-                        receiver.spigot().sendMessage(text, msgPart);
-                        receivers.add(receiver.getName());
-                    }
+        for (Player receiver : candidates) {
+            if (range > 0 && !recipients.contains(receiver)) {
+                continue;
+            }
+            if (DBM.isIgnoringPlayer(receiver.getUniqueId(), sender.getUniqueId())) {
+                continue;
+            }
+            double receiverDistance = 0;
+            if (range > 0) {
+                receiver.getLocation(receiverLocation);
+                if (!location.getWorld().equals(receiverLocation.getWorld())) {
+                    continue;
+                }
+                double distanceSquared = location.distanceSquared(receiverLocation);
+                if (distanceSquared > rangeSquared) {
+                    continue;
                 }
+                receiverDistance = Math.sqrt(distanceSquared);
+            }
+
+            TextComponent msgPart;
+            if (dynamicColoring) {
+                int comp = (int) (255 - (128.0 * receiverDistance) / range);
+                msgPart = msgParts.computeIfAbsent(comp,
+                    k -> createMessagePart(chatMessage, net.md_5.bungee.api.ChatColor.of(new Color(comp, comp, comp))));
+            } else {
+                String color = config.getColorAtDistance(receiverDistance);
+                msgPart = msgParts.computeIfAbsent(color,
+                    k -> createMessagePart(chatMessage, net.md_5.bungee.api.ChatColor.of(color)));
+            }
+            receiver.spigot().sendMessage(text, msgPart);
+            if (logging && receiver != sender) {
+                receivers.add(receiver.getUniqueId());
             }
         }
-        receivers.remove(sender.getName());
-        chatLog.logGlobalMessage(sender, chatMessage, receivers);
+        if (logging) {
+            chatLog.logGlobalMessage(sender, chatMessage, receivers);
+        }
+    }
+
+    private TextComponent createMessagePart(String chatMessage, net.md_5.bungee.api.ChatColor color) {
+        TextComponent msgPart = new TextComponent(chatMessage);
+        msgPart.setColor(color != null ? color : net.md_5.bungee.api.ChatColor.of(defaultColor));
+        return msgPart;
     }
 
     /**
@@ -374,8 +415,10 @@ public class CivChat2Manager {
 
         String senderName = customNames.containsKey(sender.getUniqueId()) ? customNames.get(sender.getUniqueId())
             : sender.getDisplayName();
-        Set<String> players = doSendGroupMsg(sender.getUniqueId(), senderName, group, message);
-        chatLog.logGroupMessage(sender, message, group.getName(), players);
+        List<Player> members = doSendGroupMsg(sender.getUniqueId(), senderName, group, message);
+        if (chatLog.isLogging()) {
+            chatLog.logGroupMessage(sender, message, group.getName(), getReceiverIds(members, sender.getUniqueId()));
+        }
         broadcaster.broadcastGroup(sender.getUniqueId(), sender.getName(), senderName, group.getName(), message);
     }
 
@@ -384,18 +427,20 @@ public class CivChat2Manager {
         if (group == null) {
             return;
         }
-        Set<String> players = doSendGroupMsg(senderId, senderDisplayName, group, message);
-        chatLog.logRemoteGroupMessage(senderName, message, group.getName(), players);
+        List<Player> members = doSendGroupMsg(senderId, senderDisplayName, group, message);
+        if (chatLog.isLogging()) {
+            chatLog.logRemoteGroupMessage(senderName, message, group.getName(), getReceiverIds(members, senderId));
+        }
     }
 
-    private Set<String> doSendGroupMsg(UUID senderId, String senderName, Group group, String message) {
+    /**
+     * @return All online members which may read the group chat
+     */
+    private List<Player> doSendGroupMsg(UUID senderId, String senderName, Group group, String message) {
         List<Player> members = new ArrayList<>();
-        List<UUID> membersUUID = group.getAllMembers();
-        for (UUID uuid : membersUUID) {
-            // Only add online players to members
-            Player toAdd = Bukkit.getPlayer(uuid);
-            if (toAdd != null && toAdd.isOnline() && NameAPI.getGroupManager().hasAccess(group, toAdd.getUniqueId(),
-                PermissionType.getPermission("READ_CHAT"))) {
+        PermissionType readChat = PermissionType.getPermission("READ_CHAT");
+        for (Player toAdd : groupChatIndex.getOnlineMembers(group)) {
+            if (NameAPI.getGroupManager().hasAccess(group, toAdd.getUniqueId(), readChat)) {
                 members.add(toAdd);
             }
         }
@@ -411,12 +456,16 @@ public class CivChat2Manager {
             }
             receiver.sendMessage(formatted);
         }
+        return members;
+    }
 
-        Set<String> players = new HashSet<>();
+    private List<UUID> getReceiverIds(List<Player> members, UUID senderId) {
+        List<UUID> players = new ArrayList<>(members.size());
         for (Player player : members) {
-            players.add(NameAPI.getCurrentName(player.getUniqueId()));
+            if (!player.getUniqueId().equals(senderId)) {
+                players.add(player.getUniqueId());
+            }
         }
-        players.remove(senderName);
         return players;
     }
 
@@ -464,6 +513,14 @@ public class CivChat2Manager {
         customNames.remove(player);
     }
 
+    public LocalChatIndex getLocalChatIndex() {
+        return localChatIndex;
+    }
+
+    public GroupChatIndex getGroupChatIndex() {
+        return groupChatIndex;
+    }
+
     public ScoreboardHUD getScoreboardHUD() {
         return scoreboardHUD;
     }
@@ -4,15 +4,21 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerKickEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 import vg.civcraft.mc.civchat2.CivChat2;
 import vg.civcraft.mc.civchat2.CivChat2Manager;
@@ -55,6 +61,8 @@ public class CivChat2Listener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerQuit(PlayerQuitEvent playerQuitEvent) {
         playerQuitEvent.quitMessage(null);
+        chatman.getLocalChatIndex().playerLeft(playerQuitEvent.getPlayer());
+        chatman.getGroupChatIndex().playerLeft(playerQuitEvent.getPlayer());
         for (Player p : Bukkit.getOnlinePlayers()) {
             if (settings.getShowLeaves(p.getUniqueId()) && !db.isIgnoringPlayer(p.getUniqueId(), playerQuitEvent.getPlayer().getUniqueId())) {
                 if (playerQuitEvent.getPlayer().hasPermission("civchat2.leavejoinimmune")) {
@@ -79,6 +87,9 @@ public class CivChat2Listener implements Listener {
             }
         }
 
+        chatman.getLocalChatIndex().playerJoined(playerJoinEvent.getPlayer());
+        chatman.getGroupChatIndex().playerJoined(playerJoinEvent.getPlayer());
+
         UUID player = chatman.getChannel(playerJoinEvent.getPlayer());
         if (player != null && Bukkit.getPlayer(player) == null) {
             chatman.removeChannel(playerJoinEvent.getPlayer());
@@ -101,6 +112,36 @@ public class CivChat2Listener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent playerMoveEvent) {
+        chatman.getLocalChatIndex().playerMoved(playerMoveEvent.getPlayer(), playerMoveEvent.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent playerTeleportEvent) {
+        chatman.getLocalChatIndex().playerMoved(playerTeleportEvent.getPlayer(), playerTeleportEvent.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent playerChangedWorldEvent) {
+        chatman.getLocalChatIndex().playerJoined(playerChangedWorldEvent.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent playerRespawnEvent) {
+        chatman.getLocalChatIndex().playerMoved(playerRespawnEvent.getPlayer(), playerRespawnEvent.getRespawnLocation());
+    }
+
+    // players riding something don't move themselves
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent vehicleMoveEvent) {
+        for (Entity passenger : vehicleMoveEvent.getVehicle().getPassengers()) {
+            if (passenger instanceof Player player) {
+                chatman.getLocalChatIndex().playerMoved(player, vehicleMoveEvent.getTo());
+            }
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerKick(PlayerKickEvent playerKickEvent) {
         playerKickEvent.setLeaveMessage("You have been kicked");
@@ -86,6 +86,14 @@ public class CivChat2Config {
         return config.getString("chat.globalGroup", null);
     }
 
+    public boolean isChatLogEnabled() {
+        return config.getBoolean("chatLog.enabled", true);
+    }
+
+    public int getChatLogQueueSize() {
+        return config.getInt("chatLog.queueSize", 10000);
+    }
+
     public boolean isJoinGlobalGroupByDefault() {
         return config.getBoolean("chat.joinGlobalGroupByDefault", false);
     }
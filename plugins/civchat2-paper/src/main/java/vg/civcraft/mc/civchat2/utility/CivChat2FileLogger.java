@@ -1,74 +1,263 @@
 package vg.civcraft.mc.civchat2.utility;
 
-import java.util.Set;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 
+/**
+ * Logs chat messages to chatlogs/chat.log in the plugin folder, one JSON object per line.
+ * <p>
+ * Logging only queues a compact record of the message, formatting and writing happens in batches on a separate thread.
+ * The log is rotated daily, older logs are kept gzipped as chat-&lt;date&gt;.log.gz. If the writer can't keep up and
+ * the queue is full, further messages are dropped from the log and counted instead of holding up the server.
+ */
 public class CivChat2FileLogger {
 
-    private Logger logger;
+    private static final int BATCH_SIZE = 512;
+    private static final String CURRENT_LOG = "chat.log";
 
-    public CivChat2FileLogger() {
+    private record LogEntry(long time, String channel, String sender, UUID senderId, Location location,
+                            String group, String receiver, UUID[] receivers, String message) {
+    }
+
+    private final boolean enabled;
+    private final File folder;
+    private final Logger logger;
+    private final BlockingQueue<LogEntry> queue;
+    private final AtomicLong dropped;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    // only used by the writer thread
+    private Writer writer;
+    private LocalDate writerDate;
+    private long reportedDrops;
+
+    public CivChat2FileLogger(File folder, boolean enabled, int queueSize, Logger logger) {
+        this.enabled = enabled;
+        this.folder = folder;
+        this.logger = logger;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.dropped = new AtomicLong();
+        this.writerThread = new Thread(this::run, "CivChat2 chat log writer");
+        this.writerThread.setDaemon(true);
+        this.running = enabled;
+        if (enabled) {
+            writerThread.start();
+        }
+    }
 
-        logger = LogManager.getLogger("ChatLogs");
+    /**
+     * @return Whether chat messages are actually logged, so callers can skip collecting what to log otherwise
+     */
+    public boolean isLogging() {
+        return enabled;
     }
 
-    public void logGlobalMessage(Player sender, String message, Set<String> receivers) {
+    /**
+     * @return Amount of messages dropped from the log so far, because the writer couldn't keep up or failed to write
+     * them
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
 
-        String reciversNames = getPlayersNames(receivers);
-        Location playerLocation = sender.getLocation();
-        String messageToLog = String.format(
-            "Sender: [%s], Message: [%s], Location: [%d, %d, %d], Channel: [GLOBAL], Receivers: [%s]",
-            sender.getName(), message, playerLocation.getBlockX(), playerLocation.getBlockY(),
-            playerLocation.getBlockZ(), reciversNames);
-        logger.info(messageToLog);
+    public void logGlobalMessage(Player sender, String message, Collection<UUID> receivers) {
+        enqueue(new LogEntry(System.currentTimeMillis(), "GLOBAL", sender.getName(), sender.getUniqueId(),
+            sender.getLocation(), null, null, receivers.toArray(new UUID[0]), message));
     }
 
     public void logRemotePrivateMessage(String sender, String message, String receiverName) {
-        String messageToLog = String.format(
-            "Sender: [%s], Message: [%s], Location: REMOTE, Channel: [PRIVATE], Receiver: [%s]",
-            sender, message, receiverName);
-        logger.info(messageToLog);
+        enqueue(new LogEntry(System.currentTimeMillis(), "PRIVATE", sender, null, null, null, receiverName, null,
+            message));
     }
 
-    public void logPrivateMessage(Player sender, String message, String receiverName) {
-        Location playerLocation = sender.getLocation();
-        String messageToLog = String.format(
-            "Sender: [%s], Message: [%s], Location: [%d, %d, %d], Channel: [PRIVATE], Receiver: [%s]",
-            sender.getName(), message, playerLocation.getBlockX(), playerLocation.getBlockY(),
-            playerLocation.getBlockZ(), receiverName);
-        logger.info(messageToLog);
+    public void logPrivateMessage(Player sender, String message, Player receiver) {
+        enqueue(new LogEntry(System.currentTimeMillis(), "PRIVATE", sender.getName(), sender.getUniqueId(),
+            sender.getLocation(), null, receiver.getName(), new UUID[]{receiver.getUniqueId()}, message));
     }
 
-    public void logRemoteGroupMessage(String sender, String message, String groupName, Set<String> receivers) {
-        String reciversNames = getPlayersNames(receivers);
-        String messageToLog = String.format(
-            "Sender: [%s], Message: [%s], Location: REMOTE, Channel: [GROUP], GroupName: [%s], Receivers: [%s]",
-            sender, message, groupName, reciversNames);
-        logger.info(messageToLog);
+    public void logRemoteGroupMessage(String sender, String message, String groupName, Collection<UUID> receivers) {
+        enqueue(new LogEntry(System.currentTimeMillis(), "GROUP", sender, null, null, groupName, null,
+            receivers.toArray(new UUID[0]), message));
     }
 
-    public void logGroupMessage(Player sender, String message, String groupName, Set<String> receivers) {
-        String reciversNames = getPlayersNames(receivers);
-        Location playerLocation = sender.getLocation();
-        String messageToLog = String.format(
-            "Sender: [%s], Message: [%s], Location: [%d, %d, %d], Channel: [GROUP], GroupName: [%s], Receivers: [%s]",
-            sender.getName(), message, playerLocation.getBlockX(), playerLocation.getBlockY(),
-            playerLocation.getBlockZ(), groupName, reciversNames);
-        logger.info(messageToLog);
+    public void logGroupMessage(Player sender, String message, String groupName, Collection<UUID> receivers) {
+        enqueue(new LogEntry(System.currentTimeMillis(), "GROUP", sender.getName(), sender.getUniqueId(),
+            sender.getLocation(), groupName, null, receivers.toArray(new UUID[0]), message));
     }
 
-    private String getPlayersNames(Set<String> players) {
+    private void enqueue(LogEntry entry) {
+        if (!running) {
+            return;
+        }
+        if (!queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
 
-        StringBuilder builder = new StringBuilder();
-        for (String player : players) {
-            builder.append(player).append(", ");
+    /**
+     * Writes out everything still queued and stops the writer.
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warning("Timed out writing the chat log, " + queue.size() + " messages were not logged");
+        }
+    }
+
+    private void run() {
+        List<LogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                LogEntry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            try {
+                writeBatch(batch);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to write " + batch.size() + " messages to the chat log", e);
+                dropped.addAndGet(batch.size());
+                closeWriter();
+            }
+            batch.clear();
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                logger.warning("Dropped " + (drops - reportedDrops) + " messages from the chat log (" + drops
+                    + " in total)");
+                reportedDrops = drops;
+            }
+        }
+        closeWriter();
+    }
+
+    private void writeBatch(List<LogEntry> batch) throws IOException {
+        LocalDate today = LocalDate.now();
+        if (writer == null || !today.equals(writerDate)) {
+            openWriter(today);
+        }
+        for (LogEntry entry : batch) {
+            writer.write(toJson(entry).toString());
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static JsonObject toJson(LogEntry entry) {
+        JsonObject json = new JsonObject();
+        json.addProperty("time", Instant.ofEpochMilli(entry.time()).toString());
+        json.addProperty("channel", entry.channel());
+        json.addProperty("sender", entry.sender());
+        if (entry.senderId() != null) {
+            json.addProperty("senderId", entry.senderId().toString());
+        }
+        if (entry.location() == null) {
+            json.addProperty("location", "REMOTE");
+        } else {
+            JsonArray location = new JsonArray();
+            location.add(entry.location().getBlockX());
+            location.add(entry.location().getBlockY());
+            location.add(entry.location().getBlockZ());
+            json.add("location", location);
+        }
+        if (entry.group() != null) {
+            json.addProperty("group", entry.group());
+        }
+        if (entry.receiver() != null) {
+            json.addProperty("receiver", entry.receiver());
+        }
+        if (entry.receivers() != null) {
+            JsonArray receivers = new JsonArray();
+            for (UUID receiver : entry.receivers()) {
+                receivers.add(receiver.toString());
+            }
+            json.add("receivers", receivers);
+        }
+        json.addProperty("message", entry.message());
+        return json;
+    }
+
+    private void openWriter(LocalDate today) throws IOException {
+        closeWriter();
+        folder.mkdirs();
+        File current = new File(folder, CURRENT_LOG);
+        if (current.exists()) {
+            LocalDate lastWritten = Instant.ofEpochMilli(current.lastModified()).atZone(ZoneId.systemDefault())
+                .toLocalDate();
+            if (!lastWritten.equals(today)) {
+                rotate(current, lastWritten);
+            }
+        }
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(current, true),
+            StandardCharsets.UTF_8));
+        writerDate = today;
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close the chat log", e);
+        }
+        writer = null;
+    }
+
+    /**
+     * Compresses a finished log into chat-&lt;date&gt;.log.gz and removes it.
+     */
+    private void rotate(File log, LocalDate date) throws IOException {
+        File rotated = new File(folder, "chat-" + date + ".log.gz");
+        for (int i = 1; rotated.exists(); i++) {
+            rotated = new File(folder, "chat-" + date + "-" + i + ".log.gz");
+        }
+        try (InputStream in = new FileInputStream(log);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(rotated))) {
+            in.transferTo(out);
         }
-        if (players.size() > 0) {
-            builder.deleteCharAt(builder.length() - 2);
+        if (!log.delete()) {
+            throw new IOException("Failed to remove rotated chat log " + log);
         }
-        return builder.toString();
     }
 }
@@ -0,0 +1,80 @@
+package vg.civcraft.mc.civchat2.utility;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import vg.civcraft.mc.namelayer.GroupManager;
+import vg.civcraft.mc.namelayer.group.Group;
+
+/**
+ * Keeps track of the online members of each group chatted in, so sending a group message only has to look at the
+ * members which are online instead of every member of the group.
+ * <p>
+ * Online members of a group are looked up the first time a message is sent to it and kept up to date as players join
+ * and leave. Everything is dropped once NameLayer reports a membership change. Must only be used from the main thread.
+ */
+public class GroupChatIndex {
+
+    private record OnlineMembers(Group group, List<Player> players) {
+    }
+
+    private final Map<String, OnlineMembers> onlineMembers;
+    private int membershipVersion;
+
+    public GroupChatIndex() {
+        this.onlineMembers = new HashMap<>();
+        this.membershipVersion = GroupManager.getMembershipVersion();
+    }
+
+    /**
+     * Gets all online members of a group. Does not check whether they may read the group chat.
+     *
+     * @param group Group to get online members of
+     * @return Online members of the group, must not be modified
+     */
+    public List<Player> getOnlineMembers(Group group) {
+        checkMembershipVersion();
+        String key = group.getName().toLowerCase();
+        OnlineMembers members = onlineMembers.get(key);
+        // the group instance changes when NameLayer reloads it
+        if (members == null || members.group() != group) {
+            List<Player> players = new ArrayList<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (group.isMember(player.getUniqueId())) {
+                    players.add(player);
+                }
+            }
+            members = new OnlineMembers(group, players);
+            onlineMembers.put(key, members);
+        }
+        return members.players();
+    }
+
+    public void playerJoined(Player player) {
+        checkMembershipVersion();
+        UUID uuid = player.getUniqueId();
+        for (OnlineMembers members : onlineMembers.values()) {
+            if (members.group().isMember(uuid)) {
+                members.players().add(player);
+            }
+        }
+    }
+
+    public void playerLeft(Player player) {
+        for (OnlineMembers members : onlineMembers.values()) {
+            members.players().remove(player);
+        }
+    }
+
+    private void checkMembershipVersion() {
+        int version = GroupManager.getMembershipVersion();
+        if (version != membershipVersion) {
+            onlineMembers.clear();
+            membershipVersion = version;
+        }
+    }
+}
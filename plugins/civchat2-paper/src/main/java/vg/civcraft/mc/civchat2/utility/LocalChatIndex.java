@@ -0,0 +1,144 @@
+package vg.civcraft.mc.civchat2.utility;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+/**
+ * Buckets online players by area, so local chat only has to look at players near the sender.
+ * <p>
+ * Players are bucketed into cells of 8 by 8 chunks. The index is kept up to date as players join, leave and move,
+ * a player only changes bucket when they cross into another cell or world. Must only be used from the main thread.
+ */
+public class LocalChatIndex {
+
+    // 128 blocks, 8 by 8 chunks
+    private static final int CELL_SHIFT = 7;
+
+    private static final class Position {
+
+        private UUID world;
+        private long cell;
+        private List<Player> bucket;
+    }
+
+    private final Map<UUID, Long2ObjectOpenHashMap<List<Player>>> cellsByWorld;
+    private final Map<UUID, Position> positions;
+    private final Location scratch;
+
+    public LocalChatIndex() {
+        this.cellsByWorld = new HashMap<>();
+        this.positions = new HashMap<>();
+        this.scratch = new Location(null, 0, 0, 0);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    public void playerJoined(Player player) {
+        player.getLocation(scratch);
+        playerMoved(player, scratch);
+        scratch.setWorld(null);
+    }
+
+    public void playerLeft(Player player) {
+        Position position = positions.remove(player.getUniqueId());
+        if (position != null) {
+            removeFromBucket(player, position);
+        }
+    }
+
+    /**
+     * Updates where a player is, has to be called whenever a player changes location, be it by moving, teleporting or
+     * changing worlds. Cheap unless the player crossed into another cell.
+     *
+     * @param player Player which moved
+     * @param to     Location the player is at now
+     */
+    public void playerMoved(Player player, Location to) {
+        World world = to.getWorld();
+        if (world == null) {
+            return;
+        }
+        UUID worldId = world.getUID();
+        long cell = cellKey(to.getBlockX() >> CELL_SHIFT, to.getBlockZ() >> CELL_SHIFT);
+        Position position = positions.get(player.getUniqueId());
+        if (position == null) {
+            position = new Position();
+            positions.put(player.getUniqueId(), position);
+        } else if (position.cell == cell && position.world.equals(worldId)) {
+            return;
+        } else {
+            removeFromBucket(player, position);
+        }
+        Long2ObjectOpenHashMap<List<Player>> cells = cellsByWorld.computeIfAbsent(worldId,
+            k -> new Long2ObjectOpenHashMap<>());
+        List<Player> bucket = cells.get(cell);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            cells.put(cell, bucket);
+        }
+        bucket.add(player);
+        position.world = worldId;
+        position.cell = cell;
+        position.bucket = bucket;
+    }
+
+    private void removeFromBucket(Player player, Position position) {
+        position.bucket.remove(player);
+        // drop cells once they are empty, so they don't pile up as players move around
+        if (position.bucket.isEmpty()) {
+            cellsByWorld.get(position.world).remove(position.cell);
+        }
+    }
+
+    /**
+     * Gets all online players which may be within range of a location. Players in the returned list can still be out
+     * of range, but every player in range is in it.
+     *
+     * @param center Location to look around
+     * @param range  Range in blocks, has to be positive
+     * @return Players possibly in range
+     */
+    public List<Player> getPlayersNear(Location center, int range) {
+        World world = center.getWorld();
+        Long2ObjectOpenHashMap<List<Player>> cells = cellsByWorld.get(world.getUID());
+        List<Player> nearby = new ArrayList<>();
+        if (cells == null || cells.isEmpty()) {
+            return nearby;
+        }
+        int minCellX = (center.getBlockX() - range) >> CELL_SHIFT;
+        int maxCellX = (center.getBlockX() + range) >> CELL_SHIFT;
+        int minCellZ = (center.getBlockZ() - range) >> CELL_SHIFT;
+        int maxCellZ = (center.getBlockZ() + range) >> CELL_SHIFT;
+        long cellCount = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (cellCount > cells.size()) {
+            // large ranges cover more cells than there are occupied ones, so walk the occupied ones instead
+            for (Long2ObjectMap.Entry<List<Player>> entry : cells.long2ObjectEntrySet()) {
+                int cellX = (int) (entry.getLongKey() >> 32);
+                int cellZ = (int) entry.getLongKey();
+                if (cellX >= minCellX && cellX <= maxCellX && cellZ >= minCellZ && cellZ <= maxCellZ) {
+                    nearby.addAll(entry.getValue());
+                }
+            }
+            return nearby;
+        }
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<Player> cell = cells.get(cellKey(cellX, cellZ));
+                if (cell != null) {
+                    nearby.addAll(cell);
+                }
+            }
+        }
+        return nearby;
+    }
+}
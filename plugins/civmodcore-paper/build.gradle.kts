@@ -2,6 +2,7 @@ plugins {
     id("io.papermc.paperweight.userdev")
     id("com.github.johnrengelman.shadow")
     id("xyz.jpenilla.run-paper")
+    id("me.champeau.jmh")
 }
 
 version = "3.0.6"
@@ -20,4 +21,11 @@ dependencies {
     compileOnly(libs.fastutil)
 
     testImplementation(libs.bundles.junit)
+
+    jmhImplementation(libs.paper.api)
+    jmhImplementation(libs.fastutil)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
 }
@@ -0,0 +1,135 @@
+package vg.civcraft.mc.civmodcore.world.locations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares point lookups of {@link GridSpatialIndex} against {@link SparseQuadTree}, with and without the border.
+ * <p>
+ * The boxes are shaped like bastion fields, squares with a radius of 100 blocks of which half are spread over a
+ * 20000 by 20000 block world and the other half packed around a few towns, where fields overlap a lot. Points are
+ * looked up all over the world, so most of them are outside of any field just like most block places.
+ * <p>
+ * Run with {@code ./gradlew :plugins:civmodcore-paper:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialIndexBenchmark {
+
+    private static final int WORLD_RADIUS = 10_000;
+    private static final int TOWNS = 20;
+    private static final int TOWN_RADIUS = 500;
+    private static final int FIELD_RADIUS = 100;
+    private static final int BORDER_SIZE = 100;
+    private static final int POINTS = 4096;
+
+    private record Field(int x, int z) implements QTBox {
+
+        @Override
+        public int qtXMin() {
+            return x - FIELD_RADIUS;
+        }
+
+        @Override
+        public int qtXMid() {
+            return x;
+        }
+
+        @Override
+        public int qtXMax() {
+            return x + FIELD_RADIUS;
+        }
+
+        @Override
+        public int qtZMin() {
+            return z - FIELD_RADIUS;
+        }
+
+        @Override
+        public int qtZMid() {
+            return z;
+        }
+
+        @Override
+        public int qtZMax() {
+            return z + FIELD_RADIUS;
+        }
+    }
+
+    @Param({"grid", "quadtree"})
+    public String type;
+
+    @Param({"1000", "10000"})
+    public int fields;
+
+    private SpatialIndex<Field> index;
+    private int[] points;
+    private List<Field> found;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = switch (type) {
+            case "grid" -> new GridSpatialIndex<>(BORDER_SIZE, GridSpatialIndex.DEFAULT_CELL_SIZE);
+            case "quadtree" -> new SparseQuadTree<>(BORDER_SIZE);
+            default -> throw new IllegalArgumentException(type);
+        };
+        int[][] towns = new int[TOWNS][];
+        for (int i = 0; i < TOWNS; i++) {
+            towns[i] = new int[]{coordinate(random, WORLD_RADIUS), coordinate(random, WORLD_RADIUS)};
+        }
+        for (int i = 0; i < fields; i++) {
+            if (i % 2 == 0) {
+                index.add(new Field(coordinate(random, WORLD_RADIUS), coordinate(random, WORLD_RADIUS)));
+            } else {
+                int[] town = towns[random.nextInt(TOWNS)];
+                index.add(new Field(town[0] + coordinate(random, TOWN_RADIUS),
+                    town[1] + coordinate(random, TOWN_RADIUS)));
+            }
+        }
+        points = new int[POINTS * 2];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = coordinate(random, WORLD_RADIUS);
+        }
+        found = new ArrayList<>();
+    }
+
+    private static int coordinate(Random random, int radius) {
+        return random.nextInt(2 * radius) - radius;
+    }
+
+    private int lookup(boolean includeBorder) {
+        next = (next + 2) & (points.length - 1);
+        found.clear();
+        index.find(points[next], points[next + 1], includeBorder, found);
+        return found.size();
+    }
+
+    @Benchmark
+    public int find() {
+        return lookup(false);
+    }
+
+    @Benchmark
+    public int findWithBorder() {
+        return lookup(true);
+    }
+}
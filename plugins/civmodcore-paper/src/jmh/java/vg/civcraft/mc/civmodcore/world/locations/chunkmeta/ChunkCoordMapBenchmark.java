@@ -0,0 +1,180 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many chunk lookups per second the registry of a {@link WorldChunkMetaManager} sustains while a save
+ * and an unload thread keep working on it, comparing the {@link ChunkCoordMap} against the synchronized HashMap it
+ * replaced.
+ * <p>
+ * The synchronized registry is rebuilt here as it was: every lookup allocates a throwaway ChunkCoord and looks it up
+ * under the registry lock, saves copy all ChunkCoords under that lock and unloads remove them under it. The save
+ * thread saves over and over and the unload thread keeps untracking and tracking chunks again, which is far more than
+ * a server does, so lookups run into them as often as possible.
+ * <p>
+ * Run with {@code ./gradlew :plugins:civmodcore-paper:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ChunkCoordMapBenchmark {
+
+    private static final short WORLD_ID = 1;
+    // about the chunks tracked with 100 players spread out at a view distance of 10
+    private static final int RADIUS = 220;
+    private static final int LOOKUPS = 4096;
+
+    @Param({"packed", "synchronized"})
+    public String registry;
+
+    private boolean isPacked;
+    private ChunkCoordMap packed;
+    private Map<ChunkCoord, ChunkCoord> synchronizedMap;
+    private int[] lookups;
+    private volatile boolean running;
+    private Thread saveThread;
+    private Thread unloadThread;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        isPacked = registry.equals("packed");
+        packed = new ChunkCoordMap();
+        synchronizedMap = new HashMap<>();
+        for (int x = -RADIUS; x < RADIUS; x++) {
+            for (int z = -RADIUS; z < RADIUS; z++) {
+                track(x, z);
+            }
+        }
+        lookups = new int[LOOKUPS * 2];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = random.nextInt(2 * RADIUS) - RADIUS;
+        }
+        running = true;
+        saveThread = new Thread(this::save, "ChunkCoordMapBenchmark save");
+        unloadThread = new Thread(this::unload, "ChunkCoordMapBenchmark unload");
+        saveThread.start();
+        unloadThread.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        saveThread.join();
+        unloadThread.join();
+    }
+
+    private void track(int x, int z) {
+        ChunkCoord coord = new ChunkCoord(x, z, WORLD_ID, null, null);
+        if (isPacked) {
+            packed.putIfAbsent(ChunkCoordMap.toKey(x, z), coord);
+        } else {
+            synchronized (synchronizedMap) {
+                synchronizedMap.put(coord, coord);
+            }
+        }
+    }
+
+    private void untrack(ChunkCoord coord) {
+        if (isPacked) {
+            synchronized (packed) {
+                packed.remove(ChunkCoordMap.toKey(coord.getX(), coord.getZ()), coord);
+            }
+        } else {
+            synchronized (synchronizedMap) {
+                synchronizedMap.remove(coord);
+            }
+        }
+    }
+
+    /**
+     * Same as saveAllChunks, minus writing to the database
+     */
+    private void save() {
+        while (running) {
+            if (isPacked) {
+                packed.forEach(coord -> {
+                    synchronized (coord) {
+                        coord.isChunkLoaded();
+                    }
+                });
+            } else {
+                List<ChunkCoord> saveList;
+                synchronized (synchronizedMap) {
+                    saveList = new ArrayList<>(synchronizedMap.values());
+                }
+                for (ChunkCoord coord : saveList) {
+                    synchronized (coord) {
+                        coord.isChunkLoaded();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Untracks chunks like the unload thread and tracks them again like a chunk load would, so the amount of tracked
+     * chunks stays the same
+     */
+    private void unload() {
+        Random random = new Random(7);
+        while (running) {
+            int x = random.nextInt(2 * RADIUS) - RADIUS;
+            int z = random.nextInt(2 * RADIUS) - RADIUS;
+            ChunkCoord coord = lookup(x, z);
+            if (coord != null) {
+                untrack(coord);
+            }
+            track(x, z);
+        }
+    }
+
+    private ChunkCoord lookup(int x, int z) {
+        if (isPacked) {
+            return packed.get(ChunkCoordMap.toKey(x, z));
+        }
+        ChunkCoord coord = new ChunkCoord(x, z, WORLD_ID, null, null);
+        synchronized (synchronizedMap) {
+            return synchronizedMap.get(coord);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        int next(int[] lookups) {
+            next = (next + 2) & (lookups.length - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public ChunkCoord getChunkCoord(Cursor cursor) {
+        int i = cursor.next(lookups);
+        return lookup(lookups[i], lookups[i + 1]);
+    }
+}
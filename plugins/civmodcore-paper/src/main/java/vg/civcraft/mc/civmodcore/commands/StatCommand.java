@@ -5,8 +5,18 @@ import co.aikar.commands.annotation.CommandAlias;
 import co.aikar.commands.annotation.CommandPermission;
 import co.aikar.commands.annotation.Description;
 import co.aikar.commands.annotation.Subcommand;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.Level;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
+import vg.civcraft.mc.civmodcore.CivModCorePlugin;
+import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat.Histogram;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat.LoadStatistic;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat.LoadStatisticManager;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat.PluginStatistic;
@@ -36,6 +46,8 @@ public class StatCommand extends BaseCommand {
             sender.sendMessage("Min load time: " + nanoToMsStr(pluginStatistic.chunkLoadMinTimeNanoSec));
             sender.sendMessage("Max load time: " + nanoToMsStr(pluginStatistic.chunkLoadMaxTimeNanoSec));
             sender.sendMessage("Avg load time: " + nanoToMsStr(pluginStatistic.chunkLoadSumNanoSec / pluginStatistic.chunkLoadCount));
+            sender.sendMessage("Per chunk load time (batch avg): " + describeMicros(pluginStatistic.batchAvgLoadTimeMicros));
+            sender.sendMessage("Per chunk persist time: " + describeMicros(pluginStatistic.persistTimeMicros));
         }
 
         for (LoadStatistic.WorldThreads worldThreads : loadStatistic.worldThreadsList) {
@@ -47,6 +59,102 @@ public class StatCommand extends BaseCommand {
             for (LoadStatistic.ThreadTime threadTime : worldThreads.threadTimes)
                 sender.sendMessage("Thread #" + threadTime.threadIndex + " is now executing for time: " + nanoToMsStr(threadTime.time));
         }
+
+        for (LoadStatistic.WorldSave worldSave : loadStatistic.worldSaves) {
+            sender.sendMessage(ChatColor.WHITE + "[Saves: " + worldSave.world.getName() + "]");
+            sender.sendMessage("Chunks flushed by last save: " + worldSave.lastFlushedChunks);
+            sender.sendMessage("Avg chunks flushed per save: " + (worldSave.totalFlushedChunks / worldSave.saveCount));
+        }
+
+        for (LoadStatistic.WorldQueues worldQueues : loadStatistic.worldQueuesList) {
+            sender.sendMessage(ChatColor.WHITE + "[Queues: " + worldQueues.world.getName() + "]");
+            sender.sendMessage("Loading queue wait: " + describeMicros(worldQueues.waitMicros));
+            sender.sendMessage("Loading queue size: " + worldQueues.loadingQueueSize + ", sampled "
+                    + describe(worldQueues.loadingQueueSizes));
+            sender.sendMessage("Unloading queue size: " + worldQueues.unloadingQueueSize + ", sampled "
+                    + describe(worldQueues.unloadingQueueSizes));
+        }
+    }
+
+    @Subcommand("statexport")
+    @Description("Exports chunk loading histograms to a file.")
+    @CommandPermission("cmc.debug")
+    public void export(CommandSender sender) {
+        LoadStatistic loadStatistic = LoadStatisticManager.getLoadStatistic();
+        if (loadStatistic == null) {
+            sender.sendMessage(ChatColor.RED + "Statistics polling is disabled");
+            return;
+        }
+
+        CivModCorePlugin plugin = CivModCorePlugin.getInstance();
+        File file = new File(new File(plugin.getDataFolder(), "stats"),
+                "chunkmeta-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            String reply;
+            try {
+                writeHistograms(loadStatistic, file);
+                reply = ChatColor.GREEN + "Exported chunk loading histograms to " + file.getPath();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.WARNING, "Failed to export chunk loading histograms", e);
+                reply = ChatColor.RED + "Failed to export chunk loading histograms, see the console";
+            }
+            // senders may only be messaged from the main thread
+            String message = reply;
+            Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+        });
+    }
+
+    /**
+     * Writes one line per bucket of every histogram. Empty buckets are skipped, a
+     * bucket counts all values above the upper bound of the previous one up to its own
+     */
+    private static void writeHistograms(LoadStatistic loadStatistic, File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            writer.println("scope,name,metric,unit,bucket_upper_bound,count");
+            for (PluginStatistic pluginStatistic : loadStatistic.pluginStatistics) {
+                writeHistogram(writer, "plugin", pluginStatistic.pluginName, "batch_avg_load_time", "us", pluginStatistic.batchAvgLoadTimeMicros);
+                writeHistogram(writer, "plugin", pluginStatistic.pluginName, "persist_time", "us", pluginStatistic.persistTimeMicros);
+            }
+            for (LoadStatistic.WorldQueues worldQueues : loadStatistic.worldQueuesList) {
+                String world = worldQueues.world.getName();
+                writeHistogram(writer, "world", world, "loading_queue_wait", "us", worldQueues.waitMicros);
+                writeHistogram(writer, "world", world, "loading_queue_size", "chunks", worldQueues.loadingQueueSizes);
+                writeHistogram(writer, "world", world, "unloading_queue_size", "chunks", worldQueues.unloadingQueueSizes);
+            }
+        }
+    }
+
+    private static void writeHistogram(PrintWriter writer, String scope, String name, String metric, String unit,
+                                       Histogram.Snapshot snapshot) {
+        for (int i = 0; i < snapshot.buckets.length; i++) {
+            if (snapshot.buckets[i] == 0)
+                continue;
+
+            long upperBound = Math.min(snapshot.max, Histogram.bucketUpperBound(i));
+            writer.println(scope + "," + name + "," + metric + "," + unit + "," + upperBound + "," + snapshot.buckets[i]);
+        }
+    }
+
+    private static String describeMicros(Histogram.Snapshot snapshot) {
+        if (snapshot.count == 0)
+            return "none";
+
+        return String.format("p50 %s, p90 %s, p99 %s, max %s (%d)",
+                microToMsStr(snapshot.percentile(50)), microToMsStr(snapshot.percentile(90)),
+                microToMsStr(snapshot.percentile(99)), microToMsStr(snapshot.max), snapshot.count);
+    }
+
+    private static String describe(Histogram.Snapshot snapshot) {
+        if (snapshot.count == 0)
+            return "none";
+
+        return String.format("p50 %d, p90 %d, p99 %d, max %d",
+                snapshot.percentile(50), snapshot.percentile(90), snapshot.percentile(99), snapshot.max);
+    }
+
+    private static String microToMsStr(long micro) {
+        return String.format("%.2f ms", micro / 1000.0);
     }
 
     private static String nanoToMsStr(long nano) {
@@ -1,66 +1,382 @@
 package vg.civcraft.mc.civmodcore.utilities.progress;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.function.LongSupplier;
 
+/**
+ * Keeps track of when items need to be updated next and updates them once that
+ * time has come.
+ * <p>
+ * Items are held in a hierarchical timing wheel, so scheduling, rescheduling
+ * and removing an item is O(1) independent of how many items are tracked. The
+ * first level has one bucket per tick, each higher level covers 64 buckets of
+ * the level below it and is cascaded down once time reaches it. Update times
+ * are rounded up to full ticks, so an item is never updated early, but may be
+ * updated up to a tick late. Buckets are only created once an item is put in
+ * them, so trackers holding just a few items stay small.
+ * <p>
+ * Optionally the amount of items updated per call of {@link #processItems()}
+ * can be limited. Items which are due, but exceed that budget, stay queued and
+ * are updated first by the next call
+ *
+ * @param <T> Type of the items tracked
+ */
 public class ProgressTracker<T extends ProgressTrackable> {
 
-    private TreeSet<T> queueItems;
+    public static final long TICK_MILLIS = 50L;
 
-    public ProgressTracker() {
-        this.queueItems = new TreeSet<>((a, b) -> {
-            int timeDiff = Long.compare(a.getNextUpdate(), b.getNextUpdate());
-            if (timeDiff == 0) {
-                return a.compareTo(b);
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 5;
+    private static final int ROOT_SIZE = 1 << ROOT_BITS;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    // items further out are put in the last bucket of the highest level and sorted in again on cascading
+    private static final long MAX_DELAY_TICKS = (1L << (ROOT_BITS + (LEVELS - 1) * LEVEL_BITS)) - 1;
+
+    private static final class Node<T> {
+
+        private final T item;
+        private long tick;
+        private Bucket<T> bucket;
+        private Node<T> prev;
+        private Node<T> next;
+
+        private Node(T item) {
+            this.item = item;
+        }
+    }
+
+    private static final class Bucket<T> {
+
+        private final int level;
+        private Node<T> head;
+        private Node<T> tail;
+        private int size;
+
+        private Bucket(int level) {
+            this.level = level;
+        }
+
+        private void add(Node<T> node) {
+            node.bucket = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void remove(Node<T> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
             }
-            return timeDiff;
-        });
+            node.prev = null;
+            node.next = null;
+            node.bucket = null;
+            size--;
+        }
+
+        private Node<T> poll() {
+            Node<T> node = head;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+    }
+
+    private final Reference2ObjectOpenHashMap<T, Node<T>> nodes;
+    private final Bucket<T>[][] wheel;
+    private final int[] levelSizes;
+    // items which are due, but were not updated yet
+    private final Bucket<T> due;
+    private final int maxItemsPerRun;
+    private final LongSupplier clock;
+    // next tick to move into the due bucket
+    private long cursor;
+
+    private long processedCount;
+    private long deferredCount;
+
+    public ProgressTracker() {
+        this(0);
+    }
+
+    /**
+     * @param maxItemsPerRun Maximum amount of items updated per call of
+     *                       {@link #processItems()} or 0 to update all due items
+     */
+    public ProgressTracker(int maxItemsPerRun) {
+        this(maxItemsPerRun, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    ProgressTracker(int maxItemsPerRun, LongSupplier clock) {
+        if (maxItemsPerRun < 0) {
+            throw new IllegalArgumentException("maxItemsPerRun < 0");
+        }
+        this.maxItemsPerRun = maxItemsPerRun == 0 ? Integer.MAX_VALUE : maxItemsPerRun;
+        this.nodes = new Reference2ObjectOpenHashMap<>();
+        this.clock = clock;
+        // levels and their buckets are created on first use
+        this.wheel = new Bucket[LEVELS][];
+        this.levelSizes = new int[LEVELS];
+        this.due = new Bucket<>(-1);
+        this.cursor = toTick(clock.getAsLong()) + 1;
+    }
+
+    private static long toTick(long time) {
+        return Math.floorDiv(time, TICK_MILLIS);
+    }
+
+    private static int shift(int level) {
+        return level == 0 ? 0 : ROOT_BITS + (level - 1) * LEVEL_BITS;
     }
 
     public void addItem(T trackable) {
-        if (trackable.getNextUpdate() != Long.MAX_VALUE) {
-            queueItems.add(trackable);
+        long nextUpdate = trackable.getNextUpdate();
+        if (nextUpdate == Long.MAX_VALUE) {
+            return;
+        }
+        Node<T> node = nodes.get(trackable);
+        if (node == null) {
+            node = new Node<>(trackable);
+            nodes.put(trackable, node);
+        } else {
+            unlink(node);
+        }
+        // round up, so an item is never updated before its time
+        node.tick = Math.floorDiv(nextUpdate + TICK_MILLIS - 1, TICK_MILLIS);
+        schedule(node);
+    }
+
+    private void schedule(Node<T> node) {
+        long delay = node.tick - cursor;
+        if (delay < 0) {
+            due.add(node);
+            return;
+        }
+        long tick = delay > MAX_DELAY_TICKS ? cursor + MAX_DELAY_TICKS : node.tick;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << shift(level + 1)) {
+            level++;
+        }
+        Bucket<T>[] buckets = wheel[level];
+        if (buckets == null) {
+            buckets = createLevel(level);
         }
+        int index = (int) ((tick >>> shift(level)) & (buckets.length - 1));
+        Bucket<T> bucket = buckets[index];
+        if (bucket == null) {
+            bucket = new Bucket<>(level);
+            buckets[index] = bucket;
+        }
+        bucket.add(node);
+        levelSizes[level]++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Bucket<T>[] createLevel(int level) {
+        Bucket<T>[] buckets = new Bucket[level == 0 ? ROOT_SIZE : LEVEL_SIZE];
+        wheel[level] = buckets;
+        return buckets;
+    }
+
+    private void unlink(Node<T> node) {
+        Bucket<T> bucket = node.bucket;
+        if (bucket == null) {
+            return;
+        }
+        if (bucket.level >= 0) {
+            levelSizes[bucket.level]--;
+        }
+        bucket.remove(node);
     }
 
+    /**
+     * Updates all items which are due, up to the budget set for this tracker
+     *
+     * @return Time at which the next item needs to be updated or Long.MAX_VALUE if
+     * no items are tracked
+     */
     public long processItems() {
-        long nextOne = Long.MAX_VALUE;
-        long time = System.currentTimeMillis();
-        Iterator<T> iter = queueItems.iterator();
+        long time = clock.getAsLong();
+        advance(toTick(time));
         List<T> toReAdd = new ArrayList<>();
-        while (iter.hasNext()) {
-            T item = iter.next();
+        int budget = maxItemsPerRun;
+        // items queued again while updating are left for the next run
+        int pending = due.size;
+        Node<T> node;
+        while (budget > 0 && pending-- > 0 && (node = due.poll()) != null) {
+            T item = node.item;
             if (item.getNextUpdate() > time) {
-                nextOne = Math.min(nextOne, item.getNextUpdate());
-                break;
+                // rescheduled without this tracker being told
+                nodes.remove(item);
+                toReAdd.add(item);
+                continue;
             }
-            iter.remove();
+            nodes.remove(item);
             item.updateState();
+            processedCount++;
+            budget--;
             if (item.getNextUpdate() > 0 && item.getNextUpdate() != Long.MAX_VALUE) {
                 toReAdd.add(item);
             }
         }
+        deferredCount += due.size;
         for (T item : toReAdd) {
-            nextOne = Math.min(nextOne, item.getNextUpdate());
             addItem(item);
         }
-        return nextOne;
+        return getNextUpdate(time);
+    }
+
+    /**
+     * Moves all items due up to and including the given tick into the due bucket
+     */
+    private void advance(long nowTick) {
+        while (cursor <= nowTick) {
+            if (levelSizes[0] == 0) {
+                // nothing is due before the next cascade, so skip straight to it
+                cursor = Math.min(nextCascade(), nowTick + 1);
+            } else {
+                Bucket<T> bucket = wheel[0][(int) (cursor & (ROOT_SIZE - 1))];
+                if (bucket != null) {
+                    levelSizes[0] -= bucket.size;
+                    Node<T> node;
+                    while ((node = bucket.poll()) != null) {
+                        due.add(node);
+                    }
+                }
+                cursor++;
+            }
+            // cascade as soon as a new block is reached, so buckets of the current block are always empty
+            if ((cursor & (ROOT_SIZE - 1)) == 0) {
+                cascade();
+            }
+        }
+    }
+
+    /**
+     * Sorts the items of all higher level buckets starting at the cursor into
+     * lower levels
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((cursor & ((1L << shift(level)) - 1)) != 0) {
+                break;
+            }
+            if (levelSizes[level] == 0) {
+                continue;
+            }
+            Bucket<T> bucket = wheel[level][(int) ((cursor >>> shift(level)) & (LEVEL_SIZE - 1))];
+            if (bucket == null) {
+                continue;
+            }
+            levelSizes[level] -= bucket.size;
+            Node<T> node;
+            while ((node = bucket.poll()) != null) {
+                schedule(node);
+            }
+        }
+    }
+
+    /**
+     * @return Tick at which the next cascade moving items into the first level of
+     * the wheel happens
+     */
+    private long nextCascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if (levelSizes[level] != 0) {
+                return (cursor | ((1L << shift(level)) - 1)) + 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Finds the time the next item is updated at. Buckets of higher levels cover
+     * many ticks, so the first occupied bucket of each level is searched for its
+     * earliest item
+     */
+    private long getNextUpdate(long time) {
+        if (due.size > 0) {
+            return time;
+        }
+        long next = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            if (levelSizes[level] == 0) {
+                continue;
+            }
+            Bucket<T>[] buckets = wheel[level];
+            int shift = shift(level);
+            long base = cursor >>> shift;
+            // the bucket of the current block of a higher level was already cascaded, anything in it
+            // belongs to the block a full turn later
+            int first = level == 0 ? 0 : 1;
+            for (int i = first; i < buckets.length + first; i++) {
+                Bucket<T> bucket = buckets[(int) ((base + i) & (buckets.length - 1))];
+                if (bucket != null && bucket.size > 0) {
+                    for (Node<T> node = bucket.head; node != null; node = node.next) {
+                        next = Math.min(next, node.tick);
+                    }
+                    break;
+                }
+            }
+        }
+        return next == Long.MAX_VALUE ? Long.MAX_VALUE : next * TICK_MILLIS;
     }
 
     public void removeItem(T trackable) {
-        queueItems.remove(trackable);
+        Node<T> node = nodes.remove(trackable);
+        if (node != null) {
+            unlink(node);
+        }
     }
 
     public void updateItem(T trackable, long nextTime) {
-        queueItems.remove(trackable);
+        removeItem(trackable);
         trackable.updateInternalProgressTime(nextTime);
         addItem(trackable);
     }
 
     public boolean containsItem(T trackable) {
-        return queueItems.contains(trackable);
+        return nodes.containsKey(trackable);
+    }
+
+    /**
+     * @return Amount of items currently tracked
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return Total amount of items updated by this tracker
+     */
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    /**
+     * @return Total amount of times a due item was left for the next run, because
+     * the budget per run was exhausted. An item deferred over several runs is
+     * counted once per run
+     */
+    public long getDeferredCount() {
+        return deferredCount;
     }
 
 }
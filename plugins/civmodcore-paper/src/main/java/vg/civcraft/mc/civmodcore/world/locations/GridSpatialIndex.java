@@ -0,0 +1,149 @@
+package vg.civcraft.mc.civmodcore.world.locations;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.util.Collection;
+
+/**
+ * Spatial index which buckets boxes into a uniform grid of square cells.
+ * <p>
+ * Each box is registered in every cell its border extended area overlaps, so a
+ * point query only has to look at the single cell containing the point and
+ * never needs to recurse or deduplicate. This trades memory for lookup speed,
+ * the cell size should be in the same order of magnitude as the boxes plus the
+ * border to keep the amount of cells per box low. Like SparseQuadTree this
+ * isn't designed for boxes spanning huge parts of the world
+ *
+ * @param <T> Type of the boxes held
+ */
+public class GridSpatialIndex<T extends QTBox> implements SpatialIndex<T> {
+
+    public static final int DEFAULT_CELL_SIZE = 256;
+
+    private final int borderSize;
+    private final int cellSize;
+    private final Long2ObjectOpenHashMap<ObjectArrayList<T>> cells;
+    private int size;
+
+    public GridSpatialIndex() {
+        this(0, DEFAULT_CELL_SIZE);
+    }
+
+    public GridSpatialIndex(int borderSize, int cellSize) {
+        if (borderSize < 0) {
+            throw new IllegalArgumentException("borderSize < 0");
+        }
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize <= 0");
+        }
+        this.borderSize = borderSize;
+        this.cellSize = cellSize;
+        this.cells = new Long2ObjectOpenHashMap<>();
+    }
+
+    private static long toKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public void add(T box) {
+        int minX = Math.floorDiv(box.qtXMin() - borderSize, cellSize);
+        int maxX = Math.floorDiv(box.qtXMax() + borderSize, cellSize);
+        int minZ = Math.floorDiv(box.qtZMin() - borderSize, cellSize);
+        int maxZ = Math.floorDiv(box.qtZMax() + borderSize, cellSize);
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                cells.computeIfAbsent(toKey(cellX, cellZ), k -> new ObjectArrayList<>()).add(box);
+            }
+        }
+        size++;
+    }
+
+    @Override
+    public void remove(T box) {
+        int minX = Math.floorDiv(box.qtXMin() - borderSize, cellSize);
+        int maxX = Math.floorDiv(box.qtXMax() + borderSize, cellSize);
+        int minZ = Math.floorDiv(box.qtZMin() - borderSize, cellSize);
+        int maxZ = Math.floorDiv(box.qtZMax() + borderSize, cellSize);
+        boolean removed = false;
+        for (int cellX = minX; cellX <= maxX; cellX++) {
+            for (int cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                long key = toKey(cellX, cellZ);
+                ObjectArrayList<T> cell = cells.get(key);
+                if (cell == null || !cell.remove(box)) {
+                    continue;
+                }
+                removed = true;
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+        if (removed) {
+            size--;
+        }
+    }
+
+    @Override
+    public void find(int x, int z, boolean includeBorder, Collection<? super T> result) {
+        ObjectArrayList<T> cell = cells.get(toKey(Math.floorDiv(x, cellSize), Math.floorDiv(z, cellSize)));
+        if (cell == null) {
+            return;
+        }
+        int border = includeBorder ? borderSize : 0;
+        for (int i = 0, length = cell.size(); i < length; i++) {
+            T box = cell.get(i);
+            if (box.qtXMin() - border <= x && box.qtXMax() + border >= x && box.qtZMin() - border <= z
+                && box.qtZMax() + border >= z) {
+                result.add(box);
+            }
+        }
+    }
+
+    /**
+     * Adds all boxes overlapping the given rectangle to the given collection,
+     * ignoring the border. Boxes spanning multiple cells are added once per cell,
+     * so a set should be passed if duplicates matter
+     *
+     * @param xMin   Lower X-bound of the rectangle, inclusive
+     * @param zMin   Lower Z-bound of the rectangle, inclusive
+     * @param xMax   Upper X-bound of the rectangle, inclusive
+     * @param zMax   Upper Z-bound of the rectangle, inclusive
+     * @param result Collection to add matching boxes to
+     */
+    public void findIntersecting(int xMin, int zMin, int xMax, int zMax, Collection<? super T> result) {
+        int minCellX = Math.floorDiv(xMin, cellSize);
+        int maxCellX = Math.floorDiv(xMax, cellSize);
+        int minCellZ = Math.floorDiv(zMin, cellSize);
+        int maxCellZ = Math.floorDiv(zMax, cellSize);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                ObjectArrayList<T> cell = cells.get(toKey(cellX, cellZ));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0, length = cell.size(); i < length; i++) {
+                    T box = cell.get(i);
+                    if (box.qtXMin() <= xMax && box.qtXMax() >= xMin && box.qtZMin() <= zMax && box.qtZMax() >= zMin) {
+                        result.add(box);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getBorderSize() {
+        return borderSize;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
@@ -1,6 +1,7 @@
 package vg.civcraft.mc.civmodcore.world.locations;
 
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import java.util.Collection;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -12,7 +13,7 @@ import java.util.TreeSet;
 //  level, bringing the process to its knees. Boxes with x,y spanning a
 //  million coordinates work just fine and should be sufficient.
 
-public class SparseQuadTree<T extends QTBox> {
+public class SparseQuadTree<T extends QTBox> implements SpatialIndex<T> {
 
     public enum Quadrant {
         ROOT, NORTH_WEST, SOUTH_WEST, NORTH_EAST, SOUTH_EAST
@@ -57,6 +58,7 @@ public class SparseQuadTree<T extends QTBox> {
         this.quadrant = quadrant;
     }
 
+    @Override
     public void add(T box) {
         add(box, false);
     }
@@ -92,52 +94,54 @@ public class SparseQuadTree<T extends QTBox> {
         return String.format("(%d,%d %d,%d)", box.qtXMin(), box.qtZMin(), box.qtXMax(), box.qtZMax());
     }
 
+    @Override
     public Set<T> find(int x, int z) {
         return this.find(x, z, false);
     }
 
+    @Override
     public Set<T> find(int x, int z, boolean includeBorder) {
-        int border = 0;
-        if (includeBorder) {
-            border = borderSize;
-        }
-        if (boxes != null) {
-            Set<T> result = new ObjectOpenHashSet<>();
-            // These two loops are the same except for the second doesn't include the
-            // border adjustment for a little added performance.
-            if (includeBorder) {
-                for (T box : boxes) {
-                    if (box.qtXMin() - border <= x && box.qtXMax() + border >= x && box.qtZMin() - border <= z
-                        && box.qtZMax() + border >= z) {
-                        result.add(box);
-                    }
-                }
+        Set<T> result = new ObjectOpenHashSet<>();
+        find(x, z, includeBorder, result);
+        return result;
+    }
+
+    @Override
+    public void find(int x, int z, boolean includeBorder, Collection<? super T> result) {
+        SparseQuadTree<T> node = this;
+        // walk down iteratively, only a single leaf can ever contain the point
+        while (node.boxes == null) {
+            if (x <= node.middleX) {
+                node = z <= node.middleZ ? node.northWest : node.southWest;
             } else {
-                for (T box : boxes) {
-                    if (box.qtXMin() <= x && box.qtXMax() >= x && box.qtZMin() <= z && box.qtZMax() >= z) {
-                        result.add(box);
-                    }
-                }
+                node = z <= node.middleZ ? node.northEast : node.southEast;
             }
-            return result;
         }
-        if (x <= middleX) {
-            if (z <= middleZ) {
-                return northWest.find(x, z, includeBorder);
-            } else {
-                return southWest.find(x, z, includeBorder);
+        // These two loops are the same except for the second doesn't include the
+        // border adjustment for a little added performance.
+        if (includeBorder) {
+            int border = borderSize;
+            for (T box : node.boxes) {
+                if (box.qtXMin() - border <= x && box.qtXMax() + border >= x && box.qtZMin() - border <= z
+                    && box.qtZMax() + border >= z) {
+                    result.add(box);
+                }
+            }
+        } else {
+            for (T box : node.boxes) {
+                if (box.qtXMin() <= x && box.qtXMax() >= x && box.qtZMin() <= z && box.qtZMax() >= z) {
+                    result.add(box);
+                }
             }
         }
-        if (z <= middleZ) {
-            return northEast.find(x, z, includeBorder);
-        }
-        return southEast.find(x, z, includeBorder);
     }
 
+    @Override
     public int getBorderSize() {
         return borderSize;
     }
 
+    @Override
     public void remove(T box) {
         if (size <= 0) {
             size = 0;
@@ -178,6 +182,7 @@ public class SparseQuadTree<T extends QTBox> {
         maxNodeSize = size;
     }
 
+    @Override
     public int size() {
         return size;
     }
@@ -0,0 +1,50 @@
+package vg.civcraft.mc.civmodcore.world.locations;
+
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Two dimensional index over QTBoxes, which allows looking up all boxes
+ * containing a given point.
+ * <p>
+ * Every index has a fixed border size, which virtually extends each box in all
+ * directions for queries explicitly asking for it. Implementations are not
+ * thread safe
+ *
+ * @param <T> Type of the boxes held
+ */
+public interface SpatialIndex<T extends QTBox> {
+
+    void add(T box);
+
+    void remove(T box);
+
+    /**
+     * Adds all boxes containing the given point to the given collection. The
+     * collection is not cleared beforehand, which allows callers to reuse a
+     * single collection across many queries
+     *
+     * @param x             X-coordinate of the point
+     * @param z             Z-coordinate of the point
+     * @param includeBorder Whether boxes should be extended by the border size
+     *                      of this index
+     * @param result        Collection to add matching boxes to
+     */
+    void find(int x, int z, boolean includeBorder, Collection<? super T> result);
+
+    default Set<T> find(int x, int z) {
+        return find(x, z, false);
+    }
+
+    default Set<T> find(int x, int z, boolean includeBorder) {
+        Set<T> result = new ObjectOpenHashSet<>();
+        find(x, z, includeBorder, result);
+        return result;
+    }
+
+    int getBorderSize();
+
+    int size();
+
+}
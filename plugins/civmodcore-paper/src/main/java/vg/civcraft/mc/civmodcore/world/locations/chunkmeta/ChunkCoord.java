@@ -1,10 +1,16 @@
 package vg.civcraft.mc.civmodcore.world.locations.chunkmeta;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 import org.bukkit.World;
@@ -33,11 +39,30 @@ public class ChunkCoord extends XZWCoord {
      * the entire life time of this object
      */
     private final AtomicBoolean isFullyLoaded = new AtomicBoolean(false);
+    /**
+     * Set while a thread is loading the data of this chunk, either on its own or
+     * as part of a batch. Released once the data is in place, other threads
+     * wanting the data wait for it instead of loading it a second time
+     */
+    private final AtomicReference<CountDownLatch> loading = new AtomicReference<>();
+    /**
+     * Whether this instance is currently queued in the dirty chunk queue of its
+     * world, because some of its data changed since it was last written to the
+     * database
+     */
+    private final AtomicBoolean isDirty = new AtomicBoolean(false);
+    private final Queue<ChunkCoord> dirtyChunks;
     private final World world;
+    /**
+     * When this instance was last queued to be loaded by a chunk loading thread,
+     * as {@link System#nanoTime()}. Only used for statistics
+     */
+    private volatile long loadQueuedAt;
 
-    ChunkCoord(int x, int z, short worldID, World world) {
+    ChunkCoord(int x, int z, short worldID, World world, Queue<ChunkCoord> dirtyChunks) {
         super(x, z, worldID);
         this.world = world;
+        this.dirtyChunks = dirtyChunks;
         this.chunkMetas = new TreeMap<>();
         this.lastLoadedTime = INVALID_TIME;
         this.lastUnloadedTime = INVALID_TIME;
@@ -53,6 +78,27 @@ public class ChunkCoord extends XZWCoord {
     void addChunkMeta(ChunkMeta<?> chunkMeta) {
         chunkMeta.setWorld(this.world);
         chunkMetas.put(chunkMeta.getPluginID(), chunkMeta);
+        if (chunkMeta.getCacheState() != CacheState.NORMAL) {
+            markDirty();
+        }
+    }
+
+    /**
+     * Queues this instance to be written to the database during the next regular
+     * save. Called whenever a ChunkMeta inside this instance is modified
+     */
+    void markDirty() {
+        if (isDirty.compareAndSet(false, true)) {
+            dirtyChunks.add(this);
+        }
+    }
+
+    /**
+     * Called once this instance was taken out of the dirty chunk queue. Any
+     * modification after this call will queue it again
+     */
+    void clearDirty() {
+        isDirty.set(false);
     }
 
     /**
@@ -77,9 +123,11 @@ public class ChunkCoord extends XZWCoord {
     }
 
     private static void persistChunkMeta(ChunkMeta<?> chunkMeta) {
+        if (chunkMeta.getCacheState() == CacheState.NORMAL) {
+            return;
+        }
+        long start = System.nanoTime();
         switch (chunkMeta.getCacheState()) {
-            case NORMAL:
-                break;
             case MODIFIED:
                 chunkMeta.update();
                 break;
@@ -93,6 +141,7 @@ public class ChunkCoord extends XZWCoord {
                 throw new IllegalArgumentException("Unsupported cache state '" + chunkMeta.getCacheState() + "'");
         }
         chunkMeta.setCacheState(CacheState.NORMAL);
+        LoadStatisticManager.persisted(chunkMeta.getPluginID(), System.nanoTime() - start);
     }
 
     /**
@@ -171,21 +220,155 @@ public class ChunkCoord extends XZWCoord {
      *                    or when it is loading now by the thread from WorldChunkMetaManager
      */
     void loadAll(int threadIndex) {
-        // Skip the monitor check if this is set to true.
-        if (isFullyLoaded.get()) return;
-        // Lets to an expensive synchronization here if necessary.
-        synchronized (this) {
-            if (!isFullyLoaded.get()) {
-                for (ChunkMetaInitializer initializer : ChunkMetaFactory.getInstance().getInitializers())
-                    loadPluginChunk(threadIndex, initializer);
-
-                isFullyLoaded.set(true);
+        // Skip the monitor check once loaded, otherwise either load it here or wait for whoever is loading it.
+        while (!isFullyLoaded.get()) {
+            CountDownLatch latch = claimLoading();
+            if (latch == null) {
+                // loaded by another thread right now, possibly as part of a batch, so wait for its result
+                awaitLoading();
+                continue;
+            }
+            try {
+                synchronized (this) {
+                    if (!isFullyLoaded.get()) {
+                        for (ChunkMetaInitializer initializer : ChunkMetaFactory.getInstance().getInitializers())
+                            loadPluginChunk(threadIndex, initializer);
+
+                        isFullyLoaded.set(true);
+                    }
+                }
+            } finally {
+                releaseLoading(latch);
+            }
+        }
+    }
+
+    /**
+     * Loads data for all plugins for several chunks at once, which allows storage
+     * engines to retrieve the data of all chunks with a single query. Chunks
+     * already being loaded by another thread are skipped, while chunks of the
+     * batch are marked as being loaded, so other threads needing their data
+     * wait for the batch instead of loading them again
+     *
+     * @param coords      Chunks to load, all in the same world
+     * @param threadIndex Specifies the index of the thread used to load the
+     *                    chunks, see {@link #loadAll(int)}
+     */
+    static void loadAll(List<ChunkCoord> coords, int threadIndex) {
+        List<ChunkCoord> toLoad = new ArrayList<>(coords.size());
+        List<CountDownLatch> latches = new ArrayList<>(coords.size());
+        for (ChunkCoord coord : coords) {
+            if (coord.isFullyLoaded.get()) {
+                continue;
+            }
+            CountDownLatch latch = coord.claimLoading();
+            if (latch == null) {
+                continue;
+            }
+            if (coord.isFullyLoaded.get()) {
+                // finished by another thread right before we claimed it
+                coord.releaseLoading(latch);
+                continue;
+            }
+            toLoad.add(coord);
+            latches.add(latch);
+        }
+        int published = 0;
+        try {
+            if (toLoad.isEmpty()) {
+                return;
             }
+            World world = toLoad.get(0).world;
+            Collection<ChunkMetaInitializer> initializers = ChunkMetaFactory.getInstance().getInitializers();
+            List<List<ChunkMeta<?>>> pluginChunks = new ArrayList<>(initializers.size());
+            for (ChunkMetaInitializer initializer : initializers) {
+                LoadStatisticManager.start(world, threadIndex, initializer.pluginId);
+                long start = System.nanoTime();
+
+                List<ChunkMeta<?>> chunks = new ArrayList<>(toLoad.size());
+                for (ChunkCoord coord : toLoad) {
+                    ChunkMeta<?> chunk = initializer.generator.get();
+                    chunk.setChunkCoord(coord);
+                    chunk.setPluginID(initializer.pluginId);
+                    chunks.add(chunk);
+                }
+
+                try {
+                    chunks.get(0).populateAll(chunks);
+                } catch (Throwable e) {
+                    CivModCorePlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to load chunk data", e);
+                }
+                pluginChunks.add(chunks);
+
+                LoadStatisticManager.loaded(initializer.pluginId, toLoad.size(), System.nanoTime() - start);
+                LoadStatisticManager.stop(world, threadIndex, initializer.pluginId);
+            }
+
+            for (; published < toLoad.size(); published++) {
+                ChunkCoord coord = toLoad.get(published);
+                try {
+                    synchronized (coord) {
+                        // nobody else loads a claimed chunk, so the batch result is always the one used
+                        for (List<ChunkMeta<?>> chunks : pluginChunks) {
+                            ChunkMeta<?> chunk = chunks.get(published);
+                            ChunkMetaViewTracker.getInstance().get(chunk.getPluginID()).postLoad(chunk);
+                            coord.addChunkMeta(chunk);
+                        }
+                        coord.isFullyLoaded.set(true);
+                    }
+                } finally {
+                    coord.releaseLoading(latches.get(published));
+                }
+            }
+        } finally {
+            // chunks left over after a failure are loaded again by whoever needs them next
+            for (int i = published; i < toLoad.size(); i++) {
+                toLoad.get(i).releaseLoading(latches.get(i));
+            }
+        }
+    }
+
+    /**
+     * Marks this chunk as being loaded by the current thread
+     *
+     * @return Latch to release once loading is done or null if another thread
+     * is already loading this chunk
+     */
+    private CountDownLatch claimLoading() {
+        CountDownLatch latch = new CountDownLatch(1);
+        return loading.compareAndSet(null, latch) ? latch : null;
+    }
+
+    private void releaseLoading(CountDownLatch latch) {
+        loading.compareAndSet(latch, null);
+        latch.countDown();
+    }
+
+    /**
+     * Waits until the thread currently loading this chunk is done
+     */
+    private void awaitLoading() {
+        CountDownLatch latch = loading.get();
+        if (latch == null) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
     }
 
     void loadPluginChunk(int threadIndex, ChunkMetaInitializer initializer) {
         LoadStatisticManager.start(this.world, threadIndex, initializer.pluginId);
+        long start = System.nanoTime();
 
         ChunkMeta<?> chunk = initializer.generator.get();
         short pluginId = initializer.pluginId;
@@ -202,9 +385,18 @@ public class ChunkCoord extends XZWCoord {
         ChunkMetaViewTracker.getInstance().get(pluginId).postLoad(chunk);
         addChunkMeta(chunk);
 
+        LoadStatisticManager.loaded(pluginId, 1, System.nanoTime() - start);
         LoadStatisticManager.stop(this.world, threadIndex, initializer.pluginId);
     }
 
+    void markLoadQueued() {
+        loadQueuedAt = System.nanoTime();
+    }
+
+    long getLoadQueuedAt() {
+        return loadQueuedAt;
+    }
+
     /**
      * Called when the minecraft chunk (the block data) this object is tied to gets
      * loaded
@@ -212,14 +404,19 @@ public class ChunkCoord extends XZWCoord {
     void minecraftChunkLoaded() {
         boolean hasBeenLoadedBefore = this.lastLoadedTime != INVALID_TIME;
         this.lastLoadedTime = System.currentTimeMillis();
-        if (hasBeenLoadedBefore) {
-            for (ChunkMeta<?> meta : chunkMetas.values()) {
+        for (ChunkMeta<?> meta : chunkMetas.values()) {
+            if (hasBeenLoadedBefore) {
                 try {
                     meta.handleChunkCacheReuse();
                 } catch (Exception ex) {
                     ex.printStackTrace();
                 }
             }
+            // regular saves skip unloaded chunks, so changes made while the chunk was unloaded
+            // need to be queued again
+            if (meta.getCacheState() != CacheState.NORMAL) {
+                markDirty();
+            }
         }
     }
 
@@ -0,0 +1,168 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Hash map from packed chunk coordinates to the ChunkCoord singletons of one
+ * world.
+ * <p>
+ * Lookups neither lock nor allocate. Buckets are chains of immutable nodes,
+ * which writers replace instead of modifying them, so a reader always sees a
+ * consistent chain, even while the table is being resized. All writes are
+ * serialized on the map instance itself, callers that need a lookup and a
+ * following insertion or removal to happen atomically may synchronize on it as
+ * well
+ */
+final class ChunkCoordMap {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.75F;
+
+    private static final class Node {
+
+        private final long key;
+        private final ChunkCoord value;
+        private final Node next;
+
+        private Node(long key, ChunkCoord value, Node next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private volatile AtomicReferenceArray<Node> table;
+    private volatile int size;
+    private int resizeThreshold;
+
+    ChunkCoordMap() {
+        this.table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        this.resizeThreshold = (int) (INITIAL_CAPACITY * LOAD_FACTOR);
+    }
+
+    /**
+     * Packs chunk coordinates into a single long, which is used as key in this
+     * map
+     *
+     * @param x X-coordinate of the chunk
+     * @param z Z-coordinate of the chunk
+     * @return Packed key
+     */
+    static long toKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    static int indexFor(long key, int length) {
+        // mix the whole key before folding it, folding first would put all chunks
+        // with the same x ^ z into the same bucket
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        int hash = (int) (mixed ^ (mixed >>> 32));
+        hash ^= hash >>> 16;
+        return hash & (length - 1);
+    }
+
+    /**
+     * @param key Packed chunk key as created by {@link #toKey(int, int)}
+     * @return ChunkCoord stored for the given key or null if none exists
+     */
+    ChunkCoord get(long key) {
+        AtomicReferenceArray<Node> tab = this.table;
+        for (Node node = tab.get(indexFor(key, tab.length())); node != null; node = node.next) {
+            if (node.key == key) {
+                return node.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the given ChunkCoord unless one is already stored for the key
+     *
+     * @param key   Packed chunk key as created by {@link #toKey(int, int)}
+     * @param value ChunkCoord to insert
+     * @return Previously stored ChunkCoord or null if the given one was inserted
+     */
+    synchronized ChunkCoord putIfAbsent(long key, ChunkCoord value) {
+        AtomicReferenceArray<Node> tab = this.table;
+        int index = indexFor(key, tab.length());
+        Node head = tab.get(index);
+        for (Node node = head; node != null; node = node.next) {
+            if (node.key == key) {
+                return node.value;
+            }
+        }
+        tab.set(index, new Node(key, value, head));
+        if (++this.size > this.resizeThreshold) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * Removes the entry for the given key, but only if it is mapped to exactly
+     * the given ChunkCoord instance
+     *
+     * @param key   Packed chunk key as created by {@link #toKey(int, int)}
+     * @param value ChunkCoord expected to be stored for the key
+     * @return Whether an entry was removed
+     */
+    synchronized boolean remove(long key, ChunkCoord value) {
+        AtomicReferenceArray<Node> tab = this.table;
+        int index = indexFor(key, tab.length());
+        Node head = tab.get(index);
+        Node target = head;
+        while (target != null && (target.key != key || target.value != value)) {
+            target = target.next;
+        }
+        if (target == null) {
+            return false;
+        }
+        // nodes are immutable, so everything in front of the removed node is copied
+        Node newHead = target.next;
+        for (Node node = head; node != target; node = node.next) {
+            newHead = new Node(node.key, node.value, newHead);
+        }
+        tab.set(index, newHead);
+        this.size--;
+        return true;
+    }
+
+    private void resize() {
+        AtomicReferenceArray<Node> oldTable = this.table;
+        int newLength = oldTable.length() << 1;
+        AtomicReferenceArray<Node> newTable = new AtomicReferenceArray<>(newLength);
+        for (int i = 0; i < oldTable.length(); i++) {
+            for (Node node = oldTable.get(i); node != null; node = node.next) {
+                int index = indexFor(node.key, newLength);
+                newTable.set(index, new Node(node.key, node.value, newTable.get(index)));
+            }
+        }
+        this.resizeThreshold = (int) (newLength * LOAD_FACTOR);
+        this.table = newTable;
+    }
+
+    /**
+     * Applies the given function to every ChunkCoord in this map. Iteration is
+     * weakly consistent, entries inserted or removed concurrently may or may not
+     * be visited
+     *
+     * @param action Function to apply
+     */
+    void forEach(Consumer<ChunkCoord> action) {
+        AtomicReferenceArray<Node> tab = this.table;
+        for (int i = 0; i < tab.length(); i++) {
+            for (Node node = tab.get(i); node != null; node = node.next) {
+                action.accept(node.value);
+            }
+        }
+    }
+
+    /**
+     * @return Amount of entries in this map
+     */
+    int size() {
+        return this.size;
+    }
+
+}
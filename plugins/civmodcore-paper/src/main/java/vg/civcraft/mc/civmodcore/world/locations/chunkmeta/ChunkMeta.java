@@ -1,5 +1,6 @@
 package vg.civcraft.mc.civmodcore.world.locations.chunkmeta;
 
+import java.util.List;
 import org.bukkit.World;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.StorageEngine;
 
@@ -89,6 +90,21 @@ public abstract class ChunkMeta<S extends StorageEngine> {
      */
     public abstract void populate();
 
+    /**
+     * Loads the data of multiple instances from the storage engine at once. This is
+     * called on one of the given instances, all of them belong to the same plugin
+     * and were created by the same generator. Subclasses whose storage can load
+     * many chunks with a single query should override this, by default each
+     * instance is populated on its own
+     *
+     * @param metas Instances to load data for, including this one
+     */
+    public void populateAll(List<? extends ChunkMeta<?>> metas) {
+        for (ChunkMeta<?> meta : metas) {
+            meta.populate();
+        }
+    }
+
     /**
      * Sets the cache state, which specifies whether this instance has changed since
      * it was last synced with the database and needs to be written back there
@@ -97,6 +113,9 @@ public abstract class ChunkMeta<S extends StorageEngine> {
      */
     public void setCacheState(CacheState state) {
         this.cacheState = this.cacheState.progress(state);
+        if (this.cacheState != CacheState.NORMAL && chunkCoord != null) {
+            chunkCoord.markDirty();
+        }
     }
 
     void setChunkCoord(ChunkCoord chunk) {
@@ -12,6 +12,7 @@ import java.util.logging.Logger;
 
 import org.apache.logging.log4j.LogManager;
 import org.bukkit.World;
+import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat.LoadStatisticManager;
 
 /**
  * Stores Chunk metadata for all plugins for one specific world. Metadata is
@@ -32,8 +33,19 @@ public class WorldChunkMetaManager {
 
     private static final long REGULAR_SAVE_INTERVAL = 60L * 1000L;
 
+    /**
+     * Maximum amount of chunks a chunk loading thread takes from the queue at once
+     * to load their data together
+     */
+    private static final int CHUNK_LOADING_BATCH_SIZE = 64;
+
     private final short worldID;
-    private final Map<ChunkCoord, ChunkCoord> metas;
+    /**
+     * All tracked ChunkCoords of this world, keyed by their packed chunk
+     * coordinates. Lookups are lock-free, any write which depends on a preceding
+     * lookup synchronizes on this map
+     */
+    private final ChunkCoordMap metas;
     /**
      * A synchronized TreeSet holding all chunk metadata belonging to unloaded
      * chunks. A comparator based on when the chunk was unloaded is used to
@@ -41,6 +53,11 @@ public class WorldChunkMetaManager {
      * cleanup trivial
      */
     private final ConcurrentLinkedQueue<ChunkCoord> unloadingQueue;
+    /**
+     * All ChunkCoords with data modified since they were last saved. Each
+     * ChunkCoord is contained at most once, see {@link ChunkCoord#markDirty()}
+     */
+    private final ConcurrentLinkedQueue<ChunkCoord> dirtyChunks;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
     private final List<AtomicBoolean> chunkLoadingDisablers;
     private final List<Thread> chunkLoadingThreads;
@@ -51,14 +68,16 @@ public class WorldChunkMetaManager {
     public WorldChunkMetaManager(World world, short worldID, int chunkLoadingThreadCount, Logger logger) {
         this.worldID = worldID;
         this.world = world;
-        this.metas = new HashMap<>();
+        this.metas = new ChunkCoordMap();
         this.unloadingQueue = new ConcurrentLinkedQueue<>();
+        this.dirtyChunks = new ConcurrentLinkedQueue<>();
 
         this.chunkLoadingQueue = new LinkedBlockingQueue<>();
         this.chunkLoadingDisablers = new ArrayList<>();
         this.chunkLoadingThreads = new ArrayList<>();
         this.logger = logger;
 
+        LoadStatisticManager.registerQueues(world, unloadingQueue::size, chunkLoadingQueue::size);
         registerUnloadRunnable();
         startChunkLoadingThreads(chunkLoadingThreadCount);
         registerRegularSaveRunnable();
@@ -78,13 +97,11 @@ public class WorldChunkMetaManager {
     }
 
     void flushPluginData(short pluginID) {
-        synchronized (metas) {
-            for (ChunkCoord coord : metas.values()) {
-                synchronized (coord) {
-                    coord.persistPlugin(pluginID);
-                }
+        metas.forEach(coord -> {
+            synchronized (coord) {
+                coord.persistPlugin(pluginID);
             }
-        }
+        });
     }
 
     /**
@@ -101,9 +118,16 @@ public class WorldChunkMetaManager {
      * supposed to be generated
      */
     private ChunkCoord getChunkCoord(int x, int z, boolean gen, boolean populate) {
-        ChunkCoord coord = new ChunkCoord(x, z, worldID, world);
+        long key = ChunkCoordMap.toKey(x, z);
+        if (!populate) {
+            // plain lookups are the hot path, they neither lock nor allocate
+            ChunkCoord value = metas.get(key);
+            if (value != null || !gen) {
+                return value;
+            }
+        }
         synchronized (metas) {
-            ChunkCoord value = metas.get(coord);
+            ChunkCoord value = metas.get(key);
             if (value != null) {
                 if (populate) {
                     // Prevent removal from metas in case we load at the same time
@@ -116,11 +140,13 @@ public class WorldChunkMetaManager {
             if (!gen) {
                 return null;
             }
-            metas.put(coord, coord);
+            ChunkCoord coord = new ChunkCoord(x, z, worldID, world, dirtyChunks);
+            metas.putIfAbsent(key, coord);
             if (populate) {
                 // up until here we are still sync from the ChunkLoadEvent, so we need to
                 // offload the actual db load to another thread
                 synchronized (chunkLoadingQueue) {
+                    coord.markLoadQueued();
                     chunkLoadingQueue.add(coord);
                     chunkLoadingQueue.notifyAll();
                 }
@@ -195,7 +221,7 @@ public class WorldChunkMetaManager {
     private void registerRegularSaveRunnable() {
         scheduler.scheduleWithFixedDelay(() -> {
             try {
-                CHUNK_META_LOGGER.debug("World " + worldID + ": Saving all chunks");
+                CHUNK_META_LOGGER.debug("World " + worldID + ": Saving modified chunks");
                 saveAllChunks();
             } catch (RuntimeException ex) {
                 ex.printStackTrace();
@@ -203,21 +229,28 @@ public class WorldChunkMetaManager {
         }, REGULAR_SAVE_INTERVAL, REGULAR_SAVE_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
+    /**
+     * Writes out all chunks which were modified since they were last saved
+     */
     private void saveAllChunks() {
-        List<ChunkCoord> saveList;
-        synchronized (metas) {
-            saveList = new ArrayList<>(metas.values());
-        }
-
-        for (ChunkCoord coord : saveList) {
+        int flushedChunks = 0;
+        // only drain what is queued right now, chunks modified while saving are picked up by the next run
+        int queuedChunks = dirtyChunks.size();
+        ChunkCoord coord;
+        while (queuedChunks-- > 0 && (coord = dirtyChunks.poll()) != null) {
             synchronized (coord) {
+                coord.clearDirty();
                 if (!coord.isChunkLoaded()) {
-                    // to avoid race conditions, we will not write out chunks currently unloaded
+                    // to avoid race conditions, we will not write out chunks currently unloaded. Their data
+                    // is written when they are unloaded or queued again once the chunk is loaded again
                     continue;
                 }
                 coord.fullyPersist();
+                flushedChunks++;
             }
         }
+        CHUNK_META_LOGGER.debug("World " + worldID + ": Saved " + flushedChunks + " modified chunks");
+        LoadStatisticManager.saved(world, flushedChunks);
     }
 
     private void registerUnloadRunnable() {
@@ -279,7 +312,7 @@ public class WorldChunkMetaManager {
             synchronized (metas) {
                 if (coord.isUnloaded()) {
                     CHUNK_META_LOGGER.debug("Chunk no longer being tracked: " + coord);
-                    metas.remove(coord);
+                    metas.remove(ChunkCoordMap.toKey(coord.getX(), coord.getZ()), coord);
                     coord.clearUnloaded();
                 }
             }
@@ -303,12 +336,23 @@ public class WorldChunkMetaManager {
     private void chunkLoadingThread(int threadIndex, String threadName, AtomicBoolean disabled) {
         this.logger.info("[" + this.world.getName() + "] Thread " + threadName + " is started.");
 
+        List<ChunkCoord> batch = new ArrayList<>(CHUNK_LOADING_BATCH_SIZE);
         while (!disabled.get()) {
             try {
-                ChunkCoord coord = chunkLoadingQueue.take();
-                coord.loadAll(threadIndex);
+                batch.add(chunkLoadingQueue.take());
+                // whatever else queued up in the mean time is loaded together with it
+                chunkLoadingQueue.drainTo(batch, CHUNK_LOADING_BATCH_SIZE - 1);
+                if (LoadStatisticManager.isEnabled()) {
+                    long now = System.nanoTime();
+                    for (ChunkCoord coord : batch) {
+                        LoadStatisticManager.waited(world, now - coord.getLoadQueuedAt());
+                    }
+                }
+                ChunkCoord.loadAll(batch, threadIndex);
             } catch (InterruptedException e) {
                 if (!disabled.get()) e.printStackTrace();
+            } finally {
+                batch.clear();
             }
         }
 
@@ -333,6 +377,7 @@ public class WorldChunkMetaManager {
     }
 
     public void disable() {
+        LoadStatisticManager.unregisterQueues(world);
         for (int i = 0; i < this.chunkLoadingDisablers.size(); i++) {
             AtomicBoolean disabled = this.chunkLoadingDisablers.get(i);
             disabled.set(true);
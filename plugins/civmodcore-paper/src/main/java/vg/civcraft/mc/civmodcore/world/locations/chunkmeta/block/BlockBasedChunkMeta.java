@@ -1,5 +1,6 @@
 package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block;
 
+import java.util.Arrays;
 import java.util.function.Consumer;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
@@ -11,6 +12,9 @@ import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.ChunkMeta;
  * Minecrafts in memory storage of blocks and meant to be used for y-local dense
  * concentration of data.
  * <p>
+ * Chunks holding only a few entries instead keep them in a sparse open addressed
+ * hash table keyed by the packed block position. The layout is switched
+ * automatically based on the amount of entries held.
  * <p>
  * Not thread-safe
  * <p>
@@ -27,15 +31,43 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
     protected static final int L3_X_SECTION_COUNT = 16;
     protected static final int L4_Z_SECTION_LENGTH = 16;
 
+    /**
+     * Once the sparse layout holds more entries than this, the dense layout is
+     * used instead
+     */
+    protected static final int SPARSE_MAX_ENTRIES = 256;
+    /**
+     * Once the dense layout holds less entries than this, the sparse layout is
+     * used instead. Lower than the limit above to avoid switching back and forth
+     */
+    protected static final int DENSE_MIN_ENTRIES = 64;
+
+    private static final int SPARSE_INITIAL_CAPACITY = 8;
+    private static final int SPARSE_EMPTY_KEY = -1;
+
     // This has to be an array of the abstract super type and not the generic one,
     // because java struggles with instanciating
-    // generic arrays
+    // generic arrays. Null while the sparse layout is used
     protected BlockDataObject<D>[][][][] data;
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Keys of the sparse layout, see {@link #toSparseKey(int, int, int)}. Null
+     * until the first entry is inserted or while the dense layout is used
+     */
+    private int[] sparseKeys;
+    private BlockDataObject<D>[] sparseValues;
+    /**
+     * Amount of entries held, regardless of the layout used
+     */
+    private int size;
+    /**
+     * Layout switches are postponed while iterating, because they would move
+     * entries out from under the iteration
+     */
+    private int iterationDepth;
+
     public BlockBasedChunkMeta(boolean isNew, S storage) {
         super(isNew, storage);
-        data = new BlockDataObject[L1_SECTION_COUNT][][][];
     }
 
     /**
@@ -63,11 +95,250 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
      */
     @SuppressWarnings("unchecked")
     protected D get(int x, int y, int z) {
+        return (D) getEntry(x, y, z);
+    }
+
+    private BlockDataObject<D> getEntry(int x, int y, int z) {
+        if (data == null) {
+            if (sparseKeys == null) {
+                return null;
+            }
+            int key = toSparseKey(x, y, z);
+            int index = getSparseIndex(sparseKeys, key);
+            return sparseKeys[index] == key ? sparseValues[index] : null;
+        }
         BlockDataObject<D>[] l4ZSection = getL4ZSubArrayAbsolute(x, y, false);
         if (l4ZSection == null) {
             return null;
         }
-        return (D) l4ZSection[z];
+        return l4ZSection[z];
+    }
+
+    /**
+     * Inserts an entry into whichever layout is currently used, without any
+     * further side effects
+     *
+     * @return Entry previously at the given location, possibly null
+     */
+    private BlockDataObject<D> setEntry(int x, int y, int z, BlockDataObject<D> value) {
+        BlockDataObject<D> previous;
+        if (data == null) {
+            previous = putSparse(toSparseKey(x, y, z), value);
+        } else {
+            BlockDataObject<D>[] l4ZSection = getL4ZSubArrayAbsolute(x, y, true);
+            previous = l4ZSection[z];
+            l4ZSection[z] = value;
+        }
+        if (previous == null) {
+            size++;
+            updateLayout();
+        }
+        return previous;
+    }
+
+    /**
+     * Removes an entry from whichever layout is currently used, without any
+     * further side effects
+     *
+     * @return Removed entry, possibly null if none existed
+     */
+    private BlockDataObject<D> clearEntry(int x, int y, int z) {
+        BlockDataObject<D> previous;
+        if (data == null) {
+            if (sparseKeys == null) {
+                return null;
+            }
+            previous = removeSparse(toSparseKey(x, y, z));
+        } else {
+            BlockDataObject<D>[] l4ZSection = getL4ZSubArrayAbsolute(x, y, false);
+            if (l4ZSection == null) {
+                return null;
+            }
+            previous = l4ZSection[z];
+            l4ZSection[z] = null;
+        }
+        if (previous != null) {
+            size--;
+            updateLayout();
+        }
+        return previous;
+    }
+
+    /**
+     * Switches to the layout fitting the amount of entries held
+     */
+    private void updateLayout() {
+        if (iterationDepth != 0) {
+            return;
+        }
+        if (data == null) {
+            if (size > SPARSE_MAX_ENTRIES) {
+                toDenseLayout();
+            }
+        } else if (size < DENSE_MIN_ENTRIES) {
+            toSparseLayout();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void toDenseLayout() {
+        int[] keys = sparseKeys;
+        BlockDataObject<D>[] values = sparseValues;
+        data = new BlockDataObject[L1_SECTION_COUNT][][][];
+        sparseKeys = null;
+        sparseValues = null;
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[i];
+            if (key == SPARSE_EMPTY_KEY) {
+                continue;
+            }
+            getL4ZSubArrayAbsolute(sparseKeyToX(key), sparseKeyToY(key), true)[sparseKeyToZ(key)] = values[i];
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void toSparseLayout() {
+        BlockDataObject<D>[][][][] dense = data;
+        data = null;
+        sparseKeys = null;
+        sparseValues = null;
+        if (size == 0) {
+            return;
+        }
+        allocateSparse(Math.max(SPARSE_INITIAL_CAPACITY, Integer.highestOneBit(size) << 2));
+        for (int i = 0; i < dense.length; i++) {
+            BlockDataObject[][][] l2Cache = dense[i];
+            if (l2Cache == null) {
+                continue;
+            }
+            for (int j = 0; j < l2Cache.length; j++) {
+                BlockDataObject[][] l3Cache = l2Cache[j];
+                if (l3Cache == null) {
+                    continue;
+                }
+                for (int k = 0; k < l3Cache.length; k++) {
+                    BlockDataObject[] l4Cache = l3Cache[k];
+                    if (l4Cache == null) {
+                        continue;
+                    }
+                    for (int l = 0; l < l4Cache.length; l++) {
+                        if (l4Cache[l] != null) {
+                            @SuppressWarnings("unchecked")
+                            BlockDataObject<D> value = l4Cache[l];
+                            int y = i * L1_SECTION_COUNT + j - 64;
+                            putSparse(toSparseKey(k, y, l), value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs a position within the chunk into a single non-negative int, which is
+     * used as key in the sparse layout
+     */
+    private static int toSparseKey(int x, int y, int z) {
+        return ((y + 64) << 8) | (x << 4) | z;
+    }
+
+    private static int sparseKeyToX(int key) {
+        return (key >> 4) & 0xF;
+    }
+
+    private static int sparseKeyToY(int key) {
+        return (key >> 8) - 64;
+    }
+
+    private static int sparseKeyToZ(int key) {
+        return key & 0xF;
+    }
+
+    private static int sparseHash(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * @return Index of the slot holding the given key or of the empty slot at
+     * which it would be inserted
+     */
+    private static int getSparseIndex(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int index = sparseHash(key, mask);
+        while (keys[index] != key && keys[index] != SPARSE_EMPTY_KEY) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocateSparse(int capacity) {
+        sparseKeys = new int[capacity];
+        Arrays.fill(sparseKeys, SPARSE_EMPTY_KEY);
+        sparseValues = new BlockDataObject[capacity];
+    }
+
+    private BlockDataObject<D> putSparse(int key, BlockDataObject<D> value) {
+        if (sparseKeys == null) {
+            allocateSparse(SPARSE_INITIAL_CAPACITY);
+        }
+        int index = getSparseIndex(sparseKeys, key);
+        if (sparseKeys[index] == key) {
+            BlockDataObject<D> previous = sparseValues[index];
+            sparseValues[index] = value;
+            return previous;
+        }
+        // keep the load factor at or below 3/4, counting the entry about to be inserted
+        if ((size + 1) * 4 > sparseKeys.length * 3) {
+            int[] oldKeys = sparseKeys;
+            BlockDataObject<D>[] oldValues = sparseValues;
+            allocateSparse(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != SPARSE_EMPTY_KEY) {
+                    int newIndex = getSparseIndex(sparseKeys, oldKeys[i]);
+                    sparseKeys[newIndex] = oldKeys[i];
+                    sparseValues[newIndex] = oldValues[i];
+                }
+            }
+            index = getSparseIndex(sparseKeys, key);
+        }
+        sparseKeys[index] = key;
+        sparseValues[index] = value;
+        return null;
+    }
+
+    private BlockDataObject<D> removeSparse(int key) {
+        int[] keys = sparseKeys;
+        BlockDataObject<D>[] values = sparseValues;
+        int mask = keys.length - 1;
+        int pos = getSparseIndex(keys, key);
+        if (keys[pos] != key) {
+            return null;
+        }
+        BlockDataObject<D> previous = values[pos];
+        // backward shift deletion, moves following entries of the same probe sequence into the freed slot
+        // so lookups never run into a gap in front of their key
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            int current;
+            while (true) {
+                current = keys[pos];
+                if (current == SPARSE_EMPTY_KEY) {
+                    keys[last] = SPARSE_EMPTY_KEY;
+                    values[last] = null;
+                    return previous;
+                }
+                int slot = sparseHash(current, mask);
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
     }
 
     /**
@@ -159,27 +430,7 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
 
     @Override
     public boolean isEmpty() {
-        for (BlockDataObject<D>[][][] l2 : data) {
-            if (l2 == null) {
-                continue;
-            }
-            for (BlockDataObject<D>[][] l3 : l2) {
-                if (l3 == null) {
-                    continue;
-                }
-                for (BlockDataObject<D>[] l4 : l3) {
-                    if (l4 == null) {
-                        continue;
-                    }
-                    for (BlockDataObject<D> element : l4) {
-                        if (element != null) {
-                            return false;
-                        }
-                    }
-                }
-            }
-        }
-        return true;
+        return size == 0;
     }
 
     /**
@@ -229,12 +480,11 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
         if (isNew) {
             setCacheState(CacheState.MODIFIED);
         }
-        BlockDataObject<D>[] l4ZSection = getL4ZSubArrayAbsolute(x, y, true);
-        if (deletePreexisting && l4ZSection[z] != null) {
+        if (deletePreexisting && getEntry(x, y, z) != null) {
             remove(x, y, z);
         }
         blockData.setOwningCache(this);
-        l4ZSection[z] = blockData;
+        setEntry(x, y, z, blockData);
     }
 
     /**
@@ -270,14 +520,13 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
             throw new IllegalArgumentException("Can not remove null from the cache");
         }
         Location loc = blockData.getLocation();
-        BlockDataObject<D>[] l4ZSection = getL4ZSubArrayAbsolute(modulo(loc.getBlockX()), loc.getBlockY(), false);
-        if (l4ZSection == null) {
+        int x = modulo(loc.getBlockX());
+        int y = loc.getBlockY();
+        int z = modulo(loc.getBlockZ());
+        if (getEntry(x, y, z) != blockData) {
             throw new IllegalArgumentException("Can not remove block data from cache, it is already gone");
         }
-        if (l4ZSection[modulo(loc.getBlockZ())] != blockData) {
-            throw new IllegalArgumentException("Can not remove block data from cache, it is already gone");
-        }
-        l4ZSection[modulo(loc.getBlockZ())] = null;
+        clearEntry(x, y, z);
         setCacheState(CacheState.MODIFIED);
     }
 
@@ -290,14 +539,9 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
      * @return Removed data
      */
     protected D remove(int x, int y, int z) {
-        BlockDataObject<D>[] l4ZSection = getL4ZSubArrayAbsolute(x, y, false);
-        if (l4ZSection == null) {
-            return null;
-        }
         @SuppressWarnings("unchecked")
-        D oldData = (D) l4ZSection[z];
+        D oldData = (D) clearEntry(x, y, z);
         if (oldData != null) {
-            l4ZSection[z] = null;
             setCacheState(CacheState.MODIFIED);
         }
         return oldData;
@@ -315,10 +559,44 @@ public abstract class BlockBasedChunkMeta<D extends BlockDataObject<D>, S extend
         return remove(modulo(location.getBlockX()), location.getBlockY(), modulo(location.getBlockZ()));
     }
 
-    @SuppressWarnings("rawtypes")
     public void iterateAll(Consumer<D> functionToApply) {
-        for (int i = 0; i < data.length; i++) {
-            BlockDataObject[][][] l2Cache = data[i];
+        iterationDepth++;
+        try {
+            if (data == null) {
+                iterateSparse(functionToApply);
+            } else {
+                iterateDense(data, functionToApply);
+            }
+        } finally {
+            iterationDepth--;
+            updateLayout();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void iterateSparse(Consumer<D> functionToApply) {
+        if (sparseKeys == null) {
+            return;
+        }
+        // entries may move when others are removed, so iterate over a copy and skip
+        // whatever was removed in the mean time
+        int[] keys = sparseKeys.clone();
+        BlockDataObject<D>[] values = sparseValues.clone();
+        for (int i = 0; i < keys.length; i++) {
+            int key = keys[i];
+            if (key == SPARSE_EMPTY_KEY) {
+                continue;
+            }
+            if (getEntry(sparseKeyToX(key), sparseKeyToY(key), sparseKeyToZ(key)) == values[i]) {
+                functionToApply.accept((D) values[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void iterateDense(BlockDataObject<D>[][][][] dense, Consumer<D> functionToApply) {
+        for (int i = 0; i < dense.length; i++) {
+            BlockDataObject[][][] l2Cache = dense[i];
             if (l2Cache == null) {
                 continue;
             }
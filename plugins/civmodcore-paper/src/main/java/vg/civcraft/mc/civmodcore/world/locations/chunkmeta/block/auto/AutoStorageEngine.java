@@ -1,5 +1,6 @@
 package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.auto;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -14,6 +15,7 @@ import org.bukkit.Location;
 import org.bukkit.World;
 import vg.civcraft.mc.civmodcore.CivModCorePlugin;
 import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
+import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.CacheState;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.ChunkCoord;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.XZWCoord;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.BlockBasedChunkMeta;
@@ -21,8 +23,20 @@ import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.BlockBasedStora
 
 public class AutoStorageEngine<D extends SerializableDataObject<D>> implements BlockBasedStorageEngine<D> {
 
-    private ManagedDatasource db;
-    private Logger logger;
+    /**
+     * Value of the data_format column for rows holding a text serialization
+     */
+    public static final byte TEXT_FORMAT = 0;
+    /**
+     * Value of the data_format column for rows holding a binary serialization,
+     * see {@link BinaryStorageEngine}
+     */
+    public static final byte BINARY_FORMAT = 1;
+
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
+    protected ManagedDatasource db;
+    protected Logger logger;
     private BiFunction<Location, String, D> dataDeserializer;
 
     public AutoStorageEngine(ManagedDatasource db, Logger logger,
@@ -32,8 +46,57 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
         this.dataDeserializer = dataDeserializer;
     }
 
+    /**
+     * @return Format this engine writes data in
+     */
+    protected byte getDataFormat() {
+        return TEXT_FORMAT;
+    }
+
+    /**
+     * Serializes data for storage in the format specified by
+     * {@link #getDataFormat()}
+     *
+     * @param data Data to serialize
+     * @return Serialized data
+     */
+    protected byte[] encode(D data) {
+        return data.serialize().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deserializes data loaded from the database
+     *
+     * @param location Location of the data
+     * @param format   Format the data is stored in
+     * @param rawData  Serialized data
+     * @return Deserialized data or null if it could not be deserialized
+     */
+    protected D decode(Location location, byte format, byte[] rawData) {
+        if (format != TEXT_FORMAT) {
+            logger.severe("Can not decode chunk data at " + location + " stored in format " + format);
+            return null;
+        }
+        return dataDeserializer.apply(location, new String(rawData, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Connection to the database the data is stored in
+     */
+    protected Connection getConnection() throws SQLException {
+        return db.getConnection();
+    }
+
+    /**
+     * @param worldID Internal id of a world
+     * @return World with the given id
+     */
+    protected World getWorld(short worldID) {
+        return CivModCorePlugin.getInstance().getWorldIdManager().getWorldByInternalID(worldID);
+    }
+
     protected void deleteData(short pluginID, D data) {
-        try (Connection insertConn = db.getConnection();
+        try (Connection insertConn = getConnection();
              PreparedStatement deleteChunk = insertConn.prepareStatement(
                  "delete from cmc_chunk_data where chunk_x = ? and chunk_z = ? and world_id = ? and plugin_id = ? and x_offset = ? and y = ? and z_offset = ?;")) {
             ChunkCoord chunkCoord = data.getOwningCache().getChunkCoord();
@@ -51,9 +114,9 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
     }
 
     protected void insertData(short pluginID, D data) {
-        try (Connection insertConn = db.getConnection();
+        try (Connection insertConn = getConnection();
              PreparedStatement insertChunk = insertConn.prepareStatement(
-                 "insert into cmc_chunk_data (chunk_x, chunk_z, world_id, plugin_id, x_offset, y, z_offset, data) values(?,?,?,?,?,?,?,?)")) {
+                 "insert into cmc_chunk_data (chunk_x, chunk_z, world_id, plugin_id, x_offset, y, z_offset, data, data_format) values(?,?,?,?,?,?,?,?,?)")) {
             ChunkCoord chunkCoord = data.getOwningCache().getChunkCoord();
             insertChunk.setInt(1, chunkCoord.getX());
             insertChunk.setInt(2, chunkCoord.getZ());
@@ -62,7 +125,8 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
             insertChunk.setByte(5, (byte) BlockBasedChunkMeta.modulo(data.getLocation().getBlockX()));
             insertChunk.setShort(6, (short) data.getLocation().getBlockY());
             insertChunk.setByte(7, (byte) BlockBasedChunkMeta.modulo(data.getLocation().getBlockZ()));
-            insertChunk.setString(8, data.serialize().toString());
+            insertChunk.setBytes(8, encode(data));
+            insertChunk.setByte(9, getDataFormat());
             insertChunk.execute();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to insert chunk data", e);
@@ -72,9 +136,9 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
     public void loadDataForChunk(short pluginID, ChunkCoord coord, Consumer<D> applyFunction) {
         int preMultipliedX = coord.getX() * 16;
         int preMultipliedZ = coord.getZ() * 16;
-        try (Connection insertConn = db.getConnection();
+        try (Connection insertConn = getConnection();
              PreparedStatement getData = insertConn.prepareStatement(
-                 "select x_offset, y, z_offset, data from cmc_chunk_data where chunk_x = ? and chunk_z = ? and world_id = ? and plugin_id = ?;")) {
+                 "select x_offset, y, z_offset, data, data_format from cmc_chunk_data where chunk_x = ? and chunk_z = ? and world_id = ? and plugin_id = ?;")) {
             getData.setInt(1, coord.getX());
             getData.setInt(2, coord.getZ());
             getData.setShort(3, coord.getWorldID());
@@ -87,10 +151,14 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
                     int zOffset = rs.getByte(3);
                     int z = zOffset + preMultipliedZ;
                     Location loc = new Location(coord.getWorld(), x, y, z);
-                    String rawData = rs.getString(4);
-                    D data = dataDeserializer.apply(loc, rawData);
+                    byte format = rs.getByte(5);
+                    D data = decode(loc, format, rs.getBytes(4));
                     if (data != null) {
                         applyFunction.accept(data);
+                        if (format != getDataFormat()) {
+                            // written back in the current format during the next save
+                            data.setCacheState(CacheState.MODIFIED);
+                        }
                     }
                 }
             }
@@ -102,30 +170,91 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
     }
 
     protected void updateData(short pluginID, D data) {
-        try (Connection insertConn = db.getConnection();
+        try (Connection insertConn = getConnection();
              PreparedStatement updateChunk = insertConn.prepareStatement(
-                 "update cmc_chunk_data set data = ? where chunk_x = ? and z = ? and world_id = ? and plugin_id = ? and x_offset = ? and y = ? and z_offset = ?;")) {
+                 "update cmc_chunk_data set data = ?, data_format = ? where chunk_x = ? and chunk_z = ? and world_id = ? and plugin_id = ? and x_offset = ? and y = ? and z_offset = ?;")) {
             ChunkCoord chunkCoord = data.getOwningCache().getChunkCoord();
-            updateChunk.setString(1, data.serialize().toString());
-            updateChunk.setInt(2, chunkCoord.getX());
-            updateChunk.setInt(3, chunkCoord.getZ());
-            updateChunk.setShort(4, chunkCoord.getWorldID());
-            updateChunk.setShort(5, pluginID);
-            updateChunk.setByte(6, (byte) BlockBasedChunkMeta.modulo(data.getLocation().getBlockX()));
-            updateChunk.setShort(7, (short) data.getLocation().getBlockY());
-            updateChunk.setByte(8, (byte) BlockBasedChunkMeta.modulo(data.getLocation().getBlockZ()));
+            updateChunk.setBytes(1, encode(data));
+            updateChunk.setByte(2, getDataFormat());
+            updateChunk.setInt(3, chunkCoord.getX());
+            updateChunk.setInt(4, chunkCoord.getZ());
+            updateChunk.setShort(5, chunkCoord.getWorldID());
+            updateChunk.setShort(6, pluginID);
+            updateChunk.setByte(7, (byte) BlockBasedChunkMeta.modulo(data.getLocation().getBlockX()));
+            updateChunk.setShort(8, (short) data.getLocation().getBlockY());
+            updateChunk.setByte(9, (byte) BlockBasedChunkMeta.modulo(data.getLocation().getBlockZ()));
             updateChunk.execute();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to update chunk data", e);
         }
     }
 
+    /**
+     * Rewrites all rows of the given plugin which are not stored in the format
+     * this engine writes, for example to convert existing text data after
+     * switching to a {@link BinaryStorageEngine}. Rows are converted in place,
+     * chunks which are not converted by this are converted once they are loaded
+     * and saved again. Should be called before any chunk data of the plugin is
+     * loaded
+     *
+     * @param pluginID Internal id of the plugin to convert data for
+     * @return Amount of rows converted
+     */
+    public int convertDataFormat(short pluginID) {
+        int converted = 0;
+        try (Connection conn = getConnection();
+             PreparedStatement selectData = conn.prepareStatement(
+                 "select chunk_x, chunk_z, world_id, x_offset, y, z_offset, data, data_format from cmc_chunk_data "
+                     + "where plugin_id = ? and data_format != ?;");
+             PreparedStatement updateData = conn.prepareStatement(
+                 "update cmc_chunk_data set data = ?, data_format = ? where chunk_x = ? and chunk_z = ? and world_id = ? "
+                     + "and plugin_id = ? and x_offset = ? and y = ? and z_offset = ?;")) {
+            selectData.setShort(1, pluginID);
+            selectData.setByte(2, getDataFormat());
+            int batchCounter = 0;
+            try (ResultSet rs = selectData.executeQuery()) {
+                while (rs.next()) {
+                    int chunkX = rs.getInt(1);
+                    int chunkZ = rs.getInt(2);
+                    short worldID = rs.getShort(3);
+                    byte xOffset = rs.getByte(4);
+                    short y = rs.getShort(5);
+                    byte zOffset = rs.getByte(6);
+                    Location loc = new Location(getWorld(worldID), chunkX * 16 + xOffset, y, chunkZ * 16 + zOffset);
+                    D data = decode(loc, rs.getByte(8), rs.getBytes(7));
+                    if (data == null) {
+                        continue;
+                    }
+                    updateData.setBytes(1, encode(data));
+                    updateData.setByte(2, getDataFormat());
+                    updateData.setInt(3, chunkX);
+                    updateData.setInt(4, chunkZ);
+                    updateData.setShort(5, worldID);
+                    updateData.setShort(6, pluginID);
+                    updateData.setByte(7, xOffset);
+                    updateData.setShort(8, y);
+                    updateData.setByte(9, zOffset);
+                    updateData.addBatch();
+                    converted++;
+                    if (++batchCounter >= MIGRATION_BATCH_SIZE) {
+                        batchCounter = 0;
+                        updateData.executeBatch();
+                    }
+                }
+            }
+            updateData.executeBatch();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to convert chunk data", e);
+        }
+        return converted;
+    }
+
     @Override
     public List<XZWCoord> getAllDataChunks() {
         List<XZWCoord> result = new ArrayList<>();
-        try (Connection insertConn = db.getConnection();
+        try (Connection insertConn = getConnection();
              PreparedStatement getChunks = insertConn.prepareStatement(
-                 "select x, z, world_id from cmc_chunk_data group by chunk_x, chunk_z, world_id;");
+                 "select chunk_x, chunk_z, world_id from cmc_chunk_data group by chunk_x, chunk_z, world_id;");
              ResultSet rs = getChunks.executeQuery()) {
             while (rs.next()) {
                 int x = rs.getInt(1);
@@ -148,26 +277,25 @@ public class AutoStorageEngine<D extends SerializableDataObject<D>> implements B
     public D getForLocation(int x, int y, int z, short worldID, short pluginID) {
         int chunkX = BlockBasedChunkMeta.toChunkCoord(x);
         int chunkZ = BlockBasedChunkMeta.toChunkCoord(z);
-        try (Connection insertConn = db.getConnection();
+        try (Connection insertConn = getConnection();
              PreparedStatement selectRein = insertConn.prepareStatement(
-                 "select data from cmc_chunk_data where chunk_x = ? and chunk_z = ? and world_id = ? and plugin_id = ? and x_offset = ? and y = ? and z_offset = ?;");) {
+                 "select data, data_format from cmc_chunk_data where chunk_x = ? and chunk_z = ? and world_id = ? and plugin_id = ? and x_offset = ? and y = ? and z_offset = ?;");) {
             selectRein.setInt(1, chunkX);
             selectRein.setInt(2, chunkZ);
             selectRein.setShort(3, worldID);
-            selectRein.setByte(4, (byte) BlockBasedChunkMeta.modulo(x));
-            selectRein.setShort(5, (short) y);
-            selectRein.setByte(6, (byte) BlockBasedChunkMeta.modulo(z));
+            selectRein.setShort(4, pluginID);
+            selectRein.setByte(5, (byte) BlockBasedChunkMeta.modulo(x));
+            selectRein.setShort(6, (short) y);
+            selectRein.setByte(7, (byte) BlockBasedChunkMeta.modulo(z));
             try (ResultSet rs = selectRein.executeQuery()) {
                 if (!rs.next()) {
                     return null;
                 }
-                World world = CivModCorePlugin.getInstance().getWorldIdManager().getWorldByInternalID(worldID);
-                Location loc = new Location(world, x, y, z);
-                String rawData = rs.getString(1);
-                return dataDeserializer.apply(loc, rawData);
+                Location loc = new Location(getWorld(worldID), x, y, z);
+                return decode(loc, rs.getByte(2), rs.getBytes(1));
             }
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Failed to load jsoned data from db: ", e);
+            logger.log(Level.SEVERE, "Failed to load serialized data from db: ", e);
             return null;
         }
     }
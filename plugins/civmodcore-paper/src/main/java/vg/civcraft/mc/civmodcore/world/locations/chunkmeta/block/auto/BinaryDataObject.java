@@ -0,0 +1,57 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.auto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import org.bukkit.Location;
+
+public abstract class BinaryDataObject<D extends BinaryDataObject<D>> extends SerializableDataObject<D> {
+
+    /**
+     * Version of the envelope written around the data of each object
+     */
+    static final byte CODEC_VERSION = 1;
+
+    public BinaryDataObject(Location location, boolean isNew) {
+        super(location, isNew);
+    }
+
+    /**
+     * Writes the data of this object. The layout written is identified by
+     * {@link #getDataVersion()}, which is handed to the deserializer when reading
+     * it again
+     *
+     * @param out Output to write to
+     */
+    protected abstract void concreteSerialize(DataOutput out) throws IOException;
+
+    /**
+     * @return Version of the layout written by
+     * {@link #concreteSerialize(DataOutput)}. Should be increased whenever that
+     * layout changes, so data written in older layouts can still be read
+     */
+    public int getDataVersion() {
+        return 0;
+    }
+
+    public byte[] serializeBinary() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CODEC_VERSION);
+            out.writeShort(getDataVersion());
+            concreteSerialize(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public String serialize() {
+        return Base64.getEncoder().encodeToString(serializeBinary());
+    }
+
+}
@@ -0,0 +1,90 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.auto;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.function.BiFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.Location;
+import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
+
+/**
+ * Stores data in a compact binary encoding instead of a text serialization,
+ * which avoids parsing a text document for every row loaded.
+ * <p>
+ * Rows written by a text based engine can still be read if a legacy
+ * deserializer is given. They are converted to the binary encoding once the
+ * chunk they are in is saved again, or all at once through
+ * {@link #convertDataFormat(short)}
+ */
+public class BinaryStorageEngine<D extends BinaryDataObject<D>> extends AutoStorageEngine<D> {
+
+    @FunctionalInterface
+    public interface BinaryDeserializer<D> {
+
+        /**
+         * @param location    Location of the data
+         * @param dataVersion Layout version the data was written with, see
+         *                    {@link BinaryDataObject#getDataVersion()}
+         * @param in          Input to read the data from
+         * @return Deserialized data
+         */
+        D deserialize(Location location, int dataVersion, DataInput in) throws IOException;
+
+    }
+
+    private final BinaryDeserializer<D> binaryDeserializer;
+    private final BiFunction<Location, String, D> legacyDeserializer;
+
+    public BinaryStorageEngine(ManagedDatasource db, Logger logger, BinaryDeserializer<D> binaryDeserializer) {
+        this(db, logger, binaryDeserializer, null);
+    }
+
+    /**
+     * @param legacyDeserializer Deserializer for rows written in the text format
+     *                           by a previously used engine, may be null if
+     *                           there are none
+     */
+    public BinaryStorageEngine(ManagedDatasource db, Logger logger, BinaryDeserializer<D> binaryDeserializer,
+                               BiFunction<Location, String, D> legacyDeserializer) {
+        super(db, logger, legacyDeserializer);
+        this.binaryDeserializer = binaryDeserializer;
+        this.legacyDeserializer = legacyDeserializer;
+    }
+
+    @Override
+    protected byte getDataFormat() {
+        return BINARY_FORMAT;
+    }
+
+    @Override
+    protected byte[] encode(D data) {
+        return data.serializeBinary();
+    }
+
+    @Override
+    protected D decode(Location location, byte format, byte[] rawData) {
+        if (format == TEXT_FORMAT && legacyDeserializer != null) {
+            return super.decode(location, format, rawData);
+        }
+        if (format != BINARY_FORMAT) {
+            logger.severe("Can not decode chunk data at " + location + " stored in format " + format);
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(rawData))) {
+            byte codecVersion = in.readByte();
+            if (codecVersion != BinaryDataObject.CODEC_VERSION) {
+                logger.severe("Can not decode chunk data at " + location + " with codec version " + codecVersion);
+                return null;
+            }
+            int dataVersion = in.readUnsignedShort();
+            return binaryDeserializer.deserialize(location, dataVersion, in);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to decode chunk data at " + location, e);
+            return null;
+        }
+    }
+
+}
@@ -9,12 +9,10 @@ import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
 
 public class JsonStorageEngine<D extends JsonableDataObject<D>> extends AutoStorageEngine<D> {
 
-    private static final JsonParser jsonParser = new JsonParser();
-
     public JsonStorageEngine(ManagedDatasource db, Logger logger,
                              BiFunction<Location, JsonObject, D> dataDeserializer) {
         super(db, logger, (l, s) -> {
-            return dataDeserializer.apply(l, (JsonObject) jsonParser.parse(s));
+            return dataDeserializer.apply(l, JsonParser.parseString(s).getAsJsonObject());
         });
     }
 
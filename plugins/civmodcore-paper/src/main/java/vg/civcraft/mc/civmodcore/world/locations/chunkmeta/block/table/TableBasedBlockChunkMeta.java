@@ -6,6 +6,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.bukkit.Location;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.CacheState;
+import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.ChunkMeta;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.BlockBasedChunkMeta;
 
 public abstract class TableBasedBlockChunkMeta<D extends TableBasedDataObject>
@@ -99,10 +100,18 @@ public abstract class TableBasedBlockChunkMeta<D extends TableBasedDataObject>
 
     @Override
     public void populate() {
-        storage.fill(this, data -> {
-            Location loc = data.getLocation();
-            put(modulo(loc.getBlockX()), loc.getBlockY(), modulo(loc.getBlockZ()), data, false);
-        });
+        storage.fill(this, this::putLoaded);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void populateAll(List<? extends ChunkMeta<?>> metas) {
+        storage.fillAll((List<TableBasedBlockChunkMeta<D>>) metas, TableBasedBlockChunkMeta::putLoaded);
+    }
+
+    private void putLoaded(D data) {
+        Location loc = data.getLocation();
+        put(modulo(loc.getBlockX()), loc.getBlockY(), modulo(loc.getBlockZ()), data, false);
     }
 
 }
@@ -1,5 +1,7 @@
 package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.table;
 
+import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
@@ -34,6 +36,41 @@ public abstract class TableStorageEngine<D extends TableBasedDataObject>
 
     public abstract void fill(TableBasedBlockChunkMeta<D> chunkData, Consumer<D> insertFunction);
 
+    /**
+     * Loads the data of multiple chunks at once. All given chunks are in the same
+     * world. Engines should override this to retrieve the data of all chunks with
+     * a single query, by default each chunk is filled separately
+     *
+     * @param chunkDatas     Chunks to load data for
+     * @param insertFunction Function to hand each loaded data object together
+     *                       with the chunk it belongs to
+     */
+    public void fillAll(List<TableBasedBlockChunkMeta<D>> chunkDatas,
+                        BiConsumer<TableBasedBlockChunkMeta<D>, D> insertFunction) {
+        for (TableBasedBlockChunkMeta<D> chunkData : chunkDatas) {
+            fill(chunkData, data -> insertFunction.accept(chunkData, data));
+        }
+    }
+
+    /**
+     * Creates a condition matching the rows of the given amount of chunks, meant
+     * for queries used in {@link #fillAll(List, BiConsumer)}. Each chunk takes two
+     * parameters, first its x- and then its z-coordinate
+     *
+     * @param chunkCount Amount of chunks to match
+     * @return SQL condition with placeholders for all chunk coordinates
+     */
+    protected static String chunkListCondition(int chunkCount) {
+        StringBuilder sb = new StringBuilder("(chunk_x, chunk_z) in (");
+        for (int i = 0; i < chunkCount; i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append("(?, ?)");
+        }
+        return sb.append(')').toString();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void persist(TableBasedDataObject data, short worldID, short pluginID) {
@@ -0,0 +1,110 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe histogram of non-negative values with exponentially growing
+ * buckets. Bucket 0 counts zeros, bucket i counts values from 2^(i-1) up to
+ * 2^i - 1 and the last bucket counts everything larger. Recording never locks
+ */
+public class Histogram {
+
+    public static final int BUCKET_COUNT = 32;
+
+    public static class Snapshot {
+
+        public final long[] buckets;
+        public final long count;
+        public final long sum;
+        public final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long mean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the bucket it falls into,
+         * which means the result can be up to twice the actual value
+         *
+         * @param percentile Percentile to estimate, between 0 and 100
+         * @return Estimated value at the given percentile
+         */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(max, bucketUpperBound(i));
+                }
+            }
+            return max;
+        }
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param bucket Index of the bucket
+     * @return Largest value counted in the given bucket
+     */
+    public static long bucketUpperBound(int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+
+    private static int bucketFor(long value) {
+        return Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(value));
+    }
+
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records the same value several times at once
+     *
+     * @param value Value to record, negative values are treated as 0
+     * @param times How often the value is recorded
+     */
+    public void record(long value, int times) {
+        if (times <= 0) {
+            return;
+        }
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.addAndGet(bucketFor(value), times);
+        count.addAndGet(times);
+        sum.addAndGet(value * times);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return Copy of the current state. As recording does not lock, a snapshot
+     * taken concurrently may be off by the values recorded in the mean time
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = buckets.get(i);
+        }
+        return new Snapshot(copy, count.get(), sum.get(), max.get());
+    }
+}
@@ -30,15 +30,63 @@ public class LoadStatistic {
         }
     }
 
+    public static class WorldSave {
+
+        public final World world;
+        public final int lastFlushedChunks;
+        public final long totalFlushedChunks;
+        public final long saveCount;
+
+        public WorldSave(World world, int lastFlushedChunks, long totalFlushedChunks, long saveCount) {
+            this.world = world;
+            this.lastFlushedChunks = lastFlushedChunks;
+            this.totalFlushedChunks = totalFlushedChunks;
+            this.saveCount = saveCount;
+        }
+    }
+
+    public static class WorldQueues {
+
+        public final World world;
+        public final int unloadingQueueSize;
+        public final int loadingQueueSize;
+        /**
+         * Time chunks spent in the loading queue in microseconds
+         */
+        public final Histogram.Snapshot waitMicros;
+        /**
+         * Sizes of the unloading queue, sampled with each poll
+         */
+        public final Histogram.Snapshot unloadingQueueSizes;
+        /**
+         * Sizes of the loading queue, sampled with each poll
+         */
+        public final Histogram.Snapshot loadingQueueSizes;
+
+        public WorldQueues(World world, int unloadingQueueSize, int loadingQueueSize, Histogram.Snapshot waitMicros,
+                           Histogram.Snapshot unloadingQueueSizes, Histogram.Snapshot loadingQueueSizes) {
+            this.world = world;
+            this.unloadingQueueSize = unloadingQueueSize;
+            this.loadingQueueSize = loadingQueueSize;
+            this.waitMicros = waitMicros;
+            this.unloadingQueueSizes = unloadingQueueSizes;
+            this.loadingQueueSizes = loadingQueueSizes;
+        }
+    }
+
     public final int worldCount;
     public final int threadCount;
     public final List<WorldThreads> worldThreadsList;
     public final List<PluginStatistic> pluginStatistics;
+    public final List<WorldSave> worldSaves;
+    public final List<WorldQueues> worldQueuesList;
 
-    public LoadStatistic(int worldCount, int threadCount, List<WorldThreads> worldThreadsList, List<PluginStatistic> pluginStatistics) {
+    public LoadStatistic(int worldCount, int threadCount, List<WorldThreads> worldThreadsList, List<PluginStatistic> pluginStatistics, List<WorldSave> worldSaves, List<WorldQueues> worldQueuesList) {
         this.worldCount = worldCount;
         this.threadCount = threadCount;
         this.worldThreadsList = worldThreadsList;
         this.pluginStatistics = pluginStatistics;
+        this.worldSaves = worldSaves;
+        this.worldQueuesList = worldQueuesList;
     }
 }
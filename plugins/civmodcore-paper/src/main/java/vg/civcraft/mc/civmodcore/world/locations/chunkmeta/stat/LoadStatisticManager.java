@@ -4,10 +4,12 @@ import org.bukkit.Bukkit;
 import org.bukkit.World;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 
 public class LoadStatisticManager {
 
@@ -31,7 +33,26 @@ public class LoadStatisticManager {
         }
     }
 
+    private static class WorldQueues {
+
+        public final IntSupplier unloadingQueueSize;
+        public final IntSupplier loadingQueueSize;
+        public final Histogram waitMicros = new Histogram();
+        public final Histogram unloadingQueueSizes = new Histogram();
+        public final Histogram loadingQueueSizes = new Histogram();
+
+        public WorldQueues(IntSupplier unloadingQueueSize, IntSupplier loadingQueueSize) {
+            this.unloadingQueueSize = unloadingQueueSize;
+            this.loadingQueueSize = loadingQueueSize;
+        }
+    }
+
     private static LoadStatisticManager instance;
+    /**
+     * Queues of all worlds, kept independently of whether statistics are enabled,
+     * because worlds are set up before statistics are enabled
+     */
+    private static final Map<UUID, WorldQueues> queues = new ConcurrentHashMap<>();
 
     public static void enable() {
         instance = new LoadStatisticManager();
@@ -46,6 +67,25 @@ public class LoadStatisticManager {
         instance = null;
     }
 
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * Registers the queues of a world, whose sizes are sampled with each poll
+     *
+     * @param world              World the queues belong to
+     * @param unloadingQueueSize Current size of the queue of chunks waiting to be unloaded
+     * @param loadingQueueSize   Current size of the queue of chunks waiting to be loaded
+     */
+    public static void registerQueues(World world, IntSupplier unloadingQueueSize, IntSupplier loadingQueueSize) {
+        queues.put(world.getUID(), new WorldQueues(unloadingQueueSize, loadingQueueSize));
+    }
+
+    public static void unregisterQueues(World world) {
+        queues.remove(world.getUID());
+    }
+
     public static void registerPlugin(String name, short id) {
         if (instance == null)
             return;
@@ -69,6 +109,69 @@ public class LoadStatisticManager {
         instance.actions.add(action);
     }
 
+    /**
+     * Called after data of a plugin was loaded for one or more chunks at once. The
+     * chunks of a batch are recorded with the average time per chunk of the batch
+     *
+     * @param pluginId    Internal id of the plugin
+     * @param chunkCount  Amount of chunks loaded together
+     * @param timeNanoSec Time taken to load all of them
+     */
+    public static void loaded(short pluginId, int chunkCount, long timeNanoSec) {
+        if (instance == null || chunkCount <= 0)
+            return;
+
+        instance.loadTimes.computeIfAbsent(pluginId, id -> new Histogram())
+                .record(TimeUnit.NANOSECONDS.toMicros(timeNanoSec / chunkCount), chunkCount);
+    }
+
+    /**
+     * Called after modified data of a plugin was written to the database for one chunk
+     *
+     * @param pluginId    Internal id of the plugin
+     * @param timeNanoSec Time taken to write it
+     */
+    public static void persisted(short pluginId, long timeNanoSec) {
+        if (instance == null)
+            return;
+
+        instance.persistTimes.computeIfAbsent(pluginId, id -> new Histogram())
+                .record(TimeUnit.NANOSECONDS.toMicros(timeNanoSec));
+    }
+
+    /**
+     * Called when a chunk loading thread takes a chunk from the loading queue
+     *
+     * @param world       World the chunk is in
+     * @param timeNanoSec Time the chunk spent in the loading queue
+     */
+    public static void waited(World world, long timeNanoSec) {
+        if (instance == null)
+            return;
+
+        WorldQueues worldQueues = queues.get(world.getUID());
+        if (worldQueues != null)
+            worldQueues.waitMicros.record(TimeUnit.NANOSECONDS.toMicros(timeNanoSec));
+    }
+
+    /**
+     * Called after each regular save of a world
+     *
+     * @param world         World which was saved
+     * @param flushedChunks Amount of modified chunks written to the database
+     */
+    public static void saved(World world, int flushedChunks) {
+        if (instance == null)
+            return;
+
+        instance.saves.compute(world.getUID(), (worldId, prev) -> {
+            if (prev == null)
+                return new LoadStatistic.WorldSave(world, flushedChunks, flushedChunks, 1);
+
+            return new LoadStatistic.WorldSave(world, flushedChunks, prev.totalFlushedChunks + flushedChunks, prev.saveCount + 1);
+        });
+    }
+
     public static LoadStatistic getLoadStatistic() {
         if (instance == null)
             return null;
@@ -81,18 +184,25 @@ public class LoadStatisticManager {
     private final ConcurrentLinkedQueue<Action> actions;
     private final Map<UUID, Map<Integer, Action>> worlds;
     private final Map<Short, PluginStatistic> plugins;
+    private final Map<UUID, LoadStatistic.WorldSave> saves;
+    private final Map<Short, Histogram> loadTimes;
+    private final Map<Short, Histogram> persistTimes;
     private final ScheduledExecutorService scheduler;
 
     private LoadStatisticManager() {
         this.actions = new ConcurrentLinkedQueue<>();
         this.worlds = new HashMap<>();
         this.plugins = new HashMap<>();
+        this.saves = new ConcurrentHashMap<>();
+        this.loadTimes = new ConcurrentHashMap<>();
+        this.persistTimes = new ConcurrentHashMap<>();
         this.scheduler = Executors.newScheduledThreadPool(1);
     }
 
     private void startPolling() {
         scheduler.scheduleWithFixedDelay(() -> {
             poll();
+            sampleQueues();
         }, PollIntervalMilliseconds, PollIntervalMilliseconds, TimeUnit.MILLISECONDS);
     }
 
@@ -109,8 +219,12 @@ public class LoadStatisticManager {
 
     private synchronized LoadStatistic getLoadStatisticInternal() {
         List<PluginStatistic> pluginStatistics = new ArrayList<>();
-        for (PluginStatistic statistic : plugins.values())
-            pluginStatistics.add(statistic.clone());
+        for (PluginStatistic statistic : plugins.values()) {
+            PluginStatistic copy = statistic.clone();
+            copy.batchAvgLoadTimeMicros = snapshot(this.loadTimes.get(statistic.pluginId));
+            copy.persistTimeMicros = snapshot(this.persistTimes.get(statistic.pluginId));
+            pluginStatistics.add(copy);
+        }
 
         Collections.sort(pluginStatistics, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.pluginName, b.pluginName));
 
@@ -130,7 +244,29 @@ public class LoadStatisticManager {
 
         Collections.sort(worldThreadsList, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.world.getName(), b.world.getName()));
 
-        return new LoadStatistic(this.worlds.size(), threadCount, worldThreadsList, pluginStatistics);
+        List<LoadStatistic.WorldSave> worldSaves = new ArrayList<>(this.saves.values());
+        Collections.sort(worldSaves, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.world.getName(), b.world.getName()));
+
+        List<LoadStatistic.WorldQueues> worldQueuesList = new ArrayList<>();
+        for (Map.Entry<UUID, WorldQueues> entry : queues.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null)
+                continue;
+
+            WorldQueues worldQueues = entry.getValue();
+            worldQueuesList.add(new LoadStatistic.WorldQueues(world,
+                    worldQueues.unloadingQueueSize.getAsInt(), worldQueues.loadingQueueSize.getAsInt(),
+                    worldQueues.waitMicros.snapshot(), worldQueues.unloadingQueueSizes.snapshot(),
+                    worldQueues.loadingQueueSizes.snapshot()));
+        }
+
+        Collections.sort(worldQueuesList, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(a.world.getName(), b.world.getName()));
+
+        return new LoadStatistic(this.worlds.size(), threadCount, worldThreadsList, pluginStatistics, worldSaves, worldQueuesList);
+    }
+
+    private static Histogram.Snapshot snapshot(Histogram histogram) {
+        return (histogram != null ? histogram : new Histogram()).snapshot();
     }
 
     private LoadStatistic.WorldThreads createWorldThreads(UUID worldId, Map<Integer, Action> worldActions) {
@@ -178,6 +314,13 @@ public class LoadStatisticManager {
         }
     }
 
+    private void sampleQueues() {
+        for (WorldQueues worldQueues : queues.values()) {
+            worldQueues.unloadingQueueSizes.record(worldQueues.unloadingQueueSize.getAsInt());
+            worldQueues.loadingQueueSizes.record(worldQueues.loadingQueueSize.getAsInt());
+        }
+    }
+
     private void addStatistic(Action prev, Action current) {
         if (prev.pluginId != current.pluginId)
             return;
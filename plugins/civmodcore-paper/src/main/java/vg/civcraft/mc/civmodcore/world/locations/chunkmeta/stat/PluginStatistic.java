@@ -11,6 +11,19 @@ public class PluginStatistic {
 
     public boolean isInitialized;
 
+    /**
+     * Distribution of the average time per chunk of each load in microseconds.
+     * Chunks loaded together in one batch all count with the average of their
+     * batch, as they can't be timed individually. Only set on copies handed out
+     * as part of a {@link LoadStatistic}
+     */
+    public Histogram.Snapshot batchAvgLoadTimeMicros;
+    /**
+     * Distribution of the time taken to write modified data of a single chunk in
+     * microseconds. Only set on copies handed out as part of a {@link LoadStatistic}
+     */
+    public Histogram.Snapshot persistTimeMicros;
+
     public PluginStatistic(short pluginId, String pluginName) {
         this.pluginId = pluginId;
         this.pluginName = pluginName;
@@ -23,6 +36,8 @@ public class PluginStatistic {
         chunkLoadMinTimeNanoSec = original.chunkLoadMinTimeNanoSec;
         chunkLoadMaxTimeNanoSec = original.chunkLoadMaxTimeNanoSec;
         isInitialized = original.isInitialized;
+        batchAvgLoadTimeMicros = original.batchAvgLoadTimeMicros;
+        persistTimeMicros = original.persistTimeMicros;
     }
 
     public PluginStatistic clone() {
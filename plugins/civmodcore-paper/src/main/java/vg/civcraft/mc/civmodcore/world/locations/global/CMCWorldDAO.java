@@ -107,6 +107,10 @@ public class CMCWorldDAO {
                 "add column y smallint not null," +
                 "add column z_offset tinyint unsigned not null," +
                 "add primary key(world_id, chunk_x, chunk_z, plugin_id, x_offset, y, z_offset)");
+        // existing text data keeps its bytes, data_format tells it apart from binary data
+        db.registerMigration(3, false,
+            "alter table cmc_chunk_data modify column data mediumblob not null," +
+                "add column data_format tinyint unsigned not null default 0");
     }
 
     public boolean updateDatabase() {
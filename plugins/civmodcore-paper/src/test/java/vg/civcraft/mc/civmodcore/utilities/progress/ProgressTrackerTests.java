@@ -0,0 +1,150 @@
+package vg.civcraft.mc.civmodcore.utilities.progress;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProgressTrackerTests {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private long now = START;
+
+    private ProgressTracker<Item> createTracker(int maxItemsPerRun) {
+        return new ProgressTracker<>(maxItemsPerRun, () -> now);
+    }
+
+    /**
+     * Tests whether an item is updated once its time has come, but not before.
+     */
+    @Test
+    public void testScheduling() {
+        // Setup
+        final ProgressTracker<Item> tracker = createTracker(0);
+        final Item item = new Item(START + 120);
+        tracker.addItem(item);
+        // Process
+        now = START + 60;
+        final long nextUpdate = tracker.processItems();
+        // Check
+        Assertions.assertEquals(0, item.updates);
+        Assertions.assertEquals(START + 150, nextUpdate, "Update time should be rounded up to a full tick");
+        now = nextUpdate;
+        Assertions.assertEquals(Long.MAX_VALUE, tracker.processItems());
+        Assertions.assertEquals(1, item.updates);
+        Assertions.assertEquals(0, tracker.size());
+    }
+
+    /**
+     * Tests whether items far in the future are cascaded down and reported with their actual update time.
+     */
+    @Test
+    public void testCascade() {
+        // Setup
+        final ProgressTracker<Item> tracker = createTracker(0);
+        final Item hour = new Item(START + 3_600_000);
+        final Item day = new Item(START + 86_400_000);
+        tracker.addItem(day);
+        tracker.addItem(hour);
+        // Process
+        final long firstUpdate = tracker.processItems();
+        now = firstUpdate - ProgressTracker.TICK_MILLIS;
+        final long beforeUpdate = tracker.processItems();
+        now = firstUpdate;
+        final long secondUpdate = tracker.processItems();
+        // Check
+        Assertions.assertEquals(START + 3_600_000, firstUpdate);
+        Assertions.assertEquals(firstUpdate, beforeUpdate);
+        Assertions.assertEquals(1, hour.updates);
+        Assertions.assertEquals(0, day.updates);
+        Assertions.assertEquals(START + 86_400_000, secondUpdate);
+        now = secondUpdate;
+        tracker.processItems();
+        Assertions.assertEquals(1, day.updates);
+    }
+
+    /**
+     * Tests whether removed and rescheduled items are no longer updated at their old time.
+     */
+    @Test
+    public void testRemoval() {
+        // Setup
+        final ProgressTracker<Item> tracker = createTracker(0);
+        final Item removed = new Item(START + 1_000);
+        final Item moved = new Item(START + 1_000);
+        tracker.addItem(removed);
+        tracker.addItem(moved);
+        // Process
+        tracker.removeItem(removed);
+        tracker.updateItem(moved, START + 500_000);
+        now = START + 1_000;
+        final long nextUpdate = tracker.processItems();
+        // Check
+        Assertions.assertFalse(tracker.containsItem(removed));
+        Assertions.assertTrue(tracker.containsItem(moved));
+        Assertions.assertEquals(0, removed.updates);
+        Assertions.assertEquals(0, moved.updates);
+        Assertions.assertEquals(START + 500_000, nextUpdate);
+        tracker.removeItem(moved);
+        Assertions.assertEquals(Long.MAX_VALUE, tracker.processItems());
+    }
+
+    /**
+     * Tests whether due items exceeding the budget of a run are left for the following runs.
+     */
+    @Test
+    public void testBudgetDeferral() {
+        // Setup
+        final ProgressTracker<Item> tracker = createTracker(2);
+        final Item[] items = new Item[5];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new Item(START + 100);
+            tracker.addItem(items[i]);
+        }
+        now = START + 100;
+        // Process
+        final long firstRun = tracker.processItems();
+        // Check
+        Assertions.assertEquals(2, tracker.getProcessedCount());
+        Assertions.assertEquals(3, tracker.getDeferredCount());
+        Assertions.assertEquals(now, firstRun, "Deferred items should be due right away");
+        tracker.processItems();
+        Assertions.assertEquals(4, tracker.getProcessedCount());
+        Assertions.assertEquals(4, tracker.getDeferredCount());
+        Assertions.assertEquals(Long.MAX_VALUE, tracker.processItems());
+        for (final Item item : items) {
+            Assertions.assertEquals(1, item.updates);
+        }
+    }
+
+    private static final class Item implements ProgressTrackable {
+
+        private long nextUpdate;
+        private int updates;
+
+        private Item(final long nextUpdate) {
+            this.nextUpdate = nextUpdate;
+        }
+
+        @Override
+        public long getNextUpdate() {
+            return nextUpdate;
+        }
+
+        @Override
+        public void updateInternalProgressTime(final long update) {
+            this.nextUpdate = update;
+        }
+
+        @Override
+        public void updateState() {
+            updates++;
+            nextUpdate = Long.MAX_VALUE;
+        }
+
+        @Override
+        public int compareTo(final ProgressTrackable other) {
+            return Long.compare(nextUpdate, other.getNextUpdate());
+        }
+    }
+
+}
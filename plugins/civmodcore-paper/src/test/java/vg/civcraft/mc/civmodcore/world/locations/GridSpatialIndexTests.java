@@ -0,0 +1,197 @@
+package vg.civcraft.mc.civmodcore.world.locations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GridSpatialIndexTests {
+
+    private static final int CELL_SIZE = 16;
+
+    private static Set<Box> find(final SpatialIndex<Box> index, final int x, final int z,
+                                 final boolean includeBorder) {
+        final Set<Box> result = new HashSet<>();
+        index.find(x, z, includeBorder, result);
+        return result;
+    }
+
+    /**
+     * Tests whether boxes ending or starting right at a cell edge are found on both sides of it, but not beyond.
+     */
+    @Test
+    public void testCellEdges() {
+        // Setup
+        final GridSpatialIndex<Box> index = new GridSpatialIndex<>(0, CELL_SIZE);
+        final Box left = new Box(0, 15, 0, 15);
+        final Box right = new Box(16, 31, 0, 15);
+        final Box spanning = new Box(15, 16, 15, 16);
+        // Process
+        index.add(left);
+        index.add(right);
+        index.add(spanning);
+        // Check
+        Assertions.assertEquals(Set.of(left, spanning), find(index, 15, 15, false));
+        Assertions.assertEquals(Set.of(right, spanning), find(index, 16, 15, false));
+        Assertions.assertEquals(Set.of(spanning), find(index, 16, 16, false));
+        Assertions.assertEquals(Set.of(left), find(index, 0, 0, false));
+        Assertions.assertEquals(Set.of(right), find(index, 31, 0, false));
+        Assertions.assertEquals(Set.of(), find(index, 32, 0, false));
+        Assertions.assertEquals(Set.of(), find(index, -1, 0, false));
+    }
+
+    /**
+     * Tests whether cells at negative coordinates are rounded down, so boxes around the origin are found in all four
+     * quadrants.
+     */
+    @Test
+    public void testNegativeCells() {
+        // Setup
+        final GridSpatialIndex<Box> index = new GridSpatialIndex<>(0, CELL_SIZE);
+        final Box origin = new Box(-1, 0, -1, 0);
+        final Box negative = new Box(-32, -17, -32, -17);
+        // Process
+        index.add(origin);
+        index.add(negative);
+        // Check
+        Assertions.assertEquals(Set.of(origin), find(index, -1, -1, false));
+        Assertions.assertEquals(Set.of(origin), find(index, 0, -1, false));
+        Assertions.assertEquals(Set.of(origin), find(index, -1, 0, false));
+        Assertions.assertEquals(Set.of(origin), find(index, 0, 0, false));
+        Assertions.assertEquals(Set.of(negative), find(index, -17, -32, false));
+        Assertions.assertEquals(Set.of(), find(index, -16, -17, false));
+        Assertions.assertEquals(Set.of(), find(index, -33, -20, false));
+    }
+
+    /**
+     * Tests whether the border reaches into neighbouring cells, but only for lookups asking for it.
+     */
+    @Test
+    public void testBorder() {
+        // Setup
+        final GridSpatialIndex<Box> index = new GridSpatialIndex<>(4, CELL_SIZE);
+        final Box box = new Box(0, 15, 0, 15);
+        // Process
+        index.add(box);
+        // Check
+        Assertions.assertEquals(Set.of(box), find(index, 19, 15, true));
+        Assertions.assertEquals(Set.of(box), find(index, -4, -4, true));
+        Assertions.assertEquals(Set.of(), find(index, 20, 15, true));
+        Assertions.assertEquals(Set.of(), find(index, -5, 0, true));
+        Assertions.assertEquals(Set.of(), find(index, 19, 15, false));
+        Assertions.assertEquals(Set.of(), find(index, -1, 0, false));
+    }
+
+    /**
+     * Tests whether removing a box takes it out of every cell it was registered in, border included.
+     */
+    @Test
+    public void testRemoval() {
+        // Setup
+        final GridSpatialIndex<Box> index = new GridSpatialIndex<>(4, CELL_SIZE);
+        final Box removed = new Box(-20, 20, -20, 20);
+        final Box kept = new Box(-20, 20, -20, 20);
+        index.add(removed);
+        index.add(kept);
+        // Process
+        index.remove(removed);
+        index.remove(new Box(100, 120, 100, 120));
+        // Check
+        Assertions.assertEquals(1, index.size());
+        for (int x = -24; x <= 24; x += 4) {
+            for (int z = -24; z <= 24; z += 4) {
+                Assertions.assertEquals(Set.of(kept), find(index, x, z, true));
+            }
+        }
+        final List<Box> intersecting = new ArrayList<>();
+        index.findIntersecting(-100, -100, 100, 100, intersecting);
+        Assertions.assertFalse(intersecting.contains(removed));
+        Assertions.assertTrue(intersecting.contains(kept));
+    }
+
+    /**
+     * Tests whether lookups at random points, many of them close to cell edges, find exactly the boxes containing
+     * them.
+     */
+    @Test
+    public void testRandomLookups() {
+        // Setup
+        final int border = 3;
+        final GridSpatialIndex<Box> index = new GridSpatialIndex<>(border, CELL_SIZE);
+        final Random random = new Random(42);
+        final List<Box> boxes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final int x = random.nextInt(200) - 100;
+            final int z = random.nextInt(200) - 100;
+            final Box box = new Box(x, x + random.nextInt(40), z, z + random.nextInt(40));
+            boxes.add(box);
+            index.add(box);
+        }
+        // Process and check
+        for (int i = 0; i < 10_000; i++) {
+            final int x = random.nextInt(260) - 130;
+            final int z = random.nextInt(260) - 130;
+            final boolean includeBorder = random.nextBoolean();
+            final int extension = includeBorder ? border : 0;
+            final Set<Box> expected = new HashSet<>();
+            for (final Box box : boxes) {
+                if (box.xMin - extension <= x && box.xMax + extension >= x && box.zMin - extension <= z
+                    && box.zMax + extension >= z) {
+                    expected.add(box);
+                }
+            }
+            Assertions.assertEquals(expected, find(index, x, z, includeBorder));
+        }
+    }
+
+    // compared by identity, so equal boxes are told apart
+    private static final class Box implements QTBox {
+
+        private final int xMin;
+        private final int xMax;
+        private final int zMin;
+        private final int zMax;
+
+        private Box(final int xMin, final int xMax, final int zMin, final int zMax) {
+            this.xMin = xMin;
+            this.xMax = xMax;
+            this.zMin = zMin;
+            this.zMax = zMax;
+        }
+
+        @Override
+        public int qtXMin() {
+            return xMin;
+        }
+
+        @Override
+        public int qtXMid() {
+            return (xMin + xMax) / 2;
+        }
+
+        @Override
+        public int qtXMax() {
+            return xMax;
+        }
+
+        @Override
+        public int qtZMin() {
+            return zMin;
+        }
+
+        @Override
+        public int qtZMid() {
+            return (zMin + zMax) / 2;
+        }
+
+        @Override
+        public int qtZMax() {
+            return zMax;
+        }
+
+    }
+
+}
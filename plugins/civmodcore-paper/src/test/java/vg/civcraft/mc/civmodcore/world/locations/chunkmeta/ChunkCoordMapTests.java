@@ -0,0 +1,170 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChunkCoordMapTests {
+
+    private static ChunkCoord createCoord(final int x, final int z) {
+        return new ChunkCoord(x, z, (short) 1, null, null);
+    }
+
+    /**
+     * Tests whether packed keys keep both coordinates apart, negative ones included.
+     */
+    @Test
+    public void testKeyPacking() {
+        // Setup
+        final int[] coordinates = {0, 1, -1, 2, -2, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        final Set<Long> keys = new HashSet<>();
+        // Process
+        for (final int x : coordinates) {
+            for (final int z : coordinates) {
+                keys.add(ChunkCoordMap.toKey(x, z));
+            }
+        }
+        // Check
+        Assertions.assertEquals(coordinates.length * coordinates.length, keys.size());
+        Assertions.assertEquals(0xFFFFFFFFL, ChunkCoordMap.toKey(0, -1), "Negative z must not spill into x");
+        Assertions.assertEquals(0xFFFFFFFF_00000000L, ChunkCoordMap.toKey(-1, 0));
+        Assertions.assertEquals(-1L, ChunkCoordMap.toKey(-1, -1));
+    }
+
+    /**
+     * Tests whether chunks with negative and extreme coordinates are stored and found again.
+     */
+    @Test
+    public void testNegativeCoordinates() {
+        // Setup
+        final ChunkCoordMap map = new ChunkCoordMap();
+        final int[][] coordinates = {{-1, -1}, {-1, 0}, {0, -1}, {-30_000, 30_000},
+            {Integer.MIN_VALUE, Integer.MAX_VALUE}, {Integer.MAX_VALUE, Integer.MIN_VALUE}};
+        final ChunkCoord[] coords = new ChunkCoord[coordinates.length];
+        // Process
+        for (int i = 0; i < coordinates.length; i++) {
+            coords[i] = createCoord(coordinates[i][0], coordinates[i][1]);
+            Assertions.assertNull(map.putIfAbsent(ChunkCoordMap.toKey(coordinates[i][0], coordinates[i][1]),
+                coords[i]));
+        }
+        // Check
+        Assertions.assertEquals(coordinates.length, map.size());
+        for (int i = 0; i < coordinates.length; i++) {
+            Assertions.assertSame(coords[i], map.get(ChunkCoordMap.toKey(coordinates[i][0], coordinates[i][1])));
+        }
+        Assertions.assertNull(map.get(ChunkCoordMap.toKey(1, 1)));
+        Assertions.assertNull(map.get(ChunkCoordMap.toKey(-1, -2)));
+    }
+
+    /**
+     * Tests whether all entries are kept when the table grows many times over.
+     */
+    @Test
+    public void testResize() {
+        // Setup
+        final ChunkCoordMap map = new ChunkCoordMap();
+        final int radius = 64;
+        // Process
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                map.putIfAbsent(ChunkCoordMap.toKey(x, z), createCoord(x, z));
+            }
+        }
+        // Check
+        Assertions.assertEquals(4 * radius * radius, map.size());
+        final int[] visited = new int[1];
+        map.forEach(coord -> visited[0]++);
+        Assertions.assertEquals(map.size(), visited[0]);
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                final ChunkCoord coord = map.get(ChunkCoordMap.toKey(x, z));
+                Assertions.assertNotNull(coord);
+                Assertions.assertEquals(x, coord.getX());
+                Assertions.assertEquals(z, coord.getZ());
+            }
+        }
+    }
+
+    /**
+     * Tests whether an existing entry is neither replaced by nor removed for another instance.
+     */
+    @Test
+    public void testInstanceChecks() {
+        // Setup
+        final ChunkCoordMap map = new ChunkCoordMap();
+        final long key = ChunkCoordMap.toKey(-5, 7);
+        final ChunkCoord stored = createCoord(-5, 7);
+        final ChunkCoord other = createCoord(-5, 7);
+        // Process
+        map.putIfAbsent(key, stored);
+        final ChunkCoord previous = map.putIfAbsent(key, other);
+        final boolean removedOther = map.remove(key, other);
+        // Check
+        Assertions.assertSame(stored, previous);
+        Assertions.assertFalse(removedOther);
+        Assertions.assertSame(stored, map.get(key));
+        Assertions.assertTrue(map.remove(key, stored));
+        Assertions.assertNull(map.get(key));
+        Assertions.assertEquals(0, map.size());
+    }
+
+    /**
+     * Tests whether removing entries keeps the other entries of the same buckets.
+     */
+    @Test
+    public void testRemoval() {
+        // Setup
+        final ChunkCoordMap map = new ChunkCoordMap();
+        final int radius = 32;
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                map.putIfAbsent(ChunkCoordMap.toKey(x, z), createCoord(x, z));
+            }
+        }
+        // Process
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                if (((x + z) & 1) == 0) {
+                    final long key = ChunkCoordMap.toKey(x, z);
+                    Assertions.assertTrue(map.remove(key, map.get(key)));
+                }
+            }
+        }
+        // Check
+        Assertions.assertEquals(2 * radius * radius, map.size());
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                final ChunkCoord coord = map.get(ChunkCoordMap.toKey(x, z));
+                if (((x + z) & 1) == 0) {
+                    Assertions.assertNull(coord);
+                } else {
+                    Assertions.assertNotNull(coord);
+                    Assertions.assertEquals(x, coord.getX());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests whether a square of loaded chunks is spread over the table instead of piling up in a few buckets.
+     */
+    @Test
+    public void testSpread() {
+        // Setup
+        final int radius = 220;
+        final int length = 1 << 18;
+        final int[] buckets = new int[length];
+        int longestChain = 0;
+        // Process
+        for (int x = -radius; x < radius; x++) {
+            for (int z = -radius; z < radius; z++) {
+                final int index = ChunkCoordMap.indexFor(ChunkCoordMap.toKey(x, z), length);
+                longestChain = Math.max(longestChain, ++buckets[index]);
+            }
+        }
+        // Check
+        Assertions.assertTrue(longestChain <= 16, "Longest chain has " + longestChain + " entries");
+    }
+
+}
@@ -0,0 +1,191 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.bukkit.Location;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BlockBasedChunkMetaTests {
+
+    private static final int MIN_Y = -64;
+    private static final int MAX_Y = 319;
+
+    /**
+     * Tests whether entries are set, overwritten and cleared at the corners of the chunk in the sparse layout.
+     */
+    @Test
+    public void testSparseSetAndClear() {
+        // Setup
+        final TestMeta meta = new TestMeta();
+        final int[][] positions = {{0, MIN_Y, 0}, {15, MIN_Y, 15}, {0, MAX_Y, 15}, {15, MAX_Y, 0}, {7, 0, 8}};
+        // Process
+        for (final int[] position : positions) {
+            meta.put(position[0], position[1], position[2], new TestData(position), false);
+        }
+        // Check
+        Assertions.assertNull(meta.data, "A few entries should be held sparse");
+        for (final int[] position : positions) {
+            Assertions.assertArrayEquals(position, meta.get(position[0], position[1], position[2]).position);
+        }
+        Assertions.assertNull(meta.get(1, MIN_Y, 0));
+        final TestData replacement = new TestData(positions[4]);
+        meta.put(7, 0, 8, replacement, false);
+        Assertions.assertSame(replacement, meta.get(7, 0, 8));
+        for (final int[] position : positions) {
+            Assertions.assertNotNull(meta.remove(position[0], position[1], position[2]));
+            Assertions.assertNull(meta.get(position[0], position[1], position[2]));
+        }
+        Assertions.assertNull(meta.remove(7, 0, 8));
+        Assertions.assertTrue(meta.isEmpty());
+    }
+
+    /**
+     * Tests whether entries survive switching to the dense layout and back.
+     */
+    @Test
+    public void testLayoutSwitch() {
+        // Setup
+        final TestMeta meta = new TestMeta();
+        final List<int[]> positions = new ArrayList<>();
+        for (int i = 0; i <= BlockBasedChunkMeta.SPARSE_MAX_ENTRIES; i++) {
+            positions.add(new int[]{i % 16, MIN_Y + i, (i * 7) % 16});
+        }
+        // Process
+        for (final int[] position : positions) {
+            Assertions.assertNull(meta.data);
+            meta.put(position[0], position[1], position[2], new TestData(position), false);
+        }
+        // Check
+        Assertions.assertNotNull(meta.data, "Exceeding the sparse limit should switch to the dense layout");
+        for (final int[] position : positions) {
+            Assertions.assertArrayEquals(position, meta.get(position[0], position[1], position[2]).position);
+        }
+        while (positions.size() >= BlockBasedChunkMeta.DENSE_MIN_ENTRIES) {
+            Assertions.assertNotNull(meta.data);
+            final int[] position = positions.remove(positions.size() - 1);
+            meta.remove(position[0], position[1], position[2]);
+        }
+        Assertions.assertNull(meta.data, "Dropping below the dense limit should switch to the sparse layout");
+        for (final int[] position : positions) {
+            Assertions.assertArrayEquals(position, meta.get(position[0], position[1], position[2]).position);
+        }
+    }
+
+    /**
+     * Tests whether iterating visits every entry once in both layouts, even while entries are removed and the
+     * layout would have to switch.
+     */
+    @Test
+    public void testIteration() {
+        // Setup
+        final TestMeta meta = new TestMeta();
+        for (int y = MIN_Y; y < MIN_Y + BlockBasedChunkMeta.SPARSE_MAX_ENTRIES; y++) {
+            meta.put(y & 15, y, 3, new TestData(new int[]{y & 15, y, 3}), false);
+        }
+        final Map<TestData, Integer> sparseVisits = new IdentityHashMap<>();
+        meta.iterateAll(data -> sparseVisits.merge(data, 1, Integer::sum));
+        for (int y = 0; y < 64; y++) {
+            meta.put(0, y, 0, new TestData(new int[]{0, y, 0}), false);
+        }
+        Assertions.assertNotNull(meta.data);
+        final Map<TestData, Integer> denseVisits = new IdentityHashMap<>();
+        // Process
+        meta.iterateAll(data -> {
+            denseVisits.merge(data, 1, Integer::sum);
+            meta.remove(data.position[0], data.position[1], data.position[2]);
+        });
+        // Check
+        Assertions.assertEquals(BlockBasedChunkMeta.SPARSE_MAX_ENTRIES, sparseVisits.size());
+        Assertions.assertEquals(BlockBasedChunkMeta.SPARSE_MAX_ENTRIES + 64, denseVisits.size());
+        Assertions.assertTrue(sparseVisits.values().stream().allMatch(count -> count == 1));
+        Assertions.assertTrue(denseVisits.values().stream().allMatch(count -> count == 1));
+        Assertions.assertTrue(meta.isEmpty());
+        Assertions.assertNull(meta.data, "The layout should switch once iterating is done");
+    }
+
+    /**
+     * Tests whether random puts and removals keep the same entries as a plain map, so removals never leave
+     * entries behind which can no longer be found.
+     */
+    @Test
+    public void testRandomOperations() {
+        // Setup
+        final TestMeta meta = new TestMeta();
+        final Map<Integer, TestData> expected = new HashMap<>();
+        final Random random = new Random(42);
+        int layoutSwitches = 0;
+        // Process
+        for (int i = 0; i < 100_000; i++) {
+            // alternate between mostly filling and mostly emptying a few hundred positions, so the amount of entries
+            // repeatedly crosses both limits
+            final boolean emptying = (i / 10_000) % 2 == 1;
+            final int x = random.nextInt(16);
+            final int y = MIN_Y + random.nextInt(24);
+            final int z = random.nextInt(2);
+            final int key = (y << 8) | (x << 4) | z;
+            final boolean wasSparse = meta.data == null;
+            if (random.nextInt(20) < (emptying ? 19 : 5)) {
+                Assertions.assertSame(expected.remove(key), meta.remove(x, y, z));
+            } else {
+                final TestData data = new TestData(new int[]{x, y, z});
+                meta.put(x, y, z, data, false);
+                expected.put(key, data);
+            }
+            if (wasSparse != (meta.data == null)) {
+                layoutSwitches++;
+            }
+        }
+        // Check
+        Assertions.assertTrue(layoutSwitches >= 4, "Both layouts should have been used repeatedly");
+        final int[] visited = new int[1];
+        meta.iterateAll(data -> {
+            visited[0]++;
+            Assertions.assertSame(data, meta.get(data.position[0], data.position[1], data.position[2]));
+        });
+        Assertions.assertEquals(expected.size(), visited[0]);
+        for (final TestData data : expected.values()) {
+            Assertions.assertSame(data, meta.get(data.position[0], data.position[1], data.position[2]));
+        }
+    }
+
+    private static final class TestData extends BlockDataObject<TestData> {
+
+        private final int[] position;
+
+        private TestData(final int[] position) {
+            super(new Location(null, position[0], position[1], position[2]), false);
+            this.position = position;
+        }
+
+    }
+
+    private static final class TestMeta extends BlockBasedChunkMeta<TestData, StorageEngine> {
+
+        private TestMeta() {
+            super(false, null);
+        }
+
+        @Override
+        public void delete() {
+        }
+
+        @Override
+        public void insert() {
+        }
+
+        @Override
+        public void populate() {
+        }
+
+        @Override
+        public void update() {
+        }
+
+    }
+
+}
@@ -0,0 +1,474 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.auto;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BinaryStorageEngineTests {
+
+    private static final short PLUGIN_ID = 3;
+    private static final short OTHER_PLUGIN_ID = 4;
+    private static final short WORLD_ID = 1;
+    private static final Logger LOGGER = Logger.getLogger(BinaryStorageEngineTests.class.getName());
+
+    static {
+        // broken data is logged as severe, which is expected here
+        LOGGER.setLevel(Level.OFF);
+    }
+
+    private static Sample createTypical(final int x, final int y, final int z) {
+        return new Sample(new Location(null, x, y, z), true, (byte) 12, (short) 1_234, 'c', 123_456, 9_876_543_210L,
+            1.5F, Math.PI, "Sample name", new byte[]{1, 2, 3, -1});
+    }
+
+    private static List<Sample> createSamples() {
+        final List<Sample> samples = new ArrayList<>();
+        samples.add(createTypical(0, 64, 0));
+        samples.add(new Sample(new Location(null, -1, -64, -1), false, Byte.MIN_VALUE, Short.MIN_VALUE,
+            Character.MIN_VALUE, Integer.MIN_VALUE, Long.MIN_VALUE, -Float.MAX_VALUE, -0.0, "line\nbreak\ttab",
+            new byte[]{0}));
+        samples.add(new Sample(new Location(null, 15, 319, 15), true, Byte.MAX_VALUE, Short.MAX_VALUE,
+            Character.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Float.NaN, Double.NEGATIVE_INFINITY,
+            "Ünïcödé 🚀 \u0000", new byte[]{Byte.MIN_VALUE, Byte.MAX_VALUE}));
+        // null and empty values
+        samples.add(new Sample(new Location(null, 3, 70, 4), false, (byte) 0, (short) 0, ' ', 0, 0L, 0F, 0.0, null,
+            null));
+        samples.add(new Sample(new Location(null, 5, 71, 6), false, (byte) 0, (short) 0, ' ', 0, 0L, 0F, 0.0, "",
+            new byte[0]));
+        return samples;
+    }
+
+    private static void assertSameData(final Sample expected, final Sample actual) {
+        Assertions.assertNotNull(actual);
+        Assertions.assertEquals(expected.getLocation(), actual.getLocation());
+        Assertions.assertEquals(expected.flag, actual.flag);
+        Assertions.assertEquals(expected.tiny, actual.tiny);
+        Assertions.assertEquals(expected.small, actual.small);
+        Assertions.assertEquals(expected.letter, actual.letter);
+        Assertions.assertEquals(expected.number, actual.number);
+        Assertions.assertEquals(expected.big, actual.big);
+        Assertions.assertEquals(expected.ratio, actual.ratio);
+        Assertions.assertEquals(expected.precise, actual.precise);
+        Assertions.assertEquals(expected.name, actual.name);
+        Assertions.assertArrayEquals(expected.blob, actual.blob);
+    }
+
+    /**
+     * Tests whether every kind of value, null and empty ones included, is decoded as it was encoded.
+     */
+    @Test
+    public void testRoundTrip() {
+        // Setup
+        final Table table = new Table();
+        final BinaryStorageEngine<Sample> engine = table.createEngine(null);
+        for (final Sample sample : createSamples()) {
+            // Process
+            final byte[] encoded = engine.encode(sample);
+            final Sample decoded = engine.decode(sample.getLocation(), AutoStorageEngine.BINARY_FORMAT, encoded);
+            // Check
+            assertSameData(sample, decoded);
+            Assertions.assertEquals(Sample.DATA_VERSION, decoded.readVersion);
+        }
+    }
+
+    /**
+     * Tests whether the envelope holds the codec and data version and unreadable data is rejected instead of
+     * decoded.
+     */
+    @Test
+    public void testEnvelope() {
+        // Setup
+        final Table table = new Table();
+        final BinaryStorageEngine<Sample> engine = table.createEngine(null);
+        final Sample sample = createTypical(1, 2, 3);
+        // Process
+        final byte[] encoded = engine.encode(sample);
+        final byte[] otherCodec = encoded.clone();
+        otherCodec[0] = BinaryDataObject.CODEC_VERSION + 1;
+        final byte[] truncated = Arrays.copyOf(encoded, encoded.length - 1);
+        // Check
+        Assertions.assertEquals(BinaryDataObject.CODEC_VERSION, encoded[0]);
+        Assertions.assertEquals(Sample.DATA_VERSION, ((encoded[1] & 0xFF) << 8) | (encoded[2] & 0xFF));
+        Assertions.assertNull(engine.decode(sample.getLocation(), AutoStorageEngine.BINARY_FORMAT, otherCodec));
+        Assertions.assertNull(engine.decode(sample.getLocation(), AutoStorageEngine.BINARY_FORMAT, truncated));
+        Assertions.assertNull(engine.decode(sample.getLocation(), AutoStorageEngine.BINARY_FORMAT, new byte[0]));
+        Assertions.assertNull(engine.decode(sample.getLocation(), AutoStorageEngine.TEXT_FORMAT,
+            Sample.toJson(sample).getBytes(StandardCharsets.UTF_8)), "Text needs a legacy deserializer");
+    }
+
+    /**
+     * Tests whether JSON rows are rewritten as binary rows holding the same data, leaving other rows alone.
+     */
+    @Test
+    public void testConvertJson() {
+        testConversion(Sample::toJson, Sample::fromJson);
+    }
+
+    /**
+     * Tests whether YAML rows are rewritten as binary rows holding the same data, leaving other rows alone.
+     */
+    @Test
+    public void testConvertYaml() {
+        testConversion(Sample::toYaml, Sample::fromYaml);
+    }
+
+    private static void testConversion(final Function<Sample, String> legacySerializer,
+                                       final BiFunction<Location, String, Sample> legacyDeserializer) {
+        // Setup
+        final Table table = new Table();
+        final BinaryStorageEngine<Sample> engine = table.createEngine(legacyDeserializer);
+        final List<Sample> samples = new ArrayList<>();
+        for (final Sample sample : createSamples()) {
+            // NaN, infinity and control characters aren't valid in every text format
+            if (Float.isFinite(sample.ratio) && Double.isFinite(sample.precise)) {
+                samples.add(sample);
+            }
+        }
+        for (final Sample sample : samples) {
+            table.add(PLUGIN_ID, sample, AutoStorageEngine.TEXT_FORMAT,
+                legacySerializer.apply(sample).getBytes(StandardCharsets.UTF_8));
+        }
+        final Sample alreadyBinary = createTypical(8, 80, 8);
+        table.add(PLUGIN_ID, alreadyBinary, AutoStorageEngine.BINARY_FORMAT, engine.encode(alreadyBinary));
+        final Sample otherPlugin = createTypical(9, 90, 9);
+        final byte[] otherPluginData = legacySerializer.apply(otherPlugin).getBytes(StandardCharsets.UTF_8);
+        table.add(OTHER_PLUGIN_ID, otherPlugin, AutoStorageEngine.TEXT_FORMAT, otherPluginData);
+        // Process
+        final int converted = engine.convertDataFormat(PLUGIN_ID);
+        // Check
+        Assertions.assertEquals(samples.size(), converted);
+        for (final Sample sample : samples) {
+            final Row row = table.get(PLUGIN_ID, sample.getLocation());
+            Assertions.assertEquals(AutoStorageEngine.BINARY_FORMAT, row.format);
+            assertSameData(sample, engine.decode(sample.getLocation(), row.format, row.data));
+        }
+        assertSameData(alreadyBinary, engine.decode(alreadyBinary.getLocation(), AutoStorageEngine.BINARY_FORMAT,
+            table.get(PLUGIN_ID, alreadyBinary.getLocation()).data));
+        final Row otherRow = table.get(OTHER_PLUGIN_ID, otherPlugin.getLocation());
+        Assertions.assertEquals(AutoStorageEngine.TEXT_FORMAT, otherRow.format);
+        Assertions.assertArrayEquals(otherPluginData, otherRow.data);
+        Assertions.assertEquals(0, engine.convertDataFormat(PLUGIN_ID), "Nothing should be left to convert");
+    }
+
+    private static final class Sample extends BinaryDataObject<Sample> {
+
+        private static final int DATA_VERSION = 3;
+
+        private final boolean flag;
+        private final byte tiny;
+        private final short small;
+        private final char letter;
+        private final int number;
+        private final long big;
+        private final float ratio;
+        private final double precise;
+        private final String name;
+        private final byte[] blob;
+        private int readVersion = -1;
+
+        private Sample(final Location location, final boolean flag, final byte tiny, final short small,
+                       final char letter, final int number, final long big, final float ratio, final double precise,
+                       final String name, final byte[] blob) {
+            super(location, false);
+            this.flag = flag;
+            this.tiny = tiny;
+            this.small = small;
+            this.letter = letter;
+            this.number = number;
+            this.big = big;
+            this.ratio = ratio;
+            this.precise = precise;
+            this.name = name;
+            this.blob = blob;
+        }
+
+        @Override
+        public int getDataVersion() {
+            return DATA_VERSION;
+        }
+
+        @Override
+        protected void concreteSerialize(final DataOutput out) throws IOException {
+            out.writeBoolean(flag);
+            out.writeByte(tiny);
+            out.writeShort(small);
+            out.writeChar(letter);
+            out.writeInt(number);
+            out.writeLong(big);
+            out.writeFloat(ratio);
+            out.writeDouble(precise);
+            out.writeBoolean(name != null);
+            if (name != null) {
+                out.writeUTF(name);
+            }
+            out.writeInt(blob == null ? -1 : blob.length);
+            if (blob != null) {
+                out.write(blob);
+            }
+        }
+
+        private static Sample deserialize(final Location location, final int dataVersion, final DataInput in)
+            throws IOException {
+            final boolean flag = in.readBoolean();
+            final byte tiny = in.readByte();
+            final short small = in.readShort();
+            final char letter = in.readChar();
+            final int number = in.readInt();
+            final long big = in.readLong();
+            final float ratio = in.readFloat();
+            final double precise = in.readDouble();
+            final String name = in.readBoolean() ? in.readUTF() : null;
+            final int blobLength = in.readInt();
+            byte[] blob = null;
+            if (blobLength >= 0) {
+                blob = new byte[blobLength];
+                in.readFully(blob);
+            }
+            final Sample sample = new Sample(location, flag, tiny, small, letter, number, big, ratio, precise, name,
+                blob);
+            sample.readVersion = dataVersion;
+            return sample;
+        }
+
+        /**
+         * Text layout of a {@link JsonableDataObject} written before switching to binary storage
+         */
+        private static String toJson(final Sample sample) {
+            final JsonObject json = new JsonObject();
+            json.addProperty("flag", sample.flag);
+            json.addProperty("tiny", sample.tiny);
+            json.addProperty("small", sample.small);
+            json.addProperty("letter", (int) sample.letter);
+            json.addProperty("number", sample.number);
+            json.addProperty("big", sample.big);
+            json.addProperty("ratio", sample.ratio);
+            json.addProperty("precise", sample.precise);
+            if (sample.name != null) {
+                json.addProperty("name", sample.name);
+            }
+            if (sample.blob != null) {
+                json.addProperty("blob", Base64.getEncoder().encodeToString(sample.blob));
+            }
+            return json.toString();
+        }
+
+        private static Sample fromJson(final Location location, final String text) {
+            final JsonObject json = JsonParser.parseString(text).getAsJsonObject();
+            return new Sample(location, json.get("flag").getAsBoolean(), json.get("tiny").getAsByte(),
+                json.get("small").getAsShort(), (char) json.get("letter").getAsInt(), json.get("number").getAsInt(),
+                json.get("big").getAsLong(), json.get("ratio").getAsFloat(), json.get("precise").getAsDouble(),
+                json.has("name") ? json.get("name").getAsString() : null,
+                json.has("blob") ? Base64.getDecoder().decode(json.get("blob").getAsString()) : null);
+        }
+
+        /**
+         * Text layout of a {@link YamlDataObject} written before switching to binary storage
+         */
+        private static String toYaml(final Sample sample) {
+            final YamlConfiguration yaml = new YamlConfiguration();
+            yaml.set("flag", sample.flag);
+            yaml.set("tiny", (int) sample.tiny);
+            yaml.set("small", (int) sample.small);
+            yaml.set("letter", (int) sample.letter);
+            yaml.set("number", sample.number);
+            yaml.set("big", sample.big);
+            yaml.set("ratio", (double) sample.ratio);
+            yaml.set("precise", sample.precise);
+            yaml.set("name", sample.name);
+            yaml.set("blob", sample.blob == null ? null : Base64.getEncoder().encodeToString(sample.blob));
+            return yaml.saveToString();
+        }
+
+        private static Sample fromYaml(final Location location, final String text) {
+            final YamlConfiguration yaml = new YamlConfiguration();
+            try {
+                yaml.loadFromString(text);
+            } catch (final InvalidConfigurationException e) {
+                throw new IllegalArgumentException(e);
+            }
+            final String blob = yaml.getString("blob");
+            return new Sample(location, yaml.getBoolean("flag"), (byte) yaml.getInt("tiny"),
+                (short) yaml.getInt("small"), (char) yaml.getInt("letter"), yaml.getInt("number"), yaml.getLong("big"),
+                (float) yaml.getDouble("ratio"), yaml.getDouble("precise"), yaml.getString("name"),
+                blob == null ? null : Base64.getDecoder().decode(blob));
+        }
+    }
+
+    private static final class Row {
+
+        private final short pluginID;
+        private final int chunkX;
+        private final int chunkZ;
+        private final byte xOffset;
+        private final short y;
+        private final byte zOffset;
+        private byte[] data;
+        private byte format;
+
+        private Row(final short pluginID, final Location location, final byte format, final byte[] data) {
+            this.pluginID = pluginID;
+            this.chunkX = location.getBlockX() >> 4;
+            this.chunkZ = location.getBlockZ() >> 4;
+            this.xOffset = (byte) (location.getBlockX() & 15);
+            this.y = (short) location.getBlockY();
+            this.zOffset = (byte) (location.getBlockZ() & 15);
+            this.format = format;
+            this.data = data;
+        }
+    }
+
+    /**
+     * In-memory stand-in for cmc_chunk_data, only understanding the statements used by convertDataFormat
+     */
+    private static final class Table {
+
+        private final List<Row> rows = new ArrayList<>();
+
+        private void add(final short pluginID, final Sample sample, final byte format, final byte[] data) {
+            rows.add(new Row(pluginID, sample.getLocation(), format, data));
+        }
+
+        private Row get(final short pluginID, final Location location) {
+            final Row key = new Row(pluginID, location, (byte) 0, null);
+            return find(pluginID, key.chunkX, key.chunkZ, key.xOffset, key.y, key.zOffset);
+        }
+
+        private Row find(final short pluginID, final int chunkX, final int chunkZ, final byte xOffset, final short y,
+                         final byte zOffset) {
+            for (final Row row : rows) {
+                if (row.pluginID == pluginID && row.chunkX == chunkX && row.chunkZ == chunkZ
+                    && row.xOffset == xOffset && row.y == y && row.zOffset == zOffset) {
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        private BinaryStorageEngine<Sample> createEngine(final BiFunction<Location, String, Sample> legacy) {
+            return new BinaryStorageEngine<>(null, LOGGER, Sample::deserialize, legacy) {
+                @Override
+                protected Connection getConnection() {
+                    return proxy(Connection.class, (method, args) -> switch (method) {
+                        case "prepareStatement" -> prepare((String) args[0]);
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method);
+                    });
+                }
+
+                @Override
+                protected World getWorld(final short worldID) {
+                    Assertions.assertEquals(WORLD_ID, worldID);
+                    return null;
+                }
+            };
+        }
+
+        private PreparedStatement prepare(final String sql) {
+            final Object[] parameters = new Object[10];
+            final List<Object[]> batch = new ArrayList<>();
+            return proxy(PreparedStatement.class, (method, args) -> switch (method) {
+                case "setShort", "setByte", "setInt", "setBytes" -> {
+                    parameters[(Integer) args[0]] = args[1];
+                    yield null;
+                }
+                case "executeQuery" -> {
+                    Assertions.assertTrue(sql.startsWith("select"), sql);
+                    final List<Row> selected = new ArrayList<>();
+                    for (final Row row : rows) {
+                        if (row.pluginID == (Short) parameters[1] && row.format != (Byte) parameters[2]) {
+                            selected.add(row);
+                        }
+                    }
+                    yield select(selected);
+                }
+                case "addBatch" -> {
+                    Assertions.assertTrue(sql.startsWith("update"), sql);
+                    batch.add(parameters.clone());
+                    yield null;
+                }
+                case "executeBatch" -> {
+                    for (final Object[] update : batch) {
+                        final Row row = find((Short) update[6], (Integer) update[3], (Integer) update[4],
+                            (Byte) update[7], (Short) update[8], (Byte) update[9]);
+                        Assertions.assertEquals(WORLD_ID, (short) (Short) update[5]);
+                        row.data = (byte[]) update[1];
+                        row.format = (Byte) update[2];
+                    }
+                    final int[] counts = new int[batch.size()];
+                    Arrays.fill(counts, 1);
+                    batch.clear();
+                    yield counts;
+                }
+                case "close" -> null;
+                default -> throw new UnsupportedOperationException(method);
+            });
+        }
+
+        private static ResultSet select(final List<Row> selected) {
+            final int[] cursor = {-1};
+            return proxy(ResultSet.class, (method, args) -> {
+                if (method.equals("next")) {
+                    return ++cursor[0] < selected.size();
+                }
+                if (method.equals("close")) {
+                    return null;
+                }
+                final Row row = selected.get(cursor[0]);
+                // chunk_x, chunk_z, world_id, x_offset, y, z_offset, data, data_format
+                final Object value = switch ((Integer) args[0]) {
+                    case 1 -> row.chunkX;
+                    case 2 -> row.chunkZ;
+                    case 3 -> WORLD_ID;
+                    case 4 -> row.xOffset;
+                    case 5 -> row.y;
+                    case 6 -> row.zOffset;
+                    case 7 -> row.data;
+                    case 8 -> row.format;
+                    default -> throw new IllegalArgumentException("No column " + args[0]);
+                };
+                return switch (method) {
+                    case "getInt" -> ((Number) value).intValue();
+                    case "getShort" -> ((Number) value).shortValue();
+                    case "getByte" -> ((Number) value).byteValue();
+                    case "getBytes" -> value;
+                    default -> throw new UnsupportedOperationException(method);
+                };
+            });
+        }
+
+        @FunctionalInterface
+        private interface Handler {
+
+            Object handle(String method, Object[] args) throws Exception;
+
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(final Class<T> type, final Handler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.handle(method.getName(), args));
+        }
+    }
+
+}
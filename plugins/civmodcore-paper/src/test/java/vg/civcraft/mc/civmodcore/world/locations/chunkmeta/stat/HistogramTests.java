@@ -0,0 +1,83 @@
+package vg.civcraft.mc.civmodcore.world.locations.chunkmeta.stat;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HistogramTests {
+
+    private static int bucketOf(final long value) {
+        final Histogram histogram = new Histogram();
+        histogram.record(value);
+        final long[] buckets = histogram.snapshot().buckets;
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests whether the smallest and largest value of every bucket end up in it.
+     */
+    @Test
+    public void testBucketEdges() {
+        // Setup
+        final int last = Histogram.BUCKET_COUNT - 1;
+        // Process and check
+        Assertions.assertEquals(0, bucketOf(0));
+        Assertions.assertEquals(0, bucketOf(-5), "Negative values should count as 0");
+        for (int i = 1; i < last; i++) {
+            Assertions.assertEquals(i, bucketOf(1L << (i - 1)), "Lower edge of bucket " + i);
+            Assertions.assertEquals(i, bucketOf((1L << i) - 1), "Upper edge of bucket " + i);
+            Assertions.assertEquals(i, bucketOf(Histogram.bucketUpperBound(i)));
+        }
+        Assertions.assertEquals(last, bucketOf(1L << (last - 1)));
+        Assertions.assertEquals(last, bucketOf(Long.MAX_VALUE));
+        Assertions.assertEquals(Long.MAX_VALUE, Histogram.bucketUpperBound(last));
+    }
+
+    /**
+     * Tests whether percentiles are estimated as the upper bound of their bucket, capped at the largest value.
+     */
+    @Test
+    public void testPercentiles() {
+        // Setup
+        final Histogram histogram = new Histogram();
+        // Process
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        // Check
+        Assertions.assertEquals(100, snapshot.count);
+        Assertions.assertEquals(5050, snapshot.sum);
+        Assertions.assertEquals(100, snapshot.max);
+        Assertions.assertEquals(50, snapshot.mean());
+        Assertions.assertEquals(1, snapshot.percentile(1));
+        Assertions.assertEquals(63, snapshot.percentile(50), "50 falls into the bucket from 32 to 63");
+        Assertions.assertEquals(100, snapshot.percentile(99), "Estimates should not exceed the largest value");
+        Assertions.assertEquals(100, snapshot.percentile(100));
+        Assertions.assertEquals(0, new Histogram().snapshot().percentile(50));
+    }
+
+    /**
+     * Tests whether recording a value several times at once counts it for each time.
+     */
+    @Test
+    public void testRepeatedRecording() {
+        // Setup
+        final Histogram histogram = new Histogram();
+        // Process
+        histogram.record(6, 3);
+        histogram.record(1_000, 0);
+        histogram.record(1_000, -1);
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        // Check
+        Assertions.assertEquals(3, snapshot.count);
+        Assertions.assertEquals(18, snapshot.sum);
+        Assertions.assertEquals(6, snapshot.max);
+        Assertions.assertEquals(3, snapshot.buckets[3]);
+    }
+
+}
@@ -2,6 +2,7 @@ plugins {
     id("io.papermc.paperweight.userdev")
     id("com.github.johnrengelman.shadow")
     id("xyz.jpenilla.run-paper")
+    id("me.champeau.jmh")
 }
 
 version = "2.0.1"
@@ -12,6 +13,12 @@ dependencies {
     paperweight {
         paperDevBundle(libs.versions.paper)
     }
+
+    jmhImplementation(libs.fastutil)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
 }
 
 tasks {
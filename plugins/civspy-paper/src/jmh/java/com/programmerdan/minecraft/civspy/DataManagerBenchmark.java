@@ -0,0 +1,182 @@
+package com.programmerdan.minecraft.civspy;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how many aggregated samples per second can be recorded, comparing the striped aggregation of
+ * {@link DataManager} against the queue based pipeline it replaced.
+ * <p>
+ * The queued pipeline is rebuilt here as it was: samples are put in a queue and taken off by worker threads, which
+ * resolve the aggregation window under a global lock and add the sample to the shared aggregate under the window's
+ * lock. Producers stall once too many samples are queued, so it is measured at the rate its workers sustain instead
+ * of the rate samples can be put into an ever growing queue.
+ * <p>
+ * Run with {@code ./gradlew :plugins:civspy-paper:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class DataManagerBenchmark {
+
+    private static final int PLAYERS = 200;
+    private static final int SAMPLES = 4096;
+    private static final long AGGREGATION_PERIOD = 60_000L;
+    private static final int WORKERS = 4;
+    private static final long MAX_QUEUED = 10_000L;
+
+    private DataBatcher batcher;
+    private DataManager manager;
+    private QueuedPipeline queued;
+    private DataSample[] samples;
+
+    @Setup
+    public void setup() {
+        Logger logger = Logger.getLogger("DataManagerBenchmark");
+        logger.setLevel(java.util.logging.Level.SEVERE);
+        // aggregates are only staged once a window is offloaded, which happens after the benchmark
+        batcher = new DataBatcher(null, logger, null, null, 1) {
+            @Override
+            public void stage(DataSampleKey key, DataAggregate aggregate) {
+            }
+        };
+        manager = new DataManager(batcher, logger, AGGREGATION_PERIOD, 5, 2, WORKERS, 10, 1000L);
+        queued = new QueuedPipeline(AGGREGATION_PERIOD, WORKERS);
+
+        UUID[] players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+        }
+        // shaped like the movement samples recorded for every block a player moves
+        samples = new DataSample[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = new PointDataSample("player.movement", "server", "world", players[i % PLAYERS],
+                i % 17, i % 13, i % 3 == 0 ? null : "walk", 1);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+        batcher.shutdown();
+        queued.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        DataSample next(DataSample[] samples) {
+            DataSample sample = samples[next];
+            next = (next + 1) & (samples.length - 1);
+            return sample;
+        }
+    }
+
+    @Benchmark
+    public void striped(Cursor cursor) {
+        manager.enqueue(cursor.next(samples));
+    }
+
+    @Benchmark
+    public void queued(Cursor cursor) {
+        queued.enqueue(cursor.next(samples));
+    }
+
+    /**
+     * The queue based aggregation {@link DataManager} used before samples were aggregated in stripes.
+     */
+    private static final class QueuedPipeline {
+
+        private final LinkedTransferQueue<DataSample> queue;
+        private final AtomicLong queuedCount;
+        private final ExecutorService workers;
+        private final Object resolver;
+        private final long windowStart;
+        private final long period;
+        private final ConcurrentHashMap<DataSampleKey, DataAggregate>[] windows;
+        private volatile boolean active;
+
+        @SuppressWarnings("unchecked")
+        private QueuedPipeline(long period, int workerCount) {
+            this.queue = new LinkedTransferQueue<DataSample>();
+            this.queuedCount = new AtomicLong();
+            this.workers = Executors.newFixedThreadPool(workerCount);
+            this.resolver = new Object();
+            this.period = period;
+            this.windowStart = System.currentTimeMillis() - 5 * period;
+            this.windows = (ConcurrentHashMap<DataSampleKey, DataAggregate>[]) new ConcurrentHashMap[8];
+            for (int i = 0; i < windows.length; i++) {
+                windows[i] = new ConcurrentHashMap<DataSampleKey, DataAggregate>();
+            }
+            this.active = true;
+            for (int i = 0; i < workerCount; i++) {
+                workers.execute(this::work);
+            }
+        }
+
+        private void enqueue(DataSample sample) {
+            while (queuedCount.get() >= MAX_QUEUED) {
+                Thread.onSpinWait();
+            }
+            queuedCount.incrementAndGet();
+            queue.offer(sample);
+        }
+
+        private void work() {
+            while (active) {
+                DataSample sample;
+                try {
+                    sample = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (sample == null) {
+                    continue;
+                }
+                queuedCount.decrementAndGet();
+                int index;
+                synchronized (resolver) {
+                    index = (int) Math.floorMod(Math.floorDiv(sample.getTimestamp() - windowStart, period),
+                        (long) windows.length);
+                }
+                synchronized (windows[index]) {
+                    DataAggregate aggregate = windows[index].get(sample.getKey());
+                    if (aggregate == null) {
+                        aggregate = new DataAggregate(windowStart + index * period);
+                        windows[index].put(sample.getKey(), aggregate);
+                    }
+                    aggregate.include(sample);
+                }
+            }
+        }
+
+        private void shutdown() {
+            active = false;
+            workers.shutdownNow();
+        }
+    }
+}
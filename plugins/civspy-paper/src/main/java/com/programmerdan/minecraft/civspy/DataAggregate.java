@@ -1,7 +1,7 @@
 package com.programmerdan.minecraft.civspy;
 
-import java.util.HashMap;
-import java.util.Map;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
+import it.unimi.dsi.fastutil.objects.Object2DoubleOpenHashMap;
 
 /**
  * A data aggregation. Includes base timestamp, and summations.
@@ -13,14 +13,17 @@ public class DataAggregate {
 
     private long timestamp;
 
-    Map<String, Double> namedSums;
+    Object2DoubleOpenHashMap<String> namedSums;
 
-    Double sum;
+    double sum;
+
+    boolean hasSum;
 
     public DataAggregate(long timestamp) {
         this.timestamp = timestamp;
-        this.namedSums = new HashMap<String, Double>();
-        sum = null;
+        this.namedSums = new Object2DoubleOpenHashMap<String>();
+        this.sum = 0.0d;
+        this.hasSum = false;
     }
 
     public long getTimestamp() {
@@ -36,24 +39,36 @@ public class DataAggregate {
      * If both are present, add the number to that string's aggregate.
      */
     public synchronized void include(DataSample sample) {
+        add(sample);
+    }
+
+    /**
+     * Same as {@link #include(DataSample)}, but unsynchronized, for aggregates only ever touched by one thread.
+     */
+    void add(DataSample sample) {
         String valueString = sample.getValueString();
         Number valueNumber = sample.getValueNumber();
         double value = 1.0d;
         if (valueNumber != null) value = valueNumber.doubleValue();
         if (valueString == null) {
-            if (sum == null) {
-                sum = value;
-            } else {
-                sum += value;
-            }
+            sum += value;
+            hasSum = true;
         } else {
-            Double priorValue = namedSums.get(valueString);
-            if (priorValue != null) {
-                value += priorValue;
-            }
-            namedSums.put(valueString, value);
+            namedSums.addTo(valueString, value);
         }
     }
 
-}
+    /**
+     * Adds all sums of another aggregation into this one.
+     */
+    public synchronized void merge(DataAggregate other) {
+        if (other.hasSum) {
+            sum += other.sum;
+            hasSum = true;
+        }
+        for (Object2DoubleMap.Entry<String> entry : other.namedSums.object2DoubleEntrySet()) {
+            namedSums.addTo(entry.getKey(), entry.getDoubleValue());
+        }
+    }
 
+}
@@ -1,7 +1,6 @@
 package com.programmerdan.minecraft.civspy;
 
 import java.sql.PreparedStatement;
-import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
@@ -14,6 +13,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.programmerdan.minecraft.civspy.database.Database;
+import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
 
 /**
  * Roughly similar approach to Manager; stage() unwinds data to batch it up, then
@@ -236,13 +236,13 @@ public class DataBatcher {
         if (!active) return;
 
         // now unwrap
-        if (aggregate.sum != null) {
+        if (aggregate.hasSum) {
             this.batchQueue.offer(new BatchLine(key, aggregate.getTimestamp(), null, aggregate.sum));
             this.inflowCount.getAndIncrement();
             this.periodInflowCount.getAndIncrement();
         }
-        for (Entry<String, Double> entry : aggregate.namedSums.entrySet()) {
-            this.batchQueue.offer(new BatchLine(key, aggregate.getTimestamp(), entry.getKey(), entry.getValue()));
+        for (Object2DoubleMap.Entry<String> entry : aggregate.namedSums.object2DoubleEntrySet()) {
+            this.batchQueue.offer(new BatchLine(key, aggregate.getTimestamp(), entry.getKey(), entry.getDoubleValue()));
             this.inflowCount.getAndIncrement();
             this.periodInflowCount.getAndIncrement();
         }
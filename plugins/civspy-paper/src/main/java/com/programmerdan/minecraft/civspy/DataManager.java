@@ -1,6 +1,9 @@
 package com.programmerdan.minecraft.civspy;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import java.lang.ref.WeakReference;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map.Entry;
@@ -16,8 +19,12 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Represents a self-monitoring manager that accepts data into a queue and asynchronously pulls data
- * off and handles aggregation; then passes off to the batcher for database insertion
+ * Represents a self-monitoring manager that accepts data and handles aggregation; then passes off to the batcher for
+ * database insertion.
+ * <p>
+ * Samples destined for aggregation are summed up right away into one of a fixed set of stripes, picked by the
+ * recording thread, which are periodically drained into the shared aggregation windows. Standalone samples go through a queue which is
+ * asynchronously pulled from instead.
  *
  * @author ProgrammerDan
  */
@@ -49,6 +56,21 @@ public class DataManager {
      */
     private ScheduledFuture<?> aggregateHandler;
 
+    /**
+     * Periodically merges the aggregation stripes of all threads into the shared aggregation windows.
+     */
+    private ScheduledFuture<?> stripeDrainer;
+
+    /**
+     * Threads recording samples aggregate them in a stripe picked by their thread id first, so recording a sample
+     * neither allocates a queue node nor touches the shared aggregation windows. There are twice as many stripes as
+     * processors, so threads rarely share one. Keys are aggregation slots, which are aggregation periods counted from
+     * slotBase.
+     */
+    private final AggregationStripe[] stripes;
+    private final Object drainLock;
+    private final long slotBase;
+
     /**
      * A fixed size threadpool of greedy queue consumers that read off the data queue.
      */
@@ -215,6 +237,17 @@ public class DataManager {
         // We backdate our windows.
         long rightnow = System.currentTimeMillis();
         long window = rightnow - (this.aggregationPeriod * this.periodDelayCount);
+        // window bounds are always this plus a multiple of the period
+        this.slotBase = window;
+        int stripeCount = 1;
+        while (stripeCount < 2 * Runtime.getRuntime().availableProcessors()) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new AggregationStripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new AggregationStripe();
+        }
+        this.drainLock = new Object();
         for (int idx = 1; idx <= this.aggregationCycleSize; idx++) {
             int odx = idx % aggregationCycleSize;
             this.aggregation[odx] = new ConcurrentHashMap<DataSampleKey, DataAggregate>();
@@ -229,7 +262,7 @@ public class DataManager {
         }
 
         // Now create the executor and schedule repeating tasks.
-        this.scheduler = Executors.newScheduledThreadPool(2);
+        this.scheduler = Executors.newScheduledThreadPool(3);
 
         this.workerCount = workerCount;
 
@@ -246,6 +279,9 @@ public class DataManager {
 
         // Third, the aggregator window cycle task.
         scheduleWindowCycle();
+
+        // Fourth, the task merging what each thread aggregated.
+        scheduleStripeDrain();
     }
 
     /**
@@ -276,8 +312,12 @@ public class DataManager {
         this.logger.log(Level.INFO, "Shutting down scheduled tasks");
         this.aggregateHandler.cancel(false);
         this.flowMonitor.cancel(false);
+        this.stripeDrainer.cancel(false);
         this.scheduler.shutdown();
 
+        this.logger.log(Level.INFO, "Draining aggregation stripes");
+        drainStripes();
+
         this.logger.log(Level.INFO, "Forcing a flush of aggregators");
         forceFlush();
 
@@ -394,6 +434,8 @@ public class DataManager {
                  *   * Update the timestamps on the boundary arrays.
                  */
 
+                drainStripes();
+
                 synchronized (aggregationResolver) {
                     oldestAggregatorIndex = (oldestAggregatorIndex + 1) % aggregationCycleSize;
                     offloadAggregatorIndex = (offloadAggregatorIndex + 1) % aggregationCycleSize;
@@ -429,6 +471,104 @@ public class DataManager {
         }, this.aggregationPeriod, this.aggregationPeriod, TimeUnit.MILLISECONDS);
     }
 
+    private void scheduleStripeDrain() {
+        long drainPeriod = Math.min(this.flowCapturePeriod, this.aggregationPeriod);
+        this.stripeDrainer = this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    drainStripes();
+                } catch (Exception e) {
+                    logger.log(Level.SEVERE, "Unexpected error while draining aggregation stripes", e);
+                }
+            }
+
+        }, drainPeriod, drainPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Takes what each thread aggregated since the last drain and merges it into the shared aggregation windows. Each
+     * stripe is only locked for as long as it takes to swap out its aggregations.
+     */
+    private void drainStripes() {
+        synchronized (drainLock) {
+            for (AggregationStripe stripe : stripes) {
+                Long2ObjectOpenHashMap<AggregationSlot> slots;
+                long samples;
+                synchronized (stripe) {
+                    if (stripe.samples == 0) {
+                        continue;
+                    }
+                    slots = stripe.slots;
+                    samples = stripe.samples;
+                    stripe.slots = new Long2ObjectOpenHashMap<AggregationSlot>();
+                    stripe.samples = 0;
+                    stripe.currentSlotAggregates = null;
+                }
+                for (Long2ObjectMap.Entry<AggregationSlot> slot : slots.long2ObjectEntrySet()) {
+                    long slotStart = slotBase + slot.getLongKey() * aggregationPeriod;
+                    // misses are counted per sample, same as if each sample was resolved on its own
+                    long slotSamples = slot.getValue().samples;
+                    int index = resolveWindow(slotStart, slotSamples);
+                    if (index < 0) {
+                        continue;
+                    }
+                    synchronized (aggregation[index]) {
+                        if (index == offloadAggregatorIndex) { // sanity check.
+                            missCounter += slotSamples;
+                            missCounterOffloadIndex += slotSamples;
+                            continue;
+                        }
+                        ConcurrentHashMap<DataSampleKey, DataAggregate> aggregationMap = aggregation[index];
+                        for (Entry<DataSampleKey, DataAggregate> entry : slot.getValue().aggregates.entrySet()) {
+                            DataAggregate aggregate = aggregationMap.get(entry.getKey());
+                            if (aggregate == null) {
+                                aggregate = new DataAggregate(aggregationWindowStart[index]);
+                                aggregationMap.put(entry.getKey(), aggregate);
+                            }
+                            aggregate.merge(entry.getValue());
+                        }
+                    }
+                }
+                instantOutflow[whichFlowWindow] += samples;
+            }
+        }
+    }
+
+    /**
+     * Finds the aggregation window the given point in time belongs to, counting misses if there is none.
+     *
+     * @param samples amount of samples to count as missed if there is no window
+     * @return index of the aggregation window, or -1 if the time is outside all tracked windows
+     */
+    private int resolveWindow(long timestamp, long samples) {
+        // So the idea here is to synchronize around a lock that means nothing changes
+        // the windows while we are resolving.
+        synchronized (aggregationResolver) {
+            int offset = (int) Math.floorDiv((timestamp - aggregationWindowStart[oldestAggregatorIndex]), aggregationPeriod);
+            if (offset < 0) {
+                // out of tracking period entirely.
+                missCounter += samples;
+                missCounterNegativeOffset += samples;
+                return -1;
+            } else if (offset >= aggregationCycleSize) {
+                missCounter += samples;
+                missCounterOutsideTracking += samples;
+                return -1;
+            }
+            int index = Math.floorMod(oldestAggregatorIndex + offset, aggregationCycleSize); // Round Robin around and around
+            if (timestamp < aggregationWindowStart[index] || timestamp >= aggregationWindowEnd[index]) {
+                logger.log(Level.WARNING, "Computed window offset {4} to index {0} doesnt match when attempting to get aggregator: {1} not between {2} and {3}",
+                    new Object[]{index, timestamp, aggregationWindowStart[index], aggregationWindowEnd[index], offset});
+                missCounter += samples;
+                missCounterWrongWindow += samples;
+                return -1;
+            }
+            return index;
+        }
+    }
+
     private final void forceFlush() {
         int start = offloadAggregatorIndex;
         while (oldestAggregatorIndex != start) {
@@ -457,11 +597,66 @@ public class DataManager {
     /**
      * This is the only method accessible to the outside world, besides a shutdown hook method.
      * It adds data to be processed. It increments the inflow counter.
+     * <p>
+     * Samples for aggregation are summed up in the stripe of the calling thread right away, standalone samples are
+     * queued.
      */
     public void enqueue(DataSample data) {
         if (!active || data == null) return;
-        sampleQueue.offer(data);
         instantInflow[whichFlowWindow]++;
+        if (data.forAggregate()) {
+            aggregate(data);
+        } else {
+            sampleQueue.offer(data);
+        }
+    }
+
+    private void aggregate(DataSample sample) {
+        long slot = Math.floorDiv(sample.getTimestamp() - slotBase, aggregationPeriod);
+        AggregationStripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        // only contended by threads sharing the stripe and while the stripe is being drained
+        synchronized (stripe) {
+            stripe.include(slot, sample);
+        }
+    }
+
+    /**
+     * Aggregations of the threads sharing a stripe, keyed by aggregation slot. Aggregates in here are only ever touched
+     * while holding the stripe's lock, or by the drain after they were swapped out.
+     */
+    static class AggregationStripe {
+
+        private Long2ObjectOpenHashMap<AggregationSlot> slots = new Long2ObjectOpenHashMap<AggregationSlot>();
+        private long samples;
+
+        // most samples fall into the same slot as the previous one
+        private long currentSlot;
+        private AggregationSlot currentSlotAggregates;
+
+        void include(long slot, DataSample sample) {
+            if (currentSlotAggregates == null || currentSlot != slot) {
+                currentSlotAggregates = slots.computeIfAbsent(slot, k -> new AggregationSlot());
+                currentSlot = slot;
+            }
+            DataAggregate aggregate = currentSlotAggregates.aggregates.get(sample.getKey());
+            if (aggregate == null) {
+                aggregate = new DataAggregate(sample.getTimestamp());
+                currentSlotAggregates.aggregates.put(sample.getKey(), aggregate);
+            }
+            aggregate.add(sample);
+            currentSlotAggregates.samples++;
+            samples++;
+        }
+    }
+
+    /**
+     * Aggregates of a single aggregation slot within a stripe, keyed by sample key, along with how many samples went
+     * into them.
+     */
+    static class AggregationSlot {
+
+        private final HashMap<DataSampleKey, DataAggregate> aggregates = new HashMap<DataSampleKey, DataAggregate>();
+        private long samples;
     }
 
     /**
@@ -509,53 +704,7 @@ public class DataManager {
                 parent.instantOutflow[parent.whichFlowWindow]++;
                 if (sample != null) {
                     if (sample.forAggregate()) {
-                        // Find which bucket the sample belongs to; get the appropriate aggregate or create it
-                        int index = -1; // must resolve.
-
-                        // So the idea here is to synchronize around a lock that means nothing changes
-                        // the windows while we are resolving.
-                        synchronized (parent.aggregationResolver) {
-                            int offset = (int) Math.floorDiv((sample.getTimestamp() - parent.aggregationWindowStart[parent.oldestAggregatorIndex]), parent.aggregationPeriod);
-                            if (offset < 0) {
-                                // out of tracking period entirely.
-                                parent.missCounter++;
-                                parent.missCounterNegativeOffset++;
-                            } else if (offset >= parent.aggregationCycleSize) {
-                                parent.missCounter++;
-                                parent.missCounterOutsideTracking++;
-                            } else {
-                                index = Math.floorMod(parent.oldestAggregatorIndex + offset, parent.aggregationCycleSize); // Round Robin around and around
-                                if (!sample.isBetween(parent.aggregationWindowStart[index], parent.aggregationWindowEnd[index])) {
-                                    parent.logger.log(Level.WARNING, "Computed window offset {4} to index {0} doesnt match when attempting to get aggregator: {1} not between {2} and {3}",
-                                        new Object[]{index, sample.getTimestamp(), parent.aggregationWindowStart[index], parent.aggregationWindowEnd[index], offset});
-                                    parent.missCounter++;
-                                    parent.missCounterWrongWindow++;
-                                    index = -1;
-                                }
-                            }
-                        }
-                        if (index > -1) {
-                            // Then the idea here is, if we've found an index (we've release our aggregation lock)
-                            // we then lock on the specific aggregator and do our work.
-                            // Ideally I _think_ I want to keep the resolver lock until I have the aggregator lock.
-
-                            // tbh I have no idea if this will work. I should replace with a proper lock.
-                            synchronized (parent.aggregation[index]) {
-                                if (index != parent.offloadAggregatorIndex) { // sanity check.
-                                    ConcurrentHashMap<DataSampleKey, DataAggregate> aggregationMap = parent.aggregation[index];
-                                    DataAggregate aggregate = aggregationMap.get(sample.getKey());
-                                    if (aggregate == null) {
-                                        aggregate = new DataAggregate(parent.aggregationWindowStart[index]);
-                                        aggregationMap.put(sample.getKey(), aggregate);
-                                    }
-                                    aggregate.include(sample);
-                                } else {
-                                    parent.missCounter++;
-                                    // TODO: Differentiate here to detect if misses are from pre-seek or post
-                                    parent.missCounterOffloadIndex++;
-                                }
-                            }
-                        }
+                        parent.aggregate(sample);
                     } else {
                         // Create an aggregate to conform to batching expectations as this
                         // sample stands alone.
@@ -1,20 +1,24 @@
 package com.programmerdan.minecraft.civspy.listeners.impl;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.bukkit.Chunk;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.event.vehicle.VehicleMoveEvent;
 
+import com.programmerdan.minecraft.civspy.CivSpy;
 import com.programmerdan.minecraft.civspy.DataManager;
 import com.programmerdan.minecraft.civspy.DataSample;
 import com.programmerdan.minecraft.civspy.PointDataSample;
@@ -23,21 +27,57 @@ import com.programmerdan.minecraft.civspy.listeners.ServerDataListener;
 /**
  * Example Listener; this sends for aggregation movement data on players. It records distance travelled at chunk granularities within
  * the global sampling period rate.
+ * <p>
+ * Distance is summed up per player for as long as they stay in the same chunk and keep moving the same way, and only
+ * recorded once either changes, they leave, or the periodic flush comes around.
  *
  * @author ProgrammerDan
  */
 public final class MovementListener extends ServerDataListener {
 
-    private ConcurrentHashMap<UUID, Location> storedLocations;
+    /**
+     * How often distance summed up so far is recorded, in ticks. Kept well below the aggregation period.
+     */
+    private static final long FLUSH_PERIOD = 100l;
+
+    /**
+     * Movement of a single player since it was last recorded. Reused for as long as the player is online.
+     */
+    private static final class Movement {
+
+        private World world;
+        private String worldName;
+        private int x;
+        private int y;
+        private int z;
+
+        private int chunkX;
+        private int chunkZ;
+        private String type;
+        private double distance;
+    }
+
+    // only accessed from the main thread
+    private final Map<UUID, Movement> movements;
+    private final int flushTask;
 
     public MovementListener(DataManager target, Logger logger, String server) {
         super(target, logger, server);
-        this.storedLocations = new ConcurrentHashMap<UUID, Location>();
+        this.movements = new HashMap<UUID, Movement>();
+        this.flushTask = Bukkit.getScheduler().scheduleSyncRepeatingTask(CivSpy.getPlugin(CivSpy.class),
+            new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            }, FLUSH_PERIOD, FLUSH_PERIOD);
     }
 
     @Override
     public void shutdown() {
-        this.storedLocations.clear();
+        Bukkit.getScheduler().cancelTask(this.flushTask);
+        flush();
+        this.movements.clear();
     }
 
     /**
@@ -58,32 +98,80 @@ public final class MovementListener extends ServerDataListener {
 
     private void doMove(Player p, UUID id, Location to) {
         try {
-            Location from = storedLocations.get(id);
-            if (from == null || !from.getWorld().equals(to.getWorld())) {
-                storedLocations.put(id, to);
+            Movement movement = movements.get(id);
+            if (movement == null) {
+                movement = new Movement();
+                movements.put(id, movement);
+                moveTo(id, movement, to);
+                return;
+            }
+            if (movement.world != to.getWorld()) {
+                moveTo(id, movement, to);
                 return;
             }
 
             // Check if the player moved at least 1 in any cardinal axis.
-            int xMove = from.getBlockX() - to.getBlockX();
-            int yMove = from.getBlockY() - to.getBlockY();
-            int zMove = from.getBlockZ() - to.getBlockZ();
+            int x = to.getBlockX();
+            int y = to.getBlockY();
+            int z = to.getBlockZ();
+            int xMove = movement.x - x;
+            int yMove = movement.y - y;
+            int zMove = movement.z - z;
             if (xMove != 0 || yMove != 0 || zMove != 0) {
-                String world = to.getWorld().getName();
                 double distance = Math.sqrt(xMove * xMove + yMove * yMove + zMove * zMove);
                 String type = p.isSneaking() ? "sneaking" : p.isFlying() ? "flying" : p.isGliding() ? "gliding" :
                     p.isInsideVehicle() ? (p.getVehicle() == null ? "vehicle" : p.getVehicle().getType().toString()) : p.isSprinting() ? "running" : "walking";
-                Chunk chunk = to.getChunk();
-                DataSample chunkMovement = new PointDataSample("player.movement", this.getServer(), world, id,
-                    chunk.getX(), chunk.getZ(), type, distance);
-                this.record(chunkMovement);
-                storedLocations.put(id, to);
+                int chunkX = x >> 4;
+                int chunkZ = z >> 4;
+                if (chunkX != movement.chunkX || chunkZ != movement.chunkZ || !type.equals(movement.type)) {
+                    record(id, movement);
+                    movement.chunkX = chunkX;
+                    movement.chunkZ = chunkZ;
+                    movement.type = type;
+                }
+                movement.distance += distance;
+                movement.x = x;
+                movement.y = y;
+                movement.z = z;
             }
         } catch (Exception e) {
             logger.log(Level.WARNING, "Failed to spy a move event", e);
         }
     }
 
+    /**
+     * Sets where a player is without counting it as movement, recording what they moved in a different world first.
+     */
+    private void moveTo(UUID id, Movement movement, Location to) {
+        if (movement.world != to.getWorld()) {
+            record(id, movement);
+            movement.world = to.getWorld();
+            movement.worldName = movement.world.getName();
+        }
+        movement.x = to.getBlockX();
+        movement.y = to.getBlockY();
+        movement.z = to.getBlockZ();
+    }
+
+    /**
+     * Records the distance summed up so far, if any.
+     */
+    private void record(UUID id, Movement movement) {
+        if (movement.distance <= 0.0d) {
+            return;
+        }
+        DataSample chunkMovement = new PointDataSample("player.movement", this.getServer(), movement.worldName, id,
+            movement.chunkX, movement.chunkZ, movement.type, movement.distance);
+        this.record(chunkMovement);
+        movement.distance = 0.0d;
+    }
+
+    private void flush() {
+        for (Map.Entry<UUID, Movement> entry : movements.entrySet()) {
+            record(entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * Captures movement events for vehicles, too!
      *
@@ -110,9 +198,24 @@ public final class MovementListener extends ServerDataListener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void TeleportReset(PlayerTeleportEvent event) {
         Player p = event.getPlayer();
-        Location to = event.getTo();
-        UUID id = p.getUniqueId();
-        storedLocations.put(id, to);
+        Movement movement = movements.get(p.getUniqueId());
+        if (movement != null) {
+            moveTo(p.getUniqueId(), movement, event.getTo());
+        }
+    }
+
+    /**
+     * Records what a player moved before they left.
+     *
+     * @param event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void QuitFlush(PlayerQuitEvent event) {
+        UUID id = event.getPlayer().getUniqueId();
+        Movement movement = movements.remove(id);
+        if (movement != null) {
+            record(id, movement);
+        }
     }
 
 }
@@ -20,7 +20,6 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import vg.civcraft.mc.civmodcore.chat.ChatUtils;
 
@@ -138,17 +137,22 @@ final class CoreLoreGenerator implements LoreProvider {
         if (is == null || !is.hasItemMeta()) {
             return 0;
         }
-        ItemMeta meta = is.getItemMeta();
-        if (meta == null) {
-            return 0;
-        }
 
-        PersistentDataContainer container = meta.getPersistentDataContainer();
-        Integer optionalPearlId = container.get(this.exilePearlid, PersistentDataType.INTEGER);
+        // reads the id without copying the whole item meta, this runs for every item moved by hoppers
+        Integer optionalPearlId = is.getPersistentDataContainer().get(this.exilePearlid, PersistentDataType.INTEGER);
         if (optionalPearlId != null) {
             return optionalPearlId;
         }
 
+        // legacy pearls without an id tag only ever are player heads or ender pearls
+        if (!(is.getType().equals(Material.PLAYER_HEAD) || is.getType().equals(Material.ENDER_PEARL))) {
+            return 0;
+        }
+        ItemMeta meta = is.getItemMeta();
+        if (meta == null) {
+            return 0;
+        }
+
         List<String> lore = getValidLore(is, meta);
         if (lore == null) {
             return 0;
@@ -21,6 +21,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.programmerdan.minecraft.banstick.data.BSPlayer;
 import com.programmerdan.minecraft.banstick.handler.BanHandler;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -59,6 +61,9 @@ final class CorePearlManager implements PearlManager {
     private final StorageProvider storage;
 
     private final Map<UUID, ExilePearl> pearls = new HashMap<UUID, ExilePearl>();
+    private final Int2ObjectMap<ExilePearl> pearlsById = new Int2ObjectOpenHashMap<ExilePearl>();
+    // keyed by lower case player name, names can change so entries are checked on lookup
+    private final Map<String, ExilePearl> pearlsByName = new HashMap<String, ExilePearl>();
     private final Map<UUID, ExilePearl> bcastRequests = new HashMap<UUID, ExilePearl>();
 
     private ICoolDownHandler<UUID> summonRequests = new MilliSecCoolDownHandler<UUID>(120000);
@@ -88,8 +93,10 @@ final class CorePearlManager implements PearlManager {
     @Override
     public void loadPearls() {
         pearls.clear();
+        pearlsById.clear();
+        pearlsByName.clear();
         for (ExilePearl p : storage.getStorage().loadAllPearls()) {
-            pearls.put(p.getPlayerId(), p);
+            addPearl(p);
         }
         pearlApi.log("Loaded %d pearls from storage.", pearls.size());
     }
@@ -159,7 +166,7 @@ final class CorePearlManager implements PearlManager {
             return null;
         }
 
-        pearls.put(pearl.getPlayerId(), pearl);
+        addPearl(pearl);
         storage.getStorage().pearlInsert(pearl);
 
         pearl.setHealth(pearlApi.getPearlConfig().getPearlHealthStartValue());
@@ -193,7 +200,7 @@ final class CorePearlManager implements PearlManager {
         // If the player is online, do the full remove, otherwise mark the pearl
         // as free offline and it will be removed when they log in
         if ((player != null && player.isOnline()) || reason == PearlFreeReason.FORCE_FREED_BY_ADMIN) {
-            pearls.remove(pearl.getPlayerId());
+            removePearl(pearl);
             clearPearlBroadcasts(pearl);
             storage.getStorage().pearlRemove(pearl);
             if (pearl.getPearlType() == PearlType.PRISON) {
@@ -216,12 +223,22 @@ final class CorePearlManager implements PearlManager {
     public ExilePearl getPearl(String name) {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(name), "name");
 
-        for (ExilePearl pearl : pearls.values()) {
-            if (pearl.getPlayerName().equalsIgnoreCase(name)) {
-                return pearl;
+        ExilePearl pearl = pearlsByName.get(name.toLowerCase());
+        if (pearl != null && pearl.getPlayerName().equalsIgnoreCase(name)) {
+            return pearl;
+        }
+
+        // the player may have been renamed since they were exiled
+        pearlsByName.clear();
+        pearl = null;
+        for (ExilePearl p : pearls.values()) {
+            String playerName = p.getPlayerName();
+            pearlsByName.put(playerName.toLowerCase(), p);
+            if (pearl == null && playerName.equalsIgnoreCase(name)) {
+                pearl = p;
             }
         }
-        return null;
+        return pearl;
     }
 
 
@@ -374,12 +391,26 @@ final class CorePearlManager implements PearlManager {
     }
 
     private ExilePearl getPearlById(int pearlId) {
-        for (ExilePearl p : pearls.values()) {
-            if (p.getPearlId() == pearlId) {
-                return p;
-            }
+        return pearlsById.get(pearlId);
+    }
+
+    private void addPearl(ExilePearl pearl) {
+        ExilePearl replaced = pearls.put(pearl.getPlayerId(), pearl);
+        if (replaced != null) {
+            // a stolen pearl replaces the previous one of the player
+            pearlsById.remove(replaced.getPearlId());
+            pearlsByName.values().remove(replaced);
+        }
+        pearlsById.put(pearl.getPearlId(), pearl);
+        pearlsByName.put(pearl.getPlayerName().toLowerCase(), pearl);
+    }
+
+    private void removePearl(ExilePearl pearl) {
+        ExilePearl removed = pearls.remove(pearl.getPlayerId());
+        if (removed != null) {
+            pearlsById.remove(removed.getPearlId());
+            pearlsByName.values().remove(removed);
         }
-        return null;
     }
 
 
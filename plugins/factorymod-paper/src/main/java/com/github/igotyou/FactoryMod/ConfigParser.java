@@ -137,7 +137,8 @@ public class ConfigParser {
         defaultDamagePerBreakPeriod = config.getInt("default_decay_amount", 21);
         long savingIntervall = parseTimeAsTicks(config.getString("saving_intervall", "15m"));
         forceIncludeAll = config.getBoolean("force_include_default", false);
-        // save factories on a regular base, unless disabled
+        // save changed factories on a regular base, unless disabled. Only serializing runs on the main thread,
+        // the actual writing is done asynchronously
         if (savingIntervall > 0) {
             new BukkitRunnable() {
 
@@ -146,7 +147,7 @@ public class ConfigParser {
                     FactoryMod.getInstance().getManager().saveFactories();
 
                 }
-            }.runTaskTimerAsynchronously(plugin, savingIntervall, savingIntervall);
+            }.runTaskTimer(plugin, savingIntervall, savingIntervall);
         }
         int globalPylonLimit = config.getInt("global_pylon_limit");
         PylonRecipe.setGlobalLimit(globalPylonLimit);
@@ -4,6 +4,7 @@ import com.github.igotyou.FactoryMod.commands.FMCommandManager;
 import com.github.igotyou.FactoryMod.listeners.CitadelListener;
 import com.github.igotyou.FactoryMod.listeners.CompactItemListener;
 import com.github.igotyou.FactoryMod.listeners.FactoryModListener;
+import com.github.igotyou.FactoryMod.listeners.InventoryCacheListener;
 import com.github.igotyou.FactoryMod.utility.FactoryModPermissionManager;
 import vg.civcraft.mc.civmodcore.ACivMod;
 
@@ -50,6 +51,8 @@ public class FactoryMod extends ACivMod {
     private void registerListeners() {
         plugin.getServer().getPluginManager()
             .registerEvents(new FactoryModListener(manager), plugin);
+        plugin.getServer().getPluginManager()
+            .registerEvents(new InventoryCacheListener(manager), plugin);
         plugin.getServer()
             .getPluginManager()
             .registerEvents(
@@ -11,13 +11,15 @@ import com.github.igotyou.FactoryMod.structures.BlockFurnaceStructure;
 import com.github.igotyou.FactoryMod.structures.FurnCraftChestStructure;
 import com.github.igotyou.FactoryMod.structures.MultiBlockStructure;
 import com.github.igotyou.FactoryMod.structures.PipeStructure;
+import com.github.igotyou.FactoryMod.utility.FactoryIndex;
 import com.github.igotyou.FactoryMod.utility.FactoryModGUI;
+import com.github.igotyou.FactoryMod.utility.FactoryScheduler;
 import com.github.igotyou.FactoryMod.utility.FileHandler;
 import com.github.igotyou.FactoryMod.utility.LoggingUtils;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -25,12 +27,15 @@ import java.util.Set;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.block.Chest;
 import org.bukkit.block.Dispenser;
 import org.bukkit.block.Dropper;
 import org.bukkit.entity.Player;
 import vg.civcraft.mc.civmodcore.inventory.items.ItemMap;
+import vg.civcraft.mc.civmodcore.world.WorldUtils;
 
 /**
  * Manager class which handles all factories, their locations and their creation
@@ -41,9 +46,13 @@ public class FactoryModManager {
     private FileHandler fileHandler;
     private HashMap<Class<? extends MultiBlockStructure>, HashMap<ItemMap, IFactoryEgg>> factoryCreationRecipes;
     private HashMap<IFactoryEgg, ItemMap> totalSetupCosts;
-    private HashMap<Location, Factory> locations;
+    private FactoryIndex factoryIndex;
+    private FactoryScheduler scheduler;
     private HashMap<String, IFactoryEgg> eggs;
     private HashSet<Factory> factories;
+    // factories changed and keys of factories removed since the last save
+    private Set<Factory> dirtyFactories;
+    private Set<String> removedFactories;
     private Map<String, IRecipe> recipes;
     private HashSet<Material> possibleCenterBlocks;
     private HashSet<Material> possibleInteractionBlock;
@@ -78,11 +87,15 @@ public class FactoryModManager {
         this.canUpgrade = canUpgrade;
 
         factoryCreationRecipes = new HashMap<>();
-        locations = new HashMap<>();
+        factoryIndex = new FactoryIndex();
+        scheduler = new FactoryScheduler();
+        scheduler.start();
         eggs = new HashMap<>();
         possibleCenterBlocks = new HashSet<>();
         possibleInteractionBlock = new HashSet<>();
         factories = new HashSet<>();
+        dirtyFactories = new HashSet<>();
+        removedFactories = new HashSet<>();
         totalSetupCosts = new HashMap<>();
         recipes = new HashMap<>();
         compactLore = new HashSet<>();
@@ -149,8 +162,19 @@ public class FactoryModManager {
      */
     public void addFactory(Factory f) {
         factories.add(f);
-        for (Location loc : f.getMultiBlockStructure().getAllBlocks()) {
-            locations.put(loc, f);
+        factoryIndex.add(f);
+        dirtyFactories.add(f);
+    }
+
+    /**
+     * Marks the given factory as changed, so its state is written on the next
+     * save. Factories not registered with this manager are ignored
+     *
+     * @param f Factory whose state changed
+     */
+    public void markDirty(Factory f) {
+        if (factories.contains(f)) {
+            dirtyFactories.add(f);
         }
     }
 
@@ -203,9 +227,9 @@ public class FactoryModManager {
         }
         factories.remove(f);
         FurnCraftChestFactory.removePylon(f);
-        for (Location b : f.getMultiBlockStructure().getAllBlocks()) {
-            locations.remove(b);
-        }
+        factoryIndex.remove(f);
+        dirtyFactories.remove(f);
+        removedFactories.add(fileHandler.getKey(f));
     }
 
     /**
@@ -216,7 +240,7 @@ public class FactoryModManager {
      * was no factory
      */
     public Factory getFactoryAt(Location loc) {
-        return getFactoryAt(loc.getBlock());
+        return factoryIndex.get(loc.getWorld(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
     }
 
     /**
@@ -227,7 +251,7 @@ public class FactoryModManager {
      * was no factory
      */
     public Factory getFactoryAt(Block b) {
-        return locations.get(b.getLocation());
+        return factoryIndex.get(b.getWorld(), b.getX(), b.getY(), b.getZ());
     }
 
     /**
@@ -421,12 +445,8 @@ public class FactoryModManager {
      * away from the given location
      */
     public List<Factory> getNearbyFactories(Location l, int range) {
-        List<Factory> facs = new LinkedList<>();
-        for (Factory f : factories) {
-            if (f.getMultiBlockStructure().getCenter().distance(l) <= range) {
-                facs.add(f);
-            }
-        }
+        List<Factory> facs = new ArrayList<>();
+        factoryIndex.findNearby(l, range, facs);
         return facs;
     }
 
@@ -460,14 +480,22 @@ public class FactoryModManager {
         this.eggs.put(egg.getName().toLowerCase(), egg);
     }
 
+    /**
+     * Saves all factories changed since the last save. Must be called from the
+     * main thread, writing to disk happens asynchronously
+     */
     public void saveFactories() {
-        plugin.info("Attempting to save factory data");
-        fileHandler.save(getAllFactories());
+        fileHandler.save(dirtyFactories, removedFactories);
+        dirtyFactories.clear();
+        removedFactories.clear();
     }
 
     public void loadFactories() {
         plugin.info("Attempting to load factory data");
         fileHandler.load(eggs);
+        // everything loaded is already saved in its current state
+        dirtyFactories.clear();
+        removedFactories.clear();
     }
 
     /**
@@ -476,9 +504,44 @@ public class FactoryModManager {
      */
     public void shutDown() {
         saveFactories();
+        fileHandler.close();
         for (Factory f : factories) {
             f.deactivate();
         }
+        scheduler.stop();
+    }
+
+    /**
+     * @return Scheduler running the updates of all factories
+     */
+    public FactoryScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Invalidates the cached inventory state of the factory the given block
+     * belongs to and of all factories directly adjacent to it. Should be called
+     * whenever the contents of a container, which factories may use for IO,
+     * change
+     *
+     * @param block Block whose inventory changed
+     */
+    public void invalidateInventoryCaches(Block block) {
+        World world = block.getWorld();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        invalidateInventoryCache(factoryIndex.get(world, x, y, z));
+        for (BlockFace face : WorldUtils.ALL_SIDES) {
+            invalidateInventoryCache(factoryIndex.get(world, x + face.getModX(), y + face.getModY(),
+                z + face.getModZ()));
+        }
+    }
+
+    private static void invalidateInventoryCache(Factory factory) {
+        if (factory instanceof FurnCraftChestFactory fccf) {
+            fccf.invalidateInventoryCache();
+        }
     }
 
     /**
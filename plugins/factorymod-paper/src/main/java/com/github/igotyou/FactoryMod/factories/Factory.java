@@ -23,7 +23,6 @@ public abstract class Factory implements Runnable {
     protected MultiBlockStructure mbs;
     protected int updateTime;
     protected String name;
-    protected int threadId;
 
     public Factory(IInteractionManager im, IRepairManager rm, IPowerManager pm, MultiBlockStructure mbs,
                    int updateTime, String name) {
@@ -114,8 +113,23 @@ public abstract class Factory implements Runnable {
     public abstract void attemptToActivate(Player p, boolean onStartUp);
 
     public void scheduleUpdate() {
-        threadId = FactoryMod.getInstance().getServer().getScheduler()
-            .scheduleSyncDelayedTask(FactoryMod.getInstance(), this, getUpdateTime());
+        // running factories change their state every run
+        markDirty();
+        FactoryMod.getInstance().getManager().getScheduler().schedule(this, getUpdateTime());
+    }
+
+    /**
+     * Cancels the next scheduled update of this factory, if there is one
+     */
+    public void cancelUpdate() {
+        FactoryMod.getInstance().getManager().getScheduler().cancel(this);
+    }
+
+    /**
+     * Marks this factory as changed, so its state is written on the next save
+     */
+    public void markDirty() {
+        FactoryMod.getInstance().getManager().markDirty(this);
     }
 
     public void turnFurnaceOn(Block f) {
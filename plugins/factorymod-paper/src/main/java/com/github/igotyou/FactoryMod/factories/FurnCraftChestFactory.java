@@ -1,6 +1,7 @@
 package com.github.igotyou.FactoryMod.factories;
 
 import com.github.igotyou.FactoryMod.FactoryMod;
+import com.github.igotyou.FactoryMod.FactoryModManager;
 import com.github.igotyou.FactoryMod.events.FactoryActivateEvent;
 import com.github.igotyou.FactoryMod.events.RecipeExecuteEvent;
 import com.github.igotyou.FactoryMod.interactionManager.IInteractionManager;
@@ -43,6 +44,7 @@ import org.jetbrains.annotations.Nullable;
 import vg.civcraft.mc.citadel.ReinforcementLogic;
 import vg.civcraft.mc.citadel.model.Reinforcement;
 import vg.civcraft.mc.civmodcore.inventory.items.ItemUtils;
+import vg.civcraft.mc.civmodcore.world.WorldUtils;
 import vg.civcraft.mc.namelayer.NameAPI;
 import vg.civcraft.mc.namelayer.permission.PermissionType;
 
@@ -67,6 +69,9 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     private int charcoalLevel;
     private int speedLevel;
     private int charcoalAbsorbed;
+    // recipe for which input availability was last checked or null if the inventories changed since
+    private IRecipe inputsCheckedFor;
+    private boolean inputsAvailable;
 
     private static HashSet<FurnCraftChestFactory> pylonFactories;
 
@@ -174,6 +179,8 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setFurnaceIOSelector(IOSelector ioSelector) {
+        markDirty();
+        invalidateInventoryCache();
         this.furnaceIoSelector = ioSelector;
     }
 
@@ -185,6 +192,8 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setTableIOSelector(IOSelector ioSelector) {
+        markDirty();
+        invalidateInventoryCache();
         this.tableIoSelector = ioSelector;
     }
 
@@ -202,6 +211,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setUiMenuMode(UiMenuMode uiMenuMode) {
+        markDirty();
         this.uiMenuMode = uiMenuMode;
     }
 
@@ -240,6 +250,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      * @param mode Whether autoselect should be set to true or false
      */
     public void setAutoSelect(boolean mode) {
+        markDirty();
         this.autoSelect = mode;
     }
 
@@ -390,6 +401,9 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      */
     @Override
     public void activate() {
+        markDirty();
+        // inventories may have been changed in ways not causing an invalidation, so start from a clean state
+        invalidateInventoryCache();
         LoggingUtils.log("Activating " + getLogData() + ", because of " + (activator != null ?
             Bukkit.getPlayer(activator) : "Redstone"));
         active = true;
@@ -405,9 +419,10 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      */
     @Override
     public void deactivate() {
+        markDirty();
         if (active) {
             LoggingUtils.log("Deactivating " + getLogData());
-            Bukkit.getScheduler().cancelTask(threadId);
+            cancelUpdate();
             turnFurnaceOff(getFurnace());
             active = false;
             // reset the production timer
@@ -445,12 +460,14 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setRunCount(IRecipe r, Integer count) {
+        markDirty();
         if (recipes.contains(r)) {
             runCount.put(r, count);
         }
     }
 
     public void setRecipeLevel(IRecipe r, Integer level) {
+        markDirty();
         if (recipes.contains(r)) {
             recipeLevel.put(r, level);
         }
@@ -465,6 +482,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setActivator(UUID uuid) {
+        markDirty();
         this.activator = uuid;
     }
 
@@ -555,10 +573,13 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
                         // upgrading changes the current recipe and a lot of
                         // other stuff, this is needed
                         currentRecipe.applyEffect(getInputInventory(), getOutputInventory(), this);
+                        invalidateAdjacentInventoryCaches();
                         deactivate();
                         return;
                     } else {
-                        if (currentRecipe.applyEffect(getInputInventory(), getOutputInventory(), this)) {
+                        boolean applied = currentRecipe.applyEffect(getInputInventory(), getOutputInventory(), this);
+                        invalidateAdjacentInventoryCaches();
+                        if (applied) {
                             runCount.put(currentRecipe, runCount.get(currentRecipe) + 1);
                         } else {
                             sendActivatorMessage(ChatColor.RED + currentRecipe.getName() + " in " + name + " deactivated because it ran out of storage space");
@@ -642,12 +663,14 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      * @param pr Recipe to switch to
      */
     public void setRecipe(IRecipe pr) {
+        markDirty();
         if (recipes.contains(pr)) {
             currentRecipe = pr;
         }
     }
 
     public void setRecipeForce(IRecipe pr) {
+        markDirty();
         currentRecipe = pr;
     }
 
@@ -675,6 +698,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      * @param rec Recipe to add
      */
     public void addRecipe(IRecipe rec) {
+        markDirty();
         recipes.add(rec);
         runCount.put(rec, 0);
         recipeLevel.put(rec, 1);
@@ -686,6 +710,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      * @param rec Recipe to remove
      */
     public void removeRecipe(IRecipe rec) {
+        markDirty();
         recipes.remove(rec);
         runCount.remove(rec);
         recipeLevel.remove(rec);
@@ -697,15 +722,50 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      * @param timer New timer
      */
     public void setProductionTimer(int timer) {
+        markDirty();
         this.currentProductionTimer = timer;
     }
 
     /**
      * @return Whether enough materials are available to run the currently
-     * selected recipe at least once
+     * selected recipe at least once. The result is cached until the inventories
+     * of this factory change
      */
     public boolean hasInputMaterials() {
-        return currentRecipe.enoughMaterialAvailable(getInputInventory());
+        if (inputsCheckedFor != currentRecipe) {
+            inputsAvailable = currentRecipe.enoughMaterialAvailable(getInputInventory());
+            inputsCheckedFor = currentRecipe;
+        }
+        return inputsAvailable;
+    }
+
+    /**
+     * Forces input and fuel availability to be checked again on the next update.
+     * Must be called whenever any IO inventory of this factory changes
+     */
+    public void invalidateInventoryCache() {
+        inputsCheckedFor = null;
+        if (pm instanceof FurnacePowerManager) {
+            ((FurnacePowerManager) pm).invalidateFuelCache();
+        }
+    }
+
+    /**
+     * Invalidates the inventory cache of this factory and of all factories
+     * sharing a chest with it. Running a recipe changes the chests without
+     * causing any inventory events
+     */
+    private void invalidateAdjacentInventoryCaches() {
+        invalidateInventoryCache();
+        FactoryModManager manager = FactoryMod.getInstance().getManager();
+        for (Block block : new Block[] {getFurnace(), getCraftingTable()}) {
+            for (BlockFace face : WorldUtils.ALL_SIDES) {
+                Block relative = block.getRelative(face);
+                if (relative.getType() == Material.CHEST || relative.getType() == Material.TRAPPED_CHEST) {
+                    manager.invalidateInventoryCaches(relative);
+                }
+            }
+        }
     }
 
     /**
@@ -714,6 +774,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
      * @return null if no suitable recipe was found
      */
     public IRecipe getAutoSelectRecipe() {
+        Inventory inputInventory = getInputInventory();
         var selectedRecipe = recipes.stream()
             .filter(it -> {
                 // We want to select a repair recipe if and only if the factory is in disrepair
@@ -723,7 +784,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
                     return !(it instanceof RepairRecipe);
                 }
             })
-            .filter(it -> it.enoughMaterialAvailable(getInputInventory()))
+            .filter(it -> it.enoughMaterialAvailable(inputInventory))
             .findFirst()
             .orElse(null);
 
@@ -785,6 +846,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setCharcoalLevel(int charcoalLevel) {
+        markDirty();
         this.charcoalLevel = charcoalLevel;
     }
 
@@ -797,6 +859,7 @@ public class FurnCraftChestFactory extends Factory implements IIOFInventoryProvi
     }
 
     public void setSpeedLevel(int speedLevel) {
+        markDirty();
         this.speedLevel = speedLevel;
     }
 
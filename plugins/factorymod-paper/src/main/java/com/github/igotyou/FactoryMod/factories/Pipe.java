@@ -69,6 +69,7 @@ public class Pipe extends Factory {
     }
 
     public void activate() {
+        markDirty();
         LoggingUtils.log("Activating " + getLogData());
         active = true;
         pm.setPowerCounter(0);
@@ -79,9 +80,10 @@ public class Pipe extends Factory {
     }
 
     public void deactivate() {
+        markDirty();
         LoggingUtils.log("Deactivating " + getLogData());
         active = false;
-        Bukkit.getScheduler().cancelTask(threadId);
+        cancelUpdate();
         turnFurnaceOff(((PipeStructure) mbs).getFurnace());
         runTime = 0;
     }
@@ -171,6 +173,7 @@ public class Pipe extends Factory {
     }
 
     public void setRunTime(int time) {
+        markDirty();
         this.runTime = time;
     }
 
@@ -192,6 +195,7 @@ public class Pipe extends Factory {
     }
 
     public void setAllowedMaterials(List<Material> mats) {
+        markDirty();
         allowedMaterials = mats;
     }
 
@@ -200,6 +204,7 @@ public class Pipe extends Factory {
     }
 
     public void addAllowedMaterial(Material m) {
+        markDirty();
         if (allowedMaterials == null) {
             allowedMaterials = new LinkedList<Material>();
         }
@@ -207,6 +212,7 @@ public class Pipe extends Factory {
     }
 
     public void removeAllowedMaterial(Material m) {
+        markDirty();
         allowedMaterials.remove(m);
         if (allowedMaterials.size() == 0) {
             allowedMaterials = null;
@@ -76,10 +76,12 @@ public class Sorter extends Factory {
     }
 
     public void setAssignments(Map<BlockFace, ItemMap> assigns) {
+        markDirty();
         this.assignedMaterials = assigns;
     }
 
     public void activate() {
+        markDirty();
         LoggingUtils.log("Activating " + getLogData());
         LoggingUtils.logInventory(mbs.getCenter().getBlock());
         turnFurnaceOn(((BlockFurnaceStructure) mbs).getFurnace());
@@ -88,9 +90,10 @@ public class Sorter extends Factory {
     }
 
     public void deactivate() {
+        markDirty();
         LoggingUtils.log("Deactivating " + getLogData());
         LoggingUtils.logInventory(mbs.getCenter().getBlock());
-        Bukkit.getScheduler().cancelTask(threadId);
+        cancelUpdate();
         turnFurnaceOff(((BlockFurnaceStructure) mbs).getFurnace());
         active = false;
     }
@@ -147,6 +150,7 @@ public class Sorter extends Factory {
     }
 
     public void addAssignment(BlockFace bf, ItemStack is) {
+        markDirty();
         assignedMaterials.get(bf).addItemStack(is.clone());
     }
 
@@ -155,6 +159,7 @@ public class Sorter extends Factory {
     }
 
     public void removeAssignment(ItemStack is) {
+        markDirty();
         for (Entry<BlockFace, ItemMap> entry : assignedMaterials.entrySet()) {
             if (entry.getValue().getAmount(is) != 0) {
                 entry.getValue().removeItemStackCompletely(is);
@@ -215,6 +220,7 @@ public class Sorter extends Factory {
     }
 
     public void setRunTime(int runtime) {
+        markDirty();
         this.runTime = runtime;
     }
 
@@ -0,0 +1,99 @@
+package com.github.igotyou.FactoryMod.listeners;
+
+import com.github.igotyou.FactoryMod.FactoryModManager;
+import com.github.igotyou.FactoryMod.events.ItemTransferEvent;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.inventory.FurnaceBurnEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.DoubleChestInventory;
+import org.bukkit.inventory.Inventory;
+
+/**
+ * Invalidates the cached input and fuel availability of factories whenever one
+ * of the chests or furnaces they might use changes
+ */
+public class InventoryCacheListener implements Listener {
+
+    private FactoryModManager manager;
+
+    public InventoryCacheListener(FactoryModManager manager) {
+        this.manager = manager;
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void inventoryClick(InventoryClickEvent e) {
+        // clicks in the bottom inventory may move items into the top one, so always check the top one
+        invalidate(e.getInventory());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void inventoryDrag(InventoryDragEvent e) {
+        invalidate(e.getInventory());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void itemMove(InventoryMoveItemEvent e) {
+        if (e instanceof ItemTransferEvent ite) {
+            manager.invalidateInventoryCaches(ite.getSourceBlock());
+            manager.invalidateInventoryCaches(ite.getTargetBlock());
+            return;
+        }
+        invalidate(e.getSource());
+        invalidate(e.getDestination());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void itemPickup(InventoryPickupItemEvent e) {
+        invalidate(e.getInventory());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void furnaceBurn(FurnaceBurnEvent e) {
+        manager.invalidateInventoryCaches(e.getBlock());
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void blockPlace(BlockPlaceEvent e) {
+        if (isChest(e.getBlock())) {
+            manager.invalidateInventoryCaches(e.getBlock());
+        }
+    }
+
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
+    public void blockBreak(BlockBreakEvent e) {
+        if (isChest(e.getBlock())) {
+            manager.invalidateInventoryCaches(e.getBlock());
+        }
+    }
+
+    private static boolean isChest(Block block) {
+        return block.getType() == Material.CHEST || block.getType() == Material.TRAPPED_CHEST;
+    }
+
+    private void invalidate(Inventory inventory) {
+        if (inventory instanceof DoubleChestInventory doubleChest) {
+            invalidate(doubleChest.getLeftSide());
+            invalidate(doubleChest.getRightSide());
+            return;
+        }
+        // factories only use chests and their furnace for IO
+        if (inventory.getType() != InventoryType.CHEST && inventory.getType() != InventoryType.FURNACE) {
+            return;
+        }
+        Location location = inventory.getLocation();
+        if (location != null) {
+            manager.invalidateInventoryCaches(location.getBlock());
+        }
+    }
+}
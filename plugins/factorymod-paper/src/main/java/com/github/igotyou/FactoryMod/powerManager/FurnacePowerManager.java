@@ -20,6 +20,8 @@ public class FurnacePowerManager implements IPowerManager {
     private int fuelConsumptionIntervall;
     private Block furnace;
     private IIOFInventoryProvider iofProvider;
+    // amount of fuel in the fuel inventory of the provider or -1 if it needs to be counted again
+    private int cachedFuelAmount = -1;
 
     public FurnacePowerManager(Block furnace, ItemStack fuel,
                                int fuelConsumptionIntervall) {
@@ -47,10 +49,14 @@ public class FurnacePowerManager implements IPowerManager {
 
     public boolean powerAvailable(int fuelCount) {
         if (iofProvider != null) {
-            Inventory fuelInv = iofProvider.getFuelInventory();
-            if (fuelInv != null) {
-                ItemMap im = new ItemMap(fuelInv);
-                return im.getAmount(fuel) >= fuelCount;
+            if (cachedFuelAmount < 0) {
+                Inventory fuelInv = iofProvider.getFuelInventory();
+                if (fuelInv != null) {
+                    cachedFuelAmount = new ItemMap(fuelInv).getAmount(fuel);
+                }
+            }
+            if (cachedFuelAmount >= 0) {
+                return cachedFuelAmount >= fuelCount;
             }
         }
 
@@ -81,6 +87,7 @@ public class FurnacePowerManager implements IPowerManager {
     }
 
     public void consumePower(int fuelCount) {
+        invalidateFuelCache();
         if (iofProvider != null) {
             Inventory fuelInv = iofProvider.getFuelInventory();
             if (fuelInv != null) {
@@ -112,4 +119,12 @@ public class FurnacePowerManager implements IPowerManager {
         return fuel;
     }
 
+    /**
+     * Forces the fuel available to be counted again on the next check. Must be
+     * called whenever the fuel inventories of the provider change
+     */
+    public void invalidateFuelCache() {
+        cachedFuelAmount = -1;
+    }
+
 }
@@ -55,6 +55,7 @@ public class PercentageHealthRepairManager implements IRepairManager {
     public void repair(int amount) {
         health = Math.min(health + amount, maximumHealth);
         breakTime = 0;
+        markDirty();
     }
 
     public void breakIt() {
@@ -62,6 +63,7 @@ public class PercentageHealthRepairManager implements IRepairManager {
         if (breakTime == 0) {
             breakTime = System.currentTimeMillis();
         }
+        markDirty();
         FactoryMod.getInstance().getServer().getScheduler()
             .scheduleSyncDelayedTask(FactoryMod.getInstance(), () -> {
                 if (factory.getMultiBlockStructure().relevantBlocksDestroyed()) {
@@ -78,6 +80,7 @@ public class PercentageHealthRepairManager implements IRepairManager {
 
     public void setHealth(int health) {
         this.health = health;
+        markDirty();
     }
 
     public static void returnStuff(Factory factory) {
@@ -102,5 +105,12 @@ public class PercentageHealthRepairManager implements IRepairManager {
 
     public void setBreakTime(long breakTime) {
         this.breakTime = breakTime;
+        markDirty();
+    }
+
+    private void markDirty() {
+        if (factory != null) {
+            factory.markDirty();
+        }
     }
 }
@@ -0,0 +1,148 @@
+package com.github.igotyou.FactoryMod.utility;
+
+import com.github.igotyou.FactoryMod.factories.Factory;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Spatial index over all factories, kept separately for each world.
+ * <p>
+ * Every block of a factory is stored under its packed block coordinates, so
+ * looking up the factory at a block neither hashes a Location nor allocates.
+ * Factory centers are additionally bucketed by chunk, so a radius query only
+ * looks at the factories in chunks overlapping the radius
+ */
+public class FactoryIndex {
+
+    private static final class WorldIndex {
+
+        private final Long2ObjectOpenHashMap<Factory> blocks = new Long2ObjectOpenHashMap<>();
+        private final Long2ObjectOpenHashMap<ObjectArrayList<Factory>> centersByChunk = new Long2ObjectOpenHashMap<>();
+    }
+
+    private final Map<UUID, WorldIndex> worlds;
+
+    public FactoryIndex() {
+        this.worlds = new HashMap<>();
+    }
+
+    /**
+     * Packs block coordinates into a single long, supports x and z within +-2^25
+     * and y within +-2^11
+     */
+    private static long toBlockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+
+    private static long toChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds the given factory, all its blocks and its center to the index
+     *
+     * @param factory Factory to add
+     */
+    public void add(Factory factory) {
+        for (Location loc : factory.getMultiBlockStructure().getAllBlocks()) {
+            getOrCreate(loc.getWorld()).blocks.put(toBlockKey(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()),
+                factory);
+        }
+        Location center = factory.getMultiBlockStructure().getCenter();
+        getOrCreate(center.getWorld()).centersByChunk
+            .computeIfAbsent(toChunkKey(center.getBlockX() >> 4, center.getBlockZ() >> 4),
+                k -> new ObjectArrayList<>())
+            .add(factory);
+    }
+
+    /**
+     * Removes the given factory from the index
+     *
+     * @param factory Factory to remove
+     */
+    public void remove(Factory factory) {
+        for (Location loc : factory.getMultiBlockStructure().getAllBlocks()) {
+            WorldIndex index = worlds.get(loc.getWorld().getUID());
+            if (index != null) {
+                index.blocks.remove(toBlockKey(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()), factory);
+            }
+        }
+        Location center = factory.getMultiBlockStructure().getCenter();
+        WorldIndex index = worlds.get(center.getWorld().getUID());
+        if (index == null) {
+            return;
+        }
+        long chunkKey = toChunkKey(center.getBlockX() >> 4, center.getBlockZ() >> 4);
+        ObjectArrayList<Factory> bucket = index.centersByChunk.get(chunkKey);
+        if (bucket != null && bucket.remove(factory) && bucket.isEmpty()) {
+            index.centersByChunk.remove(chunkKey);
+        }
+    }
+
+    private WorldIndex getOrCreate(World world) {
+        return worlds.computeIfAbsent(world.getUID(), k -> new WorldIndex());
+    }
+
+    /**
+     * @param world World to look in
+     * @param x     X-coordinate of the block
+     * @param y     Y-coordinate of the block
+     * @param z     Z-coordinate of the block
+     * @return Factory which has a block at the given location or null if there is none
+     */
+    public Factory get(World world, int x, int y, int z) {
+        WorldIndex index = worlds.get(world.getUID());
+        if (index == null) {
+            return null;
+        }
+        return index.blocks.get(toBlockKey(x, y, z));
+    }
+
+    /**
+     * Adds all factories whose center is within the given range of the given
+     * location to the given collection
+     *
+     * @param location Location on which the search is centered
+     * @param range    Maximum distance from the location allowed
+     * @param result   Collection to add matching factories to
+     */
+    public void findNearby(Location location, double range, Collection<? super Factory> result) {
+        WorldIndex index = worlds.get(location.getWorld().getUID());
+        if (index == null) {
+            return;
+        }
+        double x = location.getX();
+        double y = location.getY();
+        double z = location.getZ();
+        double rangeSquared = range * range;
+        int minChunkX = (int) Math.floor(x - range) >> 4;
+        int maxChunkX = (int) Math.floor(x + range) >> 4;
+        int minChunkZ = (int) Math.floor(z - range) >> 4;
+        int maxChunkZ = (int) Math.floor(z + range) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                ObjectArrayList<Factory> bucket = index.centersByChunk.get(toChunkKey(chunkX, chunkZ));
+                if (bucket == null) {
+                    continue;
+                }
+                for (int i = 0, size = bucket.size(); i < size; i++) {
+                    Factory factory = bucket.get(i);
+                    Location center = factory.getMultiBlockStructure().getCenter();
+                    double dx = center.getX() - x;
+                    double dy = center.getY() - y;
+                    double dz = center.getZ() - z;
+                    if (dx * dx + dy * dy + dz * dz <= rangeSquared) {
+                        result.add(factory);
+                    }
+                }
+            }
+        }
+    }
+
+}
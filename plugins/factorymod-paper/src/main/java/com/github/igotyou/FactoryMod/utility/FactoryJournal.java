@@ -0,0 +1,269 @@
+package com.github.igotyou.FactoryMod.utility;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only journal holding the serialized state of all factories, keyed by
+ * the location of their center.
+ * <p>
+ * Each line of the journal either stores the new state of one factory or marks
+ * it as removed, later lines replace earlier ones for the same key. Changes are
+ * appended on a single writer thread, so callers never wait for disk IO. Once
+ * the journal holds a lot more lines than there are factories, it is compacted
+ * by writing only the latest state of each factory to a new file, which then
+ * atomically replaces the journal
+ */
+public class FactoryJournal {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String HEADER = "version";
+    private static final String PUT = "P";
+    private static final String REMOVE = "D";
+    private static final char SEPARATOR = '\t';
+    // amount of outdated lines tolerated on top of one per factory before compacting
+    private static final int COMPACTION_SLACK = 1024;
+
+    private final File file;
+    private final File compactionFile;
+    private final Logger logger;
+    private final ExecutorService writer;
+
+    // only accessed from the writer thread once loading is done
+    private final Map<String, String> live;
+    private int lineCount;
+    private boolean compactionNeeded;
+    private FileOutputStream out;
+    private Writer outWriter;
+
+    public FactoryJournal(File file, Logger logger) {
+        this.file = file;
+        this.compactionFile = new File(file.getParentFile(), file.getName() + ".compact");
+        this.logger = logger;
+        this.live = new LinkedHashMap<>();
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "FactoryMod journal writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Reads the latest state of all factories from the journal. Must be called
+     * once before any changes are written. A damaged line, for example one left
+     * incomplete by a crash, is skipped
+     *
+     * @return Serialized state of all factories, keyed by their location
+     * @throws IOException If the journal could not be read
+     */
+    public Map<String, String> read() throws IOException {
+        live.clear();
+        lineCount = 0;
+        if (!file.exists()) {
+            return new LinkedHashMap<>(live);
+        }
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                String[] parts = line.split(String.valueOf(SEPARATOR), 3);
+                try {
+                    if (parts[0].equals(HEADER)) {
+                        int version = Integer.parseInt(parts[1]);
+                        if (version != FORMAT_VERSION) {
+                            throw new IOException("Unknown factory journal version " + version);
+                        }
+                    } else if (parts[0].equals(PUT) && parts.length == 3) {
+                        live.put(parts[1], new String(Base64.getDecoder().decode(parts[2]), StandardCharsets.UTF_8));
+                    } else if (parts[0].equals(REMOVE) && parts.length == 2) {
+                        live.remove(parts[1]);
+                    } else {
+                        skipped++;
+                    }
+                } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            logger.warning("Skipped " + skipped + " damaged lines in " + file.getName());
+            compactionNeeded = true;
+        }
+        if (!endsWithNewLine()) {
+            // the last write was interrupted, appending to the incomplete line would damage the next one as well
+            compactionNeeded = true;
+        }
+        return new LinkedHashMap<>(live);
+    }
+
+    private boolean endsWithNewLine() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() == 0) {
+                return true;
+            }
+            raf.seek(raf.length() - 1);
+            return raf.read() == '\n';
+        }
+    }
+
+    /**
+     * Replaces the entire content of the journal with the given state, blocking
+     * until it is written. Intended for importing from a different format while
+     * starting up
+     *
+     * @param state Serialized state of all factories, keyed by their location
+     * @throws IOException If the journal could not be written
+     */
+    public void replaceAll(Map<String, String> state) throws IOException {
+        live.clear();
+        live.putAll(state);
+        compact();
+    }
+
+    /**
+     * Queues the given changes to be appended to the journal. Must be called from
+     * a single thread
+     *
+     * @param changes Serialized state of changed factories keyed by their
+     *                location, a null value marks a factory as removed
+     */
+    public void append(Map<String, String> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                write(changes);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to write factory journal, retrying with next save", e);
+                // all changes are still in memory, so writing the whole state again recovers them
+                closeOutput();
+                compactionNeeded = true;
+            }
+        });
+    }
+
+    private void write(Map<String, String> changes) throws IOException {
+        for (Map.Entry<String, String> entry : changes.entrySet()) {
+            if (entry.getValue() == null) {
+                live.remove(entry.getKey());
+            } else {
+                live.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (compactionNeeded || lineCount + changes.size() > 2 * live.size() + COMPACTION_SLACK) {
+            compact();
+            return;
+        }
+        Writer output = getOutput();
+        for (Map.Entry<String, String> entry : changes.entrySet()) {
+            if (entry.getValue() == null) {
+                writeRemove(output, entry.getKey());
+            } else {
+                writePut(output, entry.getKey(), entry.getValue());
+            }
+            lineCount++;
+        }
+        output.flush();
+        out.getFD().sync();
+    }
+
+    private Writer getOutput() throws IOException {
+        if (outWriter == null) {
+            boolean isNew = !file.exists();
+            out = new FileOutputStream(file, true);
+            outWriter = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (isNew) {
+                writeHeader(outWriter);
+                lineCount = 1;
+            }
+        }
+        return outWriter;
+    }
+
+    private void closeOutput() {
+        if (outWriter == null) {
+            return;
+        }
+        try {
+            outWriter.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close factory journal", e);
+        }
+        outWriter = null;
+        out = null;
+    }
+
+    /**
+     * Writes the current state to a new file and atomically moves it in place of
+     * the journal
+     */
+    private void compact() throws IOException {
+        closeOutput();
+        try (FileOutputStream compactOut = new FileOutputStream(compactionFile, false);
+             Writer compactWriter = new BufferedWriter(new OutputStreamWriter(compactOut, StandardCharsets.UTF_8))) {
+            writeHeader(compactWriter);
+            for (Map.Entry<String, String> entry : live.entrySet()) {
+                writePut(compactWriter, entry.getKey(), entry.getValue());
+            }
+            compactWriter.flush();
+            compactOut.getFD().sync();
+        }
+        Files.move(compactionFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        lineCount = live.size() + 1;
+        compactionNeeded = false;
+    }
+
+    private static void writeHeader(Writer output) throws IOException {
+        output.write(HEADER + SEPARATOR + FORMAT_VERSION + "\n");
+    }
+
+    private static void writePut(Writer output, String key, String value) throws IOException {
+        output.write(PUT + SEPARATOR + key + SEPARATOR
+            + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "\n");
+    }
+
+    private static void writeRemove(Writer output, String key) throws IOException {
+        output.write(REMOVE + SEPARATOR + key + "\n");
+    }
+
+    /**
+     * Writes all queued changes and stops the writer thread
+     *
+     * @param timeoutSeconds Maximum time to wait for queued changes to be written
+     */
+    public void close(long timeoutSeconds) {
+        writer.execute(this::closeOutput);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for factory journal to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
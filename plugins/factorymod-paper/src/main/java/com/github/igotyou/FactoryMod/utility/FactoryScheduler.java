@@ -0,0 +1,102 @@
+package com.github.igotyou.FactoryMod.utility;
+
+import com.github.igotyou.FactoryMod.FactoryMod;
+import com.github.igotyou.FactoryMod.factories.Factory;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import java.util.logging.Level;
+import org.bukkit.Bukkit;
+
+/**
+ * Runs the updates of all factories from a single repeating task, instead of
+ * one scheduled task per factory update.
+ * <p>
+ * Factories are bucketed by the tick they are due in and each tick only the
+ * bucket of that tick is run. A factory can only be scheduled once, scheduling
+ * it again replaces its previous update
+ */
+public class FactoryScheduler implements Runnable {
+
+    private static final long NOT_SCHEDULED = -1L;
+
+    private final Long2ObjectOpenHashMap<ObjectArrayList<Factory>> dueByTick;
+    private final Reference2LongOpenHashMap<Factory> scheduledTicks;
+    private long currentTick;
+    private int taskId = -1;
+
+    public FactoryScheduler() {
+        this.dueByTick = new Long2ObjectOpenHashMap<>();
+        this.scheduledTicks = new Reference2LongOpenHashMap<>();
+        this.scheduledTicks.defaultReturnValue(NOT_SCHEDULED);
+    }
+
+    public void start() {
+        if (taskId == -1) {
+            taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(FactoryMod.getInstance(), this, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+    }
+
+    /**
+     * Schedules the given factory to be run after the given delay
+     *
+     * @param factory Factory to run
+     * @param delay   Delay in ticks, at least one tick is always waited
+     */
+    public void schedule(Factory factory, int delay) {
+        long tick = currentTick + Math.max(1, delay);
+        scheduledTicks.put(factory, tick);
+        dueByTick.computeIfAbsent(tick, k -> new ObjectArrayList<>()).add(factory);
+    }
+
+    /**
+     * Cancels the next update of the given factory, if one is scheduled
+     *
+     * @param factory Factory to cancel update for
+     */
+    public void cancel(Factory factory) {
+        // the entry in its bucket is skipped once reached
+        scheduledTicks.removeLong(factory);
+    }
+
+    public boolean isScheduled(Factory factory) {
+        return scheduledTicks.containsKey(factory);
+    }
+
+    /**
+     * @return Amount of factories waiting for their next update
+     */
+    public int getScheduledCount() {
+        return scheduledTicks.size();
+    }
+
+    @Override
+    public void run() {
+        currentTick++;
+        ObjectArrayList<Factory> due = dueByTick.remove(currentTick);
+        if (due == null) {
+            return;
+        }
+        for (int i = 0, size = due.size(); i < size; i++) {
+            Factory factory = due.get(i);
+            if (scheduledTicks.getLong(factory) != currentTick) {
+                // cancelled or rescheduled
+                continue;
+            }
+            scheduledTicks.removeLong(factory);
+            try {
+                factory.run();
+            } catch (RuntimeException e) {
+                FactoryMod.getInstance().getLogger().log(Level.SEVERE,
+                    "Failed to update factory " + factory.getLogData(), e);
+            }
+        }
+    }
+}
@@ -13,31 +13,42 @@ import com.github.igotyou.FactoryMod.factories.Sorter;
 import com.github.igotyou.FactoryMod.recipes.IRecipe;
 import com.github.igotyou.FactoryMod.repairManager.PercentageHealthRepairManager;
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.BlockFace;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.ItemStack;
 import vg.civcraft.mc.civmodcore.inventory.items.ItemMap;
 import vg.civcraft.mc.civmodcore.world.WorldUtils;
 
+/**
+ * Persists the state of factories in a {@link FactoryJournal}, which only
+ * receives the factories changed since the last save. Previous versions saved
+ * all factories into a single YAML file, which is imported into the journal
+ * once if no journal exists yet
+ */
 public class FileHandler {
 
     private FactoryMod plugin;
     private FactoryModManager manager;
     private File saveFile;
     private File backup;
+    private FactoryJournal journal;
 
     private Map<String, String> factoryRenames;
 
@@ -51,92 +62,112 @@ public class FileHandler {
             + File.separator + "factoryData.yml");
         backup = new File(plugin.getDataFolder().getAbsolutePath()
             + File.separator + "factoryDataPreviousSave.yml");
+        journal = new FactoryJournal(new File(plugin.getDataFolder(), "factoryJournal.log"), plugin.getLogger());
     }
 
-    public void save(Collection<Factory> factories) {
-        if (saveFile.exists()) {
-            // old save file exists, so it is our new backup now
-            if (backup.exists()) {
-                backup.delete();
+    /**
+     * Writes the state of all factories changed since the last save to the
+     * journal. Serializing happens on the calling thread, which must be the main
+     * thread, while the actual writing is done asynchronously
+     *
+     * @param changed Factories whose state changed
+     * @param removed Keys of factories which were removed
+     */
+    public void save(Collection<Factory> changed, Collection<String> removed) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (String key : removed) {
+            changes.put(key, null);
+        }
+        for (Factory f : changed) {
+            try {
+                changes.put(getKey(f), serializeFactory(f));
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to serialize factory " + f.getLogData(), e);
             }
-            saveFile.renameTo(backup);
         }
-        try {
-            saveFile.createNewFile();
-            YamlConfiguration config = YamlConfiguration
-                .loadConfiguration(saveFile);
-            config.set("version", saveFileVersion);
-            for (Factory f : factories) {
-                String current = serializeLocation(f.getMultiBlockStructure()
-                    .getCenter());
-                config.set(current + ".name", f.getName());
-                ConfigurationSection blockSection = config.getConfigurationSection(current).createSection("blocks");
-                configureLocation(blockSection, f.getMultiBlockStructure().getAllBlocks());
-                if (f instanceof FurnCraftChestFactory) {
-                    FurnCraftChestFactory fccf = (FurnCraftChestFactory) f;
-                    config.set(current + ".type", "FCC");
-                    config.set(current + ".health",
-                        ((PercentageHealthRepairManager) fccf
-                            .getRepairManager()).getRawHealth());
-                    config.set(current + ".breakTime",
-                        ((PercentageHealthRepairManager) fccf
-                            .getRepairManager()).getBreakTime());
-                    config.set(current + ".runtime", fccf.getRunningTime());
-                    config.set(current + ".selectedRecipe", fccf
-                        .getCurrentRecipe().getName());
-                    config.set(current + ".autoSelect", fccf.isAutoSelect());
-                    List<String> recipeList = new LinkedList<String>();
-                    for (IRecipe rec : fccf.getRecipes()) {
-                        recipeList.add(rec.getIdentifier());
-                    }
-                    config.set(current + ".recipes", recipeList);
-                    if (fccf.getActivator() == null) {
-                        config.set(current + ".activator", "null");
-                    } else {
-                        config.set(current + ".activator", fccf.getActivator().toString());
-                    }
-                    for (IRecipe i : ((FurnCraftChestFactory) f).getRecipes()) {
-                        config.set(current + ".runcounts." + i.getName(), fccf.getRunCount(i));
-                        config.set(current + ".recipeLevels." + i.getName(), fccf.getRecipeLevel(i));
-                    }
-                    config.set(current + ".furnace-io", fccf.getFurnaceIOSelector().toConfigSection());
-                    config.set(current + ".table-io", fccf.getTableIOSelector().toConfigSection());
-                    config.set(current + ".ui-menu-mode", fccf.getUiMenuMode().name());
-                    config.set(current + ".charcoal-level", fccf.getCharcoalLevel());
-                    config.set(current + ".speed-level", fccf.getSpeedLevel());
-                    config.set(current + ".charcoal-absorbed", fccf.getCharcoalAbsorbed());
-                } else if (f instanceof Pipe) {
-                    Pipe p = (Pipe) f;
-                    config.set(current + ".type", "PIPE");
-                    config.set(current + ".runtime", p.getRunTime());
-                    List<String> mats = new LinkedList<>();
-                    List<Material> materials = p.getAllowedMaterials();
-                    if (materials != null) {
-                        for (Material m : materials) {
-                            mats.add(m.toString());
-                        }
-                    }
-                    config.set(current + ".materials", mats);
-                } else if (f instanceof Sorter) {
-                    Sorter s = (Sorter) f;
-                    config.set(current + ".runtime", s.getRunTime());
-                    config.set(current + ".type", "SORTER");
-                    for (BlockFace face : WorldUtils.ALL_SIDES) {
-                        config.set(current + ".faces." + face.toString(), s
-                            .getItemsForSide(face)
-                            .getItemStackRepresentation().toArray());
-                    }
+        journal.append(changes);
+        if (!changes.isEmpty()) {
+            plugin.info("Saving " + changed.size() + " changed and " + removed.size() + " removed factories");
+        }
+    }
+
+    /**
+     * Waits for all queued changes to be written, after which no more changes can
+     * be saved
+     */
+    public void close() {
+        journal.close(60);
+    }
+
+    /**
+     * @param f Factory to get key for
+     * @return Key identifying the factory in the journal, based on its center
+     */
+    public String getKey(Factory f) {
+        return serializeLocation(f.getMultiBlockStructure().getCenter());
+    }
+
+    private String serializeFactory(Factory f) {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("name", f.getName());
+        ConfigurationSection blockSection = config.createSection("blocks");
+        configureLocation(blockSection, f.getMultiBlockStructure().getAllBlocks());
+        if (f instanceof FurnCraftChestFactory) {
+            FurnCraftChestFactory fccf = (FurnCraftChestFactory) f;
+            config.set("type", "FCC");
+            config.set("health",
+                ((PercentageHealthRepairManager) fccf
+                    .getRepairManager()).getRawHealth());
+            config.set("breakTime",
+                ((PercentageHealthRepairManager) fccf
+                    .getRepairManager()).getBreakTime());
+            config.set("runtime", fccf.getRunningTime());
+            config.set("selectedRecipe", fccf
+                .getCurrentRecipe().getName());
+            config.set("autoSelect", fccf.isAutoSelect());
+            List<String> recipeList = new LinkedList<String>();
+            for (IRecipe rec : fccf.getRecipes()) {
+                recipeList.add(rec.getIdentifier());
+            }
+            config.set("recipes", recipeList);
+            if (fccf.getActivator() == null) {
+                config.set("activator", "null");
+            } else {
+                config.set("activator", fccf.getActivator().toString());
+            }
+            for (IRecipe i : ((FurnCraftChestFactory) f).getRecipes()) {
+                config.set("runcounts." + i.getName(), fccf.getRunCount(i));
+                config.set("recipeLevels." + i.getName(), fccf.getRecipeLevel(i));
+            }
+            config.set("furnace-io", fccf.getFurnaceIOSelector().toConfigSection());
+            config.set("table-io", fccf.getTableIOSelector().toConfigSection());
+            config.set("ui-menu-mode", fccf.getUiMenuMode().name());
+            config.set("charcoal-level", fccf.getCharcoalLevel());
+            config.set("speed-level", fccf.getSpeedLevel());
+            config.set("charcoal-absorbed", fccf.getCharcoalAbsorbed());
+        } else if (f instanceof Pipe) {
+            Pipe p = (Pipe) f;
+            config.set("type", "PIPE");
+            config.set("runtime", p.getRunTime());
+            List<String> mats = new LinkedList<>();
+            List<Material> materials = p.getAllowedMaterials();
+            if (materials != null) {
+                for (Material m : materials) {
+                    mats.add(m.toString());
                 }
             }
-            config.save(saveFile);
-            plugin.info("Successfully saved factory data");
-        } catch (Exception e) {
-            // In case anything goes wrong while saving we always keep the
-            // latest valid backup
-            plugin.severe("Fatal error while trying to save factory data");
-            e.printStackTrace();
-            saveFile.delete();
+            config.set("materials", mats);
+        } else if (f instanceof Sorter) {
+            Sorter s = (Sorter) f;
+            config.set("runtime", s.getRunTime());
+            config.set("type", "SORTER");
+            for (BlockFace face : WorldUtils.ALL_SIDES) {
+                config.set("faces." + face.toString(), s
+                    .getItemsForSide(face)
+                    .getItemStackRepresentation().toArray());
+            }
         }
+        return config.saveToString();
     }
 
     private void configureLocation(ConfigurationSection config, List<Location> locations) {
@@ -156,244 +187,308 @@ public class FileHandler {
     }
 
     public void load(Map<String, IFactoryEgg> eggs) {
+        if (journal.exists()) {
+            loadFromJournal(eggs);
+            return;
+        }
+        File legacyFile;
         if (saveFile.exists()) {
-            loadFromFile(saveFile, eggs);
+            legacyFile = saveFile;
+        } else if (backup.exists()) {
+            plugin.warning("No default save file found, importing backup");
+            legacyFile = backup;
         } else {
-            plugin.warning("No default save file found");
-            if (backup.exists()) {
-                plugin.info("Backup file found, loading backup");
-                loadFromFile(backup, eggs);
-            } else {
-                plugin.warning("No backup save file found. If you are not starting this plugin for the first time you should be worried now");
+            plugin.warning("No save file found. If you are not starting this plugin for the first time you should be worried now");
+            return;
+        }
+        importLegacyFile(legacyFile, eggs);
+    }
+
+    private void loadFromJournal(Map<String, IFactoryEgg> eggs) {
+        Map<String, String> state;
+        try {
+            state = journal.read();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read factory journal", e);
+        }
+        int counter = 0;
+        // like with the old YAML file, factories which can not be loaded are dropped
+        Map<String, String> dropped = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : state.entrySet()) {
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                config.loadFromString(entry.getValue());
+            } catch (InvalidConfigurationException e) {
+                plugin.warning("Failed to parse saved factory at " + entry.getKey() + ": " + e.getMessage());
+                dropped.put(entry.getKey(), null);
+                continue;
+            }
+            Factory f = loadFactory(config, saveFileVersion, eggs);
+            if (f == null) {
+                dropped.put(entry.getKey(), null);
+                continue;
             }
+            manager.addFactory(f);
+            counter++;
         }
+        journal.append(dropped);
+        plugin.info("Loaded " + counter + " factories from journal");
     }
 
-    private void loadFromFile(File f, Map<String, IFactoryEgg> eggs) {
+    /**
+     * Loads all factories from the single YAML file used by previous versions,
+     * writes them to the journal and renames the YAML file, so it is only ever
+     * imported once
+     */
+    private void importLegacyFile(File f, Map<String, IFactoryEgg> eggs) {
         int counter = 0;
-        YamlConfiguration config = YamlConfiguration
-            .loadConfiguration(saveFile);
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(f);
         int loadedVersion = config.getInt("version", 1);
+        Map<String, String> state = new LinkedHashMap<>();
         for (String key : config.getKeys(false)) {
             ConfigurationSection current = config.getConfigurationSection(key);
             if (current == null) {
                 continue;
             }
-            String type = current.getString("type");
-            String name = current.getString("name");
-            int runtime = current.getInt("runtime");
-            List<Location> blocks = new LinkedList<>();
-            Set<String> blockKeys = current.getConfigurationSection("blocks").getKeys(false);
-            Collections.sort(new LinkedList<String>(blockKeys));
-            for (String blockKey : blockKeys) {
-                ConfigurationSection currSec = current.getConfigurationSection(
-                    "blocks").getConfigurationSection(blockKey);
-                String worldName = currSec.getString("world");
-                int x = currSec.getInt("x");
-                int y = currSec.getInt("y");
-                int z = currSec.getInt("z");
-                World w = Bukkit.getWorld(worldName);
-                blocks.add(new Location(w, x, y, z));
+            Factory factory = loadFactory(current, loadedVersion, eggs);
+            if (factory != null) {
+                manager.addFactory(factory);
+                state.put(getKey(factory), serializeFactory(factory));
+                counter++;
             }
-            switch (type) {
-                case "FCC":
-                    if (loadedVersion == 1) {
-                        //need to sort the locations properly, because they werent previously
-                        List<Location> sortedList = new LinkedList<>();
-                        int totalX = 0;
-                        int totalY = 0;
-                        int totalZ = 0;
-                        for (Location loc : blocks) {
-                            totalX += loc.getBlockX();
-                            totalY += loc.getBlockY();
-                            totalZ += loc.getBlockZ();
-                        }
-                        Location center = new Location(blocks.get(0).getWorld(), totalX / 3, totalY / 3, totalZ / 3);
-                        if (!blocks.contains(center)) {
-                            plugin.warning("Failed to convert location for factory at " + blocks.get(0).toString() + "; calculated center: " + center.toString());
+        }
+        plugin.info("Loaded " + counter + " factories from " + f.getName());
+        try {
+            journal.replaceAll(state);
+        } catch (IOException e) {
+            // keep the YAML file, so the import is attempted again on the next start
+            plugin.severe("Failed to import factories into journal, keeping " + f.getName());
+            e.printStackTrace();
+            return;
+        }
+        File imported = new File(f.getParentFile(), f.getName() + ".imported");
+        if (f.renameTo(imported)) {
+            plugin.info("Imported factories into journal, " + f.getName() + " was renamed to " + imported.getName());
+        } else {
+            plugin.warning("Imported factories into journal, but failed to rename " + f.getName());
+        }
+    }
+
+    /**
+     * Recreates a factory from its saved state
+     *
+     * @param current Section holding the state of the factory
+     * @param loadedVersion Version of the format the state was saved in
+     * @param eggs Eggs of all configured factories, keyed by lower case name
+     * @return Factory created or null if it could not be created
+     */
+    private Factory loadFactory(ConfigurationSection current, int loadedVersion, Map<String, IFactoryEgg> eggs) {
+        String type = current.getString("type");
+        String name = current.getString("name");
+        int runtime = current.getInt("runtime");
+        List<Location> blocks = new LinkedList<>();
+        Set<String> blockKeys = current.getConfigurationSection("blocks").getKeys(false);
+        Collections.sort(new LinkedList<String>(blockKeys));
+        for (String blockKey : blockKeys) {
+            ConfigurationSection currSec = current.getConfigurationSection(
+                "blocks").getConfigurationSection(blockKey);
+            String worldName = currSec.getString("world");
+            int x = currSec.getInt("x");
+            int y = currSec.getInt("y");
+            int z = currSec.getInt("z");
+            World w = Bukkit.getWorld(worldName);
+            blocks.add(new Location(w, x, y, z));
+        }
+        switch (type) {
+            case "FCC":
+                if (loadedVersion == 1) {
+                    //need to sort the locations properly, because they werent previously
+                    List<Location> sortedList = new LinkedList<>();
+                    int totalX = 0;
+                    int totalY = 0;
+                    int totalZ = 0;
+                    for (Location loc : blocks) {
+                        totalX += loc.getBlockX();
+                        totalY += loc.getBlockY();
+                        totalZ += loc.getBlockZ();
+                    }
+                    Location center = new Location(blocks.get(0).getWorld(), totalX / 3, totalY / 3, totalZ / 3);
+                    if (!blocks.contains(center)) {
+                        plugin.warning("Failed to convert location for factory at " + blocks.get(0).toString() + "; calculated center: " + center.toString());
+                    } else {
+                        blocks.remove(center);
+                        sortedList.add(center);
+                        //we cant guarantee that this will work, it might very well fail for partially broken factories, but it's the best thing I got
+                        if (blocks.get(0).getBlock().getType() == Material.CHEST
+                            || blocks.get(0).getBlock().getType() == Material.TRAPPED_CHEST) {
+                            sortedList.add(blocks.get(1));
+                            sortedList.add(blocks.get(0));
                         } else {
-                            blocks.remove(center);
-                            sortedList.add(center);
-                            //we cant guarantee that this will work, it might very well fail for partially broken factories, but it's the best thing I got
-                            if (blocks.get(0).getBlock().getType() == Material.CHEST
-                                || blocks.get(0).getBlock().getType() == Material.TRAPPED_CHEST) {
-                                sortedList.add(blocks.get(1));
-                                sortedList.add(blocks.get(0));
-                            } else {
-                                sortedList.add(blocks.get(0));
-                                sortedList.add(blocks.get(1));
-                            }
-                            blocks = sortedList;
+                            sortedList.add(blocks.get(0));
+                            sortedList.add(blocks.get(1));
                         }
+                        blocks = sortedList;
+                    }
 
 
+                }
+                FurnCraftChestEgg egg = (FurnCraftChestEgg) eggs.get(name.toLowerCase());
+                if (egg == null) {
+                    String replaceName = factoryRenames.get(name);
+                    if (replaceName != null) {
+                        egg = (FurnCraftChestEgg) eggs.get(replaceName);
                     }
-                    FurnCraftChestEgg egg = (FurnCraftChestEgg) eggs.get(name.toLowerCase());
                     if (egg == null) {
-                        String replaceName = factoryRenames.get(name);
-                        if (replaceName != null) {
-                            egg = (FurnCraftChestEgg) eggs.get(replaceName);
-                        }
-                        if (egg == null) {
-                            plugin.warning("Save file contained factory named "
-                                + name
-                                + " , but no factory with this name was found in the config");
-                            continue;
-                        } else {
-                            name = replaceName;
-                        }
+                        plugin.warning("Save file contained factory named "
+                            + name
+                            + " , but no factory with this name was found in the config");
+                        return null;
+                    } else {
+                        name = replaceName;
                     }
-                    int health = current.getInt("health");
-                    long breakTime = current.getLong("breakTime", 0);
-                    String selectedRecipe = current.getString("selectedRecipe");
-                    List<String> recipes = current.getStringList("recipes");
+                }
+                int health = current.getInt("health");
+                long breakTime = current.getLong("breakTime", 0);
+                String selectedRecipe = current.getString("selectedRecipe");
+                List<String> recipes = current.getStringList("recipes");
 
-                    // Now check for recipes marked as force include that should be on this list.
-                    for (IRecipe irecipe : egg.getRecipes()) {
-                        if (manager.isForceInclude(irecipe.getIdentifier())) {
-                            if (!recipes.contains(irecipe.getIdentifier())) { // it's not there, add it.
-                                plugin.info("Augmenting prior " + name + " factory at " +
-                                    blocks.get(0).toString() + " with force include recipe " +
-                                    irecipe.getName());
-                                recipes.add(irecipe.getIdentifier());
-                            }
+                // Now check for recipes marked as force include that should be on this list.
+                for (IRecipe irecipe : egg.getRecipes()) {
+                    if (manager.isForceInclude(irecipe.getIdentifier())) {
+                        if (!recipes.contains(irecipe.getIdentifier())) { // it's not there, add it.
+                            plugin.info("Augmenting prior " + name + " factory at " +
+                                blocks.get(0).toString() + " with force include recipe " +
+                                irecipe.getName());
+                            recipes.add(irecipe.getIdentifier());
                         }
                     }
+                }
 
-                    boolean autoSelect = current.getBoolean("autoSelect", false);
-                    int charcoalLevel = current.getInt("charcoal-level", 0);
-                    int speedLevel = current.getInt("speed-level", 0);
-                    int charcoalAbsorbed = current.getInt("charcoal-absorbed", 0);
-                    FurnCraftChestFactory fac = (FurnCraftChestFactory) egg.revive(blocks, health, selectedRecipe,
-                        runtime, breakTime, recipes, charcoalLevel, speedLevel, charcoalAbsorbed);
-                    String activator = current.getString("activator", "null");
-                    UUID acti;
-                    if (activator.equals("null")) {
-                        acti = null;
-                    } else {
-                        acti = UUID.fromString(activator);
-                    }
-                    fac.setActivator(acti);
-                    ConfigurationSection runCounts = current.getConfigurationSection("runcounts");
-                    if (runCounts != null) {
-                        for (String countKey : runCounts.getKeys(false)) {
-                            int runs = runCounts.getInt(countKey);
-                            for (IRecipe r : fac.getRecipes()) {
-                                if (r.getName().equals(countKey)) {
-                                    fac.setRunCount(r, runs);
-                                    break;
-                                }
+                boolean autoSelect = current.getBoolean("autoSelect", false);
+                int charcoalLevel = current.getInt("charcoal-level", 0);
+                int speedLevel = current.getInt("speed-level", 0);
+                int charcoalAbsorbed = current.getInt("charcoal-absorbed", 0);
+                FurnCraftChestFactory fac = (FurnCraftChestFactory) egg.revive(blocks, health, selectedRecipe,
+                    runtime, breakTime, recipes, charcoalLevel, speedLevel, charcoalAbsorbed);
+                String activator = current.getString("activator", "null");
+                UUID acti;
+                if (activator.equals("null")) {
+                    acti = null;
+                } else {
+                    acti = UUID.fromString(activator);
+                }
+                fac.setActivator(acti);
+                ConfigurationSection runCounts = current.getConfigurationSection("runcounts");
+                if (runCounts != null) {
+                    for (String countKey : runCounts.getKeys(false)) {
+                        int runs = runCounts.getInt(countKey);
+                        for (IRecipe r : fac.getRecipes()) {
+                            if (r.getName().equals(countKey)) {
+                                fac.setRunCount(r, runs);
+                                break;
                             }
                         }
                     }
-                    ConfigurationSection recipeLevels = current.getConfigurationSection("recipeLevels");
-                    if (recipeLevels != null) {
-                        for (String countKey : recipeLevels.getKeys(false)) {
-                            int runs = recipeLevels.getInt(countKey);
-                            for (IRecipe r : fac.getRecipes()) {
-                                if (r.getName().equals(countKey)) {
-                                    fac.setRecipeLevel(r, runs);
-                                    break;
-                                }
+                }
+                ConfigurationSection recipeLevels = current.getConfigurationSection("recipeLevels");
+                if (recipeLevels != null) {
+                    for (String countKey : recipeLevels.getKeys(false)) {
+                        int runs = recipeLevels.getInt(countKey);
+                        for (IRecipe r : fac.getRecipes()) {
+                            if (r.getName().equals(countKey)) {
+                                fac.setRecipeLevel(r, runs);
+                                break;
                             }
                         }
                     }
-                    fac.setAutoSelect(autoSelect);
-                {
-                    ConfigurationSection iosec = current.getConfigurationSection("furnace-io");
-                    if (iosec != null) {
-                        IOSelector furnaceIoSelector = IOSelector.fromConfigSection(iosec);
-                        fac.setFurnaceIOSelector(furnaceIoSelector);
-                    } else {
-                        // Nothing I guess, the furnace has no default state.
-                    }
-                    iosec = current.getConfigurationSection("table-io");
-                    if (iosec != null) {
-                        IOSelector tableIoSelector = IOSelector.fromConfigSection(iosec);
-                        fac.setTableIOSelector(tableIoSelector);
-                    } else {
-                        // Default table-side IO moved to FCCF.getTableIoSelector() lazy init
-                    }
                 }
-                String menuModeRaw = current.getString("ui-menu-mode");
-                FurnCraftChestFactory.UiMenuMode menuMode;
-                if (menuModeRaw == null) {
-                    menuMode = FurnCraftChestFactory.UiMenuMode.SIMPLE;
+                fac.setAutoSelect(autoSelect);
+            {
+                ConfigurationSection iosec = current.getConfigurationSection("furnace-io");
+                if (iosec != null) {
+                    IOSelector furnaceIoSelector = IOSelector.fromConfigSection(iosec);
+                    fac.setFurnaceIOSelector(furnaceIoSelector);
                 } else {
-                    try {
-                        menuMode = FurnCraftChestFactory.UiMenuMode.valueOf(menuModeRaw);
-                    } catch (IllegalArgumentException iae) {
-                        menuMode = FurnCraftChestFactory.UiMenuMode.SIMPLE;
-                    }
+                    // Nothing I guess, the furnace has no default state.
                 }
-                fac.setUiMenuMode(menuMode);
-                manager.addFactory(fac);
-                counter++;
-                break;
-                case "PIPE":
-                    PipeEgg pipeEgg = (PipeEgg) eggs.get(name);
-                    if (pipeEgg == null) {
-                        String replaceName = factoryRenames.get(name);
-                        if (replaceName != null) {
-                            pipeEgg = (PipeEgg) eggs.get(replaceName);
-                        }
-                        if (pipeEgg == null) {
-                            plugin.warning("Save file contained factory named "
-                                + name
-                                + " , but no factory with this name was found in the config");
-                            continue;
-                        } else {
-                            name = replaceName;
-                        }
+                iosec = current.getConfigurationSection("table-io");
+                if (iosec != null) {
+                    IOSelector tableIoSelector = IOSelector.fromConfigSection(iosec);
+                    fac.setTableIOSelector(tableIoSelector);
+                } else {
+                    // Default table-side IO moved to FCCF.getTableIoSelector() lazy init
+                }
+            }
+            String menuModeRaw = current.getString("ui-menu-mode");
+            FurnCraftChestFactory.UiMenuMode menuMode;
+            if (menuModeRaw == null) {
+                menuMode = FurnCraftChestFactory.UiMenuMode.SIMPLE;
+            } else {
+                try {
+                    menuMode = FurnCraftChestFactory.UiMenuMode.valueOf(menuModeRaw);
+                } catch (IllegalArgumentException iae) {
+                    menuMode = FurnCraftChestFactory.UiMenuMode.SIMPLE;
+                }
+            }
+            fac.setUiMenuMode(menuMode);
+            return fac;
+            case "PIPE":
+                PipeEgg pipeEgg = (PipeEgg) eggs.get(name);
+                if (pipeEgg == null) {
+                    String replaceName = factoryRenames.get(name);
+                    if (replaceName != null) {
+                        pipeEgg = (PipeEgg) eggs.get(replaceName);
                     }
-                    List<Material> mats = new LinkedList<>();
-                    if (current.isSet("materials")) {
-                        for (String mat : current.getStringList("materials")) {
-                            mats.add(Material.valueOf(mat));
-                        }
+                    if (pipeEgg == null) {
+                        plugin.warning("Save file contained factory named "
+                            + name
+                            + " , but no factory with this name was found in the config");
+                        return null;
                     } else {
-                        mats = null;
+                        name = replaceName;
                     }
-                    if (mats.isEmpty()) {
-                        mats = null;
+                }
+                List<Material> mats = new LinkedList<>();
+                if (current.isSet("materials")) {
+                    for (String mat : current.getStringList("materials")) {
+                        mats.add(Material.valueOf(mat));
+                    }
+                } else {
+                    mats = null;
+                }
+                if (mats.isEmpty()) {
+                    mats = null;
+                }
+                return pipeEgg.revive(blocks, mats, runtime);
+            case "SORTER":
+                Map<BlockFace, ItemMap> assignments = new HashMap<>();
+                SorterEgg sorterEgg = (SorterEgg) eggs.get(name);
+                if (sorterEgg == null) {
+                    String replaceName = factoryRenames.get(name);
+                    if (replaceName != null) {
+                        sorterEgg = (SorterEgg) eggs.get(replaceName);
                     }
-                    Factory p = pipeEgg.revive(blocks, mats, runtime);
-                    manager.addFactory(p);
-                    counter++;
-                    break;
-                case "SORTER":
-                    Map<BlockFace, ItemMap> assignments = new HashMap<>();
-                    SorterEgg sorterEgg = (SorterEgg) eggs.get(name);
                     if (sorterEgg == null) {
-                        String replaceName = factoryRenames.get(name);
-                        if (replaceName != null) {
-                            sorterEgg = (SorterEgg) eggs.get(replaceName);
-                        }
-                        if (sorterEgg == null) {
-                            plugin.warning("Save file contained factory named "
-                                + name
-                                + " , but no factory with this name was found in the config");
-                            continue;
-                        } else {
-                            name = replaceName;
-                        }
+                        plugin.warning("Save file contained factory named "
+                            + name
+                            + " , but no factory with this name was found in the config");
+                        return null;
+                    } else {
+                        name = replaceName;
                     }
-                    for (String face : current.getConfigurationSection("faces")
-                        .getKeys(false)) {
+                }
+                for (String face : current.getConfigurationSection("faces")
+                    .getKeys(false)) {
 
-                        @SuppressWarnings("unchecked")
-                        List<ItemStack> stacks = (List<ItemStack>) current.getConfigurationSection("faces").get(face);
+                    @SuppressWarnings("unchecked")
+                    List<ItemStack> stacks = (List<ItemStack>) current.getConfigurationSection("faces").get(face);
 
-                        // it works, okay?
-                        ItemMap map = new ItemMap(stacks);
-                        assignments.put(BlockFace.valueOf(face), map);
-                    }
-                    Factory s = sorterEgg.revive(blocks, assignments, runtime);
-                    manager.addFactory(s);
-                    counter++;
-                    break;
-            }
+                    // it works, okay?
+                    ItemMap map = new ItemMap(stacks);
+                    assignments.put(BlockFace.valueOf(face), map);
+                }
+                return sorterEgg.revive(blocks, assignments, runtime);
         }
-        plugin.info("Loaded " + counter + " factory from save file");
+        return null;
     }
 }
@@ -3,6 +3,8 @@ package com.github.igotyou.FactoryMod.utility;
 import com.github.igotyou.FactoryMod.FactoryMod;
 import com.github.igotyou.FactoryMod.FactoryModManager;
 import com.github.igotyou.FactoryMod.FactoryModPlayerSettings;
+import com.github.igotyou.FactoryMod.factories.Factory;
+import com.github.igotyou.FactoryMod.factories.FurnCraftChestFactory;
 import java.util.UUID;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -111,6 +113,7 @@ public class IOConfigSection extends StaticDisplaySection {
                     }
                 }
                 ioSelector.toggleInput(dir);
+                onIOChanged();
                 updateItem();
             }
 
@@ -127,6 +130,7 @@ public class IOConfigSection extends StaticDisplaySection {
                     }
                 }
                 ioSelector.toggleOutput(dir);
+                onIOChanged();
                 updateItem();
             }
 
@@ -143,6 +147,7 @@ public class IOConfigSection extends StaticDisplaySection {
                     }
                 }
                 ioSelector.toggleFuel(dir);
+                onIOChanged();
                 updateItem();
             }
 
@@ -183,6 +188,15 @@ public class IOConfigSection extends StaticDisplaySection {
         };
     }
 
+    private void onIOChanged() {
+        if (iofProvider instanceof FurnCraftChestFactory fccf) {
+            fccf.invalidateInventoryCache();
+        }
+        if (iofProvider instanceof Factory factory) {
+            factory.markDirty();
+        }
+    }
+
     @Override
     protected void rebuild() {
         ioDirectionMode = FactoryMod.getInstance().getManager().getPlayerSettings().getIoDirectionMode(viewerId);
@@ -1,5 +1,6 @@
 plugins {
     id("io.papermc.paperweight.userdev")
+    id("me.champeau.jmh")
 }
 
 version = "2.0.0-SNAPSHOT"
@@ -8,4 +9,12 @@ dependencies {
     paperweight {
         paperDevBundle(libs.versions.paper)
     }
+
+    testImplementation(libs.bundles.junit)
+
+    jmhImplementation(libs.paper.api)
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
 }
@@ -0,0 +1,173 @@
+package com.github.devotedmc.hiddenore;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost per block break of picking a drop, comparing {@link DropTable#pick} against walking the drop
+ * configs of the block as {@link BlockConfig} did before drops were compiled per biome.
+ * <p>
+ * The drops are shaped like those of a stone block in a typical config: limited to height ranges, a quarter of them
+ * limited to tools, a third of them to player states, half of them in veins and some with other limits in one biome.
+ * Tools are catchalls, as templates can't be compared without a server, so the tool in hand is never looked at.
+ * <p>
+ * Run with {@code ./gradlew :plugins:hiddenore-paper:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DropTableBenchmark {
+
+    private static final String BIOME = "PLAINS";
+    private static final int BREAKS = 4096;
+
+    @Param({"10", "40"})
+    public int drops;
+
+    private Config previousConfig;
+    private Map<String, DropConfig> dropConfigs;
+    private DropTable table;
+    private Player player;
+    private double[] dice;
+    private Location[] locations;
+    private int next;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        Random random = new Random(42);
+        previousConfig = Config.instance;
+        Constructor<Config> constructor = Config.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Config.instance = constructor.newInstance();
+        Config.instance.stateMasterList.put("haste", new PlayerStateConfig());
+        Config.instance.stateMasterList.put("fatigue", new PlayerStateConfig());
+        registerCatchallTool("pickaxe", 1.0);
+        registerCatchallTool("fortune", 1.5);
+
+        dropConfigs = new LinkedHashMap<>();
+        for (int i = 0; i < drops; i++) {
+            VeinConfig vein = i % 2 == 0 ? null : new VeinConfig(random.nextLong(), random.nextLong(), 1.0, 16, 0.5,
+                20, 30, 100, 100, false);
+            DropConfig drop = new DropConfig("drop" + i, List.of(), null, false, false, 0, "", createLimits(random, i),
+                vein);
+            if (i % 5 == 0) {
+                drop.addBiomeLimits(BIOME, createLimits(random, i));
+            }
+            dropConfigs.put("drop" + i, drop);
+        }
+        table = new DropTable(BIOME, dropConfigs);
+
+        player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getActivePotionEffects" -> List.of();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        dice = new double[BREAKS];
+        locations = new Location[BREAKS];
+        for (int i = 0; i < BREAKS; i++) {
+            dice[i] = random.nextDouble();
+            locations[i] = new Location(null, random.nextInt(20_000) - 10_000, random.nextInt(128) - 64,
+                random.nextInt(20_000) - 10_000);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Config.instance = previousConfig;
+        ToolConfig.clear();
+    }
+
+    private static DropLimitsConfig createLimits(Random random, int i) {
+        DropLimitsConfig limits = new DropLimitsConfig();
+        limits.minY = random.nextInt(64) - 64;
+        limits.maxY = limits.minY + 16 + random.nextInt(96);
+        // together well below 1, most breaks find nothing
+        limits.chance = 0.002 + random.nextDouble() * 0.01;
+        if (i % 4 == 0) {
+            limits.setTools(List.of("pickaxe", "fortune"));
+        }
+        if (i % 3 == 0) {
+            limits.state = i % 2 == 0 ? "haste" : "fatigue";
+        }
+        return limits;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void registerCatchallTool(String name, double dropChance) throws ReflectiveOperationException {
+        Field tools = ToolConfig.class.getDeclaredField("tools");
+        tools.setAccessible(true);
+        ((Map<String, ToolConfig>) tools.get(null)).put(name,
+            new ToolConfig(null, true, true, true, true, true, true, true, dropChance, 0.0, 0.0));
+    }
+
+    /**
+     * The loop BlockConfig picked drops with before drops were compiled per biome.
+     */
+    private static String pickUncompiled(Map<String, DropConfig> dropConfigs, double dice, String biome,
+                                         ItemStack tool, Player player, Location loc) {
+        double cumChance = 0.0d;
+        double localChance;
+        int blockY = loc.getBlockY();
+        for (Map.Entry<String, DropConfig> dce : dropConfigs.entrySet()) {
+            DropConfig dc = dce.getValue();
+            if (dc.dropsWithTool(biome, tool) && blockY <= dc.getMaxY(biome) && blockY >= dc.getMinY(biome)) {
+                ToolConfig tc = dc.dropsWithToolConfig(biome, tool);
+                localChance = dc.getChance(biome) * (tc == null ? 1.0 : tc.getDropChanceModifier())
+                    * dc.getStateChance(biome, player);
+                VeinConfig vc = dc.getVeinNature();
+                if (vc != null) {
+                    localChance *= vc.getOreChance(loc);
+                }
+                if (localChance < 0) {
+                    continue;
+                }
+                if (dice >= cumChance && dice < cumChance + localChance) {
+                    return dce.getKey();
+                }
+                cumChance += localChance;
+            }
+        }
+        return null;
+    }
+
+    private int nextBreak() {
+        next = (next + 1) & (BREAKS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public String uncompiled() {
+        int i = nextBreak();
+        return pickUncompiled(dropConfigs, dice[i], BIOME, null, player, locations[i]);
+    }
+
+    @Benchmark
+    public String table() {
+        int i = nextBreak();
+        return table.pick(dice[i], null, player, locations[i]);
+    }
+}
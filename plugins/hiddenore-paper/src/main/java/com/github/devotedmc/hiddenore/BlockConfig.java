@@ -4,7 +4,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.logging.Level;
 
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
@@ -19,6 +18,8 @@ public class BlockConfig {
     public boolean dropMultiple;
     public boolean suppressDrops;
     private Map<String, DropConfig> dropConfigs;
+    // drops compiled per biome, built on first use after the drops changed
+    private Map<String, DropTable> dropTables;
     private String prefix;
 
     public BlockConfig(NamespacedKey material, boolean dropMultiple, boolean suppressDrops, String prefix, Collection<NamespacedKey> validGenTypes) {
@@ -26,6 +27,7 @@ public class BlockConfig {
         this.dropMultiple = dropMultiple;
         this.suppressDrops = suppressDrops;
         this.dropConfigs = new HashMap<String, DropConfig>();
+        this.dropTables = new HashMap<String, DropTable>();
         this.prefix = prefix;
         this.validGenTypes = validGenTypes;
     }
@@ -70,6 +72,7 @@ public class BlockConfig {
 
     public void addDropConfig(String drop, DropConfig dropConfig) {
         dropConfigs.put(drop, dropConfig);
+        dropTables.clear();
     }
 
     public Set<String> getDrops() {
@@ -80,57 +83,18 @@ public class BlockConfig {
         return dropConfigs.get(drop);
     }
 
+    /**
+     * Picks a drop based on biome and tool, checking the dice against the stacked probabilities of all drops.
+     * Uses the drops precompiled for the biome, so only the player state and vein chances are computed per break.
+     *
+     * @return the name of the picked drop, or null if none
+     */
     public String getDropConfig(double dice, String biome, ItemStack tool, Player player, Location loc) {
-        // accrue possible drops based on biome / tool
-        // check dice against stacked probabilities
-
-        double cumChance = 0.0d;
-        double localChance = 0.0d;
-        int counted = 0;
-        int blockY = loc.getBlockY();
-
-        for (Map.Entry<String, DropConfig> dce : dropConfigs.entrySet()) {
-            DropConfig dc = dce.getValue();
-            if (dc.dropsWithTool(biome, tool) && blockY <= dc.getMaxY(biome)
-                && blockY >= dc.getMinY(biome)) {
-
-                ToolConfig tc = dc.dropsWithToolConfig(biome, tool);
-                localChance = dc.getChance(biome) * (tc == null ? 1.0 : tc.getDropChanceModifier()) * dc.getStateChance(biome, player);
-
-                VeinConfig vc = dc.getVeinNature();
-                if (vc != null) {
-                    localChance *= vc.getOreChance(loc);
-					
-					/*DIAGNOSTICS
-					HiddenOre.getPlugin().getLogger()
-							.log(Level.INFO, "Base chance {0}| tool mod {1}| vein mod {2}| totalChance {3}| tc {4}",
-							new Object[] {Double.toString(dc.getChance(biome)),
-									Double.toString(tc == null ? 1.0 : tc.getDropChanceModifier()),
-									vc.getOreChance(loc), localChance, (tc == null ? null : tc.toString())});*/
-                } else {
-					/*DIAGNOSTICS
-					HiddenOre.getPlugin().getLogger()
-							.log(Level.INFO, "Base chance {0}| tool mod {1}| totalChance {2}| tc {3}",
-							new Object[] {Double.toString(dc.getChance(biome)),
-									Double.toString(tc == null ? 1.0 : tc.getDropChanceModifier()),
-									localChance, (tc == null ? null : tc.toString())});*/
-                }
-                if (localChance < 0) {
-                    continue;
-                }
-
-                if (dice >= cumChance && dice < cumChance + localChance) {
-                    return dce.getKey();
-                }
-                cumChance += localChance;
-                counted++;
-            }
+        DropTable table = dropTables.get(biome);
+        if (table == null) {
+            table = new DropTable(biome, dropConfigs);
+            dropTables.put(biome, table);
         }
-        if (Config.isDebug) {
-            HiddenOre.getPlugin().getLogger()
-                .log(Level.INFO, "{0} tested {1} cumm {2} dice", new Object[]{counted, Double.toString(cumChance), Double.toString(dice)});
-        }
-
-        return null;
+        return table.pick(dice, tool, player, loc);
     }
 }
@@ -44,11 +44,15 @@ public final class Config {
 
     private static String trackFileName;
     private static File trackFile;
+    private static String trackFolderName;
+    private static File trackFolder;
     public static long trackSave;
 
     private static boolean useMapSave;
     private static String mapFileName;
     private static File mapFile;
+    private static String mapFolderName;
+    private static File mapFolder;
     public static long mapSave;
 
     public int transformAttemptMultiplier = 3;
@@ -62,9 +66,11 @@ public final class Config {
         prettyNames = new HashMap<String, NameConfig>();
         stateMasterList = new HashMap<String, PlayerStateConfig>();
         trackFileName = "tracking.dat";
+        trackFolderName = "tracking";
         trackSave = 90000l;
         useMapSave = true;
         mapFileName = "map.dat";
+        mapFolderName = "map";
         mapSave = 90000l;
         alertUser = false;
         listDrops = false;
@@ -91,11 +97,15 @@ public final class Config {
 
         trackFileName = file.getString("track_file", trackFileName);
         trackFile = new File(HiddenOre.getPlugin().getDataFolder(), trackFileName);
+        trackFolderName = file.getString("track_folder", trackFolderName);
+        trackFolder = new File(HiddenOre.getPlugin().getDataFolder(), trackFolderName);
         trackSave = file.getLong("track_save_ticks", trackSave);
 
         useMapSave = file.getBoolean("map_save_active", useMapSave);
         mapFileName = file.getString("map_file", mapFileName);
         mapFile = new File(HiddenOre.getPlugin().getDataFolder(), mapFileName);
+        mapFolderName = file.getString("map_folder", mapFolderName);
+        mapFolder = new File(HiddenOre.getPlugin().getDataFolder(), mapFolderName);
         mapSave = file.getLong("map_save_ticks", mapSave);
 
         i.ignoreSilktouch = file.getBoolean("ignore_silktouch", i.ignoreSilktouch);
@@ -492,6 +502,10 @@ public final class Config {
         return trackFile;
     }
 
+    public static File getTrackFolder() {
+        return trackFolder;
+    }
+
     public static boolean isMapActive() {
         return useMapSave;
     }
@@ -500,6 +514,10 @@ public final class Config {
         return mapFile;
     }
 
+    public static File getMapFolder() {
+        return mapFolder;
+    }
+
     public static int getTransformAttemptMultiplier() {
         return instance.transformAttemptMultiplier;
     }
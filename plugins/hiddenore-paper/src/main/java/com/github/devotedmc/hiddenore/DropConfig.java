@@ -116,12 +116,20 @@ public class DropConfig {
      * @return 0..? double value
      */
     public double getStateChance(String biome, Player player) {
-        String namedState = biomeLimits.containsKey(biome) ? biomeLimits.get(biome).state : limits.state;
-        PlayerStateConfig sConfig = Config.getState(namedState);
+        PlayerStateConfig sConfig = getStateConfig(biome);
 
         return (sConfig != null) ? sConfig.statusRate(player) : 1.0;
     }
 
+    /**
+     * @param biome the biome the player is in or that you want to test against
+     * @return the player state config applying to this drop in that biome, or null if none
+     */
+    public PlayerStateConfig getStateConfig(String biome) {
+        String namedState = biomeLimits.containsKey(biome) ? biomeLimits.get(biome).state : limits.state;
+        return Config.getState(namedState);
+    }
+
     public double getXPChance(String biome) {
         XPConfig xp = getBiomeXP(biome);
         return xp != null ? xp.chance : 0.0d;
@@ -0,0 +1,169 @@
+package com.github.devotedmc.hiddenore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * The drops of a {@link BlockConfig} precompiled for a single biome.
+ * <p>
+ * Everything which doesn't change between breaks (biome limits, tool lists, player state configs) is resolved once,
+ * so picking a drop only has to match each distinct tool list and player state once and then apply the vein chance
+ * of the remaining drops. Drops are kept in the same order as {@link BlockConfig} would walk them, so the dice picks
+ * exactly the same drop.
+ */
+class DropTable {
+
+    private static final int ANY_TOOL = -1;
+    private static final int NO_STATE = -1;
+
+    private final String biome;
+    private final String[] names;
+    private final int[] minY;
+    private final int[] maxY;
+    private final double[] chance;
+    private final int[] toolList;
+    private final int[] state;
+    private final VeinConfig[] veins;
+    private final List<String>[] toolLists;
+    private final PlayerStateConfig[] states;
+
+    // reused by every pick, breaks are only handled on the main thread
+    private final ToolConfig[] resolvedTools;
+    private final boolean[] toolResolved;
+    private final double[] stateRates;
+    private final boolean[] stateResolved;
+
+    @SuppressWarnings("unchecked")
+    DropTable(String biome, Map<String, DropConfig> dropConfigs) {
+        this.biome = biome;
+        int size = dropConfigs.size();
+        this.names = new String[size];
+        this.minY = new int[size];
+        this.maxY = new int[size];
+        this.chance = new double[size];
+        this.toolList = new int[size];
+        this.state = new int[size];
+        this.veins = new VeinConfig[size];
+
+        Map<List<String>, Integer> toolListIds = new HashMap<List<String>, Integer>();
+        List<List<String>> distinctToolLists = new ArrayList<List<String>>();
+        Map<PlayerStateConfig, Integer> stateIds = new IdentityHashMap<PlayerStateConfig, Integer>();
+        List<PlayerStateConfig> distinctStates = new ArrayList<PlayerStateConfig>();
+
+        int i = 0;
+        for (Map.Entry<String, DropConfig> dce : dropConfigs.entrySet()) {
+            DropConfig dc = dce.getValue();
+            names[i] = dce.getKey();
+            minY[i] = dc.getMinY(biome);
+            maxY[i] = dc.getMaxY(biome);
+            chance[i] = dc.getChance(biome);
+            veins[i] = dc.getVeinNature();
+
+            List<String> tools = dc.getTools(biome);
+            if (tools == null || tools.isEmpty()) {
+                toolList[i] = ANY_TOOL;
+            } else {
+                Integer id = toolListIds.get(tools);
+                if (id == null) {
+                    id = distinctToolLists.size();
+                    toolListIds.put(tools, id);
+                    distinctToolLists.add(tools);
+                }
+                toolList[i] = id;
+            }
+
+            PlayerStateConfig sConfig = dc.getStateConfig(biome);
+            if (sConfig == null) {
+                state[i] = NO_STATE;
+            } else {
+                Integer id = stateIds.get(sConfig);
+                if (id == null) {
+                    id = distinctStates.size();
+                    stateIds.put(sConfig, id);
+                    distinctStates.add(sConfig);
+                }
+                state[i] = id;
+            }
+            i++;
+        }
+        this.toolLists = distinctToolLists.toArray(new List[0]);
+        this.states = distinctStates.toArray(new PlayerStateConfig[0]);
+        this.resolvedTools = new ToolConfig[toolLists.length];
+        this.toolResolved = new boolean[toolLists.length];
+        this.stateRates = new double[states.length];
+        this.stateResolved = new boolean[states.length];
+    }
+
+    /**
+     * Picks the drop the dice lands on, same as checking each drop's stacked probability in turn.
+     *
+     * @return the name of the picked drop, or null if none
+     */
+    String pick(double dice, ItemStack tool, Player player, Location loc) {
+        int blockY = loc.getBlockY();
+        // resolved on first use, most breaks only ever need a few of them
+        Arrays.fill(toolResolved, false);
+        Arrays.fill(stateResolved, false);
+
+        double cumChance = 0.0d;
+        int counted = 0;
+
+        for (int i = 0; i < names.length; i++) {
+            if (blockY > maxY[i] || blockY < minY[i]) {
+                continue;
+            }
+
+            double localChance = chance[i];
+            int t = toolList[i];
+            if (t != ANY_TOOL) {
+                if (!toolResolved[t]) {
+                    resolvedTools[t] = ToolConfig.getTool(toolLists[t], tool);
+                    toolResolved[t] = true;
+                }
+                ToolConfig tc = resolvedTools[t];
+                if (tc == null) {
+                    continue;
+                }
+                localChance *= tc.getDropChanceModifier();
+            }
+
+            int s = state[i];
+            if (s != NO_STATE) {
+                if (!stateResolved[s]) {
+                    stateRates[s] = states[s].statusRate(player);
+                    stateResolved[s] = true;
+                }
+                localChance *= stateRates[s];
+            }
+
+            if (veins[i] != null) {
+                localChance *= veins[i].getOreChance(loc);
+            }
+            if (localChance < 0) {
+                continue;
+            }
+
+            if (dice >= cumChance && dice < cumChance + localChance) {
+                return names[i];
+            }
+            cumChance += localChance;
+            counted++;
+        }
+        if (Config.isDebug) {
+            HiddenOre.getPlugin().getLogger()
+                .log(Level.INFO, "{0} tested {1} cumm {2} dice in {3}",
+                    new Object[]{counted, Double.toString(cumChance), Double.toString(dice), biome});
+        }
+
+        return null;
+    }
+}
@@ -37,13 +37,13 @@ public class HiddenOre extends JavaPlugin {
 
         tracking = new BreakTracking();
         tracking.load();
-        trackingSave = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+        trackingSave = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
             public void run() {
                 tracking.save();
             }
         }, Config.trackSave, Config.trackSave);
 
-        trackingMapSave = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+        trackingMapSave = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
             public void run() {
                 tracking.saveMap();
             }
@@ -78,6 +78,7 @@ public class HiddenOre extends JavaPlugin {
         trackingMapSave.cancel();
         tracking.save();
         tracking.saveMap();
+        tracking.close();
     }
 
     public static HiddenOre getPlugin() {
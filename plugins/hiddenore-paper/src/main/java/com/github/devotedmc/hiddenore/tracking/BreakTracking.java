@@ -1,20 +1,19 @@
 package com.github.devotedmc.hiddenore.tracking;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
@@ -29,6 +28,9 @@ import com.github.devotedmc.hiddenore.HiddenOre;
  * This is done by circumspect tracking and suppressing of "repeat placements",
  * generators, piston use, etc. It's quite effective; all known avenues of attack
  * result in significantly reduced drop/genrates. It does <i>not</i> pay to cheat.
+ * <p>
+ * Tracking of each chunk is kept in region files and only loaded once a chunk is first used. Saving only writes
+ * back the chunks that changed and drops chunks from memory which weren't used since the previous save.
  *
  * @author soerxpso, programmerdan
  */
@@ -39,8 +41,60 @@ public class BreakTracking {
     private static final int TOTAL_LAYERS = POS_LAYERS + NEG_LAYERS;
     private static final int GEN = 1;
     private static final int MAP = 0;
-    Map<UUID, Map<Long, short[]>> track;
-    Map<UUID, Map<Long, long[][][]>> map;
+    private static final int TRACK_RECORD_SIZE = TOTAL_LAYERS * Short.BYTES;
+    private static final int MAP_RECORD_SIZE = 2 * TOTAL_LAYERS * 4 * Long.BYTES;
+
+    private static final ChunkRecordCache.Codec<short[]> TRACK_CODEC = new ChunkRecordCache.Codec<short[]>() {
+        @Override
+        public short[] create() {
+            return new short[TOTAL_LAYERS];
+        }
+
+        @Override
+        public void read(ByteBuffer from, short[] into) {
+            from.asShortBuffer().get(into);
+        }
+
+        @Override
+        public void write(short[] from, ByteBuffer into) {
+            into.asShortBuffer().put(from);
+            into.position(into.position() + TRACK_RECORD_SIZE);
+        }
+    };
+
+    private static final ChunkRecordCache.Codec<long[][][]> MAP_CODEC = new ChunkRecordCache.Codec<long[][][]>() {
+        @Override
+        public long[][][] create() {
+            return new long[2][TOTAL_LAYERS][4];
+        }
+
+        @Override
+        public void read(ByteBuffer from, long[][][] into) {
+            LongBuffer longs = from.asLongBuffer();
+            for (long[][] kind : into) {
+                for (long[] layer : kind) {
+                    longs.get(layer);
+                }
+            }
+        }
+
+        @Override
+        public void write(long[][][] from, ByteBuffer into) {
+            LongBuffer longs = into.asLongBuffer();
+            for (long[][] kind : from) {
+                for (long[] layer : kind) {
+                    longs.put(layer);
+                }
+            }
+            into.position(into.position() + MAP_RECORD_SIZE);
+        }
+    };
+
+    private final RegionStore trackStore;
+    private final RegionStore mapStore;
+    private final ChunkRecordCache<short[]> track;
+    private final ChunkRecordCache<long[][][]> map;
+    private final ExecutorService writer;
 
     // Now for one small data structures that will let us keep track of most-recent-breaks to directly
     // prevent gaming.
@@ -50,258 +104,160 @@ public class BreakTracking {
     private Location[] recent;
 
     public BreakTracking() {
-        track = new HashMap<>();
-        map = new HashMap<>();
+        trackStore = new RegionStore(Config.getTrackFolder(), TRACK_RECORD_SIZE);
+        mapStore = new RegionStore(Config.getMapFolder(), MAP_RECORD_SIZE);
+        track = new ChunkRecordCache<>("break tracking", trackStore, TRACK_CODEC, HiddenOre.getPlugin().getLogger());
+        map = new ChunkRecordCache<>("break map", mapStore, MAP_CODEC, HiddenOre.getPlugin().getLogger());
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "HiddenOre tracking writer");
+            thread.setDaemon(true);
+            return thread;
+        });
         recent = new Location[RECENT_MAX];
         recentPtr = 0;
     }
 
+    /**
+     * Nothing is loaded up front anymore, chunks are loaded once they are used. Only imports the single file save
+     * format used before, if one is found.
+     */
     public void load() {
-        long s = System.currentTimeMillis();
-        HiddenOre.getPlugin().getLogger().info("Starting Break Tracking load");
         File tf = Config.getTrackFile();
-        if (!tf.exists()) {
-            HiddenOre.getPlugin().getLogger().info("No save exists to load");
-        } else {
-            try {
-                DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(tf)));
-
-                String uuid = null;
-                boolean active = true;
-                while (active) {
-                    try {
-                        uuid = dis.readUTF();
-                        HiddenOre.getPlugin().getLogger().info("Loading tracking data for world " + uuid);
-                    } catch (EOFException done) {
-                        active = false;
-                        break;
-                    }
-                    UUID uid = UUID.fromString(uuid);
-                    Map<Long, short[]> world = new HashMap<>();
-                    track.put(uid, world);
-
-                    long ccnt = 0l;
-
-                    while (dis.readBoolean()) {
-                        Long chunk = dis.readLong();
-                        short[] layers = new short[TOTAL_LAYERS];
-                        for (int i = 0; i < layers.length; i++) {
-                            layers[i] = dis.readShort();
-                        }
-                        if (Config.isDebug) {
-                            HiddenOre.getPlugin().getLogger().info("Loaded layers for chunk " + chunk);
-                        }
-                        ccnt++;
-                        world.put(chunk, layers);
-                    }
-
-                    HiddenOre.getPlugin().getLogger().info("Loaded " + ccnt + " chunks");
+        if (tf.exists()) {
+            importLegacy(tf, trackStore, "Break Tracking", (dis, record) -> {
+                for (int i = 0; i < TOTAL_LAYERS; i++) {
+                    record.putShort(dis.readShort());
                 }
-
-                dis.close();
-            } catch (IOException ioe) {
-                HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to load break tracking.", ioe);
-            }
+            });
         }
-        s = System.currentTimeMillis() - s;
-        HiddenOre.getPlugin().getLogger().info("Took " + s + "ms to load Break Tracking");
 
         if (!Config.isMapActive()) {
             HiddenOre.getPlugin().getLogger().info("Skipped Break Map init, disabled in config.");
             return;
         }
 
-        s = System.currentTimeMillis();
-        HiddenOre.getPlugin().getLogger().info("Starting Break Map load");
         tf = Config.getMapFile();
-        if (!tf.exists()) {
-            HiddenOre.getPlugin().getLogger().info("No map save exists to load");
-        } else {
-            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(tf)))) {
-
-                String uuid = null;
-                boolean active = true;
-                while (active) {
-                    try {
-                        uuid = dis.readUTF();
-                        HiddenOre.getPlugin().getLogger().info("Loading mapping data for world " + uuid);
-                    } catch (EOFException done) {
-                        active = false;
-                        break;
-                    }
-                    UUID uid = UUID.fromString(uuid);
-                    Map<Long, long[][][]> world = new HashMap<Long, long[][][]>();
-                    map.put(uid, world);
-
-                    long ccnt = 0l;
-
-                    while (dis.readBoolean()) {
-                        Long chunk = dis.readLong();
-                        long[][][] layers = new long[2][TOTAL_LAYERS][4];
-                        for (int i = 0; i < layers[MAP].length; i++) {
-                            for (int j = 0; j < 4; j++) {
-                                layers[MAP][i][j] = dis.readLong(); // "map"
-                            }
-                        }
-                        for (int i = 0; i < layers[GEN].length; i++) {
-                            for (int j = 0; j < 4; j++) {
-                                layers[GEN][i][j] = dis.readLong(); // "gen"
-                            }
-                        }
-
-                        if (Config.isDebug) {
-                            HiddenOre.getPlugin().getLogger().info("Loaded layers for chunk " + chunk);
-                        }
-                        ccnt++;
-                        world.put(chunk, layers);
-                    }
-
-                    HiddenOre.getPlugin().getLogger().info("Loaded " + ccnt + " chunks");
+        if (tf.exists()) {
+            // stored as all "map" layers followed by all "gen" layers, same as the region records
+            importLegacy(tf, mapStore, "Break Map", (dis, record) -> {
+                for (int i = 0; i < 2 * TOTAL_LAYERS * 4; i++) {
+                    record.putLong(dis.readLong());
                 }
-
-                dis.close();
-            } catch (IOException ioe) {
-                HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to load break map.", ioe);
-            }
+            });
         }
-        s = System.currentTimeMillis() - s;
-        HiddenOre.getPlugin().getLogger().info("Took " + s + "ms to load Break Map");
     }
 
-    public void liveSave() {
-        Bukkit.getScheduler().runTaskLaterAsynchronously(HiddenOre.getPlugin(), new Runnable() {
-            public void run() {
-                save();
-            }
-        }, 0);
-
-        Bukkit.getScheduler().runTaskLaterAsynchronously(HiddenOre.getPlugin(), new Runnable() {
-            public void run() {
-                saveMap();
-            }
-        }, 0);
+    private interface LegacyRecordReader {
 
+        void read(DataInputStream dis, ByteBuffer record) throws IOException;
     }
 
-    public void save() {
+    /**
+     * Copies all chunks of a save in the old single file format into the given region store and renames the old file,
+     * so it is only imported once. Chunks which already have a record are skipped, so retrying an import which failed
+     * part way never overwrites records written since with the old data.
+     */
+    private void importLegacy(File tf, RegionStore store, String name, LegacyRecordReader reader) {
         long s = System.currentTimeMillis();
-        HiddenOre.getPlugin().getLogger().info("Starting Break Tracking save");
-        File tf = Config.getTrackFile();
-        try {
-            if (tf.exists()) {
-                File tfb = new File(tf.getAbsoluteFile() + ".backup");
-                if (tfb.exists()) {
-                    if (!tfb.delete()) {
-                        HiddenOre.getPlugin().getLogger().info("Couldn't remove old backup file - " + tfb);
-                    } else {
-                        tf.renameTo(tfb);
-                    }
-                } else {
-                    tf.renameTo(tfb);
+        HiddenOre.getPlugin().getLogger().info("Importing " + name + " from " + tf);
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(tf)))) {
+            ByteBuffer record = ByteBuffer.allocate(store.getRecordSize());
+            while (true) {
+                String uuid;
+                try {
+                    uuid = dis.readUTF();
+                } catch (EOFException done) {
+                    break;
                 }
-            }
-        } catch (SecurityException se) {
-            HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to manage old backup of break tracking.", se);
-        }
-        try {
-            if (tf.createNewFile()) {
-                DataOutputStream oos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tf)));
-
-                for (Map.Entry<UUID, Map<Long, short[]>> world : track.entrySet()) {
-                    HiddenOre.getPlugin().getLogger().info("Saving world - " + world.getKey());
-                    oos.writeUTF(world.getKey().toString());
-                    long ccnt = 0l;
-                    for (Map.Entry<Long, short[]> chunk : world.getValue().entrySet()) {
-                        if (Config.isDebug) {
-                            HiddenOre.getPlugin().getLogger().info(" Saving chunk " + chunk.getKey());
-                        }
-                        oos.writeBoolean(true);
-                        oos.writeLong(chunk.getKey());
-                        short[] layers = chunk.getValue();
-                        for (short layer : layers) {
-                            oos.writeShort(layer);
-                        }
-                        ccnt++;
+                UUID uid = UUID.fromString(uuid);
+                long ccnt = 0l;
+                long skipped = 0l;
+                while (dis.readBoolean()) {
+                    long chunk = dis.readLong();
+                    int chunkX = getLegacyChunkX(chunk);
+                    int chunkZ = getLegacyChunkZ(chunk);
+                    record.clear();
+                    reader.read(dis, record);
+                    record.flip();
+                    if (store.contains(uid, chunkX, chunkZ)) {
+                        skipped++;
+                        continue;
                     }
-                    HiddenOre.getPlugin().getLogger().info(" Saved " + ccnt + " chunks");
-                    oos.writeBoolean(false);
+                    store.write(uid, chunkX, chunkZ, record);
+                    ccnt++;
                 }
-                oos.flush();
-                oos.close();
-            } else {
-                HiddenOre.getPlugin().getLogger().log(Level.WARNING, "Failed to create break tracking save file.");
+                HiddenOre.getPlugin().getLogger().info("Imported " + ccnt + " chunks for world " + uuid + ", skipped "
+                    + skipped + " already present");
             }
+            store.flush();
         } catch (IOException ioe) {
-            HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to save break tracking.", ioe);
+            HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to import " + name + ", will retry chunks not "
+                + "imported yet next start", ioe);
+            return;
+        }
+        File imported = new File(tf.getAbsoluteFile() + ".imported");
+        if (!tf.renameTo(imported)) {
+            HiddenOre.getPlugin().getLogger().warning("Couldn't rename imported " + name + " save " + tf
+                + ", remove it to prevent importing it again");
         }
         s = System.currentTimeMillis() - s;
-        HiddenOre.getPlugin().getLogger().info("Took " + s + "ms to save Break Tracking");
+        HiddenOre.getPlugin().getLogger().info("Took " + s + "ms to import " + name);
+    }
+
+    // chunk ids were stored as (x << 32) + z
+    static int getLegacyChunkX(long chunk) {
+        return (int) ((chunk - getLegacyChunkZ(chunk)) >> 32);
+    }
+
+    static int getLegacyChunkZ(long chunk) {
+        return (int) chunk;
+    }
+
+    /**
+     * Saves both tracking and map. Must be called from the main thread, the actual writing happens asynchronously.
+     */
+    public void liveSave() {
+        save();
+        saveMap();
     }
 
+    /**
+     * Writes all changed chunks of the break tracking and drops unused ones from memory. Must be called from the main
+     * thread, the actual writing happens asynchronously.
+     */
+    public void save() {
+        track.save(writer);
+    }
+
+    /**
+     * Writes all changed chunks of the break map and drops unused ones from memory. Must be called from the main
+     * thread, the actual writing happens asynchronously.
+     */
     public void saveMap() {
         if (!Config.isMapActive()) {
-            HiddenOre.getPlugin().getLogger().info("Skipped Break Map save, disabled in config.");
+            return;
         }
+        map.save(writer);
+    }
 
-        long s = System.currentTimeMillis();
-        HiddenOre.getPlugin().getLogger().info("Starting Break Map save");
-        File tf = Config.getMapFile();
+    /**
+     * Waits for all saves to be written and closes all region files.
+     */
+    public void close() {
+        writer.shutdown();
         try {
-            if (tf.exists()) {
-                File tfb = new File(tf.getAbsoluteFile() + ".backup");
-                if (tfb.exists()) {
-                    if (!tfb.delete()) {
-                        HiddenOre.getPlugin().getLogger().info("Couldn't remove old map backup file - " + tfb);
-                    } else {
-                        tf.renameTo(tfb);
-                    }
-                } else {
-                    tf.renameTo(tfb);
-                }
+            if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+                HiddenOre.getPlugin().getLogger().severe("Timed out waiting for break tracking to be saved");
             }
-        } catch (SecurityException se) {
-            HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to manage old break map backup.", se);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
         try {
-            if (tf.createNewFile()) {
-                DataOutputStream oos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tf)));
-
-                for (Map.Entry<UUID, Map<Long, long[][][]>> world : map.entrySet()) {
-                    HiddenOre.getPlugin().getLogger().info("Saving world - " + world.getKey());
-                    oos.writeUTF(world.getKey().toString());
-                    long ccnt = 0l;
-                    for (Map.Entry<Long, long[][][]> chunk : world.getValue().entrySet()) {
-                        if (Config.isDebug) {
-                            HiddenOre.getPlugin().getLogger().info(" Saving chunk " + chunk.getKey());
-                        }
-                        oos.writeBoolean(true);
-                        oos.writeLong(chunk.getKey());
-                        long[][][] layers = chunk.getValue();
-                        for (long[] layer : layers[MAP]) {
-                            for (long quad : layer) {
-                                oos.writeLong(quad);
-                            }
-                        }
-                        for (long[] layer : layers[GEN]) {
-                            for (long quad : layer) {
-                                oos.writeLong(quad);
-                            }
-                        }
-                        ccnt++;
-                    }
-                    HiddenOre.getPlugin().getLogger().info(" Saved " + ccnt + " chunks");
-                    oos.writeBoolean(false);
-                }
-                oos.flush();
-                oos.close();
-            } else {
-                HiddenOre.getPlugin().getLogger().log(Level.WARNING, "Failed to create break map save file.");
-            }
+            trackStore.close();
+            mapStore.close();
         } catch (IOException ioe) {
-            HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to save break map.", ioe);
+            HiddenOre.getPlugin().getLogger().log(Level.SEVERE, "Failed to close break tracking.", ioe);
         }
-        s = System.currentTimeMillis() - s;
-        HiddenOre.getPlugin().getLogger().info("Took " + s + "ms to save Break Map");
     }
 
     /**
@@ -318,21 +274,16 @@ public class BreakTracking {
         int X = (loc.getBlockX() % 16 + 16) % 16;
         int Z = (loc.getBlockZ() % 16 + 16) % 16;
         UUID world = loc.getWorld().getUID();
-        Chunk chunk = loc.getChunk();
-        long chunk_id = ((long) chunk.getX() << 32L) + (long) chunk.getZ();
+        int chunkX = loc.getBlockX() >> 4;
+        int chunkZ = loc.getBlockZ() >> 4;
         int block_id = ((X << 4) + Z);
         int quad_id = (block_id / 64);
         long mask_id = (1l << (block_id % 64));
-        Map<Long, long[][][]> mapChunks = map.get(world);
-        if (mapChunks == null) { // init map chunk
-            mapChunks = new HashMap<Long, long[][][]>();
-            map.put(world, mapChunks);
-        }
 
-        long[][][] mapLayers = mapChunks.get(chunk_id);
+        long[][][] mapLayers = map.get(world, chunkX, chunkZ, true);
         if (mapLayers == null) { // init layers
-            mapLayers = new long[2][256][4];
-            mapChunks.put(chunk_id, mapLayers);
+            mapLayers = map.create(world, chunkX, chunkZ);
+            Chunk chunk = loc.getChunk();
 
             for (int y = -NEG_LAYERS; y < POS_LAYERS; y++) {
                 for (int x = 0; x < 16; x++) {
@@ -391,19 +342,12 @@ public class BreakTracking {
         int X = (loc.getBlockX() % 16 + 16) % 16;
         int Z = (loc.getBlockZ() % 16 + 16) % 16;
         UUID world = loc.getWorld().getUID();
-        Chunk chunk = loc.getChunk();
-        long chunk_id = ((long) chunk.getX() << 32L) + (long) chunk.getZ();
         int block_id = ((X << 4) + Z);
         int quad_id = (block_id / 64);
         long mask_id = (1l << (block_id % 64));
 
-        Map<Long, long[][][]> mapChunks = map.get(world);
-        if (mapChunks == null) { // no tracking, so OK
-            return true;
-        }
-
-        long[][][] mapLayers = mapChunks.get(chunk_id);
-        if (mapLayers == null) { // no layer, so OK
+        long[][][] mapLayers = map.get(world, loc.getBlockX() >> 4, loc.getBlockZ() >> 4, false);
+        if (mapLayers == null) { // no tracking, so OK
             return true;
         }
 
@@ -437,18 +381,14 @@ public class BreakTracking {
         int X = (loc.getBlockX() % 16 + 16) % 16;
         int Z = (loc.getBlockZ() % 16 + 16) % 16;
         UUID world = loc.getWorld().getUID();
-        Chunk chunk = loc.getChunk();
-        long chunk_id = ((long) chunk.getX() << 32L) + (long) chunk.getZ();
+        int chunkX = loc.getBlockX() >> 4;
+        int chunkZ = loc.getBlockZ() >> 4;
+        long chunk_id = ((long) chunkX << 32L) + (long) chunkZ;
         int block_id = ((X << 4) + Z);
         int quad_id = (block_id / 64);
         long mask_id = (1l << (block_id % 64));
 
-        Map<Long, long[][][]> genChunks = map.get(world);
-        if (genChunks == null) {
-            return; // should be init'd or this is being improperly called.
-        }
-
-        long[][][] mapLayers = genChunks.get(chunk_id);
+        long[][][] mapLayers = map.get(world, chunkX, chunkZ, true);
         if (mapLayers == null) {
             return; // should be init'd or this is being improperly called.
         }
@@ -502,9 +442,7 @@ public class BreakTracking {
      * @return true if OK to break, false otherwise
      */
     public boolean trackBreak(Location loc) {
-        long initChunk = 0l;
         long initLayers = 0l;
-        long initMapChunk = 0l;
         long initMapLayers = 0l;
         long scanLayer = 0l;
         long recentCheck = 0l;
@@ -520,39 +458,21 @@ public class BreakTracking {
         int quad_id = (block_id / 64);
         long mask_id = (1l << (block_id % 64));
 
-        Map<Long, short[]> chunks = track.get(world);
-        if (chunks == null) { // init chunk
-            initChunk = System.nanoTime();
-            chunks = new HashMap<Long, short[]>();
-            track.put(world, chunks);
-            initChunk = System.nanoTime() - initChunk;
-        }
-
-        short[] layers = chunks.get(chunk_id);
+        initLayers = System.nanoTime();
+        short[] layers = track.get(world, chunk.getX(), chunk.getZ(), true);
         if (layers == null) { // init layers
-            initLayers = System.nanoTime();
-            layers = new short[TOTAL_LAYERS];
-            chunks.put(chunk_id, layers);
-            initLayers = System.nanoTime() - initLayers;
+            layers = track.create(world, chunk.getX(), chunk.getZ());
         }
+        initLayers = System.nanoTime() - initLayers;
 
         boolean ret = true;
         long spc = 0l;
 
         if (Config.isMapActive()) {
-            Map<Long, long[][][]> mapChunks = map.get(world);
-            if (mapChunks == null) { // init map chunk
-                initMapChunk = System.nanoTime();
-                mapChunks = new HashMap<Long, long[][][]>();
-                map.put(world, mapChunks);
-                initMapChunk = System.nanoTime() - initMapChunk;
-            }
-
-            long[][][] mapLayers = mapChunks.get(chunk_id);
+            initMapLayers = System.nanoTime();
+            long[][][] mapLayers = map.get(world, chunk.getX(), chunk.getZ(), true);
             if (mapLayers == null) { // init layers
-                initMapLayers = System.nanoTime();
-                mapLayers = new long[2][TOTAL_LAYERS][4];
-                mapChunks.put(chunk_id, mapLayers);
+                mapLayers = map.create(world, chunk.getX(), chunk.getZ());
                 ChunkSnapshot chunkS = chunk.getChunkSnapshot();
 
                 for (int y = -NEG_LAYERS; y < POS_LAYERS; y++) {
@@ -571,8 +491,8 @@ public class BreakTracking {
                         }
                     }
                 }
-                initMapLayers = System.nanoTime() - initMapLayers;
             }
+            initMapLayers = System.nanoTime() - initMapLayers;
 
             if ((mapLayers[MAP][Y + NEG_LAYERS][quad_id] & mask_id) == mask_id) {
                 ret = false; // already broken!
@@ -636,8 +556,8 @@ public class BreakTracking {
         s = System.currentTimeMillis() - s;
         if (s > 10l) {
             HiddenOre.getPlugin().getLogger().info("Took a long time (" + s + "ms) recording break at " + loc);
-            HiddenOre.getPlugin().getLogger().log(Level.INFO, "Breakdown: chunk{0}ns layer{1}ns mchunk{2}ns mlayer{3}ns scan{4}ns recent{5}ns",
-                new Object[]{initChunk, initLayers, initMapChunk, initMapLayers, scanLayer, recentCheck});
+            HiddenOre.getPlugin().getLogger().log(Level.INFO, "Breakdown: layer{0}ns mlayer{1}ns scan{2}ns recent{3}ns",
+                new Object[]{initLayers, initMapLayers, scanLayer, recentCheck});
         }
 
         return ret;
@@ -0,0 +1,208 @@
+package com.github.devotedmc.hiddenore.tracking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In memory cache of the per chunk records held by a {@link RegionStore}.
+ * <p>
+ * Records are read from disk the first time their chunk is used and written back on save if they changed since. Any
+ * record not used since the previous save is dropped from memory afterwards, so memory only grows with the chunks that
+ * are actually active. Everything but the writing itself must happen on the main thread.
+ *
+ * @param <T> in memory representation of a single record
+ */
+class ChunkRecordCache<T> {
+
+    /**
+     * Converts records between their in memory and on disk representation.
+     */
+    interface Codec<T> {
+
+        T create();
+
+        void read(ByteBuffer from, T into);
+
+        void write(T from, ByteBuffer into);
+    }
+
+    private record ChunkKey(UUID world, int chunkX, int chunkZ) {
+    }
+
+    private static final class Entry<T> {
+
+        private final T data;
+        private boolean dirty;
+        private boolean used;
+
+        private Entry(T data) {
+            this.data = data;
+        }
+    }
+
+    private final String name;
+    private final RegionStore store;
+    private final Codec<T> codec;
+    private final Logger logger;
+    private final Map<ChunkKey, Entry<T>> loaded;
+    // chunks known to have no record, so they aren't looked up on disk over and over again
+    private final Map<ChunkKey, Boolean> absent;
+    // records handed to the writer, which are not necessarily on disk yet
+    private final Map<ChunkKey, ByteBuffer> pending;
+    // records which failed to be written and have to be written again with the next save
+    private final ConcurrentLinkedQueue<ChunkKey> failed;
+
+    ChunkRecordCache(String name, RegionStore store, Codec<T> codec, Logger logger) {
+        this.name = name;
+        this.store = store;
+        this.codec = codec;
+        this.logger = logger;
+        this.loaded = new HashMap<>();
+        this.absent = new HashMap<>();
+        this.pending = new ConcurrentHashMap<>();
+        this.failed = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Gets the record of a chunk, loading it if needed.
+     *
+     * @param world    the world the chunk is in
+     * @param chunkX   chunk x coordinate
+     * @param chunkZ   chunk z coordinate
+     * @param forWrite whether the caller may change the record, which then gets saved
+     * @return the record, or null if the chunk has none
+     */
+    T get(UUID world, int chunkX, int chunkZ, boolean forWrite) {
+        ChunkKey key = new ChunkKey(world, chunkX, chunkZ);
+        Entry<T> entry = loaded.get(key);
+        if (entry == null) {
+            if (absent.containsKey(key)) {
+                return null;
+            }
+            entry = load(key);
+            if (entry == null) {
+                absent.put(key, Boolean.TRUE);
+                return null;
+            }
+            loaded.put(key, entry);
+        }
+        entry.used = true;
+        entry.dirty |= forWrite;
+        return entry.data;
+    }
+
+    /**
+     * Creates a new empty record for a chunk, which has none so far.
+     *
+     * @return the new record, which will be saved
+     */
+    T create(UUID world, int chunkX, int chunkZ) {
+        ChunkKey key = new ChunkKey(world, chunkX, chunkZ);
+        Entry<T> entry = new Entry<>(codec.create());
+        entry.used = true;
+        entry.dirty = true;
+        loaded.put(key, entry);
+        absent.remove(key);
+        return entry.data;
+    }
+
+    private Entry<T> load(ChunkKey key) {
+        ByteBuffer record = pending.get(key);
+        try {
+            if (record != null) {
+                record = record.duplicate();
+            } else {
+                record = store.read(key.world(), key.chunkX(), key.chunkZ());
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to load " + name + " of chunk " + key.chunkX() + ", " + key.chunkZ()
+                + " in world " + key.world() + ", starting it anew", e);
+            record = null;
+        }
+        if (record == null) {
+            return null;
+        }
+        Entry<T> entry = new Entry<>(codec.create());
+        codec.read(record, entry.data);
+        return entry;
+    }
+
+    /**
+     * Hands all changed records to the given writer and drops all records not used since the previous save from memory.
+     *
+     * @param writer executor writing to disk, or null to write right away
+     */
+    void save(ExecutorService writer) {
+        long s = System.currentTimeMillis();
+        List<ChunkKey> keys = new ArrayList<>();
+        List<ByteBuffer> records = new ArrayList<>();
+        ChunkKey retry;
+        while ((retry = failed.poll()) != null) {
+            Entry<T> entry = loaded.get(retry);
+            ByteBuffer record = pending.get(retry);
+            if (entry != null) {
+                entry.dirty = true;
+            } else if (record != null) {
+                keys.add(retry);
+                records.add(record);
+            }
+        }
+        int dropped = 0;
+        Iterator<Map.Entry<ChunkKey, Entry<T>>> iter = loaded.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<ChunkKey, Entry<T>> loadedEntry = iter.next();
+            Entry<T> entry = loadedEntry.getValue();
+            if (entry.dirty) {
+                ByteBuffer record = ByteBuffer.allocate(store.getRecordSize());
+                codec.write(entry.data, record);
+                record.flip();
+                keys.add(loadedEntry.getKey());
+                records.add(record);
+                pending.put(loadedEntry.getKey(), record);
+                entry.dirty = false;
+            } else if (!entry.used) {
+                iter.remove();
+                dropped++;
+            }
+            entry.used = false;
+        }
+        absent.clear();
+        logger.info("Saving " + keys.size() + " changed chunks of " + name + ", dropped " + dropped
+            + " unused chunks, keeping " + loaded.size() + " in memory");
+
+        Runnable write = () -> {
+            try {
+                for (int i = 0; i < keys.size(); i++) {
+                    ChunkKey key = keys.get(i);
+                    store.write(key.world(), key.chunkX(), key.chunkZ(), records.get(i));
+                }
+                store.flush();
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to save " + name + ", retrying with next save", e);
+                // pending records stay around, so the chunks still load with their latest state
+                failed.addAll(keys);
+                return;
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                pending.remove(keys.get(i), records.get(i));
+            }
+            logger.info("Took " + (System.currentTimeMillis() - s) + "ms to save " + name);
+        };
+        if (writer == null) {
+            write.run();
+        } else {
+            writer.execute(write);
+        }
+    }
+}
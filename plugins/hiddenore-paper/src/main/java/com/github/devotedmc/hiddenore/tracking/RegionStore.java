@@ -0,0 +1,357 @@
+package com.github.devotedmc.hiddenore.tracking;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stores one fixed size record per chunk in region files of 32 by 32 chunks, with a folder per world.
+ * <p>
+ * Each region file starts with one byte per chunk, marking whether a record was ever written for it, followed by the
+ * records of all its chunks at fixed offsets. A single record can be read or written without touching the rest of the
+ * file, and space is only taken up on disk for chunks which were actually written.
+ * <p>
+ * Only a limited amount of region files is kept open, the least recently used ones are closed once more are needed.
+ * Region files written to since the last {@link #flush()} stay open until then, so no write is closed without being
+ * synced. Reads and writes may happen from different threads at the same time.
+ */
+class RegionStore {
+
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+    private static final int CHUNKS_PER_REGION = 1 << (REGION_SHIFT * 2);
+    static final int MAX_OPEN_REGIONS = 64;
+
+    private record RegionKey(UUID world, int regionX, int regionZ) {
+    }
+
+    /**
+     * An open region file. All fields but the channel are guarded by the region map.
+     */
+    private static final class Region {
+
+        private final FileChannel channel;
+        // threads currently reading or writing, the channel is only closed once they are done
+        private int users;
+        private boolean evicted;
+        // writes so far and how many of them were synced, anything written since the last sync is not on disk yet
+        private long writes;
+        private long syncedWrites;
+
+        private Region(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private boolean isUnsynced() {
+            return writes != syncedWrites;
+        }
+    }
+
+    private final File folder;
+    private final int recordSize;
+    private final int maxOpenRegions;
+    // in access order, so the least recently used region file comes first
+    private final LinkedHashMap<RegionKey, Region> regions;
+
+    /**
+     * @param folder     the folder holding one sub folder per world
+     * @param recordSize size of the record of a single chunk in bytes
+     */
+    RegionStore(File folder, int recordSize) {
+        this(folder, recordSize, MAX_OPEN_REGIONS);
+    }
+
+    RegionStore(File folder, int recordSize, int maxOpenRegions) {
+        this.folder = folder;
+        this.recordSize = recordSize;
+        this.maxOpenRegions = maxOpenRegions;
+        this.regions = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    int getRecordSize() {
+        return recordSize;
+    }
+
+    private File getRegionFile(RegionKey key) {
+        return new File(new File(folder, key.world().toString()), "r." + key.regionX() + "." + key.regionZ() + ".dat");
+    }
+
+    private static int getSlot(int chunkX, int chunkZ) {
+        return ((chunkX & REGION_MASK) << REGION_SHIFT) | (chunkZ & REGION_MASK);
+    }
+
+    private long getRecordOffset(int slot) {
+        return CHUNKS_PER_REGION + (long) slot * recordSize;
+    }
+
+    /**
+     * Opens a region file for use by the calling thread, which has to {@link #release(Region, boolean)} it once done.
+     *
+     * @param create whether to create the region file if it doesn't exist yet
+     * @return the open region file, or null if it doesn't exist and should not be created
+     */
+    private Region acquire(RegionKey key, boolean create) throws IOException {
+        List<Region> toClose = null;
+        Region region;
+        synchronized (regions) {
+            region = regions.get(key);
+            if (region == null) {
+                File file = getRegionFile(key);
+                if (!create && !file.exists()) {
+                    return null;
+                }
+                file.getParentFile().mkdirs();
+                region = new Region(FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE));
+                regions.put(key, region);
+                region.users++;
+                toClose = evict(region);
+            } else {
+                region.users++;
+            }
+        }
+        if (toClose != null) {
+            for (Region closing : toClose) {
+                closeQuietly(closing);
+            }
+        }
+        return region;
+    }
+
+    /**
+     * Takes the least recently used region files out of the map until no more than the limit are open. Region files
+     * which weren't synced yet are skipped. Must hold the lock of the region map.
+     *
+     * @param opened region file just opened, which is never evicted as it is about to be used, may be null
+     * @return region files not in use anymore, which can be closed right away
+     */
+    private List<Region> evict(Region opened) {
+        List<Region> toClose = new ArrayList<>();
+        Iterator<Region> iter = regions.values().iterator();
+        int open = regions.size();
+        while (open > maxOpenRegions && iter.hasNext()) {
+            Region region = iter.next();
+            if (region == opened || region.isUnsynced()) {
+                continue;
+            }
+            iter.remove();
+            open--;
+            region.evicted = true;
+            if (region.users == 0) {
+                toClose.add(region);
+            }
+        }
+        return toClose;
+    }
+
+    /**
+     * @param written whether the region file was written to
+     * @throws IOException if the region file was evicted in the mean time and could not be synced
+     */
+    private void release(Region region, boolean written) throws IOException {
+        boolean close;
+        boolean unsynced;
+        synchronized (regions) {
+            region.users--;
+            if (written) {
+                region.writes++;
+            }
+            close = region.evicted && region.users == 0;
+            unsynced = region.isUnsynced();
+        }
+        if (!close) {
+            return;
+        }
+        try {
+            if (unsynced) {
+                region.channel.force(false);
+            }
+        } finally {
+            region.channel.close();
+        }
+    }
+
+    private static void closeQuietly(Region region) {
+        try {
+            region.channel.close();
+        } catch (IOException e) {
+            // only synced region files get evicted, so nothing can be lost here
+        }
+    }
+
+    /**
+     * Reads the record of a chunk.
+     *
+     * @param world  the world the chunk is in
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return buffer holding the record ready to be read, or null if there is no record for the chunk
+     * @throws IOException if the region file could not be read
+     */
+    ByteBuffer read(UUID world, int chunkX, int chunkZ) throws IOException {
+        Region region = acquire(new RegionKey(world, chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT), false);
+        if (region == null) {
+            return null;
+        }
+        try {
+            int slot = getSlot(chunkX, chunkZ);
+            if (!isPresent(region.channel, slot)) {
+                return null;
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            long offset = getRecordOffset(slot);
+            while (record.hasRemaining()) {
+                if (region.channel.read(record, offset + record.position()) < 0) {
+                    throw new IOException("Region file of " + world + " ends within record of chunk " + chunkX + ", "
+                        + chunkZ);
+                }
+            }
+            record.flip();
+            return record;
+        } finally {
+            release(region, false);
+        }
+    }
+
+    /**
+     * Checks whether a record was ever written for a chunk.
+     *
+     * @param world  the world the chunk is in
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @return true if the chunk has a record
+     * @throws IOException if the region file could not be read
+     */
+    boolean contains(UUID world, int chunkX, int chunkZ) throws IOException {
+        Region region = acquire(new RegionKey(world, chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT), false);
+        if (region == null) {
+            return false;
+        }
+        try {
+            return isPresent(region.channel, getSlot(chunkX, chunkZ));
+        } finally {
+            release(region, false);
+        }
+    }
+
+    private static boolean isPresent(FileChannel channel, int slot) throws IOException {
+        ByteBuffer present = ByteBuffer.allocate(1);
+        return channel.read(present, slot) == 1 && present.get(0) != 0;
+    }
+
+    /**
+     * Writes the record of a chunk. The record is only marked as present once it was written completely.
+     *
+     * @param world  the world the chunk is in
+     * @param chunkX chunk x coordinate
+     * @param chunkZ chunk z coordinate
+     * @param record buffer holding exactly one record, ready to be read
+     * @throws IOException if the region file could not be written
+     */
+    void write(UUID world, int chunkX, int chunkZ, ByteBuffer record) throws IOException {
+        Region region = acquire(new RegionKey(world, chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT), true);
+        try {
+            int slot = getSlot(chunkX, chunkZ);
+            ByteBuffer data = record.duplicate();
+            long offset = getRecordOffset(slot) - data.position();
+            while (data.hasRemaining()) {
+                region.channel.write(data, offset + data.position());
+            }
+            ByteBuffer present = ByteBuffer.wrap(new byte[]{1});
+            while (present.hasRemaining()) {
+                region.channel.write(present, slot);
+            }
+        } finally {
+            release(region, true);
+        }
+    }
+
+    /**
+     * Makes sure everything written so far is on disk. Only region files written to since the last flush are synced.
+     *
+     * @throws IOException if a region file could not be synced
+     */
+    void flush() throws IOException {
+        List<Region> toSync = new ArrayList<>();
+        List<Long> writes = new ArrayList<>();
+        synchronized (regions) {
+            for (Region region : regions.values()) {
+                if (region.isUnsynced()) {
+                    region.users++;
+                    toSync.add(region);
+                    writes.add(region.writes);
+                }
+            }
+        }
+        IOException failure = null;
+        for (int i = 0; i < toSync.size(); i++) {
+            Region region = toSync.get(i);
+            boolean synced = false;
+            try {
+                region.channel.force(false);
+                synced = true;
+            } catch (IOException e) {
+                failure = e;
+            }
+            synchronized (regions) {
+                if (synced) {
+                    // anything written while syncing is left for the next flush
+                    region.syncedWrites = Math.max(region.syncedWrites, writes.get(i));
+                }
+                region.users--;
+            }
+        }
+        List<Region> toClose;
+        synchronized (regions) {
+            // region files kept open only because they weren't synced can be closed now
+            toClose = evict(null);
+            for (Region region : toSync) {
+                if (region.evicted && region.users == 0 && !region.isUnsynced() && !toClose.contains(region)) {
+                    toClose.add(region);
+                }
+            }
+        }
+        for (Region region : toClose) {
+            closeQuietly(region);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return amount of region files currently open
+     */
+    int getOpenRegionCount() {
+        synchronized (regions) {
+            return regions.size();
+        }
+    }
+
+    /**
+     * Closes all open region files.
+     */
+    void close() throws IOException {
+        synchronized (regions) {
+            IOException failure = null;
+            for (Region region : regions.values()) {
+                try {
+                    region.channel.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            regions.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.devotedmc.hiddenore;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DropTableTests {
+
+    private static final String[] BIOMES = {"PLAINS", "DESERT", "DEEP_DARK"};
+
+    /**
+     * Picks a drop the way BlockConfig did before drops were compiled into a table per biome.
+     */
+    private static String pickUncompiled(final Map<String, DropConfig> dropConfigs, final double dice,
+                                         final String biome, final ItemStack tool, final Player player,
+                                         final Location loc) {
+        double cumChance = 0.0d;
+        double localChance;
+        final int blockY = loc.getBlockY();
+        for (final Map.Entry<String, DropConfig> dce : dropConfigs.entrySet()) {
+            final DropConfig dc = dce.getValue();
+            if (dc.dropsWithTool(biome, tool) && blockY <= dc.getMaxY(biome) && blockY >= dc.getMinY(biome)) {
+                final ToolConfig tc = dc.dropsWithToolConfig(biome, tool);
+                localChance = dc.getChance(biome) * (tc == null ? 1.0 : tc.getDropChanceModifier())
+                    * dc.getStateChance(biome, player);
+                final VeinConfig vc = dc.getVeinNature();
+                if (vc != null) {
+                    localChance *= vc.getOreChance(loc);
+                }
+                if (localChance < 0) {
+                    continue;
+                }
+                if (dice >= cumChance && dice < cumChance + localChance) {
+                    return dce.getKey();
+                }
+                cumChance += localChance;
+            }
+        }
+        return null;
+    }
+
+    private static DropLimitsConfig createLimits(final Random random) {
+        final DropLimitsConfig limits = new DropLimitsConfig();
+        limits.minY = random.nextInt(128) - 64;
+        limits.maxY = limits.minY + random.nextInt(200);
+        limits.chance = random.nextDouble() * 0.2;
+        if (random.nextInt(4) == 0) {
+            // tool0 is a catchall matching any tool, tool1 isn't configured so drops limited to it never drop
+            limits.setTools(List.of("tool" + random.nextInt(2)));
+        }
+        if (random.nextInt(3) == 0) {
+            limits.state = "state" + random.nextInt(2);
+        }
+        return limits;
+    }
+
+    private static Config createConfig() throws ReflectiveOperationException {
+        final Constructor<Config> constructor = Config.class.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        final Config config = constructor.newInstance();
+        config.stateMasterList.put("state0", new PlayerStateConfig());
+        config.stateMasterList.put("state1", new PlayerStateConfig());
+        return config;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void registerCatchallTool(final String name, final double dropChance)
+        throws ReflectiveOperationException {
+        final Field tools = ToolConfig.class.getDeclaredField("tools");
+        tools.setAccessible(true);
+        ((Map<String, ToolConfig>) tools.get(null)).put(name,
+            new ToolConfig(null, true, true, true, true, true, true, true, dropChance, 0.0, 0.0));
+    }
+
+    /**
+     * Tests whether the compiled table picks the same drop as walking the drop configs did, for the same dice.
+     */
+    @Test
+    public void testMatchesUncompiledPick() throws ReflectiveOperationException {
+        // Setup
+        final Config previousConfig = Config.instance;
+        Config.instance = createConfig();
+        registerCatchallTool("tool0", 0.5);
+        final Random random = new Random(42);
+        final Map<String, DropConfig> dropConfigs = new LinkedHashMap<>();
+        for (int i = 0; i < 12; i++) {
+            final VeinConfig vein = random.nextBoolean() ? null : new VeinConfig(random.nextLong(),
+                random.nextLong(), 1.0, 16, 0.5, 20, 30, 100, 100, false);
+            final DropConfig drop = new DropConfig("drop" + i, List.of(), null, false, false, 0, "",
+                createLimits(random), vein);
+            if (random.nextBoolean()) {
+                drop.addBiomeLimits(BIOMES[random.nextInt(BIOMES.length)], createLimits(random));
+            }
+            dropConfigs.put("drop" + i, drop);
+        }
+        final Player player = (Player) Proxy.newProxyInstance(Player.class.getClassLoader(),
+            new Class<?>[]{Player.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getActivePotionEffects" -> List.of();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        try {
+            for (final String biome : BIOMES) {
+                final DropTable table = new DropTable(biome, dropConfigs);
+                int picked = 0;
+                // Process and check
+                for (int i = 0; i < 20_000; i++) {
+                    final double dice = random.nextDouble();
+                    final Location loc = new Location(null, random.nextInt(2000) - 1000, random.nextInt(384) - 64,
+                        random.nextInt(2000) - 1000);
+                    final String expected = pickUncompiled(dropConfigs, dice, biome, null, player, loc);
+                    Assertions.assertEquals(expected, table.pick(dice, null, player, loc),
+                        "Dice " + dice + " at " + loc + " in " + biome);
+                    if (expected != null) {
+                        picked++;
+                    }
+                }
+                Assertions.assertTrue(picked > 0, "Some drops should have been picked in " + biome);
+            }
+        } finally {
+            Config.instance = previousConfig;
+            ToolConfig.clear();
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.github.devotedmc.hiddenore.tracking;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BreakTrackingTests {
+
+    /**
+     * Tests whether chunk ids of legacy saves, stored as (x << 32) + z, are decoded to their coordinates, which
+     * needs care whenever z is negative.
+     */
+    @Test
+    public void testLegacyChunkIds() {
+        // Setup
+        final int[] coordinates = {0, 1, -1, 31, -32, 1_875_000, -1_875_000, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        // Process and check
+        for (final int x : coordinates) {
+            for (final int z : coordinates) {
+                final long chunk = ((long) x << 32) + z;
+                Assertions.assertEquals(x, BreakTracking.getLegacyChunkX(chunk), "x of " + x + ", " + z);
+                Assertions.assertEquals(z, BreakTracking.getLegacyChunkZ(chunk), "z of " + x + ", " + z);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.github.devotedmc.hiddenore.tracking;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChunkRecordCacheTests {
+
+    private static final UUID WORLD = UUID.fromString("6c5a9a49-2ddb-4d3a-8d2c-0a4a3c7c2f61");
+
+    private static final ChunkRecordCache.Codec<int[]> CODEC = new ChunkRecordCache.Codec<>() {
+
+        @Override
+        public int[] create() {
+            return new int[1];
+        }
+
+        @Override
+        public void read(final ByteBuffer from, final int[] into) {
+            into[0] = from.getInt();
+        }
+
+        @Override
+        public void write(final int[] from, final ByteBuffer into) {
+            into.putInt(from[0]);
+        }
+    };
+
+    @TempDir
+    File folder;
+
+    private static Logger createLogger() {
+        final Logger logger = Logger.getLogger(ChunkRecordCacheTests.class.getName());
+        logger.setLevel(Level.OFF);
+        return logger;
+    }
+
+    /**
+     * Tests whether chunks without a record stay without one until a record is created.
+     */
+    @Test
+    public void testAbsentChunks() {
+        // Setup
+        final ChunkRecordCache<int[]> cache = new ChunkRecordCache<>("test", new RegionStore(folder, Integer.BYTES),
+            CODEC, createLogger());
+        // Process
+        final int[] missing = cache.get(WORLD, -3, -3, false);
+        final int[] created = cache.create(WORLD, -3, -3);
+        // Check
+        Assertions.assertNull(missing);
+        Assertions.assertSame(created, cache.get(WORLD, -3, -3, false));
+    }
+
+    /**
+     * Tests whether a record dropped from memory before the writer got to it is reloaded with its latest state.
+     */
+    @Test
+    public void testPendingRecordReload() throws IOException {
+        // Setup
+        final RegionStore store = new RegionStore(folder, Integer.BYTES);
+        final ChunkRecordCache<int[]> cache = new ChunkRecordCache<>("test", store, CODEC, createLogger());
+        final HeldExecutor writer = new HeldExecutor();
+        cache.create(WORLD, -1, 5)[0] = 7;
+        // Process
+        cache.save(writer);
+        // not used since the previous save, so dropped from memory while its write is still held back
+        cache.save(writer);
+        final int[] reloaded = cache.get(WORLD, -1, 5, false);
+        // Check
+        Assertions.assertNull(store.read(WORLD, -1, 5), "Nothing should have been written yet");
+        Assertions.assertNotNull(reloaded);
+        Assertions.assertEquals(7, reloaded[0]);
+        writer.runAll();
+        final ChunkRecordCache<int[]> fresh = new ChunkRecordCache<>("test", store, CODEC, createLogger());
+        Assertions.assertEquals(7, fresh.get(WORLD, -1, 5, false)[0]);
+        store.close();
+    }
+
+    /**
+     * Tests whether records which failed to be written are written again with the next save.
+     */
+    @Test
+    public void testFailedWriteRetried() throws IOException {
+        // Setup
+        final FailingStore store = new FailingStore(folder);
+        final ChunkRecordCache<int[]> cache = new ChunkRecordCache<>("test", store, CODEC, createLogger());
+        cache.create(WORLD, 40, -40)[0] = 3;
+        store.failing = true;
+        // Process
+        cache.save(null);
+        store.failing = false;
+        final ByteBuffer afterFailure = store.read(WORLD, 40, -40);
+        cache.save(null);
+        // Check
+        Assertions.assertNull(afterFailure);
+        final ByteBuffer afterRetry = store.read(WORLD, 40, -40);
+        Assertions.assertNotNull(afterRetry);
+        Assertions.assertEquals(3, afterRetry.getInt());
+        store.close();
+    }
+
+    private static final class FailingStore extends RegionStore {
+
+        private boolean failing;
+
+        private FailingStore(final File folder) {
+            super(folder, Integer.BYTES);
+        }
+
+        @Override
+        void write(final UUID world, final int chunkX, final int chunkZ, final ByteBuffer record) throws IOException {
+            if (failing) {
+                throw new IOException("Failing on purpose");
+            }
+            super.write(world, chunkX, chunkZ, record);
+        }
+    }
+
+    /**
+     * Holds back everything submitted until told to run it.
+     */
+    private static final class HeldExecutor extends AbstractExecutorService {
+
+        private final List<Runnable> held = new ArrayList<>();
+
+        private void runAll() {
+            for (final Runnable runnable : held) {
+                runnable.run();
+            }
+            held.clear();
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            held.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return held;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) {
+            return true;
+        }
+    }
+
+}
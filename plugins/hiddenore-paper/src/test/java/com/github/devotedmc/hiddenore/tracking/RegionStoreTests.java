@@ -0,0 +1,97 @@
+package com.github.devotedmc.hiddenore.tracking;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RegionStoreTests {
+
+    private static final UUID WORLD = UUID.fromString("6c5a9a49-2ddb-4d3a-8d2c-0a4a3c7c2f61");
+
+    @TempDir
+    File folder;
+
+    private static ByteBuffer record(final int value) {
+        final ByteBuffer record = ByteBuffer.allocate(Integer.BYTES);
+        record.putInt(value);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * Tests whether chunks at negative coordinates and at region edges get slots of their own.
+     */
+    @Test
+    public void testNegativeChunkSlots() throws IOException {
+        // Setup
+        final RegionStore store = new RegionStore(folder, Integer.BYTES);
+        final int[][] chunks = {{0, 0}, {-1, -1}, {-1, 0}, {0, -1}, {31, 31}, {32, 0}, {-32, 0}, {-33, 0},
+            {-33, -33}, {-32, -1}};
+        // Process
+        for (int i = 0; i < chunks.length; i++) {
+            store.write(WORLD, chunks[i][0], chunks[i][1], record(i));
+        }
+        store.flush();
+        // Check
+        for (int i = 0; i < chunks.length; i++) {
+            final ByteBuffer read = store.read(WORLD, chunks[i][0], chunks[i][1]);
+            Assertions.assertNotNull(read, "Chunk " + chunks[i][0] + ", " + chunks[i][1]);
+            Assertions.assertEquals(i, read.getInt());
+            Assertions.assertTrue(store.contains(WORLD, chunks[i][0], chunks[i][1]));
+        }
+        Assertions.assertNull(store.read(WORLD, -2, -2), "Unwritten chunk of an existing region");
+        Assertions.assertFalse(store.contains(WORLD, -2, -2));
+        Assertions.assertNull(store.read(WORLD, -1000, 1000), "Chunk of a region without a file");
+        Assertions.assertTrue(new File(new File(folder, WORLD.toString()), "r.-1.-1.dat").exists());
+        Assertions.assertTrue(new File(new File(folder, WORLD.toString()), "r.-2.-2.dat").exists());
+        store.close();
+    }
+
+    /**
+     * Tests whether records are read back after the store was closed and opened again.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        // Setup
+        final RegionStore store = new RegionStore(folder, Integer.BYTES);
+        store.write(WORLD, -5, 40, record(42));
+        store.flush();
+        store.close();
+        // Process
+        final RegionStore reopened = new RegionStore(folder, Integer.BYTES);
+        final ByteBuffer read = reopened.read(WORLD, -5, 40);
+        // Check
+        Assertions.assertNotNull(read);
+        Assertions.assertEquals(42, read.getInt());
+        reopened.close();
+    }
+
+    /**
+     * Tests whether unsynced region files are kept open beyond the limit, and closed down to it once synced.
+     */
+    @Test
+    public void testOpenRegionLimit() throws IOException {
+        // Setup
+        final RegionStore store = new RegionStore(folder, Integer.BYTES, 2);
+        // Process
+        for (int region = 0; region < 4; region++) {
+            store.write(WORLD, region * 32, 0, record(region));
+        }
+        final int openBeforeFlush = store.getOpenRegionCount();
+        store.flush();
+        final int openAfterFlush = store.getOpenRegionCount();
+        // Check
+        Assertions.assertEquals(4, openBeforeFlush, "Unsynced region files must not be closed");
+        Assertions.assertEquals(2, openAfterFlush);
+        for (int region = 0; region < 4; region++) {
+            Assertions.assertEquals(region, store.read(WORLD, region * 32, 0).getInt());
+            Assertions.assertTrue(store.getOpenRegionCount() <= 2);
+        }
+        store.close();
+    }
+
+}
@@ -1,15 +1,23 @@
 package com.untamedears.jukealert;
 
+import com.untamedears.jukealert.database.JukeAlertDAO;
 import com.untamedears.jukealert.model.SnitchTypeManager;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.configuration.ConfigurationSection;
 import vg.civcraft.mc.civmodcore.ACivMod;
+import vg.civcraft.mc.civmodcore.config.ConfigHelper;
 import vg.civcraft.mc.civmodcore.config.ConfigParser;
 import vg.civcraft.mc.civmodcore.dao.DatabaseCredentials;
 import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
+import vg.civcraft.mc.civmodcore.world.locations.GridSpatialIndex;
 
 public class JAConfigManager extends ConfigParser {
 
     private SnitchTypeManager typeMan;
+    private boolean useGridIndex;
+    private int gridCellSize;
+    private long logFlushInterval;
+    private int logBatchSize;
 
     public JAConfigManager(ACivMod plugin, SnitchTypeManager typeMan) {
         super(plugin);
@@ -23,9 +31,75 @@ public class JAConfigManager extends ConfigParser {
     @Override
     protected boolean parseInternal(ConfigurationSection config) {
         parseSnitchConfigs(config.getConfigurationSection("snitchConfigs"));
+        parseSnitchIndex(config.getConfigurationSection("snitchIndex"));
+        parseLogWriter(config.getConfigurationSection("logWriter"));
         return true;
     }
 
+    private void parseLogWriter(ConfigurationSection config) {
+        logFlushInterval = 5000L;
+        logBatchSize = 500;
+        if (config == null) {
+            return;
+        }
+        logFlushInterval = ConfigHelper.parseTime(config.getString("flushInterval", "5 seconds"), TimeUnit.MILLISECONDS);
+        if (logFlushInterval <= 0) {
+            logger.warning("Invalid log flush interval " + config.getString("flushInterval") + ", using 5 seconds");
+            logFlushInterval = 5000L;
+        }
+        logBatchSize = config.getInt("batchSize", logBatchSize);
+        if (logBatchSize < 1 || logBatchSize > JukeAlertDAO.MAX_LOGS_PER_INSERT) {
+            logger.warning("Invalid log batch size " + logBatchSize + ", has to be between 1 and "
+                + JukeAlertDAO.MAX_LOGS_PER_INSERT + ", using 500");
+            logBatchSize = 500;
+        }
+    }
+
+    private void parseSnitchIndex(ConfigurationSection config) {
+        useGridIndex = false;
+        gridCellSize = GridSpatialIndex.DEFAULT_CELL_SIZE;
+        if (config == null) {
+            return;
+        }
+        String type = config.getString("type", "rtree");
+        if ("grid".equalsIgnoreCase(type)) {
+            useGridIndex = true;
+        } else if (!"rtree".equalsIgnoreCase(type)) {
+            logger.warning("Unknown snitch index type " + type + ", using rtree");
+        }
+        int cellSize = config.getInt("cellSize", GridSpatialIndex.DEFAULT_CELL_SIZE);
+        if (cellSize <= 0) {
+            logger.warning("Invalid snitch index cell size " + cellSize + ", using " + gridCellSize);
+        } else {
+            gridCellSize = cellSize;
+        }
+    }
+
+    /**
+     * @return Whether snitch fields should be tracked in a uniform grid instead of an r-tree
+     */
+    public boolean useGridIndex() {
+        return useGridIndex;
+    }
+
+    public int getGridCellSize() {
+        return gridCellSize;
+    }
+
+    /**
+     * @return Delay between two writes of queued snitch logs in milliseconds
+     */
+    public long getLogFlushInterval() {
+        return logFlushInterval;
+    }
+
+    /**
+     * @return Maximum amount of snitch logs written with a single insert
+     */
+    public int getLogBatchSize() {
+        return logBatchSize;
+    }
+
     private void parseSnitchConfigs(ConfigurationSection config) {
         if (config == null) {
             logger.warning("No snitch configuration found in config");
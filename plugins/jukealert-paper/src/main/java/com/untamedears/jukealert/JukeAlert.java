@@ -4,6 +4,7 @@ import com.untamedears.jukealert.commands.JACommandManager;
 import co.aikar.taskchain.BukkitTaskChainFactory;
 import co.aikar.taskchain.TaskChainFactory;
 import com.untamedears.jukealert.database.JukeAlertDAO;
+import com.untamedears.jukealert.database.SnitchLogWriter;
 import com.untamedears.jukealert.listener.LoggableActionListener;
 import com.untamedears.jukealert.listener.SnitchLifeCycleListener;
 import com.untamedears.jukealert.model.Snitch;
@@ -103,7 +104,9 @@ public class JukeAlert extends ACivMod {
             return;
         }
 
-        snitchManager = new SnitchManager(api);
+        SnitchLogWriter logWriter = new SnitchLogWriter(dao, getLogger(), configManager.getLogFlushInterval(),
+            configManager.getLogBatchSize());
+        snitchManager = new SnitchManager(api, logWriter, configManager.useGridIndex(), configManager.getGridCellSize());
         snitchManager.enable();
 
         settingsManager = new JASettingsManager();
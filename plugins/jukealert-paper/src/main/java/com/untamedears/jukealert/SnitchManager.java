@@ -5,75 +5,73 @@ import com.github.davidmoten.rtree2.RTree;
 import com.github.davidmoten.rtree2.geometry.Rectangle;
 import com.github.davidmoten.rtree2.geometry.internal.PointDouble;
 import com.github.davidmoten.rtree2.geometry.internal.RectangleDouble;
-import com.untamedears.jukealert.database.JukeAlertDAO;
+import com.untamedears.jukealert.database.SnitchLogWriter;
 import com.untamedears.jukealert.model.Snitch;
 import com.untamedears.jukealert.model.SnitchQTEntry;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
-import com.untamedears.jukealert.model.actions.ActionCacheState;
 import com.untamedears.jukealert.model.actions.abstr.LoggablePlayerAction;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.jetbrains.annotations.NotNull;
+import vg.civcraft.mc.civmodcore.world.locations.GridSpatialIndex;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.CacheState;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.api.SingleBlockAPIView;
 import vg.civcraft.mc.namelayer.group.Group;
 
 public class SnitchManager {
 
-    private static final long SAVE_LOGS_INTERVAL_MS = 60L * 1000L; // 1 min
-
-    private record LogItem(int internalActionId, Snitch snitch, LoggablePlayerAction action) {
-
-    }
-
     private final SingleBlockAPIView<Snitch> api;
     private final Map<UUID, RTree<Snitch, Rectangle>> treesByWorld;
-    private final ScheduledExecutorService scheduler;
-    private final ConcurrentLinkedQueue<LogItem> logs;
+    // only used instead of the r-trees if enabled in the config
+    private final Map<UUID, GridSpatialIndex<SnitchQTEntry>> gridsByWorld;
+    private final int gridCellSize;
+    private final List<SnitchQTEntry> gridSearchBuffer;
+    private final SnitchLogWriter logWriter;
+    private long fieldVersion;
 
-    public SnitchManager(SingleBlockAPIView<Snitch> api) {
+    /**
+     * @param api          Chunk meta API view holding the snitches
+     * @param logWriter    Writer used to persist snitch logs
+     * @param useGridIndex Whether snitch fields should be tracked in a uniform grid
+     *                     instead of an r-tree
+     * @param gridCellSize Cell size of the grid, only relevant if it is used
+     */
+    public SnitchManager(SingleBlockAPIView<Snitch> api, SnitchLogWriter logWriter, boolean useGridIndex,
+                         int gridCellSize) {
         this.api = api;
+        this.logWriter = logWriter;
         this.treesByWorld = new TreeMap<>();
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        this.logs = new ConcurrentLinkedQueue<>();
+        this.gridsByWorld = useGridIndex ? new HashMap<>() : null;
+        this.gridCellSize = gridCellSize;
+        this.gridSearchBuffer = new ArrayList<>();
     }
 
     public void enable() {
-        scheduler.scheduleWithFixedDelay(() -> {
-            saveLogsToDB();
-        }, SAVE_LOGS_INTERVAL_MS, SAVE_LOGS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        logWriter.start();
     }
 
     public void shutdown() {
-        scheduler.shutdown();
-
-        try {
-            if (!scheduler.awaitTermination(60, TimeUnit.SECONDS))
-                scheduler.shutdownNow();
-        } catch (InterruptedException ex) {
-            ex.printStackTrace();
-        }
-
-        JukeAlert.getInstance().getLogger().info("SnitchManager scheduler and its tasks are shutdown.");
-
-        saveLogsToDB();
+        logWriter.shutdown();
 
         JukeAlert.getInstance().getLogger().info("Snitch logs are saved.");
 
         api.disable();
     }
 
+    public SnitchLogWriter getLogWriter() {
+        return logWriter;
+    }
+
     public Snitch getSnitchAt(Location location) {
         return api.get(location);
     }
@@ -98,6 +96,14 @@ public class SnitchManager {
     }
 
     public void addSnitchToQuadTree(Snitch snitch) {
+        fieldVersion++;
+        if (gridsByWorld != null) {
+            GridSpatialIndex<SnitchQTEntry> grid = getGridFor(snitch.getLocation());
+            for (SnitchQTEntry qt : snitch.getFieldManager().getQTEntries()) {
+                grid.add(qt);
+            }
+            return;
+        }
         RTree<Snitch, Rectangle> tree = getTreeFor(snitch.getLocation());
         for (SnitchQTEntry qt : snitch.getFieldManager().getQTEntries()) {
             treesByWorld.put(snitch.getLocation().getWorld().getUID(), tree.add(qt.getSnitch(), RectangleDouble.create(qt.qtXMin(), qt.qtZMin(), qt.qtXMax(), qt.qtZMax())));
@@ -114,6 +120,10 @@ public class SnitchManager {
         return tree;
     }
 
+    private GridSpatialIndex<SnitchQTEntry> getGridFor(Location loc) {
+        return gridsByWorld.computeIfAbsent(loc.getWorld().getUID(), k -> new GridSpatialIndex<>(0, gridCellSize));
+    }
+
     /**
      * Removes the given snitch from the QtBox field tracking and the per chunk
      * block data tracking.
@@ -125,6 +135,14 @@ public class SnitchManager {
     public void removeSnitch(@NotNull final Snitch snitch) {
         snitch.setCacheState(CacheState.DELETED);
         this.api.remove(snitch);
+        this.fieldVersion++;
+        if (this.gridsByWorld != null) {
+            final GridSpatialIndex<SnitchQTEntry> grid = getGridFor(snitch.getLocation());
+            for (final SnitchQTEntry qt : snitch.getFieldManager().getQTEntries()) {
+                grid.remove(qt);
+            }
+            return;
+        }
         final RTree<Snitch, Rectangle> quadTree = getTreeFor(snitch.getLocation());
         for (final SnitchQTEntry qt : snitch.getFieldManager().getQTEntries()) {
             treesByWorld.put(snitch.getLocation().getWorld().getUID(), quadTree.delete(qt.getSnitch(), RectangleDouble.create(qt.qtXMin(), qt.qtZMin(), qt.qtXMax(), qt.qtZMax())));
@@ -132,11 +150,24 @@ public class SnitchManager {
     }
 
     public Set<Snitch> getSnitchesCovering(Location location) {
-        Iterable<Entry<Snitch, Rectangle>> search = getTreeFor(location).search(PointDouble.create(location.getBlockX(), location.getBlockZ()));
         Set<Snitch> result = new HashSet<>();
-        for (Entry<Snitch, Rectangle> qt : search) {
-            if (qt.value().getFieldManager().isInside(location)) {
-                result.add(qt.value());
+        if (gridsByWorld != null) {
+            List<SnitchQTEntry> search = gridSearchBuffer;
+            search.clear();
+            getGridFor(location).find(location.getBlockX(), location.getBlockZ(), false, search);
+            for (int i = 0; i < search.size(); i++) {
+                Snitch snitch = search.get(i).getSnitch();
+                if (snitch.getFieldManager().isInside(location)) {
+                    result.add(snitch);
+                }
+            }
+            search.clear();
+        } else {
+            Iterable<Entry<Snitch, Rectangle>> search = getTreeFor(location).search(PointDouble.create(location.getBlockX(), location.getBlockZ()));
+            for (Entry<Snitch, Rectangle> qt : search) {
+                if (qt.value().getFieldManager().isInside(location)) {
+                    result.add(qt.value());
+                }
             }
         }
         Iterator<Snitch> iter = result.iterator();
@@ -149,18 +180,46 @@ public class SnitchManager {
         return result;
     }
 
-    public void saveLog(int internalActionId, Snitch snitch, LoggablePlayerAction action) {
-        logs.add(new LogItem(internalActionId, snitch, action));
+    /**
+     * Gets all snitches with a field overlapping the given square in the x/z-plane,
+     * regardless of whether the location itself is inside the field
+     *
+     * @param location Center of the square
+     * @param radius   Distance from the center to the edges of the square
+     * @return All snitches with a field overlapping the square
+     */
+    public Set<Snitch> getSnitchesNear(Location location, int radius) {
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+        Set<Snitch> result = new HashSet<>();
+        if (gridsByWorld != null) {
+            List<SnitchQTEntry> search = gridSearchBuffer;
+            search.clear();
+            getGridFor(location).findIntersecting(x - radius, z - radius, x + radius, z + radius, search);
+            for (int i = 0; i < search.size(); i++) {
+                result.add(search.get(i).getSnitch());
+            }
+            search.clear();
+        } else {
+            for (Entry<Snitch, Rectangle> qt : getTreeFor(location).search(
+                RectangleDouble.create(x - radius, z - radius, x + radius, z + radius))) {
+                result.add(qt.value());
+            }
+        }
+        return result;
     }
 
-    private void saveLogsToDB() {
-        JukeAlertDAO dao = JukeAlert.getInstance().getDAO();
+    /**
+     * The version is increased whenever a snitch field is added or removed, which
+     * allows caching results derived from the snitch fields
+     *
+     * @return Current version of the snitch fields
+     */
+    public long getFieldVersion() {
+        return fieldVersion;
+    }
 
-        LogItem logItem;
-        while ((logItem = logs.poll()) != null) {
-            final int actionID = dao.insertLog(logItem.internalActionId, logItem.snitch, logItem.action.getPersistence());
-            logItem.action.setID(actionID);
-            logItem.action.setCacheState(ActionCacheState.NORMAL);
-        }
+    public void saveLog(int internalActionId, Snitch snitch, LoggablePlayerAction action) {
+        logWriter.enqueue(internalActionId, snitch, action);
     }
 }
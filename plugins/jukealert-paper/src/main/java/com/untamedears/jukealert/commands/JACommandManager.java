@@ -21,5 +21,6 @@ public class JACommandManager extends CommandManager {
         registerCommand(new NameAtCommand());
         registerCommand(new ToggleLeverCommand());
         registerCommand(new MuteListCommand());
+        registerCommand(new LogWriterStatsCommand());
     }
 }
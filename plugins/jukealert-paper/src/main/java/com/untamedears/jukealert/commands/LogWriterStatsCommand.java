@@ -0,0 +1,30 @@
+package com.untamedears.jukealert.commands;
+
+import co.aikar.commands.BaseCommand;
+import co.aikar.commands.annotation.CommandAlias;
+import co.aikar.commands.annotation.CommandPermission;
+import co.aikar.commands.annotation.Description;
+import com.untamedears.jukealert.JukeAlert;
+import com.untamedears.jukealert.database.SnitchLogWriter;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+public class LogWriterStatsCommand extends BaseCommand {
+
+    @CommandAlias("jalogstats")
+    @CommandPermission("jukealert.admin")
+    @Description("Shows statistics of the snitch log writer")
+    public void execute(CommandSender sender) {
+        SnitchLogWriter writer = JukeAlert.getInstance().getSnitchManager().getLogWriter();
+        sender.sendMessage(ChatColor.GOLD + "Snitch log writer statistics:");
+        sender.sendMessage(ChatColor.YELLOW + "Queued logs: " + writer.getQueueDepth() + " (max " + writer.getMaxQueueDepth() + ")");
+        sender.sendMessage(ChatColor.YELLOW + "Written logs: " + writer.getWrittenLogs() + ", failed: " + writer.getFailedLogs());
+        sender.sendMessage(ChatColor.YELLOW + "Flushes: " + writer.getFlushCount());
+        sender.sendMessage(ChatColor.YELLOW + "Flush time: last " + nanoToMsStr(writer.getLastFlushNanos())
+            + ", avg " + nanoToMsStr(writer.getAverageFlushNanos()) + ", max " + nanoToMsStr(writer.getMaxFlushNanos()));
+    }
+
+    private static String nanoToMsStr(long nano) {
+        return String.format("%.2f ms", nano / 1_000_000.0);
+    }
+}
@@ -58,6 +58,11 @@ import vg.civcraft.mc.namelayer.group.Group;
 public class JukeAlertDAO extends GlobalTrackableDAO<Snitch> {
 
     public static final int NOT_YET_INSERTED_ID = -1;
+    /**
+     * Most logs inserted with a single statement, bound by the 65535 placeholders a prepared statement may have with
+     * 8 per log. Larger lists of logs are split up into several statements
+     */
+    public static final int MAX_LOGS_PER_INSERT = 65535 / 8;
 
     public JukeAlertDAO(@NotNull final ManagedDatasource datasource) {
         super(CivLogger.getLogger(JukeAlertDAO.class), Objects.requireNonNull(datasource));
@@ -579,6 +584,64 @@ public class JukeAlertDAO extends GlobalTrackableDAO<Snitch> {
         return NOT_YET_INSERTED_ID;
     }
 
+    /**
+     * Inserts the given snitch logs to the database using multi-row inserts and
+     * assigns the generated IDs back to the logged actions. Actions which could not
+     * be inserted keep their ID and cache state.
+     *
+     * @param logs The logs to insert, may be arbitrarily many.
+     * @return Returns the amount of logs which were inserted.
+     */
+    public int insertLogs(@NotNull final List<SnitchLogWriter.PendingLog> logs) {
+        int inserted = 0;
+        for (int offset = 0; offset < logs.size(); offset += MAX_LOGS_PER_INSERT) {
+            inserted += insertLogBatch(logs.subList(offset, Math.min(logs.size(), offset + MAX_LOGS_PER_INSERT)));
+        }
+        return inserted;
+    }
+
+    private int insertLogBatch(@NotNull final List<SnitchLogWriter.PendingLog> logs) {
+        final StringBuilder sql = new StringBuilder(
+            "INSERT INTO ja_snitch_entries (snitch_id,type_id,uuid,x,y,z,creation_time,victim) VALUES ");
+        for (int i = 0; i < logs.size(); i++) {
+            sql.append(i == 0 ? "(?,?,?,?,?,?,?,?)" : ",(?,?,?,?,?,?,?,?)");
+        }
+        sql.append(';');
+        try (final Connection connection = this.db.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                 sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+            int index = 1;
+            for (final SnitchLogWriter.PendingLog log : logs) {
+                final LoggedActionPersistence actionData = log.action().getPersistence();
+                statement.setInt(index++, log.snitch().getId());
+                statement.setInt(index++, log.actionTypeID());
+                statement.setString(index++, actionData.actorUUID().toString());
+                statement.setInt(index++, actionData.locationX());
+                statement.setInt(index++, actionData.locationY());
+                statement.setInt(index++, actionData.locationZ());
+                statement.setTimestamp(index++, new Timestamp(actionData.timestamp()));
+                statement.setString(index++, actionData.extra());
+            }
+            statement.execute();
+            // generated keys are reported in the same order as the inserted rows
+            int assigned = 0;
+            try (final ResultSet results = statement.getGeneratedKeys()) {
+                while (assigned < logs.size() && results.next()) {
+                    final LoggableAction action = logs.get(assigned++).action();
+                    action.setID(results.getInt(1));
+                    action.setCacheState(ActionCacheState.NORMAL);
+                }
+            }
+            if (assigned < logs.size()) {
+                this.logger.severe("Failed to retrieve keys for " + (logs.size() - assigned) + " inserted snitch logs");
+            }
+            return logs.size();
+        } catch (final SQLException throwable) {
+            this.logger.log(Level.SEVERE, "Failed to insert " + logs.size() + " snitch logs", throwable);
+        }
+        return 0;
+    }
+
     /**
      * Deletes a particular log from the database.
      *
@@ -0,0 +1,200 @@
+package com.untamedears.jukealert.database;
+
+import com.untamedears.jukealert.model.Snitch;
+import com.untamedears.jukealert.model.actions.abstr.LoggableAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects snitch logs and writes them to the database in batches on a
+ * dedicated thread, so recording an action never waits on the database.
+ * <p>
+ * Once a log is written, its database ID is assigned back to the logged action.
+ * Queue depth and flush timings are tracked to allow watching whether the
+ * database keeps up
+ */
+public class SnitchLogWriter {
+
+    public record PendingLog(int actionTypeID, Snitch snitch, LoggableAction action) {
+
+    }
+
+    private final JukeAlertDAO dao;
+    private final Logger logger;
+    private final long flushIntervalMs;
+    private final int batchSize;
+    private final ConcurrentLinkedQueue<PendingLog> queue;
+    private final AtomicInteger queueDepth;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong writtenLogs;
+    private final AtomicLong failedLogs;
+    private final AtomicLong flushCount;
+    private final AtomicLong totalFlushNanos;
+    private volatile long lastFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile int maxQueueDepth;
+
+    /**
+     * @param dao             DAO to write logs with
+     * @param logger          Logger to report flushes to
+     * @param flushIntervalMs Delay between two flushes in milliseconds
+     * @param batchSize       Maximum amount of logs written per batch, batches larger than
+     *                        {@link JukeAlertDAO#MAX_LOGS_PER_INSERT} are written with several statements
+     */
+    public SnitchLogWriter(@NotNull JukeAlertDAO dao, @NotNull Logger logger, long flushIntervalMs, int batchSize) {
+        this.dao = dao;
+        this.logger = logger;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.queueDepth = new AtomicInteger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "JukeAlert log writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writtenLogs = new AtomicLong();
+        this.failedLogs = new AtomicLong();
+        this.flushCount = new AtomicLong();
+        this.totalFlushNanos = new AtomicLong();
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the writer thread and writes all remaining logs on the calling thread
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(60, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Queues a log to be written with the next flush
+     *
+     * @param actionTypeID Internal ID of the action type
+     * @param snitch       Snitch the log belongs to
+     * @param action       Logged action
+     */
+    public void enqueue(int actionTypeID, @NotNull Snitch snitch, @NotNull LoggableAction action) {
+        queue.add(new PendingLog(actionTypeID, snitch, action));
+        int depth = queueDepth.incrementAndGet();
+        if (depth > maxQueueDepth) {
+            maxQueueDepth = depth;
+        }
+    }
+
+    /**
+     * Writes all logs queued at the time of calling in batches. Logs queued while
+     * the flush is running are left for the next one
+     */
+    public synchronized void flush() {
+        int remaining = queueDepth.get();
+        if (remaining <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        int flushed = 0;
+        List<PendingLog> batch = new ArrayList<>(Math.min(remaining, batchSize));
+        while (remaining > 0) {
+            batch.clear();
+            PendingLog log;
+            while (batch.size() < batchSize && remaining > 0 && (log = queue.poll()) != null) {
+                batch.add(log);
+                remaining--;
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            queueDepth.addAndGet(-batch.size());
+            int inserted;
+            try {
+                inserted = dao.insertLogs(batch);
+            } catch (RuntimeException e) {
+                // an exception escaping would cancel all further flushes
+                logger.log(Level.SEVERE, "Failed to write " + batch.size() + " snitch logs", e);
+                inserted = 0;
+            }
+            writtenLogs.addAndGet(inserted);
+            failedLogs.addAndGet(batch.size() - inserted);
+            flushed += batch.size();
+        }
+        long duration = System.nanoTime() - start;
+        lastFlushNanos = duration;
+        if (duration > maxFlushNanos) {
+            maxFlushNanos = duration;
+        }
+        flushCount.incrementAndGet();
+        totalFlushNanos.addAndGet(duration);
+        logger.fine("Wrote " + flushed + " snitch logs in " + TimeUnit.NANOSECONDS.toMillis(duration) + " ms, "
+            + queueDepth.get() + " still queued");
+    }
+
+    /**
+     * @return Amount of logs currently waiting to be written
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @return Highest amount of logs which were waiting to be written at once
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return Duration of the last flush in nanoseconds
+     */
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    /**
+     * @return Duration of the longest flush so far in nanoseconds
+     */
+    public long getMaxFlushNanos() {
+        return maxFlushNanos;
+    }
+
+    /**
+     * @return Average duration of a flush in nanoseconds
+     */
+    public long getAverageFlushNanos() {
+        long count = flushCount.get();
+        return count == 0 ? 0 : totalFlushNanos.get() / count;
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getWrittenLogs() {
+        return writtenLogs.get();
+    }
+
+    public long getFailedLogs() {
+        return failedLogs.get();
+    }
+
+}
@@ -23,6 +23,7 @@ import com.untamedears.jukealert.model.actions.impl.MountEntityAction;
 import com.untamedears.jukealert.model.actions.impl.OpenContainerAction;
 import com.untamedears.jukealert.util.JukeAlertPermissionHandler;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -76,10 +77,13 @@ public class LoggableActionListener implements Listener {
 
     private final SnitchManager snitchManager;
     private final Map<UUID, Set<Snitch>> insideFields;
+    // per player region within which the snitch fields entered stay the same
+    private final Map<UUID, StableFieldRegion> stableRegions;
 
     public LoggableActionListener(SnitchManager snitchManager) {
         this.snitchManager = snitchManager;
         this.insideFields = new TreeMap<>();
+        this.stableRegions = new HashMap<>();
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -250,11 +254,13 @@ public class LoggableActionListener implements Listener {
         Set<Snitch> covering = new HashSet<>(snitchManager.getSnitchesCovering(event.getPlayer().getLocation()));
         handlePlayerAction(player, s -> new LoginAction(System.currentTimeMillis(), s, player.getUniqueId()));
         insideFields.put(event.getPlayer().getUniqueId(), covering);
+        stableRegions.remove(player.getUniqueId());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void playerQuitEvent(PlayerQuitEvent event) {
         handleSnitchLogout(event.getPlayer());
+        stableRegions.remove(event.getPlayer().getUniqueId());
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -303,7 +309,14 @@ public class LoggableActionListener implements Listener {
             //CombatTagPlus
             return;
         }
+        StableFieldRegion region = stableRegions.get(player.getUniqueId());
+        long fieldVersion = snitchManager.getFieldVersion();
+        if (region != null && region.contains(location, fieldVersion)) {
+            return;
+        }
         Collection<Snitch> insideNow = snitchManager.getSnitchesCovering(location);
+        region = StableFieldRegion.compute(location, fieldVersion, insideNow,
+            snitchManager.getSnitchesNear(location, StableFieldRegion.MAX_RADIUS));
         Set<Snitch> previouslyIn = insideFields.computeIfAbsent(player.getUniqueId(), s -> new HashSet<>());
         insideNow.stream().filter(s -> !previouslyIn.contains(s)).forEach(s -> {
             s.processAction(new EnterFieldAction(System.currentTimeMillis(), s, player.getUniqueId()));
@@ -316,6 +329,7 @@ public class LoggableActionListener implements Listener {
         });
         // need to do this afterwards to avoid ConcurrentModificationExceptions
         previouslyIn.removeAll(toRemove);
+        stableRegions.put(player.getUniqueId(), region);
     }
 
     private boolean isPlayerSnitchImmune(Player player) {
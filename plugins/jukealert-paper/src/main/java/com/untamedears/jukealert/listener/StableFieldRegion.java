@@ -0,0 +1,187 @@
+package com.untamedears.jukealert.listener;
+
+import com.untamedears.jukealert.model.Snitch;
+import com.untamedears.jukealert.model.SnitchQTEntry;
+import com.untamedears.jukealert.model.field.FieldManager;
+import java.util.Collection;
+import java.util.UUID;
+import org.bukkit.Location;
+
+/**
+ * Cuboid around a player within which the set of snitch fields the player is
+ * inside can not change. As long as the player moves within it and no snitch
+ * field was added or removed, field entries and exits do not need to be checked
+ * again.
+ */
+final class StableFieldRegion {
+
+    /**
+     * How far the region may extend from the location it was computed for. Larger
+     * values cover more movement, but need more fields to be checked
+     */
+    static final int MAX_RADIUS = 16;
+
+    private final UUID world;
+    private final long fieldVersion;
+    private int minX;
+    private int maxX;
+    private int minY;
+    private int maxY;
+    private int minZ;
+    private int maxZ;
+
+    private StableFieldRegion(UUID world, long fieldVersion, int x, int y, int z) {
+        this.world = world;
+        this.fieldVersion = fieldVersion;
+        this.minX = x - MAX_RADIUS;
+        this.maxX = x + MAX_RADIUS;
+        this.minY = y - MAX_RADIUS;
+        this.maxY = y + MAX_RADIUS;
+        this.minZ = z - MAX_RADIUS;
+        this.maxZ = z + MAX_RADIUS;
+    }
+
+    /**
+     * Computes the region around the given location
+     *
+     * @param location     Location of the player
+     * @param fieldVersion Current field version of the snitch manager
+     * @param inside       Snitches whose field the player is considered inside
+     * @param nearby       All snitches with a field within {@link #MAX_RADIUS} of
+     *                     the location
+     * @return Region around the location within which the player stays inside
+     * exactly the given fields
+     */
+    static StableFieldRegion compute(Location location, long fieldVersion, Collection<Snitch> inside,
+                                     Collection<Snitch> nearby) {
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        StableFieldRegion region = new StableFieldRegion(location.getWorld().getUID(), fieldVersion, x, y, z);
+        for (Snitch snitch : nearby) {
+            FieldManager field = snitch.getFieldManager();
+            boolean counted = inside.contains(snitch);
+            for (SnitchQTEntry entry : field.getQTEntries()) {
+                boolean contains = entry.qtXMin() <= x && entry.qtXMax() >= x && entry.qtZMin() <= z
+                    && entry.qtZMax() >= z && field.getMinY() <= y && field.getMaxY() >= y;
+                if (contains && counted) {
+                    region.intersect(entry, field);
+                } else if (contains) {
+                    // field covers the location, but the snitch was left out, so whether it is
+                    // counted may change with any move
+                    region.collapse(x, y, z);
+                } else {
+                    region.exclude(entry, field, x, y, z);
+                }
+            }
+        }
+        return region;
+    }
+
+    /**
+     * @param location     Location to check
+     * @param fieldVersion Current field version of the snitch manager
+     * @return Whether the location is within this region and the region is still valid
+     */
+    boolean contains(Location location, long fieldVersion) {
+        if (this.fieldVersion != fieldVersion) {
+            return false;
+        }
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ
+            && world.equals(location.getWorld().getUID());
+    }
+
+    private void intersect(SnitchQTEntry entry, FieldManager field) {
+        minX = Math.max(minX, entry.qtXMin());
+        maxX = Math.min(maxX, entry.qtXMax());
+        minY = Math.max(minY, field.getMinY());
+        maxY = Math.min(maxY, field.getMaxY());
+        minZ = Math.max(minZ, entry.qtZMin());
+        maxZ = Math.min(maxZ, entry.qtZMax());
+    }
+
+    private void collapse(int x, int y, int z) {
+        minX = maxX = x;
+        minY = maxY = y;
+        minZ = maxZ = z;
+    }
+
+    /**
+     * Shrinks this region along a single axis so it no longer overlaps the given
+     * field, which does not contain (x, y, z). Of all possible cuts the one
+     * keeping the largest region is chosen
+     */
+    private void exclude(SnitchQTEntry entry, FieldManager field, int x, int y, int z) {
+        int fMinX = entry.qtXMin();
+        int fMaxX = entry.qtXMax();
+        int fMinY = field.getMinY();
+        int fMaxY = field.getMaxY();
+        int fMinZ = entry.qtZMin();
+        int fMaxZ = entry.qtZMax();
+        if (fMinX > maxX || fMaxX < minX || fMinY > maxY || fMaxY < minY || fMinZ > maxZ || fMaxZ < minZ) {
+            // does not overlap anymore
+            return;
+        }
+        long lengthX = (long) maxX - minX + 1;
+        long lengthY = (long) maxY - minY + 1;
+        long lengthZ = (long) maxZ - minZ + 1;
+        long bestVolume = -1;
+        int bestAxis = -1;
+        int bestMin = 0;
+        int bestMax = 0;
+        // x-axis
+        if (x < fMinX || x > fMaxX) {
+            int newMin = x < fMinX ? minX : fMaxX + 1;
+            int newMax = x < fMinX ? fMinX - 1 : maxX;
+            long volume = ((long) newMax - newMin + 1) * lengthY * lengthZ;
+            if (volume > bestVolume) {
+                bestVolume = volume;
+                bestAxis = 0;
+                bestMin = newMin;
+                bestMax = newMax;
+            }
+        }
+        // y-axis
+        if (y < fMinY || y > fMaxY) {
+            int newMin = y < fMinY ? minY : fMaxY + 1;
+            int newMax = y < fMinY ? fMinY - 1 : maxY;
+            long volume = lengthX * ((long) newMax - newMin + 1) * lengthZ;
+            if (volume > bestVolume) {
+                bestVolume = volume;
+                bestAxis = 1;
+                bestMin = newMin;
+                bestMax = newMax;
+            }
+        }
+        // z-axis
+        if (z < fMinZ || z > fMaxZ) {
+            int newMin = z < fMinZ ? minZ : fMaxZ + 1;
+            int newMax = z < fMinZ ? fMinZ - 1 : maxZ;
+            long volume = lengthX * lengthY * ((long) newMax - newMin + 1);
+            if (volume > bestVolume) {
+                bestAxis = 2;
+                bestMin = newMin;
+                bestMax = newMax;
+            }
+        }
+        switch (bestAxis) {
+            case 0 -> {
+                minX = bestMin;
+                maxX = bestMax;
+            }
+            case 1 -> {
+                minY = bestMin;
+                maxY = bestMax;
+            }
+            case 2 -> {
+                minZ = bestMin;
+                maxZ = bestMax;
+            }
+            default -> collapse(x, y, z);
+        }
+    }
+
+}
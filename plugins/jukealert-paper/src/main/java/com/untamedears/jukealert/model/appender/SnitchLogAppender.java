@@ -2,6 +2,7 @@ package com.untamedears.jukealert.model.appender;
 
 import com.untamedears.jukealert.JukeAlert;
 import com.untamedears.jukealert.database.JukeAlertDAO;
+import com.untamedears.jukealert.database.SnitchLogWriter;
 import com.untamedears.jukealert.model.Snitch;
 import com.untamedears.jukealert.model.actions.abstr.LoggableAction;
 import com.untamedears.jukealert.model.actions.abstr.LoggablePlayerAction;
@@ -101,9 +102,13 @@ public class SnitchLogAppender extends ConfigurableSnitchAppender<LimitedActionT
     @Override
     public void persist() {
         final JukeAlertDAO dao = JukeAlert.getInstance().getDAO();
-        this.pendingActions.forEach((action, actionID) ->
-            dao.insertLog(actionID, getSnitch(), action.getPersistence()));
-        this.pendingActions.clear();
+        if (!this.pendingActions.isEmpty()) {
+            final List<SnitchLogWriter.PendingLog> logs = new ArrayList<>(this.pendingActions.size());
+            this.pendingActions.forEach((action, actionID) ->
+                logs.add(new SnitchLogWriter.PendingLog(actionID, getSnitch(), action)));
+            dao.insertLogs(logs);
+            this.pendingActions.clear();
+        }
         dao.deleteOldLogsForSnitch(getSnitch(), getMaximumActionAge());
     }
 
@@ -8,6 +8,16 @@ public interface FieldManager {
 
     boolean isInside(Location location);
 
+    /**
+     * @return Lowest Y-level covered by the field
+     */
+    int getMinY();
+
+    /**
+     * @return Highest Y-level covered by the field
+     */
+    int getMaxY();
+
     Collection<SnitchQTEntry> getQTEntries();
 
 }
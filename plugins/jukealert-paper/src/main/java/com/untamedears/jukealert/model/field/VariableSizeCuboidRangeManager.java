@@ -39,6 +39,16 @@ public class VariableSizeCuboidRangeManager implements FieldManager {
         return true;
     }
 
+    @Override
+    public int getMinY() {
+        return snitch.getLocation().getBlockY() - height;
+    }
+
+    @Override
+    public int getMaxY() {
+        return snitch.getLocation().getBlockY() + height;
+    }
+
     @Override
     public Collection<SnitchQTEntry> getQTEntries() {
         return Lists.asList(entry, new SnitchQTEntry[0]);
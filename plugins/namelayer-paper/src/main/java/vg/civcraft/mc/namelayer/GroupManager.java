@@ -2,11 +2,17 @@ package vg.civcraft.mc.namelayer;
 
 import com.google.common.collect.Maps;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -29,6 +35,25 @@ public class GroupManager {
     private static Map<String, Group> groupsByName = new ConcurrentHashMap<>();
     private static Map<Integer, Group> groupsById = new ConcurrentHashMap<>();
 
+    // Groups which could not be found, mapped to when they were looked up, so lookups of deleted groups don't
+    // query the database over and over again
+    private static final long MISSING_GROUP_CACHE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static Map<String, Long> missingGroupNames = new ConcurrentHashMap<>();
+    private static Map<Integer, Long> missingGroupIds = new ConcurrentHashMap<>();
+    private static Map<String, CompletableFuture<Group>> loadingByName = new ConcurrentHashMap<>();
+    private static Map<Integer, CompletableFuture<Group>> loadingById = new ConcurrentHashMap<>();
+
+    private static Map<UUID, List<String>> groupNamesByPlayer = new ConcurrentHashMap<>();
+    // incremented on every membership change, so a lookup racing with a change doesn't cache an outdated result
+    private static AtomicInteger groupNamesVersion = new AtomicInteger();
+    // incremented whenever the members of any group might have changed
+    private static AtomicInteger membershipVersion = new AtomicInteger();
+
+    private static AtomicLong groupCacheHits = new AtomicLong();
+    private static AtomicLong groupCacheMisses = new AtomicLong();
+    private static AtomicLong groupNameCacheHits = new AtomicLong();
+    private static AtomicLong groupNameCacheMisses = new AtomicLong();
+
     private static boolean mergingInProgress = false;
 
     public GroupManager() {
@@ -145,6 +170,10 @@ public class GroupManager {
             if (id > -1) {
                 initiateDefaultPerms(id); // give default perms to a newly create group
                 GroupManager.getGroup(id); // force a recache from DB.
+                if (owner != null) {
+                    membershipVersion.incrementAndGet();
+                    forgetGroupNames(owner);
+                }
             }
         } else {
             id = group.getGroupId();
@@ -192,6 +221,7 @@ public class GroupManager {
         if (savetodb) {
             groupManagerDao.deleteGroup(groupName);
         }
+        forgetGroupNames(group.getAllMembers());
         return true;
     }
 
@@ -311,10 +341,7 @@ public class GroupManager {
 
         List<Group> groups = groupManagerDao.getSubGroups(name);
         for (Group group : groups) {
-            groupsByName.put(group.getName().toLowerCase(), group);
-            for (int j : group.getGroupIds()) {
-                groupsById.put(j, group);
-            }
+            cacheGroup(group);
         }
         return groups;
     }
@@ -330,37 +357,140 @@ public class GroupManager {
         }
 
         String lower = name.toLowerCase();
-        if (groupsByName.containsKey(lower)) {
-            return groupsByName.get(lower);
-        } else {
-            Group group = groupManagerDao.getGroup(name);
-            if (group != null) {
-                groupsByName.put(lower, group);
-                for (int j : group.getGroupIds()) {
-                    groupsById.put(j, group);
-                }
-            } else {
-                NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getGroup by Name failed, unable to find the group " + name);
-            }
+        Group group = groupsByName.get(lower);
+        if (group != null || isMissing(missingGroupNames, lower)) {
+            groupCacheHits.incrementAndGet();
             return group;
         }
+        groupCacheMisses.incrementAndGet();
+        return loadGroup(name);
     }
 
     public static Group getGroup(int groupId) {
-        if (groupsById.containsKey(groupId)) {
-            return groupsById.get(groupId);
-        } else {
-            Group group = groupManagerDao.getGroup(groupId);
-            if (group != null) {
-                groupsByName.put(group.getName().toLowerCase(), group);
-                for (int j : group.getGroupIds()) {
-                    groupsById.put(j, group);
-                }
-            } else {
-                NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getGroup by ID failed, unable to find the group " + groupId);
-            }
+        Group group = groupsById.get(groupId);
+        if (group != null || isMissing(missingGroupIds, groupId)) {
+            groupCacheHits.incrementAndGet();
             return group;
         }
+        groupCacheMisses.incrementAndGet();
+        return loadGroup(groupId);
+    }
+
+    /**
+     * Looks up a group without blocking on the database. Loaded groups and groups known to not exist are answered
+     * right away, otherwise the group is loaded asynchronously.
+     *
+     * @param name the name of the group
+     * @return future completed on the main thread with the group, or null if it does not exist
+     */
+    public static CompletableFuture<Group> getGroupAsync(String name) {
+        if (name == null) {
+            NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getGroupAsync failed, caller passed in null", new Exception());
+            return CompletableFuture.completedFuture(null);
+        }
+        String lower = name.toLowerCase();
+        Group group = groupsByName.get(lower);
+        if (group != null || isMissing(missingGroupNames, lower)) {
+            groupCacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(group);
+        }
+        return loadingByName.computeIfAbsent(lower, k -> {
+            groupCacheMisses.incrementAndGet();
+            return loadAsync(() -> loadGroup(name), () -> loadingByName.remove(lower));
+        });
+    }
+
+    /**
+     * Looks up a group without blocking on the database. Loaded groups and groups known to not exist are answered
+     * right away, otherwise the group is loaded asynchronously.
+     *
+     * @param groupId the id of the group
+     * @return future completed on the main thread with the group, or null if it does not exist
+     */
+    public static CompletableFuture<Group> getGroupAsync(int groupId) {
+        Group group = groupsById.get(groupId);
+        if (group != null || isMissing(missingGroupIds, groupId)) {
+            groupCacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(group);
+        }
+        return loadingById.computeIfAbsent(groupId, k -> {
+            groupCacheMisses.incrementAndGet();
+            return loadAsync(() -> loadGroup(groupId), () -> loadingById.remove(groupId));
+        });
+    }
+
+    private static Group loadGroup(String name) {
+        Group group = groupManagerDao.getGroup(name);
+        if (group != null) {
+            cacheGroup(group);
+        } else {
+            missingGroupNames.put(name.toLowerCase(), System.currentTimeMillis());
+            NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getGroup by Name failed, unable to find the group " + name);
+        }
+        return group;
+    }
+
+    private static Group loadGroup(int groupId) {
+        Group group = groupManagerDao.getGroup(groupId);
+        if (group != null) {
+            cacheGroup(group);
+        } else {
+            missingGroupIds.put(groupId, System.currentTimeMillis());
+            NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getGroup by ID failed, unable to find the group " + groupId);
+        }
+        return group;
+    }
+
+    private static void cacheGroup(Group group) {
+        groupsByName.put(group.getName().toLowerCase(), group);
+        missingGroupNames.remove(group.getName().toLowerCase());
+        for (int j : group.getGroupIds()) {
+            groupsById.put(j, group);
+            missingGroupIds.remove(j);
+        }
+    }
+
+    private static <K> boolean isMissing(Map<K, Long> missing, K key) {
+        Long since = missing.get(key);
+        if (since == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - since < MISSING_GROUP_CACHE_MILLIS) {
+            return true;
+        }
+        missing.remove(key, since);
+        return false;
+    }
+
+    /**
+     * Runs the given loader asynchronously and completes the returned future with its result on the main thread
+     *
+     * @param loader   loads the result, called asynchronously
+     * @param onLoaded called on the main thread right before the future is completed
+     */
+    private static <T> CompletableFuture<T> loadAsync(Supplier<T> loader, Runnable onLoaded) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        NameLayerPlugin plugin = NameLayerPlugin.getInstance();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            T result = null;
+            RuntimeException failure = null;
+            try {
+                result = loader.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            final T loaded = result;
+            final RuntimeException error = failure;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                onLoaded.run();
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(loaded);
+                }
+            });
+        });
+        return future;
     }
 
     public static boolean hasGroup(String groupName) {
@@ -369,11 +499,7 @@ public class GroupManager {
             return false;
         }
 
-        if (!groupsByName.containsKey(groupName.toLowerCase())) {
-            return (getGroup(groupName.toLowerCase()) != null);
-        } else {
-            return true;
-        }
+        return getGroup(groupName.toLowerCase()) != null;
     }
 
     /**
@@ -388,21 +514,11 @@ public class GroupManager {
             NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getSpecialCircumstance failed, caller passed in null", new Exception());
             return null;
         }
-        String lower = name.toLowerCase();
-        if (groupsByName.containsKey(lower)) {
-            return groupsByName.get(lower);
-        } else {
-            Group group = groupManagerDao.getGroup(name);
-            if (group != null) {
-                groupsByName.put(lower, group);
-                for (int j : group.getGroupIds()) {
-                    groupsById.put(j, group);
-                }
-            } else {
-                group = groupManagerDao.getGroup(NameLayerPlugin.getSpecialAdminGroup());
-            }
-            return group;
+        Group group = getGroup(name);
+        if (group == null) {
+            group = getGroup(NameLayerPlugin.getSpecialAdminGroup());
         }
+        return group;
     }
 
     /**
@@ -429,11 +545,10 @@ public class GroupManager {
     }
 
     public boolean hasAccess(Group group, UUID player, PermissionType perm) {
-        Player p = Bukkit.getPlayer(player);
-        if (p != null && (p.isOp() || p.hasPermission("namelayer.admin"))) {
-            return true;
-        }
         if (group == null || perm == null) {
+            if (isAdmin(player)) {
+                return true;
+            }
             NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "hasAccess failed, caller passed in null", new Exception());
             return false;
         }
@@ -441,14 +556,22 @@ public class GroupManager {
             group = getGroup(group.getName());
             if (group == null) {
                 //what happened? who knows?
-                return false;
+                return isAdmin(player);
             }
         }
-        return hasPlayerInheritsPerms(group, player, perm);
+        // admins are only checked if regular permissions don't grant access, as most checks succeed regularly
+        return hasPlayerInheritsPerms(group, player, perm) || isAdmin(player);
+    }
+
+    private static boolean isAdmin(UUID player) {
+        Player p = Bukkit.getPlayer(player);
+        return p != null && (p.isOp() || p.hasPermission("namelayer.admin"));
     }
 
     /**
-     * Checks if a player has a permission in a group or one of its parent groups
+     * Checks if a player has a permission in a group or one of its parent groups. The permissions of a player are
+     * resolved once for all parent groups and then cached in the group, until a membership, permission or link of
+     * the group or one of its parents changes
      *
      * @param group  the group, and its parents etc to check
      * @param player the player
@@ -456,14 +579,39 @@ public class GroupManager {
      * @return if the player has the specified permission in a group or one of its parents
      */
     private boolean hasPlayerInheritsPerms(Group group, UUID player, PermissionType perm) {
+        long[] resolved = group.getResolvedPermissions(player);
+        if (resolved == null) {
+            int version = group.getPermissionCacheVersion();
+            resolved = resolvePermissions(group, player);
+            group.cacheResolvedPermissions(player, resolved, version);
+        }
+        return GroupPermission.isSet(resolved, perm);
+    }
+
+    private long[] resolvePermissions(Group group, UUID player) {
+        long[] resolved = new long[0];
         while (group != null) {
             PlayerType type = group.getPlayerType(player);
-            if (type != null && getPermissionforGroup(group).hasPermission(type, perm)) {
-                return true;
+            if (type != null) {
+                resolved = GroupPermission.union(resolved, getPermissionforGroup(group).getPermissionBits(type));
             }
             group = group.getSuperGroup();
         }
-        return false;
+        return resolved;
+    }
+
+    /**
+     * Drops the cached permissions of a player in the given group and all its subgroups, if the group is loaded.
+     * Must be called whenever anything affecting the player type of the player in the group changes
+     *
+     * @param groupName name of the group
+     * @param player    the player
+     */
+    public static void invalidatePermissionCache(String groupName, UUID player) {
+        Group group = groupsByName.get(groupName.toLowerCase());
+        if (group != null) {
+            group.invalidatePermissionCache(player);
+        }
     }
 
     // == PERMISSION HANDLING ============================================================= //
@@ -481,7 +629,134 @@ public class GroupManager {
             NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getAllGroupNames failed, caller passed in null", new Exception());
             return new ArrayList<>();
         }
-        return groupManagerDao.getGroupNames(uuid);
+        List<String> names = groupNamesByPlayer.get(uuid);
+        if (names != null) {
+            groupNameCacheHits.incrementAndGet();
+            return new ArrayList<>(names);
+        }
+        groupNameCacheMisses.incrementAndGet();
+        return new ArrayList<>(loadGroupNames(uuid));
+    }
+
+    /**
+     * Looks up the names of all groups a player is a member of without blocking on the database, if they are not
+     * cached yet.
+     *
+     * @param uuid the player
+     * @return future completed on the main thread with the names of all groups the player is a member of
+     */
+    public CompletableFuture<List<String>> getAllGroupNamesAsync(UUID uuid) {
+        if (uuid == null) {
+            NameLayerPlugin.getInstance().getLogger().log(Level.INFO, "getAllGroupNamesAsync failed, caller passed in null", new Exception());
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        List<String> names = groupNamesByPlayer.get(uuid);
+        if (names != null) {
+            groupNameCacheHits.incrementAndGet();
+            return CompletableFuture.completedFuture(new ArrayList<>(names));
+        }
+        groupNameCacheMisses.incrementAndGet();
+        return loadAsync(() -> new ArrayList<>(loadGroupNames(uuid)), () -> {});
+    }
+
+    private static List<String> loadGroupNames(UUID uuid) {
+        int version = groupNamesVersion.get();
+        List<String> loaded = groupManagerDao.getGroupNames(uuid);
+        if (loaded == null) {
+            // failed queries are not cached, so they are looked up again next time
+            return List.of();
+        }
+        List<String> names = List.copyOf(loaded);
+        if (groupNamesVersion.get() == version) {
+            groupNamesByPlayer.put(uuid, names);
+            if (groupNamesVersion.get() != version) {
+                groupNamesByPlayer.remove(uuid, names);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Loads the names of all groups a player is a member of and those groups themselves into the cache. Blocks on the
+     * database, so should only be called asynchronously, for example while the player is logging in
+     *
+     * @param uuid the player
+     */
+    public void preloadPlayer(UUID uuid) {
+        for (String name : loadGroupNames(uuid)) {
+            if (!groupsByName.containsKey(name.toLowerCase())) {
+                loadGroup(name);
+            }
+        }
+    }
+
+    /**
+     * Updates the cached group names of a player after they joined or left a group
+     *
+     * @param uuid      the player
+     * @param groupName the name of the group
+     * @param member    whether the player is now a member of the group
+     */
+    public static void updateCachedGroupNames(UUID uuid, String groupName, boolean member) {
+        groupNamesVersion.incrementAndGet();
+        membershipVersion.incrementAndGet();
+        groupNamesByPlayer.computeIfPresent(uuid, (k, names) -> {
+            List<String> updated = new ArrayList<>(names);
+            updated.removeIf(name -> name.equalsIgnoreCase(groupName));
+            if (member) {
+                updated.add(groupName);
+            }
+            return List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Drops the cached group names of the given player, for example once they left the server
+     *
+     * @param uuid the player
+     */
+    public static void forgetGroupNames(UUID uuid) {
+        groupNamesVersion.incrementAndGet();
+        groupNamesByPlayer.remove(uuid);
+    }
+
+    /**
+     * Drops the cached group names of the given players
+     *
+     * @param uuids the players
+     */
+    public static void forgetGroupNames(Collection<UUID> uuids) {
+        groupNamesVersion.incrementAndGet();
+        membershipVersion.incrementAndGet();
+        for (UUID uuid : uuids) {
+            groupNamesByPlayer.remove(uuid);
+        }
+    }
+
+    /**
+     * Allows caching anything derived from group memberships. The version changes whenever a player joined or left
+     * a group, or the members of a group were reloaded or dropped.
+     *
+     * @return the current membership version
+     */
+    public static int getMembershipVersion() {
+        return membershipVersion.get();
+    }
+
+    public static long getGroupCacheHits() {
+        return groupCacheHits.get();
+    }
+
+    public static long getGroupCacheMisses() {
+        return groupCacheMisses.get();
+    }
+
+    public static long getGroupNameCacheHits() {
+        return groupNameCacheHits.get();
+    }
+
+    public static long getGroupNameCacheMisses() {
+        return groupNameCacheMisses.get();
     }
 
     private void initiateDefaultPerms(Integer groupId) {
@@ -521,6 +796,10 @@ public class GroupManager {
         Group g = groupsByName.get(group.toLowerCase());
         if (g != null) {
             g.setValid(false);
+            // subgroups still reference this instance as their supergroup
+            g.invalidatePermissionCache();
+            // the group may have been renamed or merged into another one
+            forgetGroupNames(g.getAllMembers());
             List<Integer> k = g.getGroupIds();
             groupsByName.remove(group.toLowerCase());
             NameLayerPlugin.getBlackList().removeFromCache(g.getName());
@@ -6,6 +6,7 @@ import co.aikar.commands.annotation.Description;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
+import vg.civcraft.mc.namelayer.GroupManager;
 import vg.civcraft.mc.namelayer.NameLayerPlugin;
 import vg.civcraft.mc.namelayer.command.BaseCommandMiddle;
 
@@ -21,6 +22,10 @@ public class GlobalStats extends BaseCommandMiddle {
             public void run() {
                 int count = NameLayerPlugin.getGroupManagerDao().countGroups();
                 sender.sendMessage(ChatColor.GREEN + "The amount of groups are: " + count);
+                sender.sendMessage(ChatColor.GREEN + "Group cache hits: " + GroupManager.getGroupCacheHits()
+                    + ", misses: " + GroupManager.getGroupCacheMisses());
+                sender.sendMessage(ChatColor.GREEN + "Group name cache hits: " + GroupManager.getGroupNameCacheHits()
+                    + ", misses: " + GroupManager.getGroupNameCacheMisses());
             }
 
         });
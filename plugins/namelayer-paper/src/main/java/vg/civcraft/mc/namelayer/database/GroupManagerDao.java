@@ -605,6 +605,10 @@ public class GroupManagerDao {
         return g;
     }
 
+    /**
+     * @param uuid the player
+     * @return names of all groups the player is a member of, or null if they could not be retrieved
+     */
     public List<String> getGroupNames(UUID uuid) {
         List<String> groups = new ArrayList<String>();
         try (Connection connection = db.getConnection();
@@ -616,9 +620,11 @@ public class GroupManagerDao {
                 }
             } catch (SQLException e) {
                 logger.log(Level.WARNING, "Problem getting player's groups " + uuid, e);
+                return null;
             }
         } catch (SQLException e) {
             logger.log(Level.WARNING, "Problem preparing to get player's groups " + uuid, e);
+            return null;
         }
         return groups;
     }
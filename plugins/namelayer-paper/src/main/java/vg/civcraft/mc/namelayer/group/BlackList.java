@@ -5,6 +5,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import vg.civcraft.mc.namelayer.GroupManager;
 import vg.civcraft.mc.namelayer.NameLayerPlugin;
 
 public class BlackList {
@@ -64,6 +65,7 @@ public class BlackList {
         }
         if (ids != null && !ids.contains(uuid)) {
             ids.add(uuid);
+            GroupManager.invalidatePermissionCache(groupName, uuid);
             if (writeToDb) {
                 NameLayerPlugin.getGroupManagerDao().addBlackListMember(groupName, uuid);
             }
@@ -82,6 +84,7 @@ public class BlackList {
         }
         if (ids != null && ids.contains(uuid)) {
             ids.remove(uuid);
+            GroupManager.invalidatePermissionCache(groupName, uuid);
             if (writeToDb) {
                 NameLayerPlugin.getGroupManagerDao().removeBlackListMember(groupName, uuid);
             }
@@ -11,11 +11,14 @@ import vg.civcraft.mc.namelayer.NameLayerPlugin;
 import vg.civcraft.mc.namelayer.database.GroupManagerDao;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 public class Group {
@@ -35,6 +38,10 @@ public class Group {
     private Map<UUID, PlayerType> players = Maps.<UUID, PlayerType>newHashMap();
     private Map<UUID, PlayerType> invites = Maps.<UUID, PlayerType>newHashMap();
     private long activityTimestamp;
+    // permission bitsets of players with all supergroups already resolved, see GroupManager.hasAccess()
+    private Map<UUID, long[]> resolvedPermissions = Maps.newConcurrentMap();
+    // incremented on every invalidation, so results resolved concurrently to one are not cached
+    private AtomicInteger permissionCacheVersion = new AtomicInteger();
 
     public Group(String name, UUID owner, boolean disciplined,
                  String password, int id, long activityTimestamp) {
@@ -407,6 +414,8 @@ public class Group {
             db.addMember(uuid, name, type);
         }
         players.put(uuid, type);
+        invalidatePermissionCache(uuid);
+        GroupManager.updateCachedGroupNames(uuid, name, true);
     }
 
     /**
@@ -423,6 +432,8 @@ public class Group {
             db.removeMember(uuid, name);
         }
         players.remove(uuid);
+        invalidatePermissionCache(uuid);
+        GroupManager.updateCachedGroupNames(uuid, name, false);
     }
 
     public void removeAllMembers() {
@@ -433,7 +444,9 @@ public class Group {
         if (savetodb) {
             db.removeAllMembers(this.name);
         }
+        GroupManager.forgetGroupNames(players.keySet());
         players.clear();
+        invalidatePermissionCache();
     }
 
     /**
@@ -463,6 +476,7 @@ public class Group {
         if (!supergroup.hasSubGroup(subgroup)) {
             supergroup.subgroups.add(subgroup);
         }
+        subgroup.invalidatePermissionCache();
         if (saveToDb) {
             db.addSubGroup(supergroup.getName(), subgroup.getName());
         }
@@ -491,6 +505,7 @@ public class Group {
         if (supergroup.hasSubGroup(subgroup)) {
             supergroup.subgroups.remove(subgroup);
         }
+        subgroup.invalidatePermissionCache();
 
         if (savetodb) {
             db.removeSubGroup(supergroup.getName(), subgroup.getName());
@@ -609,6 +624,76 @@ public class Group {
         return new ArrayList<Integer>(this.ids);
     }
 
+    // == PERMISSION CACHE ================================================================ //
+
+    /**
+     * @param uuid- The UUID of the player.
+     * @return Bitset of the ids of all permissions the player has in this group or its supergroups, null if not
+     * resolved yet
+     */
+    @Nullable
+    public long[] getResolvedPermissions(UUID uuid) {
+        return resolvedPermissions.get(uuid);
+    }
+
+    /**
+     * @return Version to pass to {@link #cacheResolvedPermissions(UUID, long[], int)}, must be retrieved before
+     * resolving permissions
+     */
+    public int getPermissionCacheVersion() {
+        return permissionCacheVersion.get();
+    }
+
+    /**
+     * Caches the resolved permissions of a player, unless the cache was invalidated since the given version was
+     * retrieved
+     *
+     * @param uuid-        The UUID of the player.
+     * @param permissions- Bitset of the ids of all permissions the player has.
+     * @param version-     Version of the cache from before permissions were resolved.
+     */
+    public void cacheResolvedPermissions(UUID uuid, long[] permissions, int version) {
+        if (permissionCacheVersion.get() != version) {
+            return;
+        }
+        resolvedPermissions.put(uuid, permissions);
+        if (permissionCacheVersion.get() != version) {
+            // invalidated while putting
+            resolvedPermissions.remove(uuid, permissions);
+        }
+    }
+
+    /**
+     * Drops the resolved permissions of all players in this group and all of its subgroups.
+     */
+    public void invalidatePermissionCache() {
+        invalidatePermissionCache(null, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    /**
+     * Drops the resolved permissions of a player in this group and all of its subgroups.
+     *
+     * @param uuid- The UUID of the player.
+     */
+    public void invalidatePermissionCache(UUID uuid) {
+        invalidatePermissionCache(uuid, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private void invalidatePermissionCache(@Nullable UUID uuid, Set<Group> visited) {
+        if (!visited.add(this)) {
+            return;
+        }
+        permissionCacheVersion.incrementAndGet();
+        if (uuid == null) {
+            resolvedPermissions.clear();
+        } else {
+            resolvedPermissions.remove(uuid);
+        }
+        for (Group subgroup : subgroups) {
+            subgroup.invalidatePermissionCache(uuid, visited);
+        }
+    }
+
     // == SETTERS ========================================================================= //
 
     /**
@@ -11,7 +11,9 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import vg.civcraft.mc.namelayer.GroupManager;
 import vg.civcraft.mc.namelayer.NameAPI;
 import vg.civcraft.mc.namelayer.NameLayerPlugin;
@@ -22,6 +24,20 @@ public class PlayerListener implements Listener {
 
     private static Map<UUID, Set<Group>> notifications = new HashMap<>();
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        // already async, so load the groups of the player now instead of on the main thread once they are needed
+        NameAPI.getGroupManager().preloadPlayer(event.getUniqueId());
+    }
+
+    @EventHandler
+    public void playerQuit(PlayerQuitEvent event) {
+        GroupManager.forgetGroupNames(event.getPlayer().getUniqueId());
+    }
+
     @EventHandler(priority = EventPriority.LOWEST)
     public void playerJoinEvent(PlayerJoinEvent event) {
         Player p = event.getPlayer();
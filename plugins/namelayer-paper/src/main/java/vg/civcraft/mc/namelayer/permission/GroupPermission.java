@@ -1,7 +1,9 @@
 package vg.civcraft.mc.namelayer.permission;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import vg.civcraft.mc.namelayer.GroupManager.PlayerType;
@@ -11,7 +13,11 @@ import vg.civcraft.mc.namelayer.group.Group;
 
 public class GroupPermission {
 
+    private static final long[] NO_PERMISSIONS = new long[0];
+
     private Map<PlayerType, List<PermissionType>> perms;
+    // ids of the permissions of each player type as bitset, replaced whenever permissions change
+    private Map<PlayerType, long[]> permBits = new EnumMap<>(PlayerType.class);
     private GroupManagerDao db = NameLayerPlugin.getGroupManagerDao();
 
     private Group group;
@@ -26,7 +32,69 @@ public class GroupPermission {
         //to save ourselves from trouble later, we ensure that every perm type has at least an empty list
         for (PlayerType pType : PlayerType.values()) {
             perms.computeIfAbsent(pType, k -> new ArrayList<>());
+            updatePermBits(pType);
+        }
+    }
+
+    private void updatePermBits(PlayerType pType) {
+        long[] bits = NO_PERMISSIONS;
+        for (PermissionType perm : perms.get(pType)) {
+            if (perm != null) {
+                bits = withPermission(bits, perm.getId());
+            }
+        }
+        permBits.put(pType, bits);
+    }
+
+    private static long[] withPermission(long[] bits, int id) {
+        int index = id >>> 6;
+        if (index >= bits.length) {
+            bits = Arrays.copyOf(bits, index + 1);
+        }
+        bits[index] |= 1L << id;
+        return bits;
+    }
+
+    /**
+     * @param bits Bitset of permission ids
+     * @param perm Permission to check for
+     * @return Whether the id of the given permission is set in the given bitset
+     */
+    public static boolean isSet(long[] bits, PermissionType perm) {
+        int index = perm.getId() >>> 6;
+        return index < bits.length && (bits[index] & (1L << perm.getId())) != 0;
+    }
+
+    /**
+     * Combines two bitsets of permission ids without modifying either of them
+     *
+     * @param a First bitset
+     * @param b Second bitset
+     * @return Bitset containing all permissions contained in either of the given ones
+     */
+    public static long[] union(long[] a, long[] b) {
+        if (a.length < b.length) {
+            long[] tmp = a;
+            a = b;
+            b = tmp;
         }
+        if (b.length == 0) {
+            return a;
+        }
+        long[] result = a.clone();
+        for (int i = 0; i < b.length; i++) {
+            result[i] |= b[i];
+        }
+        return result;
+    }
+
+    /**
+     * @param playerType The PlayerType in question.
+     * @return Bitset of the ids of all permissions the given PlayerType has, which must not be modified
+     */
+    public long[] getPermissionBits(PlayerType playerType) {
+        long[] bits = permBits.get(playerType);
+        return bits == null ? NO_PERMISSIONS : bits;
     }
 
     /**
@@ -40,14 +108,7 @@ public class GroupPermission {
         if (playerType == null || perm == null) {
             return false;
         }
-        List<PermissionType> per = perms.get(playerType);
-        if (per == null || per.isEmpty()) {
-            return false;
-        }
-        if (per.contains(perm)) {
-            return true;
-        }
-        return false;
+        return isSet(getPermissionBits(playerType), perm);
     }
 
     /**
@@ -83,6 +144,8 @@ public class GroupPermission {
             return false;
         }
         playerPerms.add(permType);
+        updatePermBits(pType);
+        group.invalidatePermissionCache();
         if (savetodb) {
             db.addPermission(group.getName(), pType.name(), Collections.singletonList(permType));
         }
@@ -106,6 +169,8 @@ public class GroupPermission {
             return false;
         }
         playerPerms.remove(permType);
+        updatePermBits(pType);
+        group.invalidatePermissionCache();
         if (savetodb) {
             db.removePermissionAsync(group.getName(), pType, permType);
         }
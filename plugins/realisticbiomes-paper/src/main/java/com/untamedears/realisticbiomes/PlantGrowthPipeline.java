@@ -0,0 +1,179 @@
+package com.untamedears.realisticbiomes;
+
+import com.untamedears.realisticbiomes.growthconfig.PlantGrowthConfig;
+import com.untamedears.realisticbiomes.model.Plant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import vg.civcraft.mc.civmodcore.world.WorldUtils;
+import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.CacheState;
+
+/**
+ * Updates the growth of many plants at once, for example all plants in a chunk
+ * which was just loaded, in two phases.
+ * <p>
+ * First the growth time of each plant, which depends on biome, soil and light,
+ * is calculated on worker threads based on snapshots of the chunks the plants
+ * are in. Afterwards the resulting growth stages are applied to the world on the
+ * main thread, spread over several ticks with a limit of updates per tick
+ */
+public class PlantGrowthPipeline {
+
+    private record ChunkKey(World world, int x, int z) {
+
+    }
+
+    /**
+     * State of a plant at the time its chunk was snapshotted
+     */
+    private record PlantSnapshot(Plant plant, PlantGrowthConfig growthConfig, long creationTime, int x, int y, int z) {
+
+    }
+
+    private record GrowthResult(PlantSnapshot snapshot, long growthTime) {
+
+    }
+
+    private final PlantLogicManager logicManager;
+    private final int maxUpdatesPerTick;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<GrowthResult> results;
+    private final AtomicInteger pendingResults;
+    private final int applyTaskId;
+
+    /**
+     * @param logicManager      Logic manager to update plants with, whose growth
+     *                          time can not be calculated from a snapshot
+     * @param threads           Amount of worker threads calculating growth times
+     * @param maxUpdatesPerTick Maximum amount of plants whose growth is applied to
+     *                          the world per tick
+     */
+    public PlantGrowthPipeline(PlantLogicManager logicManager, int threads, int maxUpdatesPerTick) {
+        this.logicManager = logicManager;
+        this.maxUpdatesPerTick = maxUpdatesPerTick;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "RealisticBiomes growth " + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.results = new ConcurrentLinkedQueue<>();
+        this.pendingResults = new AtomicInteger();
+        this.applyTaskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(RealisticBiomes.getInstance(),
+            this::applyResults, 1L, 1L);
+    }
+
+    /**
+     * Snapshots the chunks of the given plants and queues their growth time to be
+     * calculated. Must be called from the main thread
+     *
+     * @param plants Plants to update
+     */
+    public void submit(Collection<Plant> plants) {
+        Map<ChunkKey, List<Plant>> plantsByChunk = new HashMap<>();
+        for (Plant plant : plants) {
+            if (plant.getCacheState() == CacheState.DELETED) {
+                continue;
+            }
+            PlantGrowthConfig growthConfig = plant.getGrowthConfig();
+            Location location = plant.getLocation();
+            if (growthConfig == null || !growthConfig.isPersistent()) {
+                // needs a fallback config based on the current block, which is cheap enough to do right away
+                logicManager.updateGrowthTime(plant, location.getBlock());
+                continue;
+            }
+            ChunkKey key = new ChunkKey(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+            plantsByChunk.computeIfAbsent(key, k -> new ArrayList<>()).add(plant);
+        }
+        for (Map.Entry<ChunkKey, List<Plant>> entry : plantsByChunk.entrySet()) {
+            ChunkKey key = entry.getKey();
+            if (!WorldUtils.isChunkLoaded(key.world(), key.x(), key.z())) {
+                // plants are updated again once the chunk is loaded
+                continue;
+            }
+            ChunkSnapshot chunk = key.world().getChunkAt(key.x(), key.z()).getChunkSnapshot(false, true, false);
+            int minY = key.world().getMinHeight();
+            int maxY = key.world().getMaxHeight();
+            List<PlantSnapshot> snapshots = new ArrayList<>(entry.getValue().size());
+            for (Plant plant : entry.getValue()) {
+                Location location = plant.getLocation();
+                snapshots.add(new PlantSnapshot(plant, plant.getGrowthConfig(), plant.getCreationTime(),
+                    location.getBlockX() & 15, location.getBlockY(), location.getBlockZ() & 15));
+            }
+            pendingResults.addAndGet(snapshots.size());
+            executor.execute(() -> calculate(chunk, minY, maxY, snapshots));
+        }
+    }
+
+    private void calculate(ChunkSnapshot chunk, int minY, int maxY, List<PlantSnapshot> snapshots) {
+        for (PlantSnapshot snapshot : snapshots) {
+            long growthTime;
+            try {
+                growthTime = snapshot.growthConfig().getPersistentGrowthTime(chunk, snapshot.x(), snapshot.y(),
+                    snapshot.z(), minY, maxY);
+            } catch (RuntimeException e) {
+                RealisticBiomes.getInstance().getLogger().log(Level.WARNING,
+                    "Failed to calculate growth time for " + snapshot.plant(), e);
+                growthTime = PlantGrowthConfig.UNKNOWN_GROWTH_TIME;
+            }
+            results.add(new GrowthResult(snapshot, growthTime));
+        }
+    }
+
+    private void applyResults() {
+        GrowthResult result;
+        int budget = maxUpdatesPerTick;
+        while (budget-- > 0 && (result = results.poll()) != null) {
+            pendingResults.decrementAndGet();
+            PlantSnapshot snapshot = result.snapshot();
+            Plant plant = snapshot.plant();
+            if (plant.getCacheState() == CacheState.DELETED) {
+                continue;
+            }
+            Location location = plant.getLocation();
+            if (!WorldUtils.isChunkLoaded(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                continue;
+            }
+            Block block = location.getBlock();
+            if (result.growthTime() == PlantGrowthConfig.UNKNOWN_GROWTH_TIME
+                || plant.getGrowthConfig() != snapshot.growthConfig()
+                || plant.getCreationTime() != snapshot.creationTime()) {
+                // changed since the snapshot or depends on neighbouring chunks
+                logicManager.updateGrowthTime(plant, block);
+                continue;
+            }
+            plant.setNextGrowthTime(snapshot.growthConfig().updatePlant(plant, block, result.growthTime()));
+        }
+    }
+
+    /**
+     * @return Amount of plants whose growth was submitted, but not applied yet
+     */
+    public int getPendingCount() {
+        return pendingResults.get();
+    }
+
+    /**
+     * Stops calculating growth times. Plants not updated yet are updated the next
+     * time their chunk is loaded
+     */
+    public void shutDown() {
+        Bukkit.getScheduler().cancelTask(applyTaskId);
+        executor.shutdownNow();
+        results.clear();
+        pendingResults.set(0);
+    }
+
+}
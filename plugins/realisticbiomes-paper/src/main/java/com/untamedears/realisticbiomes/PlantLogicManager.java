@@ -7,6 +7,7 @@ import com.untamedears.realisticbiomes.growth.VerticalGrower;
 import com.untamedears.realisticbiomes.growthconfig.PlantGrowthConfig;
 import com.untamedears.realisticbiomes.model.Plant;
 import com.untamedears.realisticbiomes.utils.RBUtils;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import org.bukkit.Material;
@@ -14,6 +15,7 @@ import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.inventory.ItemStack;
 import vg.civcraft.mc.civmodcore.world.WorldUtils;
+import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.CacheState;
 
 public class PlantLogicManager {
 
@@ -21,11 +23,29 @@ public class PlantLogicManager {
     private GrowthConfigManager growthConfigManager;
     private Set<Material> fruitBlocks;
     private Set<Material> columnBlocks;
-
-    public PlantLogicManager(PlantManager plantManager, GrowthConfigManager growthConfigManager) {
+    private PlantGrowthPipeline growthPipeline;
+
+    /**
+     * @param plantManager            Plant manager, null if there is no persistent growth
+     * @param growthConfigManager     Manager holding all growth configs
+     * @param growthThreads           Amount of threads calculating the growth of many plants
+     *                                at once, 0 to do so on the main thread
+     * @param maxGrowthUpdatesPerTick Maximum amount of plants whose calculated growth is applied per tick
+     */
+    public PlantLogicManager(PlantManager plantManager, GrowthConfigManager growthConfigManager, int growthThreads,
+                             int maxGrowthUpdatesPerTick) {
         this.plantManager = plantManager;
         this.growthConfigManager = growthConfigManager;
         initAdjacentPlantBlocks(growthConfigManager.getAllGrowthConfigs());
+        if (plantManager != null && growthThreads > 0) {
+            this.growthPipeline = new PlantGrowthPipeline(this, growthThreads, maxGrowthUpdatesPerTick);
+        }
+    }
+
+    public void shutDown() {
+        if (growthPipeline != null) {
+            growthPipeline.shutDown();
+        }
     }
 
     public void handleCactusPhysics(Block cactusBlock) {
@@ -279,6 +299,26 @@ public class PlantLogicManager {
         return block;
     }
 
+    /**
+     * Updates the growth of many plants at once, for example all plants in a chunk
+     * which was just loaded. Unless disabled, growth is calculated asynchronously
+     * and applied over the next ticks
+     *
+     * @param plants Plants to update
+     */
+    public void updateGrowthTimes(Collection<Plant> plants) {
+        if (growthPipeline != null) {
+            growthPipeline.submit(plants);
+            return;
+        }
+        for (Plant plant : plants) {
+            if (plant.getCacheState() == CacheState.DELETED) {
+                continue;
+            }
+            updateGrowthTime(plant, plant.getLocation().getBlock());
+        }
+    }
+
     public void updateGrowthTime(Plant plant, Block block) {
         PlantGrowthConfig growthConfig = plant.getGrowthConfig();
         if (growthConfig == null) {
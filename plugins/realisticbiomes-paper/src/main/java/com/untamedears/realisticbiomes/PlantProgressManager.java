@@ -11,8 +11,13 @@ public class PlantProgressManager {
 
     private ProgressTracker<RBChunkCache> tracker;
 
-    public PlantProgressManager() {
-        this.tracker = new ProgressTracker<>();
+    /**
+     * @param maxChunkUpdatesPerTick Maximum amount of chunks whose plants are
+     *                               updated per tick, 0 if unlimited. Chunks over
+     *                               the limit are updated in the following ticks
+     */
+    public PlantProgressManager(int maxChunkUpdatesPerTick) {
+        this.tracker = new ProgressTracker<>(maxChunkUpdatesPerTick);
         Bukkit.getScheduler().scheduleSyncRepeatingTask(RealisticBiomes.getInstance(), this::processUpdates, 1L, 1L);
     }
 
@@ -28,6 +33,21 @@ public class PlantProgressManager {
         tracker.removeItem(cache);
     }
 
+    /**
+     * @return Total amount of chunk updates done so far
+     */
+    public long getProcessedCount() {
+        return tracker.getProcessedCount();
+    }
+
+    /**
+     * @return Total amount of times a due chunk update was postponed to the next
+     * tick, because the limit per tick was reached
+     */
+    public long getDeferredCount() {
+        return tracker.getDeferredCount();
+    }
+
     public void updateTime(RBChunkCache cache, long time) {
         tracker.updateItem(cache, time);
         cache.updateInternalProgressTime(time);
@@ -68,6 +68,10 @@ public class RBConfigManager extends ConfigParser {
 
     private List<Material> bonemealPreventedBlocks;
 
+    private int maxChunkUpdatesPerTick;
+    private int growthThreads;
+    private int maxGrowthUpdatesPerTick;
+
     public RBConfigManager(ACivMod plugin) {
         super(plugin);
     }
@@ -88,6 +92,28 @@ public class RBConfigManager extends ConfigParser {
         return hasPersistentGrowth;
     }
 
+    /**
+     * @return Maximum amount of chunks whose plants are updated per tick, 0 if unlimited
+     */
+    public int getMaxChunkUpdatesPerTick() {
+        return maxChunkUpdatesPerTick;
+    }
+
+    /**
+     * @return Amount of threads calculating the growth of many plants at once, 0 if
+     * it is calculated on the main thread
+     */
+    public int getGrowthThreads() {
+        return growthThreads;
+    }
+
+    /**
+     * @return Maximum amount of plants whose asynchronously calculated growth is applied per tick
+     */
+    public int getMaxGrowthUpdatesPerTick() {
+        return maxGrowthUpdatesPerTick;
+    }
+
     private Map<String, List<Biome>> loadBiomeAliases(ConfigurationSection config) {
         Map<String, List<Biome>> result = new HashMap<>();
         if (config == null) {
@@ -135,6 +161,9 @@ public class RBConfigManager extends ConfigParser {
         List<LStepConfig> rawConfigs = parseRawLStepConfigs(config.getConfigurationSection("l_steps"));
         lTrees = parseLTrees(config.getConfigurationSection("l_trees"), rawConfigs);
         bonemealPreventedBlocks = parseMaterialList(config, "no_bonemeal_blocks");
+        maxChunkUpdatesPerTick = Math.max(0, config.getInt("max_chunk_updates_per_tick", 0));
+        growthThreads = Math.max(0, config.getInt("growth_threads", 2));
+        maxGrowthUpdatesPerTick = Math.max(1, config.getInt("max_growth_updates_per_tick", 500));
         return true;
     }
 
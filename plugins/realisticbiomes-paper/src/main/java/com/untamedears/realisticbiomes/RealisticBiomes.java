@@ -62,6 +62,9 @@ public class RealisticBiomes extends ACivMod {
 
     @Override
     public void onDisable() {
+        if (plantLogicManager != null) {
+            plantLogicManager.shutDown();
+        }
         dao.setBatchMode(true);
         if (plantManager != null) {
             plantManager.shutDown();
@@ -85,7 +88,7 @@ public class RealisticBiomes extends ACivMod {
                 Bukkit.shutdown();
                 return;
             }
-            plantProgressManager = new PlantProgressManager();
+            plantProgressManager = new PlantProgressManager(configManager.getMaxChunkUpdatesPerTick());
             BlockBasedChunkMetaView<RBChunkCache, TableBasedDataObject, TableStorageEngine<Plant>> chunkMetaData = ChunkMetaAPI
                 .registerBlockBasedPlugin(this, () -> {
                     return new RBChunkCache(false, dao);
@@ -97,7 +100,8 @@ public class RealisticBiomes extends ACivMod {
             }
             plantManager = new PlantManager(chunkMetaData);
         }
-        plantLogicManager = new PlantLogicManager(plantManager, growthConfigManager);
+        plantLogicManager = new PlantLogicManager(plantManager, growthConfigManager, configManager.getGrowthThreads(),
+            configManager.getMaxGrowthUpdatesPerTick());
         commandManager = new RBCommandManager(this);
         registerListeners();
     }
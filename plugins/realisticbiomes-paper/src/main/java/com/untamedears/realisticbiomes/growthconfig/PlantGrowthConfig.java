@@ -13,7 +13,9 @@ import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.bukkit.ChatColor;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Material;
+import org.bukkit.block.Biome;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
@@ -32,6 +34,11 @@ public class PlantGrowthConfig extends AbstractGrowthConfig {
 
     private static final SetStageResult NO_NEXT_UPDATE = new SetStageResult(0, 0, 0, Long.MAX_VALUE);
 
+    /**
+     * Returned instead of a growth time if it can not be calculated from a chunk snapshot alone
+     */
+    public static final long UNKNOWN_GROWTH_TIME = -2;
+
     private static Random rng = new Random();
     private static final byte MAX_LIGHT = 15;
     private static final long INFINITE_TIME = TimeUnit.DAYS.toMillis(365L * 1000L);
@@ -157,6 +164,42 @@ public class PlantGrowthConfig extends AbstractGrowthConfig {
         return Math.max(greenHouseRate, naturalRate);
     }
 
+    /**
+     * Same as {@link #getLightMultiplier(Block)}, but based on a chunk snapshot
+     *
+     * @return Multiplier to apply to growth rate or -1 if blocks outside the
+     * snapshot would be needed
+     */
+    private double getLightMultiplier(ChunkSnapshot chunk, int x, int y, int z, int minY, int maxY) {
+        if (!needsLight) {
+            return 1.0;
+        }
+        int naturalLight = chunk.getBlockSkyLight(x, y, z);
+        if (naturalLight == MAX_LIGHT) {
+            return 1.0;
+        }
+        double naturalRate = Math.pow((double) naturalLight / (double) MAX_LIGHT, 2);
+        double greenHouseRate = 0.0;
+        if (chunk.getBlockEmittedLight(x, y, z) >= 12) {
+            for (BlockFace face : WorldUtils.ALL_SIDES) {
+                int adjacentX = x + face.getModX();
+                int adjacentY = y + face.getModY();
+                int adjacentZ = z + face.getModZ();
+                if (adjacentX < 0 || adjacentX > 15 || adjacentZ < 0 || adjacentZ > 15) {
+                    return -1;
+                }
+                if (adjacentY < minY || adjacentY >= maxY) {
+                    continue;
+                }
+                Double multiplier = greenHouseRates.get(chunk.getBlockType(adjacentX, adjacentY, adjacentZ));
+                if (multiplier != null) {
+                    greenHouseRate = Math.max(greenHouseRate, multiplier);
+                }
+            }
+        }
+        return Math.max(greenHouseRate, naturalRate);
+    }
+
     /**
      * @return Item/Plant for which this config applies
      */
@@ -244,6 +287,39 @@ public class PlantGrowthConfig extends AbstractGrowthConfig {
         return (long) baseTime;
     }
 
+    /**
+     * Same as {@link #getPersistentGrowthTime(Block)}, but based on a snapshot of
+     * the chunk the plant is in, so it can be called from any thread
+     *
+     * @param chunk Snapshot of the chunk including biomes
+     * @param x     X-coordinate of the plant within the chunk
+     * @param y     Y-coordinate of the plant
+     * @param z     Z-coordinate of the plant within the chunk
+     * @param minY  Minimum height of the world, inclusive
+     * @param maxY  Maximum height of the world, exclusive
+     * @return Total milli seconds needed to fully grow a plant, -1 if it can not
+     * grow there or {@link #UNKNOWN_GROWTH_TIME} if blocks outside the chunk would
+     * be needed to calculate it
+     */
+    public long getPersistentGrowthTime(ChunkSnapshot chunk, int x, int y, int z, int minY, int maxY) {
+        Biome biome = chunk.getBiome(x, y, z);
+        if (!biomeGrowthConfig.canGrowIn(biome)) {
+            return -1;
+        }
+        double baseTime = ((PersistentGrowthConfig) biomeGrowthConfig).getTotalGrowthTimeNeeded(biome);
+        baseTime /= (1.0 + getSoilBonus(chunk, x, y, z, minY));
+        double lightMultiplier = getLightMultiplier(chunk, x, y, z, minY, maxY);
+        if (lightMultiplier < 0) {
+            return UNKNOWN_GROWTH_TIME;
+        }
+        if (lightMultiplier == 0.0) {
+            baseTime = INFINITE_TIME;
+        } else {
+            baseTime /= lightMultiplier;
+        }
+        return (long) baseTime;
+    }
+
     /**
      * Gets an info string regarding the growth progress of a single plant
      *
@@ -332,6 +408,39 @@ public class PlantGrowthConfig extends AbstractGrowthConfig {
         return Math.min(totalRate, maximumSoilBonus);
     }
 
+    /**
+     * Same as {@link #getSoilBonus(Block)}, but based on a chunk snapshot. Soil is
+     * always below the plant, so it is always within the snapshot
+     */
+    private double getSoilBonus(ChunkSnapshot chunk, int x, int y, int z, int minY) {
+        Material type = chunk.getBlockType(x, y, z);
+        int soilY = y + RBUtils.getVerticalSoilOffset(type);
+        double totalRate = 0.0;
+        for (int i = 0; i < maximumSoilLayers && soilY >= minY; i++) {
+            Double blockRate = soilBoniPerLevel.get(chunk.getBlockType(x, soilY, z));
+            if (blockRate == null) {
+                break;
+            }
+            totalRate += blockRate;
+            soilY--;
+        }
+        if (needsToBeWaterlogged) {
+            boolean hasWater = false;
+            if (type == Material.WATER) {
+                hasWater = true;
+            } else {
+                BlockData data = chunk.getBlockData(x, y, z);
+                if (data instanceof Waterlogged) {
+                    hasWater = ((Waterlogged) data).isWaterlogged();
+                }
+            }
+            if (!hasWater) {
+                return 0.0;
+            }
+        }
+        return Math.min(totalRate, maximumSoilBonus);
+    }
+
     /**
      * Called when natural growth attempts to grow the plant. If the plant is
      * persistent the event will always be cancelled, if not the growth succeeds
@@ -398,7 +507,22 @@ public class PlantGrowthConfig extends AbstractGrowthConfig {
         if (!biomeGrowthConfig.canGrowIn(block.getBiome())) {
             return Long.MAX_VALUE;
         }
-        long totalTime = getPersistentGrowthTime(block);
+        return updatePlant(plant, block, getPersistentGrowthTime(block));
+    }
+
+    /**
+     * Updates the world state of the plant to match its intended state based on an
+     * already calculated growth time
+     *
+     * @param plant     Plant to update, its growth config must be this one
+     * @param block     Block the plant is at
+     * @param totalTime Total milli seconds needed to fully grow the plant at the
+     *                  block or -1 if it can not grow there
+     * @return UNIX time stamp at which the plant needs to be updated next if it is
+     * still growing or Long.MAX_VALUE if it will never grow or if it is already
+     * fully grown
+     */
+    public long updatePlant(Plant plant, Block block, long totalTime) {
         if (totalTime == -1) {
             return Long.MAX_VALUE;
         }
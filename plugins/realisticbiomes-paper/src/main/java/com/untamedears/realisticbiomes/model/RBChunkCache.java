@@ -1,6 +1,8 @@
 package com.untamedears.realisticbiomes.model;
 
 import com.untamedears.realisticbiomes.RealisticBiomes;
+import java.util.ArrayList;
+import java.util.List;
 import org.bukkit.Bukkit;
 import vg.civcraft.mc.civmodcore.utilities.progress.ProgressTrackable;
 import vg.civcraft.mc.civmodcore.utilities.progress.ProgressTracker;
@@ -74,8 +76,11 @@ public class RBChunkCache extends TableBasedBlockChunkMeta<Plant> implements Pro
     public void handleChunkCacheReuse() {
         // update all plants in the chunk and reinsert them into the growth updating
         // cache
-        Bukkit.getScheduler().runTask(RealisticBiomes.getInstance(), () -> iterateAll(p -> RealisticBiomes.getInstance()
-            .getPlantLogicManager().updateGrowthTime((Plant) p, p.getLocation().getBlock())));
+        Bukkit.getScheduler().runTask(RealisticBiomes.getInstance(), () -> {
+            List<Plant> plants = new ArrayList<>();
+            iterateAll(p -> plants.add((Plant) p));
+            RealisticBiomes.getInstance().getPlantLogicManager().updateGrowthTimes(plants);
+        });
     }
 
     @Override
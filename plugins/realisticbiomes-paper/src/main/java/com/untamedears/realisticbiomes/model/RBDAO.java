@@ -12,7 +12,10 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,7 +23,6 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
 import vg.civcraft.mc.civmodcore.dao.ManagedDatasource;
-import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.CacheState;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.XZWCoord;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.BlockBasedChunkMeta;
 import vg.civcraft.mc.civmodcore.world.locations.chunkmeta.block.table.TableBasedBlockChunkMeta;
@@ -130,8 +132,6 @@ public class RBDAO extends TableStorageEngine<Plant> {
 
     @Override
     public void fill(TableBasedBlockChunkMeta<Plant> chunkData, Consumer<Plant> insertFunction) {
-        int preMultipliedX = chunkData.getChunkCoord().getX() * 16;
-        int preMultipliedZ = chunkData.getChunkCoord().getZ() * 16;
         List<Plant> toUpdate = new ArrayList<>();
         PlantLogicManager logicMan = RealisticBiomes.getInstance().getPlantLogicManager();
         GrowthConfigManager growthConfigMan = RealisticBiomes.getInstance().getGrowthConfigManager();
@@ -145,19 +145,8 @@ public class RBDAO extends TableStorageEngine<Plant> {
             selectPlant.setShort(3, chunkData.getChunkCoord().getWorldID());
             try (ResultSet rs = selectPlant.executeQuery()) {
                 while (rs.next()) {
-                    int xOffset = rs.getByte(1);
-                    int x = xOffset + preMultipliedX;
-                    int y = rs.getShort(2);
-                    int zOffset = rs.getByte(3);
-                    int z = zOffset + preMultipliedZ;
-                    Location location = new Location(world, x, y, z);
-                    long creationTime = rs.getTimestamp(4).getTime();
-                    short configId = rs.getShort(5);
-                    PlantGrowthConfig growthConfig = null;
-                    if (configId != 0) {
-                        growthConfig = growthConfigMan.getConfigById(configId);
-                    }
-                    Plant plant = new Plant(creationTime, location, false, growthConfig);
+                    Plant plant = readPlant(rs, 1, world, chunkData.getChunkCoord().getX(),
+                        chunkData.getChunkCoord().getZ(), growthConfigMan);
                     toUpdate.add(plant);
                     insertFunction.accept(plant);
                 }
@@ -165,14 +154,70 @@ public class RBDAO extends TableStorageEngine<Plant> {
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to load plant from db: ", e);
         }
-        Bukkit.getScheduler().runTask(RealisticBiomes.getInstance(), () -> {
-            for (Plant plant : toUpdate) {
-                if (plant.getCacheState() == CacheState.DELETED) {
-                    continue;
+        Bukkit.getScheduler().runTask(RealisticBiomes.getInstance(), () -> logicMan.updateGrowthTimes(toUpdate));
+    }
+
+    @Override
+    public void fillAll(List<TableBasedBlockChunkMeta<Plant>> chunkDatas,
+                        BiConsumer<TableBasedBlockChunkMeta<Plant>, Plant> insertFunction) {
+        if (chunkDatas.isEmpty()) {
+            return;
+        }
+        Map<XZWCoord, TableBasedBlockChunkMeta<Plant>> chunksByCoord = new HashMap<>();
+        for (TableBasedBlockChunkMeta<Plant> chunkData : chunkDatas) {
+            chunksByCoord.put(chunkData.getChunkCoord(), chunkData);
+        }
+        List<Plant> toUpdate = new ArrayList<>();
+        PlantLogicManager logicMan = RealisticBiomes.getInstance().getPlantLogicManager();
+        GrowthConfigManager growthConfigMan = RealisticBiomes.getInstance().getGrowthConfigManager();
+        World world = chunkDatas.get(0).getChunkCoord().getWorld();
+        short worldID = chunkDatas.get(0).getChunkCoord().getWorldID();
+        try (Connection insertConn = db.getConnection();
+             PreparedStatement selectPlant = insertConn
+                 .prepareStatement("select chunk_x, chunk_z, x_offset, y, z_offset, creation_time, type "
+                     + "from rb_plants where world_id = ? and " + chunkListCondition(chunkDatas.size()) + ";");) {
+            selectPlant.setShort(1, worldID);
+            int index = 2;
+            for (TableBasedBlockChunkMeta<Plant> chunkData : chunkDatas) {
+                selectPlant.setInt(index++, chunkData.getChunkCoord().getX());
+                selectPlant.setInt(index++, chunkData.getChunkCoord().getZ());
+            }
+            try (ResultSet rs = selectPlant.executeQuery()) {
+                while (rs.next()) {
+                    int chunkX = rs.getInt(1);
+                    int chunkZ = rs.getInt(2);
+                    TableBasedBlockChunkMeta<Plant> chunkData = chunksByCoord.get(new XZWCoord(chunkX, chunkZ, worldID));
+                    if (chunkData == null) {
+                        continue;
+                    }
+                    Plant plant = readPlant(rs, 3, world, chunkX, chunkZ, growthConfigMan);
+                    toUpdate.add(plant);
+                    insertFunction.accept(chunkData, plant);
                 }
-                logicMan.updateGrowthTime(plant, plant.getLocation().getBlock());
             }
-        });
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to load plants from db: ", e);
+        }
+        Bukkit.getScheduler().runTask(RealisticBiomes.getInstance(), () -> logicMan.updateGrowthTimes(toUpdate));
+    }
+
+    /**
+     * Reads a plant from the current row of a result set, whose columns starting
+     * at the given one are x_offset, y, z_offset, creation_time and type
+     */
+    private static Plant readPlant(ResultSet rs, int column, World world, int chunkX, int chunkZ,
+                                   GrowthConfigManager growthConfigMan) throws SQLException {
+        int x = rs.getByte(column) + chunkX * 16;
+        int y = rs.getShort(column + 1);
+        int z = rs.getByte(column + 2) + chunkZ * 16;
+        Location location = new Location(world, x, y, z);
+        long creationTime = rs.getTimestamp(column + 3).getTime();
+        short configId = rs.getShort(column + 4);
+        PlantGrowthConfig growthConfig = null;
+        if (configId != 0) {
+            growthConfig = growthConfigMan.getConfigById(configId);
+        }
+        return new Plant(creationTime, location, false, growthConfig);
     }
 
     @Override